@@ -42,7 +42,9 @@ import com.github.tomakehurst.wiremock.recording.RecordSpecBuilder;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
 import com.github.tomakehurst.wiremock.stubbing.StubMappingJsonRecorder;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCacheStats;
 import com.github.tomakehurst.wiremock.verification.*;
 
 import java.util.List;
@@ -131,17 +133,22 @@ public class WireMockServer implements Container, Stubbing, Admin {
 
 	public void enableRecordMappings(FileSource mappingsFileSource, FileSource filesFileSource) {
 	    addMockServiceRequestListener(
-                new StubMappingJsonRecorder(mappingsFileSource, filesFileSource, wireMockApp, options.matchingHeaders()));
+                new StubMappingJsonRecorder(mappingsFileSource, filesFileSource, options.matchingHeaders(), options.contentAddressedBodyFilesEnabled()));
         notifier.info("Recording mappings to " + mappingsFileSource.getPath());
 	}
 
     public void stop() {
+        wireMockApp.stopWatchingMappings();
+        wireMockApp.closeServeEventStreams();
         httpServer.stop();
+        wireMockApp.closeMappingsSaver();
+        wireMockApp.closeRequestJournal();
 	}
 
 	public void start() {
         try {
 		    httpServer.start();
+            wireMockApp.startWatchingMappings();
         } catch (Exception e) {
             throw new FatalStartupException(e);
         }
@@ -299,11 +306,26 @@ public class WireMockServer implements Container, Stubbing, Admin {
         wireMockApp.editStubMapping(stubMapping);
     }
 
+    @Override
+    public ImportStubMappingsResult importStubMappings(List<StubMapping> stubMappings) {
+        return wireMockApp.importStubMappings(stubMappings);
+    }
+
+    @Override
+    public void replaceAllStubMappings(List<StubMapping> stubMappings) {
+        wireMockApp.replaceAllStubMappings(stubMappings);
+    }
+
     @Override
     public ListStubMappingsResult listAllStubMappings() {
         return wireMockApp.listAllStubMappings();
     }
 
+    @Override
+    public ListStubMappingsResult findStubMappings(StubMappingQuery query) {
+        return wireMockApp.findStubMappings(query);
+    }
+
     @Override
     public SingleStubMappingResult getStubMapping(UUID id) {
         return wireMockApp.getStubMapping(id);
@@ -314,6 +336,16 @@ public class WireMockServer implements Container, Stubbing, Admin {
         wireMockApp.saveMappings();
     }
 
+    @Override
+    public void flushMappings() {
+        wireMockApp.flushMappings();
+    }
+
+    @Override
+    public StubMatchCacheStats getStubMatchCacheStats() {
+        return wireMockApp.getStubMatchCacheStats();
+    }
+
     @Override
     public void resetAll() {
         wireMockApp.resetAll();
@@ -334,6 +366,16 @@ public class WireMockServer implements Container, Stubbing, Admin {
         return wireMockApp.getServeEvents();
     }
 
+    @Override
+    public GetServeEventsResult getServeEvents(ServeEventQuery query) {
+        return wireMockApp.getServeEvents(query);
+    }
+
+    @Override
+    public ServeEventSubscription subscribeToServeEvents(RequestPattern filter) {
+        return wireMockApp.subscribeToServeEvents(filter);
+    }
+
     @Override
     public SingleServedStubResult getServedStub(UUID id) {
         return wireMockApp.getServedStub(id);
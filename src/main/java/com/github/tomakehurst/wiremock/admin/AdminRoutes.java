@@ -60,13 +60,17 @@ public class AdminRoutes {
 
         router.add(GET,  "/mappings", GetAllStubMappingsTask.class);
         router.add(POST, "/mappings", CreateStubMappingTask.class);
+        router.add(PUT,  "/mappings", ReplaceAllStubMappingsTask.class);
         router.add(DELETE, "/mappings", ResetStubMappingsTask.class);
 
         router.add(POST, "/mappings/new", OldCreateStubMappingTask.class); // Deprecated
         router.add(POST, "/mappings/remove", OldRemoveStubMappingTask.class);  // Deprecated
         router.add(POST, "/mappings/edit", OldEditStubMappingTask.class);  // Deprecated
         router.add(POST, "/mappings/save", SaveMappingsTask.class);
+        router.add(POST, "/mappings/flush", FlushMappingsTask.class);
+        router.add(POST, "/mappings/import", ImportStubMappingsTask.class);
         router.add(POST, "/mappings/reset", ResetToDefaultMappingsTask.class);
+        router.add(GET,  "/mappings/match-cache/stats", GetStubMatchCacheStatsTask.class);
         router.add(GET,  "/mappings/{id}", GetStubMappingTask.class);
         router.add(PUT,  "/mappings/{id}", EditStubMappingTask.class);
         router.add(DELETE, "/mappings/{id}", RemoveStubMappingTask.class);
@@ -81,6 +85,8 @@ public class AdminRoutes {
         router.add(POST, "/requests/find", FindRequestsTask.class);
         router.add(GET,  "/requests/unmatched", FindUnmatchedRequestsTask.class);
         router.add(GET,  "/requests/unmatched/near-misses", FindNearMissesForUnmatchedTask.class);
+        router.add(POST, "/requests/stream", StreamServeEventsTask.class);
+        router.add(GET,  "/requests/stream", StreamServeEventsTask.class);
         router.add(GET,  "/requests/{id}", GetServedStubTask.class);
 
         router.add(POST, "/recordings/snapshot", SnapshotTask.class);
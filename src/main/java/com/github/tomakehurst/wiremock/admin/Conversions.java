@@ -24,9 +24,13 @@ import java.util.Date;
 public class Conversions {
 
     public static Integer toInt(QueryParameter parameter) {
-        return parameter.isPresent() ?
-            Integer.valueOf(parameter.firstValue()) :
-            null;
+        try {
+            return parameter.isPresent() ?
+                Integer.valueOf(parameter.firstValue()) :
+                null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(parameter.firstValue() + " is not a valid number for " + parameter.key());
+        }
     }
 
     public static Date toDate(QueryParameter parameter) {
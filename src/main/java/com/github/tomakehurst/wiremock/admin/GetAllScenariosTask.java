@@ -9,6 +9,6 @@ public class GetAllScenariosTask implements AdminTask {
 
     @Override
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
-        return ResponseDefinition.okForJson(admin.getAllScenarios());
+        return ResponseDefinition.okForStreamedJson(admin.getAllScenarios());
     }
 }
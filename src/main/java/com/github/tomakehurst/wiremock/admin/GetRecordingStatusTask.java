@@ -24,7 +24,7 @@ public class GetRecordingStatusTask implements AdminTask {
 
     @Override
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
-        return ResponseDefinition.okForJson(
+        return ResponseDefinition.okForStreamedJson(
             admin.getRecordingStatus()
         );
     }
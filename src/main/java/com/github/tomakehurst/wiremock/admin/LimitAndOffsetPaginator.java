@@ -46,7 +46,7 @@ public class LimitAndOffsetPaginator<T> implements Paginator<T> {
 
     @Override
     public List<T> select() {
-        int start = firstNonNull(offset, 0);
+        int start = Math.min(firstNonNull(offset, 0), source.size());
         int end = Math.min(
             source.size(),
             start + firstNonNull(limit, source.size())
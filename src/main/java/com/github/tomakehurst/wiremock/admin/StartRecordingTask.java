@@ -23,7 +23,7 @@ import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.recording.RecordSpec;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.jsonResponse;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
 
 public class StartRecordingTask implements AdminTask {
 
@@ -34,7 +34,7 @@ public class StartRecordingTask implements AdminTask {
             admin.startRecording(recordSpec);
             return ResponseDefinition.okEmptyJson();
         } catch (InvalidRequestException e) {
-            return jsonResponse(e.getErrors(), 422);
+            return streamedJsonResponse(e.getErrors(), 422);
         }
     }
 }
@@ -17,13 +17,14 @@ package com.github.tomakehurst.wiremock.admin;
 
 import com.github.tomakehurst.wiremock.admin.model.PathParams;
 import com.github.tomakehurst.wiremock.common.Errors;
+import com.github.tomakehurst.wiremock.common.InvalidRequestException;
 import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.recording.NotRecordingException;
 import com.github.tomakehurst.wiremock.recording.SnapshotRecordResult;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.jsonResponse;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_OK;
 
@@ -33,9 +34,11 @@ public class StopRecordingTask implements AdminTask {
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
         try {
             SnapshotRecordResult result = admin.stopRecording();
-            return jsonResponse(result, HTTP_OK);
+            return streamedJsonResponse(result, HTTP_OK);
         } catch (NotRecordingException e) {
-            return jsonResponse(Errors.notRecording(), HTTP_BAD_REQUEST);
+            return streamedJsonResponse(Errors.notRecording(), HTTP_BAD_REQUEST);
+        } catch (InvalidRequestException e) {
+            return streamedJsonResponse(e.getErrors(), HTTP_BAD_REQUEST);
         }
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.admin.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.common.Errors;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ImportStubMappingsResult {
+
+    private final int imported;
+    private final List<Errors.Error> errors;
+
+    public ImportStubMappingsResult(@JsonProperty("imported") int imported,
+                                    @JsonProperty("errors") List<Errors.Error> errors) {
+        this.imported = imported;
+        this.errors = errors != null ? errors : Collections.<Errors.Error>emptyList();
+    }
+
+    public static ImportStubMappingsResult imported(int count) {
+        return new ImportStubMappingsResult(count, Collections.<Errors.Error>emptyList());
+    }
+
+    public ImportStubMappingsResult withErrors(List<Errors.Error> errors) {
+        return new ImportStubMappingsResult(imported, errors);
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public List<Errors.Error> getErrors() {
+        return errors;
+    }
+}
@@ -17,7 +17,6 @@ package com.github.tomakehurst.wiremock.admin.tasks;
 
 import com.github.tomakehurst.wiremock.admin.AdminTask;
 import com.github.tomakehurst.wiremock.admin.model.PathParams;
-import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
@@ -31,6 +30,6 @@ public class CreateStubMappingTask implements AdminTask {
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
         StubMapping newMapping = StubMapping.buildFrom(request.getBodyAsString());
         admin.addStubMapping(newMapping);
-        return ResponseDefinitionBuilder.jsonResponse(newMapping, HTTP_CREATED);
+        return ResponseDefinition.streamedJsonResponse(newMapping, HTTP_CREATED);
     }
 }
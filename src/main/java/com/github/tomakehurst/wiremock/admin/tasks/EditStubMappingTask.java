@@ -39,6 +39,6 @@ public class EditStubMappingTask implements AdminTask {
         newStubMapping.setId(id);
 
         admin.editStubMapping(newStubMapping);
-        return ResponseDefinition.okForJson(newStubMapping);
+        return ResponseDefinition.okForStreamedJson(newStubMapping);
     }
 }
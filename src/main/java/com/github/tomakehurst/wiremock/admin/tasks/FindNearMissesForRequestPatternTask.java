@@ -30,6 +30,6 @@ public class FindNearMissesForRequestPatternTask implements AdminTask {
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
         RequestPattern requestPattern = Json.read(request.getBodyAsString(), RequestPattern.class);
         FindNearMissesResult nearMissesResult = admin.findTopNearMissesFor(requestPattern);
-        return ResponseDefinition.okForJson(nearMissesResult);
+        return ResponseDefinition.okForStreamedJson(nearMissesResult);
     }
 }
@@ -30,6 +30,6 @@ public class FindNearMissesForRequestTask implements AdminTask {
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
         LoggedRequest loggedRequest = Json.read(request.getBodyAsString(), LoggedRequest.class);
         FindNearMissesResult nearMissesResult = admin.findTopNearMissesFor(loggedRequest);
-        return ResponseDefinition.okForJson(nearMissesResult);
+        return ResponseDefinition.okForStreamedJson(nearMissesResult);
     }
 }
@@ -27,6 +27,6 @@ public class FindNearMissesForUnmatchedTask implements AdminTask {
     @Override
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
         FindNearMissesResult nearMissesResult = admin.findNearMissesForUnmatchedRequests();
-        return ResponseDefinition.okForJson(nearMissesResult);
+        return ResponseDefinition.okForStreamedJson(nearMissesResult);
     }
 }
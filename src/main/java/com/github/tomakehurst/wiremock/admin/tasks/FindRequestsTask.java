@@ -24,8 +24,7 @@ import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.verification.FindRequestsResult;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
-import static java.net.HttpURLConnection.HTTP_OK;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.okForStreamedJson;
 
 public class FindRequestsTask implements AdminTask {
 
@@ -34,10 +33,6 @@ public class FindRequestsTask implements AdminTask {
         RequestPattern requestPattern = Json.read(request.getBodyAsString(), RequestPattern.class);
         FindRequestsResult result = admin.findRequestsMatching(requestPattern);
 
-        return responseDefinition()
-                .withStatus(HTTP_OK)
-                .withBody(Json.write(result))
-                .withHeader("Content-Type", "application/json")
-                .build();
+        return okForStreamedJson(result);
     }
 }
@@ -16,34 +16,49 @@
 package com.github.tomakehurst.wiremock.admin.tasks;
 
 import com.github.tomakehurst.wiremock.admin.AdminTask;
-import com.github.tomakehurst.wiremock.admin.LimitAndSinceDatePaginator;
-import com.github.tomakehurst.wiremock.admin.model.GetServeEventsResult;
 import com.github.tomakehurst.wiremock.admin.model.PathParams;
-import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.Errors;
+import com.github.tomakehurst.wiremock.common.InvalidRequestException;
 import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.verification.ServeEventQuery;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
-import static java.net.HttpURLConnection.HTTP_OK;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.admin.Conversions.toDate;
+import static com.github.tomakehurst.wiremock.admin.Conversions.toInt;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.okForStreamedJson;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 
 public class GetAllRequestsTask implements AdminTask {
 
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
     @Override
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
-        GetServeEventsResult serveEventsResult = admin.getServeEvents();
-        GetServeEventsResult result = new GetServeEventsResult(
-            LimitAndSinceDatePaginator.fromRequest(
-                serveEventsResult.getRequests(),
-                request
-            ),
-            serveEventsResult.isRequestJournalDisabled()
-        );
-
-        return responseDefinition()
-            .withStatus(HTTP_OK)
-            .withBody(Json.write(result))
-            .withHeader("Content-Type", "application/json")
-            .build();
+        QueryParameter since = request.queryParameter("since");
+        boolean sinceId = since.isPresent() && UUID_PATTERN.matcher(since.firstValue()).matches();
+
+        ServeEventQuery query;
+        try {
+            query = new ServeEventQuery(
+                toInt(request.queryParameter("limit")),
+                sinceId ? UUID.fromString(since.firstValue()) : null,
+                sinceId ? null : toDate(since),
+                toDate(request.queryParameter("until"))
+            );
+        } catch (IllegalArgumentException e) {
+            return streamedJsonResponse(Errors.validation("", e.getMessage()), HTTP_BAD_REQUEST);
+        }
+
+        try {
+            return okForStreamedJson(admin.getServeEvents(query));
+        } catch (InvalidRequestException e) {
+            return streamedJsonResponse(e.getErrors(), HTTP_BAD_REQUEST);
+        }
     }
 }
@@ -16,22 +16,44 @@
 package com.github.tomakehurst.wiremock.admin.tasks;
 
 import com.github.tomakehurst.wiremock.admin.AdminTask;
-import com.github.tomakehurst.wiremock.admin.LimitAndOffsetPaginator;
 import com.github.tomakehurst.wiremock.admin.model.ListStubMappingsResult;
 import com.github.tomakehurst.wiremock.admin.model.PathParams;
-import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.Errors;
 import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
+
+import static com.github.tomakehurst.wiremock.admin.Conversions.toInt;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.okForStreamedJson;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 
 public class GetAllStubMappingsTask implements AdminTask {
 
     @Override
     public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
-        ListStubMappingsResult result = new ListStubMappingsResult(
-            LimitAndOffsetPaginator.fromRequest(admin.listAllStubMappings().getMappings(), request)
-        );
+        StubMappingQuery query;
+        try {
+            query = new StubMappingQuery(
+                stringValue(request.queryParameter("url")),
+                stringValue(request.queryParameter("urlPrefix")),
+                stringValue(request.queryParameter("method")),
+                stringValue(request.queryParameter("scenario")),
+                toInt(request.queryParameter("status")),
+                toInt(request.queryParameter("limit")),
+                toInt(request.queryParameter("offset"))
+            );
+        } catch (IllegalArgumentException e) {
+            return streamedJsonResponse(Errors.validation("", e.getMessage()), HTTP_BAD_REQUEST);
+        }
+
+        ListStubMappingsResult result = admin.findStubMappings(query);
+        return okForStreamedJson(result);
+    }
 
-        return ResponseDefinitionBuilder.jsonResponse(result);
+    private static String stringValue(QueryParameter parameter) {
+        return parameter.isPresent() ? parameter.firstValue() : null;
     }
 }
@@ -24,9 +24,7 @@ import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.verification.VerificationResult;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
-import static com.github.tomakehurst.wiremock.common.Json.write;
-import static java.net.HttpURLConnection.HTTP_OK;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.okForStreamedJson;
 
 public class GetRequestCountTask implements AdminTask {
 
@@ -35,10 +33,6 @@ public class GetRequestCountTask implements AdminTask {
         RequestPattern requestPattern = Json.read(request.getBodyAsString(), RequestPattern.class);
         VerificationResult result = admin.countRequestsMatching(requestPattern);
 
-        return responseDefinition()
-                .withStatus(HTTP_OK)
-                .withBody(write(result))
-                .withHeader("Content-Type", "application/json")
-                .build();
+        return okForStreamedJson(result);
     }
 }
@@ -33,7 +33,7 @@ public class GetServedStubTask implements AdminTask {
 
         SingleServedStubResult result = admin.getServedStub(id);
         return result.isPresent() ?
-            ResponseDefinition.okForJson(result.getItem()) :
+            ResponseDefinition.okForStreamedJson(result.getItem()) :
             ResponseDefinition.notFound();
 
     }
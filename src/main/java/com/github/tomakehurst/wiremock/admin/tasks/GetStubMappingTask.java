@@ -33,7 +33,7 @@ public class GetStubMappingTask implements AdminTask {
 
         SingleStubMappingResult stubMappingResult = admin.getStubMapping(id);
         return stubMappingResult.isPresent() ?
-            ResponseDefinition.okForJson(stubMappingResult.getItem()) :
+            ResponseDefinition.okForStreamedJson(stubMappingResult.getItem()) :
             ResponseDefinition.notFound();
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.admin.tasks;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.admin.AdminTask;
+import com.github.tomakehurst.wiremock.admin.model.ImportStubMappingsResult;
+import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.common.Errors;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * Imports a JSON array of stub mappings, or an object with a "mappings" array as returned by
+ * GET /__admin/mappings, as a single batch.
+ *
+ * Items are read one at a time from the body, so one that can't be bound to a stub mapping is
+ * reported against its position in the array and the rest are still imported. A body that isn't
+ * well-formed JSON is rejected as a whole and nothing is imported.
+ */
+public class ImportStubMappingsTask implements AdminTask {
+
+    @Override
+    public ResponseDefinition execute(Admin admin, Request request, PathParams pathParams) {
+        ObjectMapper mapper = Json.getObjectMapper();
+        List<StubMapping> stubMappings = new ArrayList<>();
+        List<Errors.Error> errors = new ArrayList<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(request.getBody())) {
+            if (!moveToMappingsArray(parser)) {
+                return streamedJsonResponse(
+                    Errors.validation("", "Expected a JSON array of stub mappings"),
+                    HTTP_BAD_REQUEST
+                );
+            }
+
+            JsonStreamContext mappingsArray = parser.getParsingContext();
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of input in stub mappings array");
+                }
+
+                if (token != START_OBJECT) {
+                    parser.skipChildren();
+                    errors.add(errorAt(index, "Expected a stub mapping object"));
+                } else {
+                    try {
+                        stubMappings.add(parser.readValueAs(StubMapping.class));
+                    } catch (JsonMappingException e) {
+                        skipToEndOfItem(parser, mappingsArray);
+                        errors.add(errorAt(index, e.getOriginalMessage()));
+                    }
+                }
+                index++;
+            }
+        } catch (IOException e) {
+            return streamedJsonResponse(
+                Errors.single(10, "Could not read stub mappings: " + e.getMessage()),
+                HTTP_BAD_REQUEST
+            );
+        }
+
+        ImportStubMappingsResult result = admin.importStubMappings(stubMappings);
+        return streamedJsonResponse(result.withErrors(errors), HTTP_OK);
+    }
+
+    private static void skipToEndOfItem(JsonParser parser, JsonStreamContext mappingsArray) throws IOException {
+        while (parser.getParsingContext() != mappingsArray) {
+            if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end of input in stub mapping");
+            }
+            parser.skipChildren();
+        }
+    }
+
+    private static boolean moveToMappingsArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("mappings".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+
+    private static Errors.Error errorAt(int index, String message) {
+        return new Errors.Error(10, new Errors.Error.Source("/" + index), message);
+    }
+}
@@ -24,7 +24,7 @@ import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 
-import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.jsonResponse;
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedJsonResponse;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 public class SnapshotTask implements AdminTask {
@@ -36,6 +36,6 @@ public class SnapshotTask implements AdminTask {
             : Json.read(request.getBodyAsString(), RecordSpec.class);
 
         SnapshotRecordResult result = admin.snapshotRecord(recordSpec);
-        return jsonResponse(result, HTTP_OK);
+        return streamedJsonResponse(result, HTTP_OK);
     }
 }
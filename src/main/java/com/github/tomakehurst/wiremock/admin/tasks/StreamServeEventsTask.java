@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.admin.tasks;
+
+import com.github.tomakehurst.wiremock.admin.AdminTask;
+import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.BodyWriter;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.ServeEventBroadcaster;
+import com.github.tomakehurst.wiremock.verification.ServeEventSubscription;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static com.github.tomakehurst.wiremock.http.ResponseDefinition.streamedResponse;
+import static com.google.common.base.Charsets.UTF_8;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Streams serve events to the client as they happen, as newline delimited JSON or, when the client
+ * accepts text/event-stream or asks for format=sse, as server-sent events.
+ *
+ * Each stream occupies one container thread until the client disconnects. The subscription is taken out before
+ * the response is committed, so a client beyond the subscriber limit is refused with a 503. Should the response
+ * then never be streamed, its subscription goes idle and is reclaimed once the limit is reached.
+ */
+public class StreamServeEventsTask implements AdminTask {
+
+    static final long HEARTBEAT_INTERVAL_MILLIS = 10000;
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    @Override
+    public ResponseDefinition execute(final Admin admin, Request request, PathParams pathParams) {
+        final RequestPattern filter = request.getBody() != null && request.getBody().length > 0 ?
+            Json.read(request.getBodyAsString(), RequestPattern.class) :
+            null;
+
+        final ServeEventSubscription subscription;
+        try {
+            subscription = admin.subscribeToServeEvents(filter);
+        } catch (ServeEventBroadcaster.TooManySubscribersException e) {
+            return new ResponseDefinition(HTTP_UNAVAILABLE, e.getMessage());
+        }
+
+        final boolean eventStream = isEventStreamRequested(request);
+        return streamedResponse(
+            eventStream ? "text/event-stream" : "application/x-ndjson",
+            new BodyWriter() {
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    stream(subscription, eventStream, out);
+                }
+            }
+        );
+    }
+
+    private static void stream(ServeEventSubscription subscription, boolean eventStream, OutputStream out) throws IOException {
+        try {
+            // Commit the response headers so the client knows it is subscribed before the first event arrives
+            out.flush();
+
+            long lastWrite = System.currentTimeMillis();
+            while (!subscription.isClosed()) {
+                ServeEvent serveEvent = subscription.poll(POLL_INTERVAL_MILLIS, MILLISECONDS);
+
+                long dropped = subscription.takeDroppedCount();
+                if (dropped > 0) {
+                    writeEvent(out, eventStream, "dropped", Json.toByteArray(ImmutableMap.of("dropped", dropped)));
+                    lastWrite = System.currentTimeMillis();
+                }
+
+                if (serveEvent != null) {
+                    writeEvent(out, eventStream, null, Json.toByteArray(serveEvent));
+                    lastWrite = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - lastWrite >= HEARTBEAT_INTERVAL_MILLIS) {
+                    out.write(eventStream ? ":\n\n".getBytes(UTF_8) : "\n".getBytes(UTF_8));
+                    out.flush();
+                    lastWrite = System.currentTimeMillis();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+        }
+    }
+
+    private static void writeEvent(OutputStream out, boolean eventStream, String eventName, byte[] json) throws IOException {
+        if (eventStream) {
+            if (eventName != null) {
+                out.write(("event: " + eventName + "\n").getBytes(UTF_8));
+            }
+            out.write("data: ".getBytes(UTF_8));
+            out.write(json);
+            out.write("\n\n".getBytes(UTF_8));
+        } else {
+            out.write(json);
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static boolean isEventStreamRequested(Request request) {
+        String accept = request.getHeader("Accept");
+        if (accept != null && accept.contains("text/event-stream")) {
+            return true;
+        }
+
+        QueryParameter format = request.queryParameter("format");
+        return format.isPresent() && "sse".equals(format.firstValue());
+    }
+}
@@ -41,6 +41,7 @@ class BasicMappingBuilder implements ScenarioMappingBuilder {
 	private UUID id = UUID.randomUUID();
 	private String name;
     private boolean isPersistent = false;
+    private boolean isExcludedFromJournal = false;
     private Map<String, Parameters> postServeActions = newLinkedHashMap();
 
     BasicMappingBuilder(RequestMethod method, UrlPattern urlPattern) {
@@ -129,6 +130,12 @@ class BasicMappingBuilder implements ScenarioMappingBuilder {
         return this;
     }
 
+    @Override
+    public ScenarioMappingBuilder excludedFromJournal() {
+        this.isExcludedFromJournal = true;
+        return this;
+    }
+
     @Override
 	public BasicMappingBuilder withBasicAuth(String username, String password) {
 		requestPatternBuilder.withBasicAuth(new BasicCredentials(username, password));
@@ -159,6 +166,7 @@ class BasicMappingBuilder implements ScenarioMappingBuilder {
 		mapping.setUuid(id);
 		mapping.setName(name);
         mapping.setPersistent(isPersistent);
+        mapping.setExcludedFromJournal(isExcludedFromJournal);
 
         mapping.setPostServeActions(postServeActions.isEmpty() ? null : postServeActions);
 
@@ -35,23 +35,45 @@ import com.github.tomakehurst.wiremock.security.ClientAuthenticator;
 import com.github.tomakehurst.wiremock.security.NoClientAuthenticator;
 import com.github.tomakehurst.wiremock.security.NotAuthorisedException;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCacheStats;
 import com.github.tomakehurst.wiremock.verification.FindNearMissesResult;
 import com.github.tomakehurst.wiremock.verification.FindRequestsResult;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.verification.ServeEventBroadcaster;
+import com.github.tomakehurst.wiremock.verification.ServeEventQuery;
+import com.github.tomakehurst.wiremock.verification.ServeEventSubscription;
 import com.github.tomakehurst.wiremock.verification.VerificationResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ISO8601Utils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.*;
+import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.HttpClientUtils.getEntityAsStringAndCloseStream;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.security.NoClientAuthenticator.noClientAuthenticator;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.apache.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.apache.http.HttpHeaders.CONTENT_ENCODING;
 import static org.apache.http.HttpHeaders.HOST;
 
 public class HttpAdminClient implements Admin {
@@ -145,6 +167,31 @@ public class HttpAdminClient implements Admin {
                 Json.write(stubMapping));
     }
 
+    @Override
+    public ImportStubMappingsResult importStubMappings(List<StubMapping> stubMappings) {
+        for (StubMapping stubMapping: stubMappings) {
+            if (stubMapping.getRequest().hasCustomMatcher()) {
+                throw new AdminException("Custom matchers can't be used when administering a remote WireMock server. " +
+                        "Use WireMockRule.stubFor() or WireMockServer.stubFor() to administer the local instance.");
+            }
+        }
+
+        return executeRequest(
+                adminRoutes.requestSpecForTask(ImportStubMappingsTask.class),
+                stubMappings,
+                ImportStubMappingsResult.class
+        );
+    }
+
+    @Override
+    public void replaceAllStubMappings(List<StubMapping> stubMappings) {
+        executeRequest(
+                adminRoutes.requestSpecForTask(ReplaceAllStubMappingsTask.class),
+                new ListStubMappingsResult(LimitAndOffsetPaginator.none(stubMappings)),
+                Void.class
+        );
+    }
+
     @Override
     public void removeStubMapping(StubMapping stubbMapping) {
         postJsonAssertOkAndReturnBody(
@@ -160,6 +207,21 @@ public class HttpAdminClient implements Admin {
         );
     }
 
+    @Override
+    public ListStubMappingsResult findStubMappings(StubMappingQuery query) {
+        try {
+            URIBuilder uriBuilder = new URIBuilder(urlFor(GetAllStubMappingsTask.class));
+            for (Map.Entry<String, Object> parameter: Json.objectToMap(query).entrySet()) {
+                uriBuilder.addParameter(parameter.getKey(), parameter.getValue().toString());
+            }
+
+            String url = uriBuilder.build().toString();
+            return safelyExecuteRequest(url, new HttpGet(url), ListStubMappingsResult.class);
+        } catch (URISyntaxException e) {
+            return throwUnchecked(e, ListStubMappingsResult.class);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public SingleStubMappingResult getStubMapping(UUID id) {
@@ -175,6 +237,19 @@ public class HttpAdminClient implements Admin {
         postJsonAssertOkAndReturnBody(urlFor(SaveMappingsTask.class), null);
     }
 
+    @Override
+    public void flushMappings() {
+        postJsonAssertOkAndReturnBody(urlFor(FlushMappingsTask.class), null);
+    }
+
+    @Override
+    public StubMatchCacheStats getStubMatchCacheStats() {
+        return executeRequest(
+            adminRoutes.requestSpecForTask(GetStubMatchCacheStatsTask.class),
+            StubMatchCacheStats.class
+        );
+    }
+
     @Override
     public void resetAll() {
         postJsonAssertOkAndReturnBody(urlFor(ResetTask.class), null);
@@ -208,6 +283,103 @@ public class HttpAdminClient implements Admin {
         );
     }
 
+    @Override
+    public ServeEventSubscription subscribeToServeEvents(RequestPattern filter) {
+        String url = urlFor(StreamServeEventsTask.class);
+        HttpPost post = new HttpPost(url);
+        if (filter != null) {
+            post.setEntity(jsonStringEntity(Json.write(filter)));
+        }
+
+        final CloseableHttpResponse response;
+        final InputStream body;
+        try {
+            response = execute(url, post);
+            body = new BufferedInputStream(response.getEntity().getContent());
+        } catch (IOException e) {
+            return throwUnchecked(e, ServeEventSubscription.class);
+        }
+
+        // Filtering has already been done by the server
+        final ServeEventSubscription subscription = new ServeEventSubscription(ServeEventBroadcaster.DEFAULT_BUFFER_SIZE, null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    response.close();
+                } catch (IOException e) {
+                    // Already closed
+                }
+            }
+        });
+
+        Thread streamReader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String line;
+                    while (!subscription.isClosed() && (line = readLine(body)) != null) {
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+
+                        JsonNode node = Json.read(line, JsonNode.class);
+                        if (node.has("dropped")) {
+                            subscription.dropped(node.get("dropped").asLong());
+                        } else {
+                            subscription.offer(Json.getObjectMapper().treeToValue(node, ServeEvent.class));
+                        }
+                    }
+                } catch (Exception e) {
+                    // Stream closed by either side
+                } finally {
+                    subscription.close();
+                }
+            }
+        }, "wiremock-serve-event-stream");
+        streamReader.setDaemon(true);
+        streamReader.start();
+
+        return subscription;
+    }
+
+    // A Reader keeps reading while a gzip stream claims to have more available, holding each event back until the next arrives
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return line.size() > 0 ? new String(line.toByteArray(), UTF_8) : null;
+            }
+            line.write(b);
+        }
+
+        return new String(line.toByteArray(), UTF_8);
+    }
+
+    @Override
+    public GetServeEventsResult getServeEvents(ServeEventQuery query) {
+        try {
+            URIBuilder uriBuilder = new URIBuilder(urlFor(GetAllRequestsTask.class));
+            if (query.getLimit() != null) {
+                uriBuilder.addParameter("limit", query.getLimit().toString());
+            }
+            if (query.getSinceId() != null) {
+                uriBuilder.addParameter("since", query.getSinceId().toString());
+            }
+            if (query.getSince() != null) {
+                uriBuilder.addParameter("since", ISO8601Utils.format(query.getSince(), true));
+            }
+            if (query.getUntil() != null) {
+                uriBuilder.addParameter("until", ISO8601Utils.format(query.getUntil(), true));
+            }
+
+            String url = uriBuilder.build().toString();
+            return safelyExecuteRequest(url, new HttpGet(url), GetServeEventsResult.class);
+        } catch (URISyntaxException e) {
+            return throwUnchecked(e, GetServeEventsResult.class);
+        }
+    }
+
     @Override
     public SingleServedStubResult getServedStub(UUID id) {
         return executeRequest(
@@ -227,23 +399,22 @@ public class HttpAdminClient implements Admin {
 
     @Override
     public FindRequestsResult findRequestsMatching(RequestPattern requestPattern) {
-        String body = postJsonAssertOkAndReturnBody(
-                urlFor(FindRequestsTask.class),
-                Json.write(requestPattern));
-        return Json.read(body, FindRequestsResult.class);
+        return postJsonAssertOk(
+            urlFor(FindRequestsTask.class),
+            Json.write(requestPattern),
+            FindRequestsResult.class);
     }
 
     @Override
     public FindRequestsResult findUnmatchedRequests() {
-        String body = getJsonAssertOkAndReturnBody(
-                urlFor(FindUnmatchedRequestsTask.class));
-        return Json.read(body, FindRequestsResult.class);
+        String url = urlFor(FindUnmatchedRequestsTask.class);
+        return safelyExecuteRequest(url, new HttpGet(url), FindRequestsResult.class);
     }
 
     @Override
     public FindNearMissesResult findNearMissesForUnmatchedRequests() {
-        String body = getJsonAssertOkAndReturnBody(urlFor(FindNearMissesForUnmatchedTask.class));
-        return Json.read(body, FindNearMissesResult.class);
+        String url = urlFor(FindNearMissesForUnmatchedTask.class);
+        return safelyExecuteRequest(url, new HttpGet(url), FindNearMissesResult.class);
     }
 
     @Override
@@ -256,22 +427,18 @@ public class HttpAdminClient implements Admin {
 
     @Override
     public FindNearMissesResult findTopNearMissesFor(LoggedRequest loggedRequest) {
-        String body = postJsonAssertOkAndReturnBody(
-                urlFor(FindNearMissesForRequestTask.class),
-                Json.write(loggedRequest)
-        );
-
-        return Json.read(body, FindNearMissesResult.class);
+        return postJsonAssertOk(
+            urlFor(FindNearMissesForRequestTask.class),
+            Json.write(loggedRequest),
+            FindNearMissesResult.class);
     }
 
     @Override
     public FindNearMissesResult findTopNearMissesFor(RequestPattern requestPattern) {
-        String body = postJsonAssertOkAndReturnBody(
-                urlFor(FindNearMissesForRequestPatternTask.class),
-                Json.write(requestPattern)
-        );
-
-        return Json.read(body, FindNearMissesResult.class);
+        return postJsonAssertOk(
+            urlFor(FindNearMissesForRequestPatternTask.class),
+            Json.write(requestPattern),
+            FindNearMissesResult.class);
     }
 
     @Override
@@ -283,11 +450,10 @@ public class HttpAdminClient implements Admin {
 
     @Override
     public SnapshotRecordResult snapshotRecord() {
-        String body = postJsonAssertOkAndReturnBody(
+        return postJsonAssertOk(
             urlFor(SnapshotTask.class),
-            "");
-
-        return Json.read(body, SnapshotRecordResult.class);
+            "",
+            SnapshotRecordResult.class);
     }
 
     @Override
@@ -297,11 +463,10 @@ public class HttpAdminClient implements Admin {
 
     @Override
     public SnapshotRecordResult snapshotRecord(RecordSpec spec) {
-        String body = postJsonAssertOkAndReturnBody(
+        return postJsonAssertOk(
             urlFor(SnapshotTask.class),
-            Json.write(spec));
-
-        return Json.read(body, SnapshotRecordResult.class);
+            Json.write(spec),
+            SnapshotRecordResult.class);
     }
 
     @Override
@@ -323,11 +488,10 @@ public class HttpAdminClient implements Admin {
 
     @Override
     public SnapshotRecordResult stopRecording() {
-        String body = postJsonAssertOkAndReturnBody(
+        return postJsonAssertOk(
             urlFor(StopRecordingTask.class),
-            "");
-
-        return Json.read(body, SnapshotRecordResult.class);
+            "",
+            SnapshotRecordResult.class);
     }
 
     @Override
@@ -365,6 +529,15 @@ public class HttpAdminClient implements Admin {
         return safelyExecuteRequest(url, post);
     }
 
+    private <R> R postJsonAssertOk(String url, String json, Class<R> responseType) {
+        HttpPost post = new HttpPost(url);
+        if (json != null) {
+            post.setEntity(jsonStringEntity(json));
+        }
+
+        return safelyExecuteRequest(url, post, responseType);
+    }
+
     protected String getJsonAssertOkAndReturnBody(String url) {
         HttpGet get = new HttpGet(url);
         return safelyExecuteRequest(url, get);
@@ -396,14 +569,34 @@ public class HttpAdminClient implements Admin {
             requestBuilder.setEntity(jsonStringEntity(Json.write(requestBody)));
         }
 
-        String responseBodyString = safelyExecuteRequest(url, requestBuilder.build());
-
-        return responseType == Void.class ?
-                null :
-                Json.read(responseBodyString, responseType);
+        return safelyExecuteRequest(url, requestBuilder.build(), responseType);
     }
 
     private String safelyExecuteRequest(String url, HttpUriRequest request) {
+        return safelyExecuteRequest(url, request, String.class);
+    }
+
+    private <R> R safelyExecuteRequest(String url, HttpUriRequest request, Class<R> responseType) {
+        try (CloseableHttpResponse response = execute(url, request)) {
+            if (responseType == String.class) {
+                return responseType.cast(getEntityAsStringAndCloseStream(response));
+            }
+
+            if (responseType == Void.class || response.getEntity() == null) {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            }
+
+            try (InputStream body = response.getEntity().getContent()) {
+                return Json.read(body, responseType);
+            }
+        } catch (Exception e) {
+            return throwUnchecked(e, responseType);
+        }
+    }
+
+    private CloseableHttpResponse execute(String url, HttpUriRequest request) throws IOException {
+        request.addHeader(ACCEPT_ENCODING, "gzip");
         if (hostHeader != null) {
             request.addHeader(HOST, hostHeader);
         }
@@ -415,7 +608,8 @@ public class HttpAdminClient implements Admin {
             }
         }
 
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
+        CloseableHttpResponse response = httpClient.execute(request);
+        try {
             int statusCode = response.getStatusLine().getStatusCode();
             if (HttpStatus.isServerError(statusCode)) {
                 throw new VerificationException(
@@ -426,15 +620,36 @@ public class HttpAdminClient implements Admin {
                 throw new NotAuthorisedException();
             }
 
-            String body = getEntityAsStringAndCloseStream(response);
+            HttpEntity entity = response.getEntity();
+            if (entity != null && response.containsHeader(CONTENT_ENCODING) && "gzip".equalsIgnoreCase(response.getFirstHeader(CONTENT_ENCODING).getValue())) {
+                response.setEntity(new GzipDecompressingEntity(entity));
+            }
+
             if (HttpStatus.isClientError(statusCode)) {
-                Errors errors = Json.read(body, Errors.class);
+                Errors errors = readErrors(getEntityAsStringAndCloseStream(response));
+                if (errors == null) {
+                    throw new HttpStatusException(statusCode, "Expected status 2xx for " + url + " but was " + statusCode);
+                }
                 throw ClientError.fromErrors(errors);
             }
 
-            return body;
+            return response;
+        } catch (RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    private static Errors readErrors(String body) {
+        if (isNullOrEmpty(body)) {
+            return null;
+        }
+
+        try {
+            Errors errors = Json.read(body, Errors.class);
+            return errors.getErrors() == null || errors.getErrors().isEmpty() ? null : errors;
         } catch (Exception e) {
-            return throwUnchecked(e, String.class);
+            return null;
         }
     }
 
@@ -32,6 +32,7 @@ public interface MappingBuilder {
     MappingBuilder withName(String name);
 
     MappingBuilder persistent();
+    MappingBuilder excludedFromJournal();
     MappingBuilder withBasicAuth(String username, String password);
 
     MappingBuilder withCookie(String name, StringValuePattern cookieValuePattern);
@@ -32,6 +32,7 @@ public interface ScenarioMappingBuilder extends MappingBuilder {
     ScenarioMappingBuilder inScenario(String scenarioName);
     ScenarioMappingBuilder withId(UUID id);
     ScenarioMappingBuilder persistent();
+    ScenarioMappingBuilder excludedFromJournal();
     ScenarioMappingBuilder withBasicAuth(String username, String password);
     ScenarioMappingBuilder withCookie(String name, StringValuePattern cookieValuePattern);
 
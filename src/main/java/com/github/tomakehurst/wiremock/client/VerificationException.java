@@ -87,6 +87,13 @@ public class VerificationException extends AssertionError {
             expected.toString()));
     }
 
+    public static VerificationException forSampledRequestJournal(VerificationException failure, long droppedCount) {
+        return new VerificationException(String.format(
+            "%s\nThe request journal is sampled and %d requests were not journaled, so the count may be incomplete.",
+            failure.getMessage(),
+            droppedCount));
+    }
+
     public static VerificationException forUnmatchedRequests(List<LoggedRequest> unmatchedRequests) {
         if (unmatchedRequests.size() == 1) {
             return new VerificationException(String.format("A request was unmatched by any stub mapping. Request was: ",
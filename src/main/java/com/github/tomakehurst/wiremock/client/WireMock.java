@@ -15,6 +15,7 @@
  */
 package com.github.tomakehurst.wiremock.client;
 
+import com.github.tomakehurst.wiremock.admin.model.ImportStubMappingsResult;
 import com.github.tomakehurst.wiremock.admin.model.ListStubMappingsResult;
 import com.github.tomakehurst.wiremock.admin.model.SingleStubMappingResult;
 import com.github.tomakehurst.wiremock.recording.RecordingStatusResult;
@@ -35,6 +36,7 @@ import com.github.tomakehurst.wiremock.standalone.RemoteMappingsLoader;
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
 import com.github.tomakehurst.wiremock.verification.*;
 import com.github.tomakehurst.wiremock.verification.diff.Diff;
 
@@ -44,6 +46,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.matching.RequestPattern.thatMatch;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.allRequests;
 import static com.google.common.collect.FluentIterable.from;
@@ -114,6 +117,18 @@ public class WireMock {
 		defaultInstance.get().editStubMapping(mappingBuilder);
 	}
 
+	public static ImportStubMappingsResult importStubs(List<StubMapping> stubMappings) {
+		return defaultInstance.get().importStubMappings(stubMappings);
+	}
+
+	public static List<StubMapping> findStubs(StubMappingQuery query) {
+		return defaultInstance.get().findStubMappings(query);
+	}
+
+	public static void replaceAllStubs(List<StubMapping> stubMappings) {
+		defaultInstance.get().replaceAllStubMappings(stubMappings);
+	}
+
 	public static void removeStub(MappingBuilder mappingBuilder) {
 		defaultInstance.get().removeStubMapping(mappingBuilder);
 	}
@@ -234,6 +249,14 @@ public class WireMock {
         defaultInstance.get().saveMappings();
     }
 
+    public void flushMappings() {
+        admin.flushMappings();
+    }
+
+    public static void flushAllMappings() {
+        defaultInstance.get().flushMappings();
+    }
+
     public void removeMappings() {
         admin.resetMappings();
     }
@@ -296,6 +319,18 @@ public class WireMock {
 		admin.editStubMapping(mappingBuilder.build());
 	}
 
+	public ImportStubMappingsResult importStubMappings(List<StubMapping> stubMappings) {
+		return admin.importStubMappings(stubMappings);
+	}
+
+	public List<StubMapping> findStubMappings(StubMappingQuery query) {
+		return admin.findStubMappings(query).getMappings();
+	}
+
+	public void replaceAllStubMappings(List<StubMapping> stubMappings) {
+		admin.replaceAllStubMappings(stubMappings);
+	}
+
 	public void removeStubMapping(MappingBuilder mappingBuilder) {
 		admin.removeStubMapping(mappingBuilder.build());
 	}
@@ -519,6 +554,7 @@ public class WireMock {
 		final RequestPattern requestPattern = requestPatternBuilder.build();
 
 		int actualCount;
+		long droppedCount = 0;
 		if (requestPattern.hasCustomMatcher()) {
             List<LoggedRequest> requests = admin.findRequestsMatching(RequestPattern.everything()).getRequests();
             actualCount = from(requests).filter(thatMatch(requestPattern)).size();
@@ -526,12 +562,16 @@ public class WireMock {
             VerificationResult result = admin.countRequestsMatching(requestPattern);
             result.assertRequestJournalEnabled();
             actualCount = result.getCount();
+            droppedCount = result.isSampled() ? result.getDroppedCount() : 0;
         }
 
         if (!expectedCount.match(actualCount)) {
-            throw actualCount == 0 ?
+            VerificationException failure = actualCount == 0 ?
                 verificationExceptionForNearMisses(requestPatternBuilder, requestPattern) :
 			    new VerificationException(requestPattern, expectedCount, actualCount);
+            throw droppedCount > 0 ?
+                VerificationException.forSampledRequestJournal(failure, droppedCount) :
+                failure;
 		}
 	}
 
@@ -575,6 +615,22 @@ public class WireMock {
         return admin.getServeEvents().getRequests();
     }
 
+    public static List<ServeEvent> getAllServeEvents(ServeEventQuery query) {
+        return defaultInstance.get().getServeEvents(query);
+    }
+
+    public List<ServeEvent> getServeEvents(ServeEventQuery query) {
+        return admin.getServeEvents(query).getRequests();
+    }
+
+    public static ServeEventSubscription subscribeToAllServeEvents(RequestPatternBuilder filter) {
+        return defaultInstance.get().subscribeToServeEvents(filter);
+    }
+
+    public ServeEventSubscription subscribeToServeEvents(RequestPatternBuilder filter) {
+        return admin.subscribeToServeEvents(filter != null ? filter.build() : null);
+    }
+
     public static RequestPatternBuilder getRequestedFor(UrlPattern urlPattern) {
 		return new RequestPatternBuilder(RequestMethod.GET, urlPattern);
 	}
@@ -697,6 +753,11 @@ public class WireMock {
 		new RemoteMappingsLoader(mappingsSource, this).load();
 	}
 
+	public void loadMappingsFrom(File rootDir, int concurrency, int batchSize) {
+		FileSource mappingsSource = new SingleRootFileSource(rootDir);
+		new RemoteMappingsLoader(mappingsSource, this, concurrency, batchSize, notifier()).load();
+	}
+
     public static List<StubMapping> snapshotRecord() {
         return defaultInstance.get().takeSnapshotRecording();
     }
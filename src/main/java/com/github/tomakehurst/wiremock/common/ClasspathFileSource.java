@@ -16,40 +16,70 @@
 package com.github.tomakehurst.wiremock.common;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Iterators;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Resources;
+import com.google.common.net.UrlEscapers;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLEncoder;
-import java.util.Enumeration;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterators.find;
-import static com.google.common.collect.Iterators.forEnumeration;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.Thread.currentThread;
 import static java.util.Arrays.asList;
 
+/**
+ * Serves files from a directory on the classpath, which may be inside a JAR (or other zip archive).
+ *
+ * Each archive is opened once and its entries indexed by name, shared by every source (and child source) within it,
+ * and files are read directly from the open archive. Entries of up to maxCachedEntrySize bytes can also be kept
+ * in memory after they are first read.
+ *
+ * The index is checked against the archive's modification time and length whenever it is used. If the archive has
+ * been rebuilt, it is opened and indexed again and the old index (with its open file and cached entries) is closed.
+ */
 public class ClasspathFileSource implements FileSource {
 
+    public static final int NO_CACHING = 0;
+
+    private static final long MAX_CACHED_BYTES = 32 * 1024 * 1024;
+    private static final ConcurrentMap<String, ZipIndex> ZIP_INDEXES = new ConcurrentHashMap<>();
+
     private final String path;
+    private final int maxCachedEntrySize;
     private URI pathUri;
-    private ZipFile zipFile;
+    private File archive;
+    private URI archiveUri;
     private File rootDirectory;
 
     public ClasspathFileSource(String path) {
+        this(path, NO_CACHING);
+    }
+
+    public ClasspathFileSource(String path, int maxCachedEntrySize) {
         this.path = path;
+        this.maxCachedEntrySize = maxCachedEntrySize;
 
         try {
             URL resource = firstNonNull(
@@ -68,8 +98,9 @@ public class ClasspathFileSource implements FileSource {
             if (asList("jar", "war", "ear", "zip").contains(pathUri.getScheme())) {
                 String jarFileUri = pathUri.getSchemeSpecificPart().split("!")[0];
                 String jarFilePath = jarFileUri.replace("file:", "");
-                File file = new File(jarFilePath);
-                zipFile = new ZipFile(file);
+                archive = new File(jarFilePath).getAbsoluteFile();
+                archiveUri = archive.toURI();
+                indexFor(archive);
             } else if (pathUri.getScheme().equals("file")) {
                 rootDirectory = new File(pathUri);
             } else {
@@ -91,7 +122,7 @@ public class ClasspathFileSource implements FileSource {
             return new BinaryFile(new File(rootDirectory, name).toURI());
         }
 
-        return new BinaryFile(getZipEntryUri(name));
+        return zipEntryFile(path + "/" + name);
     }
 
     @Override
@@ -100,16 +131,20 @@ public class ClasspathFileSource implements FileSource {
             return new TextFile(new File(rootDirectory, name).toURI());
         }
 
-        return new TextFile(getZipEntryUri(name));
+        return zipEntryFile(path + "/" + name);
     }
 
-    private URI getZipEntryUri(final String name) {
-        ZipEntry zipEntry = find(forEnumeration(zipFile.entries()), new Predicate<ZipEntry>() {
-            public boolean apply(ZipEntry input) {
-                return input.getName().equals(path + "/" + name);
+    private ZipEntryFile zipEntryFile(String entryName) {
+        return new ZipEntryFile(uriFor(entryName), archive, entryName, maxCachedEntrySize);
+    }
+
+    private URI uriFor(String entryName) {
+        String escapedEntryName = Joiner.on('/').join(transform(Splitter.on('/').split(entryName), new Function<String, String>() {
+            public String apply(String segment) {
+                return UrlEscapers.urlPathSegmentEscaper().escape(segment);
             }
-        });
-        return getUriFor(zipEntry);
+        }));
+        return URI.create("jar:" + archiveUri + "!/" + escapedEntryName);
     }
 
     @Override
@@ -118,7 +153,7 @@ public class ClasspathFileSource implements FileSource {
 
     @Override
     public FileSource child(String subDirectoryName) {
-        return new ClasspathFileSource(path + "/" + subDirectoryName);
+        return new ClasspathFileSource(path + "/" + subDirectoryName, maxCachedEntrySize);
     }
 
     @Override
@@ -140,23 +175,14 @@ public class ClasspathFileSource implements FileSource {
             return toTextFileList(fileList);
         }
 
-        return FluentIterable.from(toIterable(zipFile.entries())).filter(new Predicate<ZipEntry>() {
-            public boolean apply(ZipEntry jarEntry) {
-                return !jarEntry.isDirectory() && jarEntry.getName().startsWith(path);
+        ImmutableList.Builder<TextFile> files = ImmutableList.builder();
+        for (ZipEntry jarEntry: currentIndexOf(archive).entries.values()) {
+            if (!jarEntry.isDirectory() && jarEntry.getName().startsWith(path)) {
+                files.add(zipEntryFile(jarEntry.getName()));
             }
-        }).transform(new Function<ZipEntry, TextFile>() {
-            public TextFile apply(ZipEntry jarEntry) {
-                return new TextFile(getUriFor(jarEntry));
-            }
-        }).toList();
-    }
-
-    private URI getUriFor(ZipEntry jarEntry) {
-        try {
-            return Resources.getResource(jarEntry.getName()).toURI();
-        } catch (URISyntaxException e) {
-            return throwUnchecked(e, URI.class);
         }
+
+        return files.build();
     }
 
     private void recursivelyAddFilesToList(File root, List<File> fileList) {
@@ -196,13 +222,35 @@ public class ClasspathFileSource implements FileSource {
     public void deleteFile(String name) {
     }
 
-    private static <T> Iterable<T> toIterable(final Enumeration<T> e) {
-        return new Iterable<T>() {
-            @Override
-            public Iterator<T> iterator() {
-                return Iterators.forEnumeration(e);
+    private static ZipIndex currentIndexOf(File file) {
+        try {
+            return indexFor(file);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    private static ZipIndex indexFor(File file) throws IOException {
+        String key = file.getPath();
+        while (true) {
+            ZipIndex index = ZIP_INDEXES.get(key);
+            if (index != null && index.isCurrent()) {
+                return index;
             }
-        };
+
+            ZipIndex newIndex = new ZipIndex(file);
+            boolean installed = index == null ?
+                ZIP_INDEXES.putIfAbsent(key, newIndex) == null :
+                ZIP_INDEXES.replace(key, index, newIndex);
+            if (installed) {
+                if (index != null) {
+                    index.close();
+                }
+                return newIndex;
+            }
+
+            newIndex.close();
+        }
     }
 
     private void assertExistsAndIsDirectory() {
@@ -212,4 +260,97 @@ public class ClasspathFileSource implements FileSource {
             throw new RuntimeException(rootDirectory + " does not exist");
         }
     }
+
+    private static class ZipIndex {
+
+        final File file;
+        final long lastModified;
+        final long length;
+        final ZipFile zipFile;
+        final Map<String, ZipEntry> entries;
+        final Cache<String, byte[]> smallEntries = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .weigher(new Weigher<String, byte[]>() {
+                @Override
+                public int weigh(String name, byte[] content) {
+                    return content.length;
+                }
+            })
+            .build();
+
+        ZipIndex(File file) throws IOException {
+            this.file = file;
+            lastModified = file.lastModified();
+            length = file.length();
+            zipFile = new ZipFile(file);
+
+            Map<String, ZipEntry> entriesByName = new LinkedHashMap<>();
+            for (ZipEntry entry: Collections.list(zipFile.entries())) {
+                entriesByName.put(entry.getName(), entry);
+            }
+            entries = Collections.unmodifiableMap(entriesByName);
+        }
+
+        boolean isCurrent() {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        void close() {
+            smallEntries.invalidateAll();
+            try {
+                zipFile.close();
+            } catch (IOException ioe) {
+                notifier().error("Failed to close " + file, ioe);
+            }
+        }
+    }
+
+    private static class ZipEntryFile extends TextFile {
+
+        private final File archive;
+        private final String entryName;
+        private final int maxCachedEntrySize;
+
+        ZipEntryFile(URI uri, File archive, String entryName, int maxCachedEntrySize) {
+            super(uri);
+            this.archive = archive;
+            this.entryName = entryName;
+            this.maxCachedEntrySize = maxCachedEntrySize;
+        }
+
+        @Override
+        public byte[] readContents() {
+            try {
+                return readFrom(currentIndexOf(archive));
+            } catch (IllegalStateException zipFileClosed) {
+                // The archive was replaced while reading, so read from its new index
+                return readFrom(currentIndexOf(archive));
+            }
+        }
+
+        private byte[] readFrom(ZipIndex zipIndex) {
+            ZipEntry entry = zipIndex.entries.get(entryName);
+            if (entry == null) {
+                throw new RuntimeException(new FileNotFoundException(getUri().toString()));
+            }
+
+            boolean cacheable = entry.getSize() >= 0 && entry.getSize() <= maxCachedEntrySize;
+            byte[] content = cacheable ? zipIndex.smallEntries.getIfPresent(entryName) : null;
+            if (content != null) {
+                return content;
+            }
+
+            try (InputStream stream = zipIndex.zipFile.getInputStream(entry)) {
+                content = ByteStreams.toByteArray(stream);
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+
+            if (cacheable) {
+                zipIndex.smallEntries.put(entryName, content);
+            }
+
+            return content;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static com.google.common.base.Throwables.propagate;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Stores body files under the SHA-256 of their content, e.g. sha256/ab/cdef...json, so identical bodies are written
+ * once and shared by every stub that refers to them.
+ *
+ * Bodies are written to a temporary file and renamed into place, so a file under a content address is always complete.
+ * A caller writing a body that another thread is already writing waits for that write to finish rather than returning
+ * a name whose file is not there yet.
+ */
+public class ContentAddressedBodyFiles {
+
+    public static final String ROOT = "sha256";
+
+    private static final HashFunction CONTENT_HASH = Hashing.sha256();
+
+    private final FileSource filesRoot;
+    private final ConcurrentMap<String, FutureTask<String>> writes = new ConcurrentHashMap<>();
+
+    public ContentAddressedBodyFiles(FileSource filesRoot) {
+        this.filesRoot = filesRoot;
+    }
+
+    /**
+     * The body file name, relative to the files root, that the given body is stored under.
+     */
+    public static String fileNameFor(byte[] body, String extension) {
+        String hash = CONTENT_HASH.hashBytes(body).toString();
+        return ROOT + "/" + hash.substring(0, 2) + "/" + hash.substring(2) + "." + extension;
+    }
+
+    public String write(final byte[] body, String extension) {
+        final String fileName = fileNameFor(body, extension);
+        FutureTask<String> write = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                store(fileName, body);
+                return fileName;
+            }
+        });
+
+        FutureTask<String> inFlight = writes.putIfAbsent(fileName, write);
+        if (inFlight == null) {
+            inFlight = write;
+            write.run();
+        }
+
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            writes.remove(fileName, inFlight);
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void store(String fileName, byte[] body) throws IOException {
+        String directory = fileName.substring(0, fileName.lastIndexOf('/'));
+        FileSource directorySource = filesRoot.child(directory);
+        directorySource.createIfNecessary();
+
+        File target = fileOnDisk(fileName);
+        if (target == null) {
+            directorySource.writeBinaryFile(fileName.substring(directory.length() + 1), body);
+            return;
+        }
+
+        if (target.isFile() && target.length() == body.length) {
+            return;
+        }
+
+        Path temp = Files.createTempFile(target.getParentFile().toPath(), ".", ".tmp");
+        try {
+            Files.write(temp, body);
+            moveIntoPlace(temp, target.toPath());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, REPLACE_EXISTING);
+        }
+    }
+
+    private File fileOnDisk(String fileName) {
+        URI uri = filesRoot.getUri();
+        return uri != null && "file".equals(uri.getScheme()) ? new File(new File(uri), fileName) : null;
+    }
+}
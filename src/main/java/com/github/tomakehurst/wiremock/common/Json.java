@@ -16,12 +16,15 @@
 package com.github.tomakehurst.wiremock.common;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
@@ -51,6 +54,15 @@ public final class Json {
 		}
 	}
 
+    public static <T> T read(InputStream in, Class<T> clazz) {
+        try {
+            ObjectMapper mapper = getObjectMapper();
+            return mapper.readValue(in, clazz);
+        } catch (IOException ioe) {
+            return throwUnchecked(ioe, clazz);
+        }
+    }
+
 	public static <T> String write(T object) {
 		try {
 			ObjectMapper mapper = getObjectMapper();
@@ -61,6 +73,21 @@ public final class Json {
 	}
 
 
+    /**
+     * Serialises the object directly to the stream without building it up in memory first.
+     * The stream is flushed but left open.
+     */
+    public static void writeTo(Object object, OutputStream out, boolean pretty) throws IOException {
+        ObjectMapper mapper = getObjectMapper();
+        JsonGenerator generator = mapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (pretty) {
+            generator.useDefaultPrettyPrinter();
+        }
+
+        mapper.writeValue(generator, object);
+    }
+
     public static ObjectMapper getObjectMapper() {
         return objectMapperHolder.get();
     }
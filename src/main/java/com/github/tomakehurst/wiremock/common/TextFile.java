@@ -26,6 +26,6 @@ public class TextFile extends BinaryFile {
 	}
 	
 	public String readContentsAsString() {
-        return new String(super.readContents(), UTF_8);
+        return new String(readContents(), UTF_8);
 	}
 }
@@ -23,21 +23,31 @@ import com.github.tomakehurst.wiremock.recording.RecordSpecBuilder;
 import com.github.tomakehurst.wiremock.recording.RecordingStatusResult;
 import com.github.tomakehurst.wiremock.recording.SnapshotRecordResult;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCacheStats;
 import com.github.tomakehurst.wiremock.verification.FindNearMissesResult;
 import com.github.tomakehurst.wiremock.verification.FindRequestsResult;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.verification.ServeEventQuery;
+import com.github.tomakehurst.wiremock.verification.ServeEventSubscription;
 import com.github.tomakehurst.wiremock.verification.VerificationResult;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface Admin {
 
 	void addStubMapping(StubMapping stubMapping);
+	ImportStubMappingsResult importStubMappings(List<StubMapping> stubMappings);
 	void editStubMapping(StubMapping stubMapping);
 	void removeStubMapping(StubMapping stubbMapping);
+	void replaceAllStubMappings(List<StubMapping> stubMappings);
     ListStubMappingsResult listAllStubMappings();
     SingleStubMappingResult getStubMapping(UUID id);
+    ListStubMappingsResult findStubMappings(StubMappingQuery query);
     void saveMappings();
+    void flushMappings();
+    StubMatchCacheStats getStubMatchCacheStats();
 
 	void resetRequests();
     void resetScenarios();
@@ -46,6 +56,8 @@ public interface Admin {
     void resetToDefaultMappings();
 
     GetServeEventsResult getServeEvents();
+    GetServeEventsResult getServeEvents(ServeEventQuery query);
+    ServeEventSubscription subscribeToServeEvents(RequestPattern filter);
     SingleServedStubResult getServedStub(UUID id);
     VerificationResult countRequestsMatching(RequestPattern requestPattern);
     FindRequestsResult findRequestsMatching(RequestPattern requestPattern);
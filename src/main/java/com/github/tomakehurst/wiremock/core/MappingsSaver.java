@@ -17,11 +17,19 @@ package com.github.tomakehurst.wiremock.core;
 
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface MappingsSaver {
     void save(List<StubMapping> stubMappings);
     void save(StubMapping stubMapping);
     void remove(StubMapping stubMapping);
     void removeAll();
+
+    /**
+     * Forces anything written for the given stubs through to durable storage. Savers that don't buffer
+     * their writes have nothing to do.
+     */
+    void sync(Collection<UUID> stubIds);
 }
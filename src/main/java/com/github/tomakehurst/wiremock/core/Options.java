@@ -22,6 +22,8 @@ import com.github.tomakehurst.wiremock.http.HttpServerFactory;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.security.Authenticator;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
+import com.github.tomakehurst.wiremock.verification.FileRequestJournalSettings;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
 import com.github.tomakehurst.wiremock.verification.notmatched.NotMatchedRenderer;
 import com.google.common.base.Optional;
 
@@ -47,6 +49,10 @@ public interface Options {
     Notifier notifier();
     boolean requestJournalDisabled();
     Optional<Integer> maxRequestJournalEntries();
+    Optional<FileRequestJournalSettings> requestJournalFileSettings();
+    int requestJournalMaxBodySize();
+    boolean requestJournalDeduplicationEnabled();
+    JournalingPolicy requestJournalingPolicy();
     String bindAddress();
     List<CaseInsensitiveKey> matchingHeaders();
     boolean shouldPreserveHostHeader();
@@ -57,4 +63,10 @@ public interface Options {
     Authenticator getAdminAuthenticator();
     boolean getHttpsRequiredForAdminApi();
     NotMatchedRenderer getNotMatchedRenderer();
+    int stubMatchCacheSize();
+    int precompressedBodyMinSize();
+    long precompressedBodyCacheBytes();
+    int mappingsWriteBehindQueueSize();
+    boolean mappingsWatchEnabled();
+    boolean contentAddressedBodyFilesEnabled();
 }
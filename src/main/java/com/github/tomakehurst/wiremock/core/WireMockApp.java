@@ -18,7 +18,9 @@ package com.github.tomakehurst.wiremock.core;
 import com.github.tomakehurst.wiremock.admin.AdminRoutes;
 import com.github.tomakehurst.wiremock.admin.LimitAndOffsetPaginator;
 import com.github.tomakehurst.wiremock.admin.model.*;
+import com.github.tomakehurst.wiremock.common.Errors;
 import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.InvalidRequestException;
 import com.github.tomakehurst.wiremock.extension.*;
 import com.github.tomakehurst.wiremock.global.GlobalSettings;
 import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
@@ -26,21 +28,32 @@ import com.github.tomakehurst.wiremock.http.*;
 import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.recording.*;
+import com.github.tomakehurst.wiremock.standalone.JsonFileMappingsSource;
+import com.github.tomakehurst.wiremock.standalone.MappingsDirectoryWatcher;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
 import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
-import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCache;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCacheStats;
 import com.github.tomakehurst.wiremock.verification.*;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.jsonResponse;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.stubbing.ServeEvent.NOT_MATCHED;
 import static com.github.tomakehurst.wiremock.stubbing.ServeEvent.TO_LOGGED_REQUEST;
@@ -52,8 +65,8 @@ public class WireMockApp implements StubServer, Admin {
     public static final String ADMIN_CONTEXT_ROOT = "/__admin";
     public static final String MAPPINGS_ROOT = "mappings";
 
-    private final StubMappings stubMappings;
-    private final RequestJournal requestJournal;
+    private final InMemoryStubMappings stubMappings;
+    private final PagedRequestJournal requestJournal;
     private final GlobalSettingsHolder globalSettingsHolder;
     private final boolean browserProxyingEnabled;
     private final MappingsLoader defaultMappingsLoader;
@@ -61,7 +74,11 @@ public class WireMockApp implements StubServer, Admin {
     private final MappingsSaver mappingsSaver;
     private final NearMissCalculator nearMissCalculator;
     private final Recorder recorder;
+    private final PrecompressedBodyCache precompressedBodies;
+    private final MappingsDirectoryWatcher mappingsWatcher;
+    private final ServeEventBroadcaster serveEventBroadcaster;
 
+    private volatile DefaultMappings defaultMappings;
     private Options options;
 
     public WireMockApp(Options options, Container container) {
@@ -71,17 +88,29 @@ public class WireMockApp implements StubServer, Admin {
 
         this.browserProxyingEnabled = options.browserProxyingEnabled();
         this.defaultMappingsLoader = options.mappingsLoader();
-        this.mappingsSaver = options.mappingsSaver();
+        this.mappingsSaver = options.mappingsWriteBehindQueueSize() > WriteBehindMappingsSaver.DISABLED ?
+            new WriteBehindMappingsSaver(options.mappingsSaver(), options.mappingsWriteBehindQueueSize()) :
+            options.mappingsSaver();
         globalSettingsHolder = new GlobalSettingsHolder();
-        requestJournal = options.requestJournalDisabled() ? new DisabledRequestJournal() : new InMemoryRequestJournal(options.maxRequestJournalEntries());
+        requestJournal = buildRequestJournal(options);
+        precompressedBodies = new PrecompressedBodyCache(options.precompressedBodyMinSize(), options.precompressedBodyCacheBytes());
         stubMappings = new InMemoryStubMappings(
             options.extensionsOfType(RequestMatcherExtension.class),
             options.extensionsOfType(ResponseDefinitionTransformer.class),
-            fileSource);
+            fileSource,
+            new StubMatchCache(options.stubMatchCacheSize()),
+            precompressedBodies);
         nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
         recorder = new Recorder(this);
+        serveEventBroadcaster = new ServeEventBroadcaster(ServeEventBroadcaster.DEFAULT_BUFFER_SIZE, Math.max(1, options.containerThreads() / 4));
         this.container = container;
         loadDefaultMappings();
+        mappingsWatcher = options.mappingsWatchEnabled() && defaultMappingsLoader instanceof JsonFileMappingsSource ?
+            new MappingsDirectoryWatcher((JsonFileMappingsSource) defaultMappingsLoader, stubMappings, MappingsDirectoryWatcher.DEFAULT_DEBOUNCE_MILLIS) :
+            null;
+        if (options.mappingsWatchEnabled() && mappingsWatcher == null) {
+            options.notifier().error("Not watching for mapping changes as mappings are not loaded from a directory");
+        }
     }
 
     public WireMockApp(
@@ -99,12 +128,53 @@ public class WireMockApp implements StubServer, Admin {
         this.defaultMappingsLoader = defaultMappingsLoader;
         this.mappingsSaver = mappingsSaver;
         globalSettingsHolder = new GlobalSettingsHolder();
-        requestJournal = requestJournalDisabled ? new DisabledRequestJournal() : new InMemoryRequestJournal(maxRequestJournalEntries);
+        requestJournal = requestJournalDisabled ?
+            new DisabledRequestJournal() :
+            new SelectiveRequestJournal(new InMemoryRequestJournal(maxRequestJournalEntries), JournalingPolicy.RECORD_ALL);
+        precompressedBodies = PrecompressedBodyCache.disabled();
         stubMappings = new InMemoryStubMappings(requestMatchers, transformers, rootFileSource);
         this.container = container;
         nearMissCalculator = new NearMissCalculator(stubMappings, requestJournal);
         recorder = new Recorder(this);
+        serveEventBroadcaster = new ServeEventBroadcaster(ServeEventBroadcaster.DEFAULT_BUFFER_SIZE, Math.max(1, Options.DEFAULT_CONTAINER_THREADS / 4));
         loadDefaultMappings();
+        mappingsWatcher = null;
+    }
+
+    public void startWatchingMappings() {
+        if (mappingsWatcher != null) {
+            mappingsWatcher.start();
+        }
+    }
+
+    private static PagedRequestJournal buildRequestJournal(Options options) {
+        if (options.requestJournalDisabled()) {
+            return new DisabledRequestJournal();
+        }
+
+        // Deduplication only saves heap, which the file journal doesn't use for events
+        PagedRequestJournal journal = options.requestJournalFileSettings().isPresent() ?
+            new FileRequestJournal(
+                options.requestJournalFileSettings().get(),
+                options.maxRequestJournalEntries(),
+                new ServeEventCompactor(options.requestJournalMaxBodySize(), false)
+            ) :
+            new InMemoryRequestJournal(
+                options.maxRequestJournalEntries(),
+                new ServeEventCompactor(options.requestJournalMaxBodySize(), options.requestJournalDeduplicationEnabled())
+            );
+
+        return new SelectiveRequestJournal(journal, options.requestJournalingPolicy());
+    }
+
+    public void closeServeEventStreams() {
+        serveEventBroadcaster.closeAll();
+    }
+
+    public void stopWatchingMappings() {
+        if (mappingsWatcher != null) {
+            mappingsWatcher.stop();
+        }
     }
 
     public AdminRequestHandler buildAdminRequestHandler() {
@@ -134,11 +204,15 @@ public class WireMockApp implements StubServer, Admin {
                     options.shouldPreserveHostHeader(),
                     options.proxyHostHeader()
                 ),
-                ImmutableList.copyOf(options.extensionsOfType(ResponseTransformer.class).values())
+                ImmutableList.copyOf(options.extensionsOfType(ResponseTransformer.class).values()),
+                precompressedBodies,
+                // The journal keeps the served response, so its body can only be streamed when there is no journal
+                options.requestJournalDisabled()
             ),
             this,
             postServeActions,
-            requestJournal
+            requestJournal,
+            serveEventBroadcaster
         );
     }
 
@@ -147,7 +221,32 @@ public class WireMockApp implements StubServer, Admin {
     }
 
     private void loadDefaultMappings() {
+        long version = defaultMappingsVersion();
         loadMappingsUsing(defaultMappingsLoader);
+        defaultMappings = new DefaultMappings(version, stubMappings.snapshot());
+    }
+
+    /**
+     * The default stubs are loaded once and kept as a snapshot, which is only rebuilt when the mapping files have
+     * since been changed through WireMock (e.g. by saving persistent stubs or by the mappings directory watcher).
+     */
+    private InMemoryStubMappings.Snapshot defaultMappings() {
+        DefaultMappings current = defaultMappings;
+        long version = defaultMappingsVersion();
+        if (current.version != version) {
+            InMemoryStubMappings loaded = stubMappings.emptyCopy();
+            defaultMappingsLoader.loadMappingsInto(loaded);
+            current = new DefaultMappings(version, loaded.snapshot());
+            defaultMappings = current;
+        }
+
+        return current.snapshot;
+    }
+
+    private long defaultMappingsVersion() {
+        return defaultMappingsLoader instanceof JsonFileMappingsSource ?
+            ((JsonFileMappingsSource) defaultMappingsLoader).getVersion() :
+            0;
     }
 
     public void loadMappingsUsing(final MappingsLoader mappingsLoader) {
@@ -187,6 +286,23 @@ public class WireMockApp implements StubServer, Admin {
         }
     }
 
+    @Override
+    public ImportStubMappingsResult importStubMappings(List<StubMapping> newStubMappings) {
+        stubMappings.addMappings(newStubMappings);
+
+        List<StubMapping> toPersist = new ArrayList<>();
+        for (StubMapping stubMapping: newStubMappings) {
+            if (stubMapping.shouldBePersisted()) {
+                toPersist.add(stubMapping);
+            }
+        }
+        if (!toPersist.isEmpty()) {
+            mappingsSaver.save(toPersist);
+        }
+
+        return ImportStubMappingsResult.imported(newStubMappings.size());
+    }
+
     @Override
     public void removeStubMapping(StubMapping stubMapping) {
         stubMappings.removeMapping(stubMapping);
@@ -203,11 +319,38 @@ public class WireMockApp implements StubServer, Admin {
         }
     }
 
+    @Override
+    public void replaceAllStubMappings(List<StubMapping> newStubMappings) {
+        List<StubMapping> previousStubMappings = stubMappings.getAll();
+        stubMappings.replaceAll(newStubMappings);
+
+        Set<UUID> newIds = new HashSet<>();
+        for (StubMapping stubMapping: newStubMappings) {
+            newIds.add(stubMapping.getId());
+            if (stubMapping.shouldBePersisted()) {
+                mappingsSaver.save(stubMapping);
+            }
+        }
+
+        for (StubMapping stubMapping: previousStubMappings) {
+            if (stubMapping.shouldBePersisted() && !newIds.contains(stubMapping.getId())) {
+                mappingsSaver.remove(stubMapping);
+            }
+        }
+    }
+
     @Override
     public ListStubMappingsResult listAllStubMappings() {
         return new ListStubMappingsResult(LimitAndOffsetPaginator.none(stubMappings.getAll()));
     }
 
+    @Override
+    public ListStubMappingsResult findStubMappings(StubMappingQuery query) {
+        return new ListStubMappingsResult(
+            new LimitAndOffsetPaginator<>(stubMappings.search(query), query.getLimit(), query.getOffset())
+        );
+    }
+
     @Override
     public SingleStubMappingResult getStubMapping(UUID id) {
         return SingleStubMappingResult.fromOptional(stubMappings.get(id));
@@ -218,6 +361,34 @@ public class WireMockApp implements StubServer, Admin {
         mappingsSaver.save(stubMappings.getAll());
     }
 
+    @Override
+    public void flushMappings() {
+        if (mappingsSaver instanceof WriteBehindMappingsSaver) {
+            ((WriteBehindMappingsSaver) mappingsSaver).flush();
+        }
+    }
+
+    public void closeMappingsSaver() {
+        if (mappingsSaver instanceof WriteBehindMappingsSaver) {
+            ((WriteBehindMappingsSaver) mappingsSaver).close();
+        }
+    }
+
+    public void closeRequestJournal() {
+        if (requestJournal instanceof Closeable) {
+            try {
+                ((Closeable) requestJournal).close();
+            } catch (IOException e) {
+                throwUnchecked(e);
+            }
+        }
+    }
+
+    @Override
+    public StubMatchCacheStats getStubMatchCacheStats() {
+        return stubMappings.getMatchCacheStats();
+    }
+
     @Override
     public void resetAll() {
         resetToDefaultMappings();
@@ -230,9 +401,8 @@ public class WireMockApp implements StubServer, Admin {
 
     @Override
     public void resetToDefaultMappings() {
-        stubMappings.reset();
+        stubMappings.restore(defaultMappings());
         resetRequests();
-        loadDefaultMappings();
     }
 
     @Override
@@ -259,6 +429,37 @@ public class WireMockApp implements StubServer, Admin {
         }
     }
 
+    @Override
+    public GetServeEventsResult getServeEvents(ServeEventQuery query) {
+        int limit = query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE;
+        try {
+            List<ServeEvent> serveEvents;
+            if (query.getSinceId() != null) {
+                Optional<List<ServeEvent>> since = requestJournal.getServeEventsSince(query.getSinceId(), limit);
+                if (!since.isPresent()) {
+                    throw new InvalidRequestException(Errors.validation("",
+                        "The serve event " + query.getSinceId() + " is not in the request journal, so there is nothing to read on from. " +
+                        "It may have been removed to make room for newer events, or the journal may have been reset."
+                    ));
+                }
+                serveEvents = since.get();
+            } else if (query.getSince() != null || query.getUntil() != null) {
+                serveEvents = requestJournal.getServeEventsBetween(query.getSince(), query.getUntil(), limit);
+            } else {
+                serveEvents = requestJournal.getNewestServeEvents(limit);
+            }
+
+            return new GetServeEventsResult(serveEvents, new PaginatedResult.Meta(requestJournal.getServeEventCount()), false);
+        } catch (RequestJournalDisabledException e) {
+            return new GetServeEventsResult(Collections.<ServeEvent>emptyList(), new PaginatedResult.Meta(0), true);
+        }
+    }
+
+    @Override
+    public ServeEventSubscription subscribeToServeEvents(RequestPattern filter) {
+        return serveEventBroadcaster.subscribe(filter);
+    }
+
     @Override
     public SingleServedStubResult getServedStub(UUID id) {
         return SingleServedStubResult.fromOptional(requestJournal.getServeEvent(id));
@@ -267,7 +468,13 @@ public class WireMockApp implements StubServer, Admin {
     @Override
     public VerificationResult countRequestsMatching(RequestPattern requestPattern) {
         try {
-            return VerificationResult.withCount(requestJournal.countRequestsMatching(requestPattern));
+            int count = requestJournal.countRequestsMatching(requestPattern);
+            long droppedCount = requestJournal instanceof SelectiveRequestJournal ?
+                ((SelectiveRequestJournal) requestJournal).getDroppedCount() :
+                0;
+            return droppedCount > 0 ?
+                VerificationResult.withSampledCount(count, droppedCount) :
+                VerificationResult.withCount(count);
         } catch (RequestJournalDisabledException e) {
             return VerificationResult.withRequestJournalDisabled();
         }
@@ -389,4 +596,15 @@ public class WireMockApp implements StubServer, Admin {
     public RecordingStatusResult getRecordingStatus() {
         return new RecordingStatusResult(recorder.getStatus().name());
     }
+
+    private static class DefaultMappings {
+
+        final long version;
+        final InMemoryStubMappings.Snapshot snapshot;
+
+        DefaultMappings(long version, InMemoryStubMappings.Snapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.github.tomakehurst.wiremock.extension.Extension;
 import com.github.tomakehurst.wiremock.extension.ExtensionLoader;
 import com.github.tomakehurst.wiremock.http.CaseInsensitiveKey;
 import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.trafficlistener.DoNothingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.jetty9.JettyHttpServerFactory;
@@ -30,14 +31,20 @@ import com.github.tomakehurst.wiremock.security.NoAuthenticator;
 import com.github.tomakehurst.wiremock.standalone.JsonFileMappingsSource;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
 import com.github.tomakehurst.wiremock.standalone.MappingsSource;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCache;
+import com.github.tomakehurst.wiremock.verification.FileRequestJournalSettings;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
+import com.github.tomakehurst.wiremock.verification.ServeEventCompactor;
 import com.github.tomakehurst.wiremock.verification.notmatched.NotMatchedRenderer;
 import com.github.tomakehurst.wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
 import com.google.common.io.Resources;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static com.github.tomakehurst.wiremock.extension.ExtensionLoader.valueAssignableFrom;
@@ -88,9 +95,28 @@ public class WireMockConfiguration implements Options {
 
     private NotMatchedRenderer notMatchedRenderer = new PlainTextStubNotMatchedRenderer();
 
+    private int stubMatchCacheSize = StubMatchCache.DISABLED;
+
+    private int precompressedBodyMinSize = PrecompressedBodyCache.DEFAULT_MIN_SIZE;
+    private long precompressedBodyCacheBytes = PrecompressedBodyCache.DEFAULT_MAX_BYTES;
+
+    private int mappingsWriteBehindQueueSize = WriteBehindMappingsSaver.DISABLED;
+
+    private boolean mappingsWatchEnabled = false;
+    private boolean contentAddressedBodyFilesEnabled = false;
+    private int lazyInlineBodyThreshold = JsonFileMappingsSource.LAZY_INLINE_BODIES_DISABLED;
+
+    private String requestJournalDirectory;
+    private long requestJournalSegmentSize = FileRequestJournalSettings.DEFAULT_SEGMENT_SIZE;
+    private long requestJournalMaxBytes = FileRequestJournalSettings.DEFAULT_MAX_BYTES;
+    private Optional<Long> requestJournalMaxAgeMillis = Optional.absent();
+    private int requestJournalMaxBodySize = ServeEventCompactor.UNLIMITED;
+    private boolean requestJournalDeduplicationEnabled = false;
+    private JournalingPolicy requestJournalingPolicy = JournalingPolicy.RECORD_ALL;
+
     private MappingsSource getMappingsSource() {
         if (mappingsSource == null) {
-            mappingsSource = new JsonFileMappingsSource(filesRoot.child(MAPPINGS_ROOT));
+            mappingsSource = new JsonFileMappingsSource(filesRoot.child(MAPPINGS_ROOT), lazyInlineBodyThreshold);
         }
 
         return mappingsSource;
@@ -213,6 +239,11 @@ public class WireMockConfiguration implements Options {
         return this;
     }
 
+    public WireMockConfiguration usingFilesUnderClasspath(String path, int maxCachedFileSize) {
+        fileSource(new ClasspathFileSource(path, maxCachedFileSize));
+        return this;
+    }
+
     public WireMockConfiguration fileSource(FileSource fileSource) {
         this.filesRoot = fileSource;
         return this;
@@ -233,6 +264,10 @@ public class WireMockConfiguration implements Options {
         return this;
     }
 
+    /**
+     * Stops requests being recorded for later verification. As nothing then needs to keep hold of a served
+     * response, templated bodies are also streamed to the client as they are rendered rather than in full first.
+     */
     public WireMockConfiguration disableRequestJournal() {
         requestJournalDisabled = true;
         return this;
@@ -311,6 +346,80 @@ public class WireMockConfiguration implements Options {
         return this;
     }
 
+    public WireMockConfiguration stubMatchCacheSize(int maxEntries) {
+        this.stubMatchCacheSize = maxEntries;
+        return this;
+    }
+
+    public WireMockConfiguration precompressedBodyMinSize(int minSize) {
+        this.precompressedBodyMinSize = minSize;
+        return this;
+    }
+
+    public WireMockConfiguration precompressedBodyCacheBytes(long maxBytes) {
+        this.precompressedBodyCacheBytes = maxBytes;
+        return this;
+    }
+
+    public WireMockConfiguration disablePrecompressedBodies() {
+        return precompressedBodyCacheBytes(0);
+    }
+
+    public WireMockConfiguration mappingsWriteBehindQueueSize(int maxPending) {
+        this.mappingsWriteBehindQueueSize = maxPending;
+        return this;
+    }
+
+    public WireMockConfiguration watchMappings() {
+        this.mappingsWatchEnabled = true;
+        return this;
+    }
+
+    public WireMockConfiguration contentAddressedBodyFiles() {
+        this.contentAddressedBodyFilesEnabled = true;
+        return this;
+    }
+
+    public WireMockConfiguration lazyInlineBodiesOver(int bytes) {
+        this.lazyInlineBodyThreshold = bytes;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalDirectory(String directory) {
+        this.requestJournalDirectory = directory;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalSegmentSize(long bytes) {
+        this.requestJournalSegmentSize = bytes;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalMaxBytes(long bytes) {
+        this.requestJournalMaxBytes = bytes;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalMaxAge(long duration, TimeUnit unit) {
+        this.requestJournalMaxAgeMillis = Optional.of(unit.toMillis(duration));
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalMaxBodySize(int bytes) {
+        this.requestJournalMaxBodySize = bytes;
+        return this;
+    }
+
+    public WireMockConfiguration deduplicateRequestJournal() {
+        this.requestJournalDeduplicationEnabled = true;
+        return this;
+    }
+
+    public WireMockConfiguration requestJournalingPolicy(JournalingPolicy requestJournalingPolicy) {
+        this.requestJournalingPolicy = requestJournalingPolicy;
+        return this;
+    }
+
     @Override
     public int portNumber() {
         return portNumber;
@@ -435,4 +544,63 @@ public class WireMockConfiguration implements Options {
     public NotMatchedRenderer getNotMatchedRenderer() {
         return notMatchedRenderer;
     }
+
+    @Override
+    public int stubMatchCacheSize() {
+        return stubMatchCacheSize;
+    }
+
+    @Override
+    public int precompressedBodyMinSize() {
+        return precompressedBodyMinSize;
+    }
+
+    @Override
+    public long precompressedBodyCacheBytes() {
+        return precompressedBodyCacheBytes;
+    }
+
+    @Override
+    public int mappingsWriteBehindQueueSize() {
+        return mappingsWriteBehindQueueSize;
+    }
+
+    @Override
+    public boolean mappingsWatchEnabled() {
+        return mappingsWatchEnabled;
+    }
+
+    @Override
+    public boolean contentAddressedBodyFilesEnabled() {
+        return contentAddressedBodyFilesEnabled;
+    }
+
+    @Override
+    public Optional<FileRequestJournalSettings> requestJournalFileSettings() {
+        if (requestJournalDirectory == null) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new FileRequestJournalSettings(
+            new File(requestJournalDirectory),
+            requestJournalSegmentSize,
+            requestJournalMaxBytes,
+            requestJournalMaxAgeMillis
+        ));
+    }
+
+    @Override
+    public int requestJournalMaxBodySize() {
+        return requestJournalMaxBodySize;
+    }
+
+    @Override
+    public boolean requestJournalDeduplicationEnabled() {
+        return requestJournalDeduplicationEnabled;
+    }
+
+    @Override
+    public JournalingPolicy requestJournalingPolicy() {
+        return requestJournalingPolicy;
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.core;
+
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static java.util.Collections.singletonList;
+
+/**
+ * Hands stub persistence off to a background writer so that admin requests don't wait on the disk.
+ *
+ * Pending operations are keyed by stub ID, so repeated saves or a save followed by a remove of the same
+ * stub collapse into the latest one. The writer drains everything pending as a single batch and asks the
+ * delegate to sync the batch once at the end. Callers needing durability call flush(), which blocks until
+ * everything submitted before it has been written and throws if any of it failed.
+ *
+ * When maxPending distinct stubs are waiting to be written, callers block until the writer catches up.
+ * The writer thread is started when there is something to write and stopped by close().
+ */
+public class WriteBehindMappingsSaver implements MappingsSaver {
+
+    public static final int DISABLED = 0;
+
+    private static final Object REMOVE_ALL = new Object();
+
+    private final MappingsSaver delegate;
+    private final int maxPending;
+    private final Map<Object, PendingWrite> pending = new LinkedHashMap<>();
+
+    private long submitted;
+    private long completed;
+    private Thread writer;
+    private RuntimeException failure;
+
+    public WriteBehindMappingsSaver(MappingsSaver delegate, int maxPending) {
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void save(List<StubMapping> stubMappings) {
+        for (StubMapping mapping: stubMappings) {
+            if (mapping != null) {
+                submit(mapping.getId(), new PendingWrite(mapping, Operation.SAVE_IF_DIRTY));
+            }
+        }
+    }
+
+    @Override
+    public void save(StubMapping stubMapping) {
+        submit(stubMapping.getId(), new PendingWrite(stubMapping, Operation.SAVE));
+    }
+
+    @Override
+    public void remove(StubMapping stubMapping) {
+        submit(stubMapping.getId(), new PendingWrite(stubMapping, Operation.REMOVE));
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        pending.clear();
+        pending.put(REMOVE_ALL, null);
+        submitted++;
+        startWriterIfStopped();
+        notifyAll();
+    }
+
+    @Override
+    public void sync(Collection<UUID> stubIds) {
+        flush();
+    }
+
+    public synchronized void flush() {
+        long target = submitted;
+        boolean interrupted = false;
+        while (completed < target) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            RuntimeException e = failure;
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes everything pending, then stops the writer thread. Anything saved afterwards starts a new one.
+     */
+    public void close() {
+        try {
+            flush();
+        } finally {
+            Thread stopping;
+            synchronized (this) {
+                stopping = writer;
+                writer = null;
+                notifyAll();
+            }
+
+            if (stopping != null) {
+                stopping.interrupt();
+            }
+        }
+    }
+
+    private synchronized void submit(UUID id, PendingWrite write) {
+        boolean interrupted = false;
+        while (pending.size() >= maxPending && !pending.containsKey(id)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        pending.put(id, write);
+        submitted++;
+        startWriterIfStopped();
+        notifyAll();
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void startWriterIfStopped() {
+        if (writer != null) {
+            return;
+        }
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeUntilStopped();
+            }
+        }, "wiremock-mappings-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void writeUntilStopped() {
+        Thread self = Thread.currentThread();
+        try {
+            while (true) {
+                List<Map.Entry<Object, PendingWrite>> batch;
+                long batchEnd;
+                synchronized (this) {
+                    while (writer == self && pending.isEmpty()) {
+                        wait();
+                    }
+
+                    if (writer != self) {
+                        return;
+                    }
+
+                    batch = new ArrayList<>(pending.entrySet());
+                    batchEnd = submitted;
+                    pending.clear();
+                    notifyAll();
+                }
+
+                RuntimeException batchFailure = write(batch);
+
+                synchronized (this) {
+                    completed = batchEnd;
+                    if (failure == null) {
+                        failure = batchFailure;
+                    }
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private RuntimeException write(List<Map.Entry<Object, PendingWrite>> batch) {
+        RuntimeException firstFailure = null;
+        List<UUID> saved = new ArrayList<>();
+        for (Map.Entry<Object, PendingWrite> entry: batch) {
+            try {
+                if (entry.getKey() == REMOVE_ALL) {
+                    delegate.removeAll();
+                    continue;
+                }
+
+                PendingWrite write = entry.getValue();
+                switch (write.operation) {
+                    case SAVE:
+                        delegate.save(write.mapping);
+                        break;
+                    case SAVE_IF_DIRTY:
+                        delegate.save(singletonList(write.mapping));
+                        break;
+                    case REMOVE:
+                        delegate.remove(write.mapping);
+                        continue;
+                }
+                saved.add(write.mapping.getId());
+            } catch (Exception e) {
+                notifier().error("Failed to persist stub mapping changes", e);
+                firstFailure = firstFailure != null ? firstFailure : new IllegalStateException("Failed to persist stub mapping changes", e);
+            }
+        }
+
+        if (!saved.isEmpty()) {
+            try {
+                delegate.sync(saved);
+            } catch (Exception e) {
+                notifier().error("Failed to sync stub mapping files to disk", e);
+                firstFailure = firstFailure != null ? firstFailure : new IllegalStateException("Failed to sync stub mapping files to disk", e);
+            }
+        }
+
+        return firstFailure;
+    }
+
+    private enum Operation { SAVE, SAVE_IF_DIRTY, REMOVE }
+
+    private static class PendingWrite {
+
+        final StubMapping mapping;
+        final Operation operation;
+
+        PendingWrite(StubMapping mapping, Operation operation) {
+            this.mapping = mapping;
+            this.operation = operation;
+        }
+    }
+}
@@ -22,22 +22,45 @@ import com.github.tomakehurst.wiremock.http.MultiValue;
 import com.github.tomakehurst.wiremock.http.QueryParameter;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Maps;
 
 import java.net.URI;
 import java.util.Map;
 
+/**
+ * The request as seen by response templates. When built from a request, each section is only worked out
+ * the first time a template refers to it, so rendering {{request.path.[1]}} doesn't parse the query or copy
+ * every header and the body.
+ */
 public class RequestTemplateModel {
 
     private final String url;
-    private final UrlPath path;
-    private final Map<String, ListOrSingle<String>> query;
-    private final Map<String, ListOrSingle<String>> headers;
-    private final Map<String, ListOrSingle<String>> cookies;
-    private final String body;
+    private final Supplier<UrlPath> path;
+    private final Supplier<Map<String, ListOrSingle<String>>> query;
+    private final Supplier<Map<String, ListOrSingle<String>>> headers;
+    private final Supplier<Map<String, ListOrSingle<String>>> cookies;
+    private final Supplier<String> body;
 
 
     public RequestTemplateModel(String url, UrlPath path, Map<String, ListOrSingle<String>> query, Map<String, ListOrSingle<String>> headers, Map<String, ListOrSingle<String>> cookies, String body) {
+        this(
+            url,
+            Suppliers.ofInstance(path),
+            Suppliers.ofInstance(query),
+            Suppliers.ofInstance(headers),
+            Suppliers.ofInstance(cookies),
+            Suppliers.ofInstance(body)
+        );
+    }
+
+    private RequestTemplateModel(String url,
+                                 Supplier<UrlPath> path,
+                                 Supplier<Map<String, ListOrSingle<String>>> query,
+                                 Supplier<Map<String, ListOrSingle<String>>> headers,
+                                 Supplier<Map<String, ListOrSingle<String>>> cookies,
+                                 Supplier<String> body) {
         this.url = url;
         this.path = path;
         this.query = query;
@@ -47,31 +70,49 @@ public class RequestTemplateModel {
     }
 
     public static RequestTemplateModel from(final Request request) {
-        URI url = URI.create(request.getUrl());
-        Map<String, QueryParameter> rawQuery = Urls.splitQuery(url);
-        Map<String, ListOrSingle<String>> adaptedQuery = Maps.transformValues(rawQuery, TO_TEMPLATE_MODEL);
-        Map<String, ListOrSingle<String>> adaptedHeaders = Maps.toMap(request.getAllHeaderKeys(), new Function<String, ListOrSingle<String>>() {
-            @Override
-            public ListOrSingle<String> apply(String input) {
-                return ListOrSingle.of(request.header(input).values());
-            }
-        });
-        Map<String, ListOrSingle<String>> adaptedCookies = Maps.transformValues(request.getCookies(), new Function<Cookie, ListOrSingle<String>>() {
-            @Override
-            public ListOrSingle<String> apply(Cookie cookie) {
-                return ListOrSingle.of(cookie.getValues());
-            }
-        });
-
-        UrlPath path = new UrlPath(request.getUrl());
-
         return new RequestTemplateModel(
             request.getUrl(),
-            path,
-            adaptedQuery,
-            adaptedHeaders,
-            adaptedCookies,
-            request.getBodyAsString()
+            Suppliers.memoize(new Supplier<UrlPath>() {
+                @Override
+                public UrlPath get() {
+                    return new UrlPath(request.getUrl());
+                }
+            }),
+            Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
+                @Override
+                public Map<String, ListOrSingle<String>> get() {
+                    Map<String, QueryParameter> rawQuery = Urls.splitQuery(URI.create(request.getUrl()));
+                    return Maps.transformValues(rawQuery, TO_TEMPLATE_MODEL);
+                }
+            }),
+            Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
+                @Override
+                public Map<String, ListOrSingle<String>> get() {
+                    return Maps.toMap(request.getAllHeaderKeys(), new Function<String, ListOrSingle<String>>() {
+                        @Override
+                        public ListOrSingle<String> apply(String input) {
+                            return ListOrSingle.of(request.header(input).values());
+                        }
+                    });
+                }
+            }),
+            Suppliers.memoize(new Supplier<Map<String, ListOrSingle<String>>>() {
+                @Override
+                public Map<String, ListOrSingle<String>> get() {
+                    return Maps.transformValues(request.getCookies(), new Function<Cookie, ListOrSingle<String>>() {
+                        @Override
+                        public ListOrSingle<String> apply(Cookie cookie) {
+                            return ListOrSingle.of(cookie.getValues());
+                        }
+                    });
+                }
+            }),
+            Suppliers.memoize(new Supplier<String>() {
+                @Override
+                public String get() {
+                    return request.getBodyAsString();
+                }
+            })
         );
     }
 
@@ -80,23 +121,23 @@ public class RequestTemplateModel {
     }
 
     public UrlPath getPath() {
-        return path;
+        return path.get();
     }
 
     public Map<String, ListOrSingle<String>> getQuery() {
-        return query;
+        return query.get();
     }
 
     public Map<String, ListOrSingle<String>> getHeaders() {
-        return headers;
+        return headers.get();
     }
 
     public Map<String, ListOrSingle<String>> getCookies() {
-        return cookies;
+        return cookies.get();
     }
 
     public String getBody() {
-        return body;
+        return body.get();
     }
 
     private static final Function<MultiValue, ListOrSingle<String>> TO_TEMPLATE_MODEL = new Function<MultiValue, ListOrSingle<String>>() {
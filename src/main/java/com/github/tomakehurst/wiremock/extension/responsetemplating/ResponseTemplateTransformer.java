@@ -17,6 +17,7 @@ package com.github.tomakehurst.wiremock.extension.responsetemplating;
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.TagType;
 import com.github.jknack.handlebars.Template;
 import com.github.jknack.handlebars.helper.StringHelpers;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
@@ -25,27 +26,75 @@ import com.github.tomakehurst.wiremock.common.TextFile;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.helpers.WiremockHelpers;
+import com.github.tomakehurst.wiremock.http.Body;
+import com.github.tomakehurst.wiremock.http.BodyWriter;
 import com.github.tomakehurst.wiremock.http.HttpHeader;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.Strings.DEFAULT_CHARSET;
 
+/**
+ * Renders response bodies, headers and proxy URLs as Handlebars templates.
+ *
+ * Compiled templates are cached by their source, along with whether they can refer to the request at all.
+ * Templates that can't, e.g. those using only literal text and helpers with literal arguments, are rendered
+ * without building the request model.
+ *
+ * Bodies are rendered as they are written rather than up front, so a large templated body can be streamed
+ * to the client without ever being held in memory as a whole. The first FIRST_CHUNK_CHARS characters are
+ * rendered before any of the body is written. The body is encoded in the charset of the response's Content-Type,
+ * or UTF-8 if it doesn't specify one.
+ */
 public class ResponseTemplateTransformer extends ResponseDefinitionTransformer {
 
+    public static final int MAX_CACHED_TEMPLATE_CHARS = 8 * 1024 * 1024;
+    public static final int FIRST_CHUNK_CHARS = 8 * 1024;
+
+    private static final Map<String, Object> NO_REQUEST = Collections.emptyMap();
+    private static final Pattern PARTIAL = Pattern.compile("\\{\\{~?#?>");
+    private static final Set<String> BLOCK_AND_PARTIAL_HELPERS = ImmutableSet.of("block", "partial", "embedded");
+
     private final boolean global;
 
     private final Handlebars handlebars;
+    private final Set<String> customHelperNames;
+    private final Cache<String, CompiledTemplate> templates = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_CACHED_TEMPLATE_CHARS)
+        .weigher(new Weigher<String, CompiledTemplate>() {
+            @Override
+            public int weigh(String content, CompiledTemplate template) {
+                return content.length();
+            }
+        })
+        .build();
 
     public ResponseTemplateTransformer(boolean global) {
         this(global, Collections.<String, Helper>emptyMap());
@@ -71,6 +120,7 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer {
         for (Map.Entry<String, Helper> entry: helpers.entrySet()) {
             handlebars.registerHelper(entry.getKey(), entry.getValue());
         }
+        customHelperNames = ImmutableSet.copyOf(helpers.keySet());
     }
 
     @Override
@@ -86,15 +136,14 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer {
     @Override
     public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
         ResponseDefinitionBuilder newResponseDefBuilder = ResponseDefinitionBuilder.like(responseDefinition);
-        final ImmutableMap<String, RequestTemplateModel> model = ImmutableMap.of("request", RequestTemplateModel.from(request));
+        final Supplier<Map<String, Object>> model = requestModel(request);
 
+        CompiledTemplate bodyTemplate = null;
         if (responseDefinition.specifiesBodyContent()) {
-            Template bodyTemplate = uncheckedCompileTemplate(responseDefinition.getBody());
-            applyTemplatedResponseBody(newResponseDefBuilder, model, bodyTemplate);
+            bodyTemplate = uncheckedCompileTemplate(responseDefinition.getBody());
         } else if (responseDefinition.specifiesBodyFile()) {
             TextFile file = files.getTextFileNamed(responseDefinition.getBodyFileName());
-            Template bodyTemplate = uncheckedCompileTemplate(file.readContentsAsString());
-            applyTemplatedResponseBody(newResponseDefBuilder, model, bodyTemplate);
+            bodyTemplate = uncheckedCompileTemplate(file.readContentsAsString());
         }
 
         if (responseDefinition.getHeaders() != null) {
@@ -104,7 +153,7 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer {
                     List<String> newValues = Lists.transform(input.values(), new Function<String, String>() {
                         @Override
                         public String apply(String input) {
-                            Template template = uncheckedCompileTemplate(input);
+                            CompiledTemplate template = uncheckedCompileTemplate(input);
                             return uncheckedApplyTemplate(template, model);
                         }
                     });
@@ -116,32 +165,100 @@ public class ResponseTemplateTransformer extends ResponseDefinitionTransformer {
         }
 
         if (responseDefinition.getProxyBaseUrl() != null) {
-            Template proxyBaseUrlTemplate = uncheckedCompileTemplate(responseDefinition.getProxyBaseUrl());
+            CompiledTemplate proxyBaseUrlTemplate = uncheckedCompileTemplate(responseDefinition.getProxyBaseUrl());
             String newProxyBaseUrl = uncheckedApplyTemplate(proxyBaseUrlTemplate, model);
             newResponseDefBuilder.proxiedFrom(newProxyBaseUrl);
         }
 
-        return newResponseDefBuilder.build();
+        ResponseDefinition newResponseDefinition = newResponseDefBuilder.build();
+        return bodyTemplate != null ?
+            newResponseDefinition.withResponseBody(templatedBody(bodyTemplate, model, charsetOf(newResponseDefinition))) :
+            newResponseDefinition;
+    }
+
+    private static Supplier<Map<String, Object>> requestModel(final Request request) {
+        return Suppliers.memoize(new Supplier<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get() {
+                return ImmutableMap.<String, Object>of("request", RequestTemplateModel.from(request));
+            }
+        });
+    }
+
+    private static Charset charsetOf(ResponseDefinition responseDefinition) {
+        HttpHeaders headers = responseDefinition.getHeaders();
+        return headers != null ? headers.getContentTypeHeader().charset() : DEFAULT_CHARSET;
     }
 
-    private void applyTemplatedResponseBody(ResponseDefinitionBuilder newResponseDefBuilder, ImmutableMap<String, RequestTemplateModel> model, Template bodyTemplate) {
-        String newBody = uncheckedApplyTemplate(bodyTemplate, model);
-        newResponseDefBuilder.withBody(newBody);
+    private static Body templatedBody(final CompiledTemplate template,
+                                      final Supplier<Map<String, Object>> model,
+                                      final Charset charset) {
+        return Body.streamed(new BodyWriter() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                // Nothing reaches the client until the first chunk has rendered, so a template that fails early
+                // leaves the response uncommitted and can still be answered with a server error
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset), FIRST_CHUNK_CHARS);
+                template.template.apply(template.referencesRequest ? model.get() : NO_REQUEST, writer);
+                writer.flush();
+            }
+        });
     }
 
-    private String uncheckedApplyTemplate(Template template, Object context) {
+    private String uncheckedApplyTemplate(CompiledTemplate template, Supplier<Map<String, Object>> model) {
         try {
-            return template.apply(context);
+            return template.template.apply(template.referencesRequest ? model.get() : NO_REQUEST);
         } catch (IOException e) {
             return throwUnchecked(e, String.class);
         }
     }
 
-    private Template uncheckedCompileTemplate(String content) {
+    private CompiledTemplate uncheckedCompileTemplate(final String content) {
         try {
-            return handlebars.compileInline(content);
-        } catch (IOException e) {
-            return throwUnchecked(e, Template.class);
+            return templates.get(content, new Callable<CompiledTemplate>() {
+                @Override
+                public CompiledTemplate call() throws IOException {
+                    Template template = handlebars.compileInline(content);
+                    return new CompiledTemplate(template, referencesRequest(template));
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            return throwUnchecked(e.getCause(), CompiledTemplate.class);
+        }
+    }
+
+    /**
+     * Whether rendering the template could read anything from the request. Errs on the side of yes for
+     * anything that reaches the context indirectly: this, @root, bracketed paths, partials and custom helpers.
+     */
+    private boolean referencesRequest(Template template) {
+        if (PARTIAL.matcher(template.text()).find()) {
+            return true;
+        }
+
+        for (String name: Iterables.concat(template.collect(TagType.values()), template.collectReferenceParameters())) {
+            if (name.startsWith("request") ||
+                name.startsWith("this") ||
+                name.startsWith(".") ||
+                name.startsWith("@root") ||
+                name.startsWith("[") ||
+                BLOCK_AND_PARTIAL_HELPERS.contains(name) ||
+                customHelperNames.contains(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static class CompiledTemplate {
+
+        final Template template;
+        final boolean referencesRequest;
+
+        CompiledTemplate(Template template, boolean referencesRequest) {
+            this.template = template;
+            this.referencesRequest = referencesRequest;
         }
     }
 }
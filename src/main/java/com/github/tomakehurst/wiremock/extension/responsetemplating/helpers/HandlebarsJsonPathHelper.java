@@ -18,7 +18,6 @@ package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
 import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.common.Json;
 import com.jayway.jsonpath.InvalidJsonException;
-import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.JsonPathException;
 
 import java.io.IOException;
@@ -38,7 +37,7 @@ public class HandlebarsJsonPathHelper extends HandlebarsHelper<String> {
 
         final String jsonPath = options.param(0);
         try {
-            Object result = JsonPath.read(inputJson, jsonPath);
+            Object result = ParsedDocuments.from(options).json(inputJson).read(jsonPath);
             if (result instanceof Map) {
                 return Json.write(result);
             }
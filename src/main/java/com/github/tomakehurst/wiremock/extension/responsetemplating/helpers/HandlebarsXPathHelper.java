@@ -19,17 +19,11 @@ import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.common.Xml;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
-import java.io.StringReader;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static javax.xml.xpath.XPathConstants.NODE;
@@ -52,12 +46,10 @@ public class HandlebarsXPathHelper extends HandlebarsHelper<String> {
 
         final String xPathInput = options.param(0);
 
+        ParsedDocuments parsedDocuments = ParsedDocuments.from(options);
         Document doc;
-        try (final StringReader reader = new StringReader(inputXml)) {
-            InputSource source = new InputSource(reader);
-            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            final DocumentBuilder builder = factory.newDocumentBuilder();
-            doc = builder.parse(source);
+        try {
+            doc = parsedDocuments.xml(inputXml);
         } catch (SAXException se) {
             return handleError(inputXml + " is not valid XML");
         } catch (ParserConfigurationException e) {
@@ -65,10 +57,7 @@ public class HandlebarsXPathHelper extends HandlebarsHelper<String> {
         }
 
         try {
-            final XPathFactory xPathfactory = XPathFactory.newInstance();
-            final XPath xpath = xPathfactory.newXPath();
-
-            Node node = (Node) xpath.evaluate(getXPathPrefix() + xPathInput, doc, NODE);
+            Node node = (Node) parsedDocuments.evaluate(getXPathPrefix() + xPathInput, doc, NODE);
 
             if (node == null) {
                 return "";
@@ -80,7 +69,6 @@ public class HandlebarsXPathHelper extends HandlebarsHelper<String> {
         }
     }
 
-
     /**
      * No prefix by default. It allows to extend this class with a specified prefix. Just overwrite this method to do
      * so.
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
+
+import com.github.jknack.handlebars.Options;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the JSON and XML documents parsed by helpers during a single render, so that a template extracting
+ * many values from the same body only parses it once.
+ *
+ * An instance is kept in the Handlebars context data, which lives exactly as long as the render.
+ * Renders happen on a single thread, so no synchronisation is needed. XPath expressions outlive the render:
+ * they are compiled once per expression and shared between renders through {@link XPathExpressionPool}.
+ */
+class ParsedDocuments {
+
+    private static final String DATA_KEY = ParsedDocuments.class.getName();
+    private static final XPathExpressionPool XPATH_EXPRESSIONS = new XPathExpressionPool();
+
+    private final Map<String, DocumentContext> jsonDocuments = new HashMap<>();
+    private final Map<String, Document> xmlDocuments = new HashMap<>();
+
+    static ParsedDocuments from(Options options) {
+        if (options.context == null) {
+            // Called directly rather than from a template, so there is no render to share with
+            return new ParsedDocuments();
+        }
+
+        ParsedDocuments parsedDocuments = options.data(DATA_KEY);
+        if (parsedDocuments == null) {
+            parsedDocuments = new ParsedDocuments();
+            options.data(DATA_KEY, parsedDocuments);
+        }
+
+        return parsedDocuments;
+    }
+
+    DocumentContext json(String json) {
+        DocumentContext document = jsonDocuments.get(json);
+        if (document == null) {
+            document = JsonPath.parse(json);
+            jsonDocuments.put(json, document);
+        }
+
+        return document;
+    }
+
+    Document xml(String xml) throws SAXException, IOException, ParserConfigurationException {
+        Document document = xmlDocuments.get(xml);
+        if (document == null) {
+            try (StringReader reader = new StringReader(xml)) {
+                document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(reader));
+            }
+            xmlDocuments.put(xml, document);
+        }
+
+        return document;
+    }
+
+    Object evaluate(String expression, Document document, QName returnType) throws XPathExpressionException {
+        XPathExpression compiled = XPATH_EXPRESSIONS.borrow(expression);
+        try {
+            return compiled.evaluate(document, returnType);
+        } finally {
+            XPATH_EXPRESSIONS.giveBack(expression, compiled);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Compiled XPath expressions, kept by their source so that an expression used by a template is compiled once
+ * rather than on every render.
+ *
+ * XPathExpression is not thread safe, so each expression keeps a pool of compiled copies. A render borrows one for
+ * the duration of an evaluation and hands it back afterwards, and a new copy is only compiled when every existing
+ * one is in use by a concurrent render.
+ */
+class XPathExpressionPool {
+
+    static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    private static final ThreadLocal<XPathFactory> XPATH_FACTORY = new ThreadLocal<XPathFactory>() {
+        @Override
+        protected XPathFactory initialValue() {
+            return XPathFactory.newInstance();
+        }
+    };
+
+    private final LoadingCache<String, Queue<XPathExpression>> expressions = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_EXPRESSIONS)
+        .build(new CacheLoader<String, Queue<XPathExpression>>() {
+            @Override
+            public Queue<XPathExpression> load(String expression) {
+                return new ConcurrentLinkedQueue<>();
+            }
+        });
+
+    XPathExpression borrow(String expression) throws XPathExpressionException {
+        XPathExpression compiled = expressions.getUnchecked(expression).poll();
+        if (compiled == null) {
+            compiled = XPATH_FACTORY.get().newXPath().compile(expression);
+        }
+
+        return compiled;
+    }
+
+    void giveBack(String expression, XPathExpression compiled) {
+        expressions.getUnchecked(expression).offer(compiled);
+    }
+}
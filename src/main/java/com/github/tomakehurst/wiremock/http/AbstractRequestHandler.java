@@ -50,7 +50,7 @@ public abstract class AbstractRequestHandler implements RequestHandler, RequestE
 		if (logRequests()) {
 			notifier().info("Request received:\n" +
 					formatRequest(request) +
-					"\n\nMatched response definition:\n" + responseDefinition +
+					"\n\nMatched response definition:\n" + completedServeEvent.getResponseDefinition() +
 					"\n\nResponse:\n" + response);
 		}
 
@@ -20,6 +20,7 @@ import com.github.tomakehurst.wiremock.admin.AdminTask;
 import com.github.tomakehurst.wiremock.admin.AdminUriTemplate;
 import com.github.tomakehurst.wiremock.admin.NotFoundException;
 import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.common.Urls;
 import com.github.tomakehurst.wiremock.core.Admin;
 import com.github.tomakehurst.wiremock.security.Authenticator;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
@@ -74,13 +75,22 @@ public class AdminRequestHandler extends AbstractRequestHandler {
 
             return ServeEvent.of(
                 LoggedRequest.createFrom(request),
-                adminTask.execute(admin, request, pathParams)
+                prettyPrintedIfRequested(request, adminTask.execute(admin, request, pathParams))
             );
         } catch (NotFoundException e) {
             return ServeEvent.forUnmatchedRequest(LoggedRequest.createFrom(request));
         }
     }
 
+    private static ResponseDefinition prettyPrintedIfRequested(Request request, ResponseDefinition response) {
+        QueryParameter pretty = Urls.splitQuery(URI.create(request.getUrl())).get("pretty");
+        if (pretty != null && pretty.isPresent() && "true".equals(pretty.firstValue())) {
+            return response.withResponseBody(response.getResponseBody().prettyPrinted());
+        }
+
+        return response;
+    }
+
 	private static String withoutAdminRoot(String url) {
 	    return url.replace(ADMIN_CONTEXT_ROOT, "");
 	}
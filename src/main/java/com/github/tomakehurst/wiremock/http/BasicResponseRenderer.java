@@ -21,10 +21,11 @@ public class BasicResponseRenderer implements ResponseRenderer {
 
     @Override
     public Response render(ResponseDefinition responseDefinition) {
-        return response()
+        Response.Builder response = response()
             .status(responseDefinition.getStatus())
-            .headers(responseDefinition.getHeaders())
-            .body(responseDefinition.getByteBody())
-            .build();
+            .headers(responseDefinition.getHeaders());
+
+        Body body = responseDefinition.getResponseBody();
+        return (body.isStreamable() ? response.streamingBody(body) : response.body(body.asBytes())).build();
     }
 }
\ No newline at end of file
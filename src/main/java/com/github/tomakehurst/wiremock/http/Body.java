@@ -19,18 +19,30 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.NullNode;
 import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.common.Strings;
+import com.google.common.base.Supplier;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
 import java.util.Arrays;
 import java.util.Objects;
 
 import static com.github.tomakehurst.wiremock.common.Encoding.decodeBase64;
 import static com.github.tomakehurst.wiremock.common.Encoding.encodeBase64;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.Strings.stringFromBytes;
 
 public class Body {
 
+    private static final Body STREAMED_TO_CLIENT = new Body((byte[]) null);
+
     private final byte[] content;
     private final boolean binary;
+    private final BodyWriter writer;
+    private final Supplier<byte[]> loader;
+    private volatile SoftReference<byte[]> loaded;
+    private volatile byte[] written;
 
     public Body(byte[] content) {
         this(content, true);
@@ -39,16 +51,36 @@ public class Body {
     private Body(byte[] content, boolean binary) {
         this.content = content;
         this.binary = binary;
+        this.writer = null;
+        this.loader = null;
+    }
+
+    private Body(BodyWriter writer) {
+        this.content = null;
+        this.writer = writer;
+        this.binary = false;
+        this.loader = null;
+    }
+
+    private Body(Supplier<byte[]> loader, boolean binary) {
+        this.content = null;
+        this.loader = loader;
+        this.binary = binary;
+        this.writer = null;
     }
 
     public Body(String content) {
         this.content = Strings.bytesFromString(content);
         binary = false;
+        writer = null;
+        loader = null;
     }
 
     public Body(JsonNode content) {
         this.content = Json.toByteArray(content);
         binary = false;
+        writer = null;
+        loader = null;
     }
 
     static Body fromBytes(byte[] bytes) {
@@ -68,20 +100,119 @@ public class Body {
         return none();
     }
 
+    /**
+     * A body holding an object that is serialised as JSON only when it is written, so that large admin
+     * responses can be streamed to the client rather than built up in memory first.
+     * The JSON is compact unless {@link #prettyPrinted()} is asked for.
+     * Reading the content as bytes or a string serialises it once and keeps the result.
+     */
+    public static Body ofJsonValue(Object value) {
+        return new Body(new JsonValueWriter(value, false));
+    }
+
+    /**
+     * A body produced by the writer as it is served, e.g. a stream of events that only ends when the client disconnects.
+     */
+    public static Body streamed(BodyWriter writer) {
+        return new Body(writer);
+    }
+
+    /**
+     * A body whose content is fetched by the loader when it is first needed rather than held from the start.
+     * The content is then kept softly reachable, so bodies that are rarely served can be reclaimed and loaded again.
+     */
+    public static Body loadedOnDemand(Supplier<byte[]> loader, boolean binary) {
+        return new Body(loader, binary);
+    }
+
+    /**
+     * Stands in for a body that has been streamed to the client and not kept, so that it can't be rendered again.
+     */
+    public static Body streamedToClient() {
+        return STREAMED_TO_CLIENT;
+    }
+
     public static Body none() {
         return new Body((byte[]) null);
     }
 
     public String asString() {
-        return content != null ? stringFromBytes(content) : null;
+        byte[] bytes = asBytes();
+        return bytes != null ? stringFromBytes(bytes) : null;
     }
 
     public byte[] asBytes() {
-        return content != null ? content : null;
+        if (loader != null) {
+            return load();
+        }
+
+        if (writer != null) {
+            return write();
+        }
+
+        return content;
+    }
+
+    private byte[] write() {
+        byte[] bytes = written;
+        if (bytes == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                writer.writeTo(out);
+            } catch (IOException e) {
+                throwUnchecked(e);
+            }
+            bytes = out.toByteArray();
+            written = bytes;
+        }
+
+        return bytes;
+    }
+
+    private byte[] load() {
+        SoftReference<byte[]> reference = loaded;
+        byte[] bytes = reference != null ? reference.get() : null;
+        if (bytes == null) {
+            bytes = loader.get();
+            loaded = new SoftReference<>(bytes);
+        }
+
+        return bytes;
     }
 
     public String asBase64() {
-        return encodeBase64(content);
+        return encodeBase64(asBytes());
+    }
+
+    public boolean isStreamable() {
+        return writer != null && written == null;
+    }
+
+    /**
+     * The same body with its JSON indented if it is a JSON value, otherwise this body.
+     */
+    public Body prettyPrinted() {
+        if (writer instanceof JsonValueWriter) {
+            return new Body(((JsonValueWriter) writer).prettyPrinted());
+        }
+
+        return this;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] bytes = written;
+        if (writer != null && bytes == null) {
+            writer.writeTo(out);
+        } else {
+            bytes = asBytes();
+            if (bytes != null) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    public boolean wasStreamedToClient() {
+        return this == STREAMED_TO_CLIENT;
     }
 
     public boolean isBinary() {
@@ -89,7 +220,11 @@ public class Body {
     }
 
     public boolean isAbsent() {
-        return content == null;
+        return content == null && writer == null && loader == null;
+    }
+
+    public boolean isLoadedOnDemand() {
+        return loader != null;
     }
 
     public boolean isPresent() {
@@ -102,19 +237,55 @@ public class Body {
         if (o == null || getClass() != o.getClass()) return false;
         Body body = (Body) o;
         return Objects.equals(binary, body.binary) &&
-                Arrays.equals(content, body.content);
+                Arrays.equals(content, body.content) &&
+                Objects.equals(writer, body.writer) &&
+                Objects.equals(loader, body.loader);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(content, binary);
+        return Objects.hash(Arrays.hashCode(content), binary, writer, loader);
     }
 
     @Override
     public String toString() {
         return "Body {" +
-                "content=" + asString() +
+                "content=" + (isStreamable() || wasStreamedToClient() ? "(streamed)" : asString()) +
                 ", binary=" + binary +
                 '}';
     }
+
+    private static class JsonValueWriter implements BodyWriter {
+
+        private final Object value;
+        private final boolean pretty;
+
+        JsonValueWriter(Object value, boolean pretty) {
+            this.value = value;
+            this.pretty = pretty;
+        }
+
+        JsonValueWriter prettyPrinted() {
+            return new JsonValueWriter(value, true);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            Json.writeTo(value, out, pretty);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            JsonValueWriter that = (JsonValueWriter) o;
+            return pretty == that.pretty &&
+                Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(value, pretty);
+        }
+    }
 }
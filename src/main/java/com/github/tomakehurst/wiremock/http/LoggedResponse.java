@@ -37,22 +37,30 @@ public class LoggedResponse {
                           @JsonProperty("bodyAsBase64") String bodyAsBase64,
                           @JsonProperty("fault") Fault fault,
                           @JsonProperty("body") String ignoredBodyOnlyUsedForBinding) {
+        this(status, headers, Encoding.decodeBase64(bodyAsBase64), fault);
+    }
+
+    private LoggedResponse(int status, HttpHeaders headers, byte[] body, Fault fault) {
         this.status = status;
         this.headers = headers;
-        this.body = Encoding.decodeBase64(bodyAsBase64);
+        this.body = body;
         this.fault = fault;
     }
 
     public static LoggedResponse from(Response response) {
+        // Streamed bodies only come from the admin API, or from templates when the journal is disabled, so aren't serialised just to log them
         return new LoggedResponse(
             response.getStatus(),
             response.getHeaders() == null || response.getHeaders().all().isEmpty() ? null : response.getHeaders(),
-            Encoding.encodeBase64(response.getBody()),
-            response.getFault(),
-            null
+            response.hasStreamingBody() ? null : response.getBody(),
+            response.getFault()
         );
     }
 
+    public LoggedResponse withBody(byte[] body) {
+        return new LoggedResponse(status, headers, body, fault);
+    }
+
     public int getStatus() {
         return status;
     }
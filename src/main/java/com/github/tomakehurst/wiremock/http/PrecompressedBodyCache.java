@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.Gzip;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+import java.io.File;
+
+/**
+ * Holds gzipped copies of static response bodies so that they are compressed once rather
+ * than on every request.
+ *
+ * Inline stub bodies are compressed when the stub is added and looked up by the identity of
+ * their content array, so bodies rewritten by transformers are never matched and fall back to
+ * streaming compression. Entries are weakly keyed and disappear along with their stub. Body files
+ * are read and compressed on first use and re-read only when the underlying file changes. Body files that aren't
+ * on the file system, e.g. those inside a JAR, have no modification time to check and so aren't cached.
+ *
+ * Inline and file bodies are each bounded by maxBytes. Inline bodies loaded on demand are left alone so that
+ * preparing them doesn't load them.
+ */
+public class PrecompressedBodyCache {
+
+    public static final int DEFAULT_MIN_SIZE = 256;
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    private final int minSize;
+    private final long maxBytes;
+    private final Cache<byte[], byte[]> inlineBodies;
+    private final Cache<String, CachedBody> fileBodies;
+
+    public PrecompressedBodyCache(int minSize, long maxBytes) {
+        this.minSize = minSize;
+        this.maxBytes = maxBytes;
+        this.inlineBodies = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumWeight(Math.max(maxBytes, 0))
+            .weigher(new Weigher<byte[], byte[]>() {
+                @Override
+                public int weigh(byte[] content, byte[] gzipped) {
+                    return gzipped.length;
+                }
+            })
+            .build();
+        this.fileBodies = CacheBuilder.newBuilder()
+            .maximumWeight(Math.max(maxBytes, 0))
+            .weigher(new Weigher<String, CachedBody>() {
+                @Override
+                public int weigh(String uri, CachedBody value) {
+                    return value.weight();
+                }
+            })
+            .build();
+    }
+
+    public static PrecompressedBodyCache disabled() {
+        return new PrecompressedBodyCache(DEFAULT_MIN_SIZE, 0);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public void prepare(ResponseDefinition responseDefinition) {
+        if (!isEnabled() || !isStatic(responseDefinition)) {
+            return;
+        }
+
+        byte[] content = responseDefinition.getByteBody();
+        if (inlineBodies.getIfPresent(content) != null) {
+            return;
+        }
+
+        byte[] gzipped = compressIfWorthwhile(content);
+        if (gzipped != null) {
+            inlineBodies.put(content, gzipped);
+        }
+    }
+
+    public void clear() {
+        inlineBodies.invalidateAll();
+        fileBodies.invalidateAll();
+    }
+
+    public byte[] gzippedBodyFor(byte[] content) {
+        if (!isEnabled() || content == null) {
+            return null;
+        }
+
+        return inlineBodies.getIfPresent(content);
+    }
+
+    public CachedBody bodyFileFor(BinaryFile bodyFile) {
+        if (!isEnabled()) {
+            return new CachedBody(bodyFile.readContents(), null, 0);
+        }
+
+        if (!"file".equals(bodyFile.getUri().getScheme())) {
+            // Without a modification time there's no telling when the cached copy goes stale
+            return new CachedBody(bodyFile.readContents(), null, 0);
+        }
+
+        String key = bodyFile.getUri().toString();
+        long version = versionOf(bodyFile);
+        CachedBody cachedBody = fileBodies.getIfPresent(key);
+        if (cachedBody != null && cachedBody.version == version) {
+            return cachedBody;
+        }
+
+        byte[] content = bodyFile.readContents();
+        cachedBody = new CachedBody(content, compressIfWorthwhile(content), version);
+        fileBodies.put(key, cachedBody);
+        return cachedBody;
+    }
+
+    public long size() {
+        return inlineBodies.size() + fileBodies.size();
+    }
+
+    private static boolean isStatic(ResponseDefinition responseDefinition) {
+        return responseDefinition.specifiesBodyContent() &&
+            !responseDefinition.getResponseBody().isLoadedOnDemand() &&
+            !responseDefinition.isProxyResponse() &&
+            (responseDefinition.getTransformers() == null || responseDefinition.getTransformers().isEmpty());
+    }
+
+    private byte[] compressIfWorthwhile(byte[] content) {
+        if (content == null || content.length < minSize || Gzip.isGzipped(content)) {
+            return null;
+        }
+
+        byte[] gzipped = Gzip.gzip(content);
+        return gzipped.length < content.length ? gzipped : null;
+    }
+
+    private static long versionOf(BinaryFile bodyFile) {
+        File file = new File(bodyFile.getUri());
+        return file.lastModified() * 31 + file.length();
+    }
+
+    public static class CachedBody {
+
+        private final byte[] content;
+        private final byte[] gzippedContent;
+        private final long version;
+
+        CachedBody(byte[] content, byte[] gzippedContent, long version) {
+            this.content = content;
+            this.gzippedContent = gzippedContent;
+            this.version = version;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public byte[] getGzippedContent() {
+            return gzippedContent;
+        }
+
+        int weight() {
+            int weight = 1;
+            if (content != null) {
+                weight += content.length;
+            }
+            if (gzippedContent != null) {
+                weight += gzippedContent.length;
+            }
+            return weight;
+        }
+    }
+}
@@ -27,6 +27,8 @@ public class Response {
 	private final int status;
     private final String statusMessage;
 	private final byte[] body;
+	private final byte[] gzippedBody;
+	private final Body streamingBody;
 	private final HttpHeaders headers;
 	private final boolean configured;
 	private final Fault fault;
@@ -49,9 +51,15 @@ public class Response {
     }
 
 	public Response(int status, String statusMessage, byte[] body, HttpHeaders headers, boolean configured, Fault fault, boolean fromProxy) {
+		this(status, statusMessage, body, null, headers, configured, fault, fromProxy);
+	}
+
+	public Response(int status, String statusMessage, byte[] body, byte[] gzippedBody, HttpHeaders headers, boolean configured, Fault fault, boolean fromProxy) {
 		this.status = status;
         this.statusMessage = statusMessage;
         this.body = body;
+        this.gzippedBody = gzippedBody;
+        this.streamingBody = null;
         this.headers = headers;
         this.configured = configured;
         this.fault = fault;
@@ -63,6 +71,20 @@ public class Response {
         this.statusMessage = statusMessage;
         this.headers = headers;
         this.body = body == null ? null : Strings.bytesFromString(body, headers.getContentTypeHeader().charset());
+        this.gzippedBody = null;
+        this.streamingBody = null;
+        this.configured = configured;
+        this.fault = fault;
+        this.fromProxy = fromProxy;
+    }
+
+    private Response(int status, String statusMessage, Body streamingBody, HttpHeaders headers, boolean configured, Fault fault, boolean fromProxy) {
+        this.status = status;
+        this.statusMessage = statusMessage;
+        this.body = null;
+        this.gzippedBody = null;
+        this.streamingBody = streamingBody;
+        this.headers = headers;
         this.configured = configured;
         this.fault = fault;
         this.fromProxy = fromProxy;
@@ -77,11 +99,27 @@ public class Response {
     }
 
     public byte[] getBody() {
-        return body;
+        return streamingBody != null ? streamingBody.asBytes() : body;
+    }
+
+    public Body getStreamingBody() {
+        return streamingBody;
+    }
+
+    public boolean hasStreamingBody() {
+        return streamingBody != null && streamingBody.isStreamable();
+    }
+
+    public byte[] getGzippedBody() {
+        return gzippedBody;
+    }
+
+    public boolean hasGzippedBody() {
+        return gzippedBody != null;
     }
 	
 	public String getBodyAsString() {
-        return Strings.stringFromBytes(body, headers.getContentTypeHeader().charset());
+        return Strings.stringFromBytes(getBody(), headers.getContentTypeHeader().charset());
 	}
 	
 	public HttpHeaders getHeaders() {
@@ -105,7 +143,9 @@ public class Response {
         StringBuilder sb = new StringBuilder();
         sb.append("HTTP/1.1 ").append(status).append("\n");
         sb.append(headers).append("\n");
-        if (body != null) {
+        if (hasStreamingBody()) {
+            sb.append("(streamed)\n");
+        } else if (body != null || streamingBody != null) {
             sb.append(getBodyAsString()).append("\n");
         }
 
@@ -116,7 +156,9 @@ public class Response {
         private int status = HTTP_OK;
         private String statusMessage;
         private byte[] body;
+        private byte[] gzippedBody;
         private String bodyString;
+        private Body streamingBody;
         private HttpHeaders headers = new HttpHeaders();
         private boolean configured = true;
         private Fault fault;
@@ -126,7 +168,9 @@ public class Response {
         public static Builder like(Response response) {
             Builder responseBuilder = new Builder();
             responseBuilder.status = response.getStatus();
-            responseBuilder.body = response.getBody();
+            responseBuilder.body = response.streamingBody == null ? response.getBody() : null;
+            responseBuilder.streamingBody = response.streamingBody;
+            responseBuilder.gzippedBody = response.getGzippedBody();
             responseBuilder.headers = response.getHeaders();
             responseBuilder.configured = response.wasConfigured();
             responseBuilder.fault = response.getFault();
@@ -150,7 +194,9 @@ public class Response {
 
         public Builder body(byte[] body) {
             this.body = body;
+            this.gzippedBody = null;
             this.bodyString = null;
+            this.streamingBody = null;
             ensureOnlyOneBodySet();
             return this;
         }
@@ -158,10 +204,28 @@ public class Response {
         public Builder body(String body) {
             this.bodyString = body;
             this.body = null;
+            this.gzippedBody = null;
+            this.streamingBody = null;
             ensureOnlyOneBodySet();
             return this;
         }
 
+        /**
+         * Sets a body that is written straight to the client when served, if it supports that.
+         */
+        public Builder streamingBody(Body body) {
+            this.streamingBody = body;
+            this.body = null;
+            this.bodyString = null;
+            this.gzippedBody = null;
+            return this;
+        }
+
+        public Builder gzippedBody(byte[] gzippedBody) {
+            this.gzippedBody = gzippedBody;
+            return this;
+        }
+
         private void ensureOnlyOneBodySet() {
             if (body != null && bodyString != null) {
                 throw new IllegalStateException("Body should either be set as a String or byte[], not both");
@@ -189,8 +253,10 @@ public class Response {
         }
 
         public Response build() {
-            if (body != null) {
-                return new Response(status, statusMessage, body, headers, configured, fault, fromProxy);
+            if (streamingBody != null) {
+                return new Response(status, statusMessage, streamingBody, headers, configured, fault, fromProxy);
+            } else if (body != null) {
+                return new Response(status, statusMessage, body, gzippedBody, headers, configured, fault, fromProxy);
             } else if (bodyString != null) {
                 return new Response(status, statusMessage, bodyString, headers, configured, fault, fromProxy);
             } else {
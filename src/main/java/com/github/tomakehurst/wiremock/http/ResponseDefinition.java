@@ -132,6 +132,20 @@ public class ResponseDefinition {
         this(HTTP_OK, null, Body.none(), null, null, null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
     }
 
+    /**
+     * A JSON response whose body is serialised as it is written to the client, rather than up front.
+     */
+    public static ResponseDefinition streamedJsonResponse(Object body, int status) {
+        return new ResponseDefinition(status, null, Body.ofJsonValue(body), null, new HttpHeaders(new HttpHeader(CONTENT_TYPE, "application/json")), null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
+    }
+
+    /**
+     * A response whose body is produced by the writer while it is being served, for long-lived streams.
+     */
+    public static ResponseDefinition streamedResponse(String contentType, BodyWriter bodyWriter) {
+        return new ResponseDefinition(HTTP_OK, null, Body.streamed(bodyWriter), null, new HttpHeaders(new HttpHeader(CONTENT_TYPE, contentType)), null, null, null, null, null, Collections.<String>emptyList(), Parameters.empty(), true);
+    }
+
     public static ResponseDefinition notFound() {
         return new ResponseDefinition(HTTP_NOT_FOUND, (byte[]) null);
     }
@@ -148,6 +162,10 @@ public class ResponseDefinition {
         return ResponseDefinitionBuilder.okForJson(body).build();
     }
 
+    public static ResponseDefinition okForStreamedJson(Object body) {
+        return streamedJsonResponse(body, HTTP_OK);
+    }
+
     public static ResponseDefinition created() {
         return new ResponseDefinition(HTTP_CREATED, (byte[]) null);
     }
@@ -204,6 +222,24 @@ public class ResponseDefinition {
         return newResponseDef;
     }
 
+    public ResponseDefinition withResponseBody(Body body) {
+        return new ResponseDefinition(
+            status,
+            statusMessage,
+            body,
+            bodyFileName,
+            headers,
+            additionalProxyRequestHeaders,
+            fixedDelayMilliseconds,
+            delayDistribution,
+            proxyBaseUrl,
+            fault,
+            transformers,
+            transformerParameters,
+            wasConfigured
+        );
+    }
+
     public HttpHeaders getHeaders() {
         return headers;
     }
@@ -224,6 +260,11 @@ public class ResponseDefinition {
         return !body.isBinary() ? body.asString() : null;
     }
 
+    @JsonIgnore
+    public Body getResponseBody() {
+        return body;
+    }
+
     @JsonIgnore
     public byte[] getByteBody() {
         return body.asBytes();
@@ -21,6 +21,7 @@ import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.PostServeAction;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.verification.RequestJournal;
+import com.github.tomakehurst.wiremock.verification.ServeEventBroadcaster;
 
 import java.util.Map;
 
@@ -32,17 +33,28 @@ public class StubRequestHandler extends AbstractRequestHandler {
     private final Admin admin;
     private final Map<String, PostServeAction> postServeActions;
     private final RequestJournal requestJournal;
+    private final ServeEventBroadcaster serveEventBroadcaster;
 
 	public StubRequestHandler(StubServer stubServer,
                               ResponseRenderer responseRenderer,
                               Admin admin,
                               Map<String, PostServeAction> postServeActions,
                               RequestJournal requestJournal) {
+		this(stubServer, responseRenderer, admin, postServeActions, requestJournal, new ServeEventBroadcaster(1, 0));
+    }
+
+	public StubRequestHandler(StubServer stubServer,
+                              ResponseRenderer responseRenderer,
+                              Admin admin,
+                              Map<String, PostServeAction> postServeActions,
+                              RequestJournal requestJournal,
+                              ServeEventBroadcaster serveEventBroadcaster) {
 		super(responseRenderer);
 		this.stubServer = stubServer;
         this.admin = admin;
         this.postServeActions = postServeActions;
         this.requestJournal = requestJournal;
+        this.serveEventBroadcaster = serveEventBroadcaster;
     }
 
 	@Override
@@ -58,6 +70,7 @@ public class StubRequestHandler extends AbstractRequestHandler {
     @Override
     protected void beforeResponseSent(ServeEvent serveEvent, Response response) {
         requestJournal.requestReceived(serveEvent);
+        serveEventBroadcaster.publish(serveEvent);
     }
 
     @Override
@@ -34,15 +34,41 @@ public class StubResponseRenderer implements ResponseRenderer {
 	private final GlobalSettingsHolder globalSettingsHolder;
 	private final ProxyResponseRenderer proxyResponseRenderer;
 	private final List<ResponseTransformer> responseTransformers;
+	private final PrecompressedBodyCache precompressedBodies;
+	private final boolean streamRenderedBodies;
 
     public StubResponseRenderer(FileSource fileSource,
 								GlobalSettingsHolder globalSettingsHolder,
 								ProxyResponseRenderer proxyResponseRenderer,
 								List<ResponseTransformer> responseTransformers) {
+		this(fileSource, globalSettingsHolder, proxyResponseRenderer, responseTransformers, PrecompressedBodyCache.disabled());
+	}
+
+    public StubResponseRenderer(FileSource fileSource,
+								GlobalSettingsHolder globalSettingsHolder,
+								ProxyResponseRenderer proxyResponseRenderer,
+								List<ResponseTransformer> responseTransformers,
+								PrecompressedBodyCache precompressedBodies) {
+		this(fileSource, globalSettingsHolder, proxyResponseRenderer, responseTransformers, precompressedBodies, false);
+	}
+
+    /**
+     * @param streamRenderedBodies whether bodies produced as they are written (e.g. by response templating) are
+     *                             streamed to the client, rather than rendered in full first. Only worthwhile when
+     *                             nothing, such as the request journal, needs to keep hold of the body.
+     */
+    public StubResponseRenderer(FileSource fileSource,
+								GlobalSettingsHolder globalSettingsHolder,
+								ProxyResponseRenderer proxyResponseRenderer,
+								List<ResponseTransformer> responseTransformers,
+								PrecompressedBodyCache precompressedBodies,
+								boolean streamRenderedBodies) {
         this.fileSource = fileSource;
         this.globalSettingsHolder = globalSettingsHolder;
         this.proxyResponseRenderer = proxyResponseRenderer;
 		this.responseTransformers = responseTransformers;
+		this.precompressedBodies = precompressedBodies;
+		this.streamRenderedBodies = streamRenderedBodies;
 	}
 
 	@Override
@@ -92,13 +118,15 @@ public class StubResponseRenderer implements ResponseRenderer {
 
 		if (responseDefinition.specifiesBodyFile()) {
 			BinaryFile bodyFile = fileSource.getBinaryFileNamed(responseDefinition.getBodyFileName());
-            responseBuilder.body(bodyFile.readContents());
+			PrecompressedBodyCache.CachedBody cachedBody = precompressedBodies.bodyFileFor(bodyFile);
+            responseBuilder.body(cachedBody.getContent())
+				.gzippedBody(cachedBody.getGzippedContent());
+		} else if (streamRenderedBodies && responseDefinition.getResponseBody().isStreamable()) {
+			responseBuilder.streamingBody(responseDefinition.getResponseBody());
 		} else if (responseDefinition.specifiesBodyContent()) {
-            if(responseDefinition.specifiesBinaryBodyContent()) {
-                responseBuilder.body(responseDefinition.getByteBody());
-            } else {
-                responseBuilder.body(responseDefinition.getByteBody());
-            }
+            byte[] body = responseDefinition.getByteBody();
+            responseBuilder.body(body)
+				.gzippedBody(precompressedBodies.gzippedBodyFor(body));
 		}
 
         return responseBuilder.build();
@@ -24,26 +24,48 @@ import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.extension.StubMappingTransformer;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
-import com.google.common.base.Predicate;
+import com.github.tomakehurst.wiremock.verification.ServeEventQuery;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.proxyAllTo;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
 import static com.google.common.collect.FluentIterable.from;
-import static com.google.common.collect.Iterables.indexOf;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class Recorder {
 
+    private static final int MIN_EVENTS_PER_THREAD = 500;
+    private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
     private final Admin admin;
+    private final ExecutorService executor;
     private State state;
 
     public Recorder(Admin admin) {
         this.admin = admin;
         state = State.initial();
+
+        // Shared by every snapshot. Its threads are daemons that exit when idle, so nothing is held between snapshots
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            MAX_THREADS, MAX_THREADS, 30, SECONDS, new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("wiremock-snapshot-%d").setDaemon(true).build()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
     }
 
     public synchronized void startRecording(RecordSpec spec) {
@@ -58,8 +80,8 @@ public class Recorder {
         StubMapping proxyMapping = proxyAllTo(spec.getTargetBaseUrl()).build();
         admin.addStubMapping(proxyMapping);
 
-        List<ServeEvent> serveEvents = admin.getServeEvents().getServeEvents();
-        UUID initialId = serveEvents.isEmpty() ? null : serveEvents.get(0).getId();
+        List<ServeEvent> newestServeEvent = admin.getServeEvents(ServeEventQuery.allServeEvents().withLimit(1)).getServeEvents();
+        UUID initialId = newestServeEvent.isEmpty() ? null : newestServeEvent.get(0).getId();
         state = state.start(initialId, proxyMapping, spec);
 
         notifier().info("Started recording with record spec:\n" + Json.write(spec));
@@ -70,51 +92,64 @@ public class Recorder {
             throw new NotRecordingException();
         }
 
-        List<ServeEvent> serveEvents = admin.getServeEvents().getServeEvents();
+        // Only the events journaled since recording started, newest first
+        ServeEventQuery query = state.getStartingServeEventId() == null ?
+            ServeEventQuery.allServeEvents() :
+            ServeEventQuery.allServeEvents().since(state.getStartingServeEventId());
+        List<ServeEvent> eventsToSnapshot;
+        try {
+            eventsToSnapshot = admin.getServeEvents(query).getServeEvents();
+        } catch (InvalidRequestException e) {
+            state = state.stop(null);
+            admin.removeStubMapping(state.getProxyMapping());
+            throw new InvalidRequestException(Errors.validation("",
+                "Recording has been stopped, but no stubs could be captured: the request journal has dropped the request that marked " +
+                "where recording started, so the recorded requests can't be told apart from earlier ones. " +
+                "Raise the journal's maximum number of entries, or take a snapshot instead."
+            ));
+        }
 
-        UUID lastId = serveEvents.isEmpty() ? null : serveEvents.get(0).getId();
+        UUID lastId = eventsToSnapshot.isEmpty() ? null : eventsToSnapshot.get(0).getId();
         state = state.stop(lastId);
         admin.removeStubMapping(state.getProxyMapping());
 
-        if (serveEvents.isEmpty()) {
+        if (eventsToSnapshot.isEmpty()) {
             return SnapshotRecordResult.empty();
         }
 
-        int startIndex = state.getStartingServeEventId() == null ?
-            serveEvents.size() :
-            indexOf(serveEvents, withId(state.getStartingServeEventId()));
-        int endIndex = indexOf(serveEvents, withId(state.getFinishingServeEventId()));
-        List<ServeEvent> eventsToSnapshot = serveEvents.subList(endIndex, startIndex);
-
         SnapshotRecordResult result = takeSnapshot(eventsToSnapshot, state.getSpec());
 
         notifier().info("Stopped recording. Stubs captured:\n" + Json.write(result.getStubMappings()));
         return result;
     }
 
-    private static Predicate<ServeEvent> withId(final UUID id) {
-        return new Predicate<ServeEvent>() {
-            @Override
-            public boolean apply(ServeEvent input) {
-                return input.getId().equals(id);
-            }
-        };
-    }
-
+    /**
+     * Stubs are generated from the serve events on several threads when there are enough of them, then added in one batch.
+     * Body files are written in the background while the stubs are post-processed and added.
+     */
     public SnapshotRecordResult takeSnapshot(List<ServeEvent> serveEvents, RecordSpec recordSpec) {
-        final List<StubMapping> stubMappings = serveEventsToStubMappings(
+        int threads = Math.max(1, Math.min(MAX_THREADS, serveEvents.size() / MIN_EVENTS_PER_THREAD));
+        SnapshotStubMappingBodyExtractor bodyExtractor = new SnapshotStubMappingBodyExtractor(
+            filesRoot(admin.getOptions()),
+            executor,
+            admin.getOptions().contentAddressedBodyFilesEnabled()
+        );
+        List<StubMapping> generatedStubMappings = generateStubMappings(
             Lists.reverse(serveEvents),
             recordSpec.getFilters(),
             new SnapshotStubMappingGenerator(recordSpec.getCaptureHeaders(), recordSpec.getRequestBodyPatternFactory()),
-            getStubMappingPostProcessor(admin.getOptions(), recordSpec)
+            executor,
+            threads
         );
+        List<StubMapping> stubMappings = getStubMappingPostProcessor(admin.getOptions(), recordSpec, bodyExtractor).process(generatedStubMappings);
 
-        for (StubMapping stubMapping : stubMappings) {
-            if (recordSpec.shouldPersist()) {
+        if (recordSpec.shouldPersist()) {
+            for (StubMapping stubMapping : stubMappings) {
                 stubMapping.setPersistent(true);
             }
-            admin.addStubMapping(stubMapping);
         }
+        admin.importStubMappings(stubMappings);
+        bodyExtractor.awaitWrites();
 
         return recordSpec.getOutputFormat().format(stubMappings);
     }
@@ -132,8 +167,69 @@ public class Recorder {
         return stubMappingPostProcessor.process(stubMappings);
     }
 
+    private static List<StubMapping> generateStubMappings(
+        List<ServeEvent> serveEvents,
+        ProxiedServeEventFilters serveEventFilters,
+        SnapshotStubMappingGenerator stubMappingGenerator,
+        ExecutorService executor,
+        int threads
+    ) {
+        if (threads < 2) {
+            return newArrayList(from(serveEvents).filter(serveEventFilters).transform(stubMappingGenerator));
+        }
+
+        int partitionSize = (serveEvents.size() + threads - 1) / threads;
+        List<Future<List<StubMapping>>> partitions = new ArrayList<>(threads);
+        for (List<ServeEvent> partition: Lists.partition(serveEvents, partitionSize)) {
+            partitions.add(executor.submit(generate(partition, serveEventFilters, stubMappingGenerator)));
+        }
+
+        List<StubMapping> stubMappings = new ArrayList<>(serveEvents.size());
+        try {
+            for (Future<List<StubMapping>> partition: partitions) {
+                stubMappings.addAll(partition.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwUnchecked(e);
+        } catch (ExecutionException e) {
+            throwUnchecked(e.getCause());
+        } finally {
+            for (Future<List<StubMapping>> partition: partitions) {
+                partition.cancel(true);
+            }
+        }
+
+        return stubMappings;
+    }
+
+    private static Callable<List<StubMapping>> generate(
+        final List<ServeEvent> serveEvents,
+        final ProxiedServeEventFilters serveEventFilters,
+        final SnapshotStubMappingGenerator stubMappingGenerator
+    ) {
+        return new Callable<List<StubMapping>>() {
+            @Override
+            public List<StubMapping> call() {
+                return newArrayList(from(serveEvents).filter(serveEventFilters).transform(stubMappingGenerator));
+            }
+        };
+    }
+
     public SnapshotStubMappingPostProcessor getStubMappingPostProcessor(Options options, RecordSpec recordSpec) {
-        FileSource filesRoot = options.filesRoot().child(FILES_ROOT);
+        return getStubMappingPostProcessor(options, recordSpec, new SnapshotStubMappingBodyExtractor(filesRoot(options)));
+    }
+
+    private static FileSource filesRoot(Options options) {
+        return options.filesRoot().child(FILES_ROOT);
+    }
+
+    private SnapshotStubMappingPostProcessor getStubMappingPostProcessor(
+        Options options,
+        RecordSpec recordSpec,
+        SnapshotStubMappingBodyExtractor bodyExtractor
+    ) {
+        FileSource filesRoot = filesRoot(options);
         final SnapshotStubMappingTransformerRunner transformerRunner = new SnapshotStubMappingTransformerRunner(
             options.extensionsOfType(StubMappingTransformer.class).values(),
             recordSpec.getTransformers(),
@@ -145,7 +241,7 @@ public class Recorder {
             recordSpec.shouldRecordRepeatsAsScenarios(),
             transformerRunner,
             recordSpec.getExtractBodyCriteria(),
-            new SnapshotStubMappingBodyExtractor(filesRoot)
+            bodyExtractor
         );
     }
 
@@ -20,12 +20,42 @@ import com.github.tomakehurst.wiremock.common.*;
 import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 
 public class SnapshotStubMappingBodyExtractor {
     private final FileSource fileSource;
+    private final ExecutorService writer;
+    private final ContentAddressedBodyFiles contentAddressedFiles;
+    private final List<Future<?>> pendingWrites = new ArrayList<>();
 
     public SnapshotStubMappingBodyExtractor(FileSource fileSource) {
+        this(fileSource, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Body files are written by the given executor, so they can be written while the rest of the snapshot
+     * is processed. Call awaitWrites() before relying on them being there.
+     */
+    public SnapshotStubMappingBodyExtractor(FileSource fileSource, ExecutorService writer) {
+        this(fileSource, writer, false);
+    }
+
+    /**
+     * When contentAddressed is set, bodies are stored under a hash of their content rather than a name
+     * derived from the stub, so identical bodies share one file.
+     */
+    public SnapshotStubMappingBodyExtractor(FileSource fileSource, ExecutorService writer, boolean contentAddressed) {
         this.fileSource = fileSource;
+        this.writer = writer;
+        this.contentAddressedFiles = contentAddressed ? new ContentAddressedBodyFiles(fileSource) : null;
     }
 
     /**
@@ -42,7 +72,9 @@ public class SnapshotStubMappingBodyExtractor {
             responseHeaders != null ? responseHeaders.getContentTypeHeader() : ContentTypeHeader.absent(),
             body);
 
-        String bodyFileName = SafeNames.makeSafeFileName(stubMapping, extension);
+        String bodyFileName = contentAddressedFiles != null ?
+            ContentAddressedBodyFiles.fileNameFor(body, extension) :
+            SafeNames.makeSafeFileName(stubMapping, extension);
 
          // used to prevent ambiguous method call error for withBody()
         String noStringBody = null;
@@ -58,6 +90,34 @@ public class SnapshotStubMappingBodyExtractor {
                 .build()
         );
 
-        fileSource.writeBinaryFile(bodyFileName, body);
+        write(bodyFileName, body, extension);
+    }
+
+    public synchronized void awaitWrites() {
+        try {
+            for (Future<?> write: pendingWrites) {
+                write.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwUnchecked(e);
+        } catch (ExecutionException e) {
+            throwUnchecked(e.getCause());
+        } finally {
+            pendingWrites.clear();
+        }
+    }
+
+    private synchronized void write(final String bodyFileName, final byte[] body, final String extension) {
+        pendingWrites.add(writer.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (contentAddressedFiles != null) {
+                    contentAddressedFiles.write(body, extension);
+                } else {
+                    fileSource.writeBinaryFile(bodyFileName, body);
+                }
+            }
+        }));
     }
 }
@@ -74,7 +74,7 @@ public class SnapshotStubMappingPostProcessor {
             new ScenarioProcessor().putRepeatedRequestsInScenarios(processedStubMappings);
         }
 
-        // Run any stub mapping transformer extensions
-        return Lists.transform(processedStubMappings, transformerRunner);
+        // Run any stub mapping transformer extensions, once each
+        return new ArrayList<>(Lists.transform(processedStubMappings, transformerRunner));
     }
 }
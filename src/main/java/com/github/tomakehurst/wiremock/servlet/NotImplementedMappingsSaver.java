@@ -18,7 +18,9 @@ package com.github.tomakehurst.wiremock.servlet;
 import com.github.tomakehurst.wiremock.core.MappingsSaver;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public class NotImplementedMappingsSaver implements MappingsSaver {
     @Override
@@ -40,4 +42,8 @@ public class NotImplementedMappingsSaver implements MappingsSaver {
     public void removeAll() {
         throw new UnsupportedOperationException("Remove all mappings is not supported");
     }
+
+    @Override
+    public void sync(Collection<UUID> stubIds) {
+    }
 }
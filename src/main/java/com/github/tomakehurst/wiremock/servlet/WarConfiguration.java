@@ -17,16 +17,22 @@ package com.github.tomakehurst.wiremock.servlet;
 
 import com.github.tomakehurst.wiremock.common.*;
 import com.github.tomakehurst.wiremock.core.MappingsSaver;
+import com.github.tomakehurst.wiremock.core.WriteBehindMappingsSaver;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.extension.Extension;
 import com.github.tomakehurst.wiremock.http.CaseInsensitiveKey;
 import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.trafficlistener.DoNothingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.security.Authenticator;
 import com.github.tomakehurst.wiremock.security.NoAuthenticator;
 import com.github.tomakehurst.wiremock.standalone.JsonFileMappingsSource;
 import com.github.tomakehurst.wiremock.standalone.MappingsLoader;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCache;
+import com.github.tomakehurst.wiremock.verification.FileRequestJournalSettings;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
+import com.github.tomakehurst.wiremock.verification.ServeEventCompactor;
 import com.github.tomakehurst.wiremock.verification.notmatched.NotMatchedRenderer;
 import com.github.tomakehurst.wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 import com.google.common.base.Optional;
@@ -160,4 +166,58 @@ public class WarConfiguration implements Options {
     public NotMatchedRenderer getNotMatchedRenderer() {
         return new PlainTextStubNotMatchedRenderer();
     }
+
+    @Override
+    public int stubMatchCacheSize() {
+        return StubMatchCache.DISABLED;
+    }
+
+    @Override
+    public int precompressedBodyMinSize() {
+        return PrecompressedBodyCache.DEFAULT_MIN_SIZE;
+    }
+
+    @Override
+    public long precompressedBodyCacheBytes() {
+        return 0;
+    }
+
+    @Override
+    public int mappingsWriteBehindQueueSize() {
+        return WriteBehindMappingsSaver.DISABLED;
+    }
+
+    @Override
+    public boolean mappingsWatchEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean contentAddressedBodyFilesEnabled() {
+        return false;
+    }
+
+    @Override
+    public Optional<FileRequestJournalSettings> requestJournalFileSettings() {
+        String directory = servletContext.getInitParameter("requestJournalDirectory");
+        if (directory == null) {
+            return Optional.absent();
+        }
+        return Optional.of(FileRequestJournalSettings.inDirectory(directory));
+    }
+
+    @Override
+    public int requestJournalMaxBodySize() {
+        return ServeEventCompactor.UNLIMITED;
+    }
+
+    @Override
+    public boolean requestJournalDeduplicationEnabled() {
+        return false;
+    }
+
+    @Override
+    public JournalingPolicy requestJournalingPolicy() {
+        return JournalingPolicy.RECORD_ALL;
+    }
 }
@@ -27,10 +27,16 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
 import static com.github.tomakehurst.wiremock.servlet.WireMockHttpServletRequestAdapter.ORIGINAL_REQUEST_KEY;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.VARY;
 import static com.google.common.base.Charsets.UTF_8;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.URLDecoder.decode;
@@ -155,7 +161,69 @@ public class WireMockHandlerDispatchingServlet extends HttpServlet {
             }
         }
 
-        writeAndTranslateExceptions(httpServletResponse, response.getBody());
+        if (response.hasStreamingBody()) {
+            streamBody(response, httpServletRequest, httpServletResponse);
+        } else if (canServeGzippedBody(response, httpServletRequest)) {
+            // Whichever variant is served, caches need to know that it depends on Accept-Encoding
+            httpServletResponse.addHeader(VARY, ACCEPT_ENCODING);
+            if (acceptsGzip(httpServletRequest.getHeader(ACCEPT_ENCODING))) {
+                httpServletResponse.addHeader(CONTENT_ENCODING, "gzip");
+                writeAndTranslateExceptions(httpServletResponse, response.getGzippedBody());
+            } else {
+                writeAndTranslateExceptions(httpServletResponse, response.getBody());
+            }
+        } else {
+            writeAndTranslateExceptions(httpServletResponse, response.getBody());
+        }
+    }
+
+    private static void streamBody(Response response, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
+        boolean compressible = !response.getHeaders().getHeader(CONTENT_ENCODING).isPresent();
+        boolean gzip = compressible && acceptsGzip(httpServletRequest.getHeader(ACCEPT_ENCODING));
+        if (compressible) {
+            httpServletResponse.addHeader(VARY, ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            httpServletResponse.addHeader(CONTENT_ENCODING, "gzip");
+        }
+
+        try {
+            OutputStream out = httpServletResponse.getOutputStream();
+            if (gzip) {
+                out = new GZIPOutputStream(out, true);
+            }
+
+            response.getStreamingBody().writeTo(out);
+            out.close();
+        } catch (IOException | RuntimeException e) {
+            if (!httpServletResponse.isCommitted()) {
+                // Nothing has reached the client, so drop the stub's status and headers and fail as an unstreamed body would
+                httpServletResponse.reset();
+            }
+            throwUnchecked(e);
+        }
+    }
+
+    private static boolean canServeGzippedBody(Response response, HttpServletRequest httpServletRequest) {
+        return response.hasGzippedBody() &&
+            GET.getName().equals(httpServletRequest.getMethod()) &&
+            !response.getHeaders().getHeader(CONTENT_ENCODING).isPresent() &&
+            !response.getHeaders().getHeader(CONTENT_LENGTH).isPresent();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding: acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+
+        return false;
     }
 
 	private FaultInjector buildFaultInjector(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
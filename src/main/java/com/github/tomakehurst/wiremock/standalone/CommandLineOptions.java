@@ -20,7 +20,9 @@ import static com.github.tomakehurst.wiremock.common.ProxySettings.NO_PROXY;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static com.github.tomakehurst.wiremock.extension.ExtensionLoader.valueAssignableFrom;
 import static com.github.tomakehurst.wiremock.http.CaseInsensitiveKey.TO_CASE_INSENSITIVE_KEYS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URI;
@@ -34,17 +36,23 @@ import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
 import com.github.tomakehurst.wiremock.http.trafficlistener.DoNothingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.core.MappingsSaver;
+import com.github.tomakehurst.wiremock.core.WriteBehindMappingsSaver;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.core.WireMockApp;
 import com.github.tomakehurst.wiremock.extension.Extension;
 import com.github.tomakehurst.wiremock.extension.ExtensionLoader;
 import com.github.tomakehurst.wiremock.http.CaseInsensitiveKey;
 import com.github.tomakehurst.wiremock.http.HttpServerFactory;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.trafficlistener.ConsoleNotifyingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.http.trafficlistener.WiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.security.Authenticator;
 import com.github.tomakehurst.wiremock.security.BasicAuthenticator;
 import com.github.tomakehurst.wiremock.security.NoAuthenticator;
+import com.github.tomakehurst.wiremock.stubbing.StubMatchCache;
+import com.github.tomakehurst.wiremock.verification.FileRequestJournalSettings;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
+import com.github.tomakehurst.wiremock.verification.ServeEventCompactor;
 import com.github.tomakehurst.wiremock.verification.notmatched.NotMatchedRenderer;
 import com.github.tomakehurst.wiremock.verification.notmatched.PlainTextStubNotMatchedRenderer;
 import com.google.common.base.Optional;
@@ -91,10 +99,29 @@ public class CommandLineOptions implements Options {
     private static final String LOCAL_RESPONSE_TEMPLATING = "local-response-templating";
     private static final String ADMIN_API_BASIC_AUTH = "admin-api-basic-auth";
     private static final String ADMIN_API_REQUIRE_HTTPS = "admin-api-require-https";
+    private static final String STUB_MATCH_CACHE_SIZE = "stub-match-cache-size";
+    private static final String PRECOMPRESSED_BODY_MIN_SIZE = "precompressed-body-min-size";
+    private static final String PRECOMPRESSED_BODY_CACHE_BYTES = "precompressed-body-cache-bytes";
+    private static final String MAPPINGS_WRITE_BEHIND_QUEUE_SIZE = "mappings-write-behind-queue-size";
+    private static final String WATCH_MAPPINGS = "watch-mappings";
+    private static final String CONTENT_ADDRESSED_BODY_FILES = "content-addressed-body-files";
+    private static final String MAPPINGS_BUNDLE = "mappings-bundle";
+    private static final String LAZY_INLINE_BODIES_OVER = "lazy-inline-bodies-over";
+    private static final String COMPILE_MAPPINGS_BUNDLE = "compile-mappings-bundle";
+    private static final String REQUEST_JOURNAL_DIRECTORY = "request-journal-directory";
+    private static final String REQUEST_JOURNAL_SEGMENT_SIZE = "request-journal-segment-size";
+    private static final String REQUEST_JOURNAL_MAX_BYTES = "request-journal-max-bytes";
+    private static final String REQUEST_JOURNAL_MAX_AGE = "request-journal-max-age";
+    private static final String REQUEST_JOURNAL_MAX_BODY_SIZE = "request-journal-max-body-size";
+    private static final String DEDUPLICATE_REQUEST_JOURNAL = "deduplicate-request-journal";
+    private static final String REQUEST_JOURNAL_SAMPLE_RATE = "request-journal-sample-rate";
+    private static final String REQUEST_JOURNAL_UNMATCHED_ONLY = "request-journal-unmatched-only";
+    private static final String REQUEST_JOURNAL_MAX_PER_SECOND = "request-journal-max-per-second";
 
     private final OptionSet optionSet;
     private final FileSource fileSource;
     private final MappingsSource mappingsSource;
+    private final MappingsLoader mappingsLoader;
 
     private String helpText;
 
@@ -129,6 +156,24 @@ public class CommandLineOptions implements Options {
         optionParser.accepts(LOCAL_RESPONSE_TEMPLATING, "Preprocess selected responses with Handlebars templates");
         optionParser.accepts(ADMIN_API_BASIC_AUTH, "Require HTTP Basic authentication for admin API calls with the supplied credentials in username:password format").withRequiredArg();
         optionParser.accepts(ADMIN_API_REQUIRE_HTTPS, "Require HTTPS to be used to access the admin API");
+        optionParser.accepts(STUB_MATCH_CACHE_SIZE, "Cache the matched stub for up to this many distinct body-less requests. Default: no caching").withRequiredArg();
+        optionParser.accepts(PRECOMPRESSED_BODY_MIN_SIZE, "Minimum size in bytes of a static response body to gzip ahead of time. Default: " + PrecompressedBodyCache.DEFAULT_MIN_SIZE).withRequiredArg();
+        optionParser.accepts(PRECOMPRESSED_BODY_CACHE_BYTES, "Maximum bytes of gzipped static response bodies to hold in memory, 0 to disable. Default: " + PrecompressedBodyCache.DEFAULT_MAX_BYTES).withRequiredArg();
+        optionParser.accepts(MAPPINGS_WRITE_BEHIND_QUEUE_SIZE, "Persist stub mappings on a background thread, holding up to this many pending stubs. Default: write synchronously").withRequiredArg();
+        optionParser.accepts(WATCH_MAPPINGS, "Apply changes to files in the mappings directory as they happen");
+        optionParser.accepts(LAZY_INLINE_BODIES_OVER, "Read inline response bodies larger than this many bytes from their mapping files when served rather than keeping them in memory. Default: keep all bodies in memory").withRequiredArg();
+        optionParser.accepts(MAPPINGS_BUNDLE, "Load stubs from this file, compiled with --" + COMPILE_MAPPINGS_BUNDLE + ", instead of the mappings directory").withRequiredArg();
+        optionParser.accepts(COMPILE_MAPPINGS_BUNDLE, "Compile the mappings directory into this file for fast loading with --" + MAPPINGS_BUNDLE + ", then exit").withRequiredArg();
+        optionParser.accepts(CONTENT_ADDRESSED_BODY_FILES, "When recording, store response bodies under __files/sha256 named by a hash of their content so identical bodies are written once");
+        optionParser.accepts(REQUEST_JOURNAL_DIRECTORY, "Keep the request journal in memory-mapped files in this directory rather than on the heap. Existing journal files in it are deleted").withRequiredArg();
+        optionParser.accepts(REQUEST_JOURNAL_SEGMENT_SIZE, "Size in bytes of each request journal file. Default: " + FileRequestJournalSettings.DEFAULT_SEGMENT_SIZE).withRequiredArg();
+        optionParser.accepts(REQUEST_JOURNAL_MAX_BYTES, "Delete the oldest request journal files once they take up more than this many bytes. Default: " + FileRequestJournalSettings.DEFAULT_MAX_BYTES).withRequiredArg();
+        optionParser.accepts(REQUEST_JOURNAL_MAX_AGE, "Delete request journal files once their newest entry is older than this many seconds. Default: no limit").withRequiredArg();
+        optionParser.accepts(REQUEST_JOURNAL_MAX_BODY_SIZE, "Only keep this many bytes of each request body in the request journal. Default: no limit").withRequiredArg();
+        optionParser.accepts(DEDUPLICATE_REQUEST_JOURNAL, "Share identical bodies and headers between requests in the request journal to reduce the heap it uses");
+        optionParser.accepts(REQUEST_JOURNAL_SAMPLE_RATE, "Only journal one in this many matched requests. Unmatched requests are always journaled. Default: 1").withRequiredArg();
+        optionParser.accepts(REQUEST_JOURNAL_UNMATCHED_ONLY, "Only journal requests that weren't matched by a stub");
+        optionParser.accepts(REQUEST_JOURNAL_MAX_PER_SECOND, "Journal no more than this many requests per second. Default: no limit").withRequiredArg();
 
         optionParser.accepts(HELP, "Print this message");
 
@@ -137,16 +182,19 @@ public class CommandLineOptions implements Options {
 		captureHelpTextIfRequested(optionParser);
 
         fileSource = new SingleRootFileSource((String) optionSet.valueOf(ROOT_DIR));
-        mappingsSource = new JsonFileMappingsSource(fileSource.child(MAPPINGS_ROOT));
+        JsonFileMappingsSource jsonFileMappingsSource = new JsonFileMappingsSource(fileSource.child(MAPPINGS_ROOT), lazyInlineBodyThreshold());
+        mappingsSource = jsonFileMappingsSource;
+        mappingsLoader = optionSet.has(MAPPINGS_BUNDLE) ?
+            new MappingsBundle(new File((String) optionSet.valueOf(MAPPINGS_BUNDLE)), jsonFileMappingsSource) :
+            jsonFileMappingsSource;
 	}
 
     private void validate() {
         if (optionSet.has(HTTPS_KEYSTORE) && !optionSet.has(HTTPS_PORT)) {
             throw new IllegalArgumentException("HTTPS port number must be specified if specifying the keystore path");
         }
-
-        if (optionSet.has(RECORD_MAPPINGS) && optionSet.has(DISABLE_REQUEST_JOURNAL)) {
-            throw new IllegalArgumentException("Request journal must be enabled to record stubs");
+        if (optionSet.has(WATCH_MAPPINGS) && optionSet.has(MAPPINGS_BUNDLE)) {
+            throw new IllegalArgumentException("Mappings cannot be watched when loading them from a mappings bundle");
         }
     }
 
@@ -274,6 +322,20 @@ public class CommandLineOptions implements Options {
 		return (String) optionSet.valueOf(PROXY_ALL);
 	}
 
+    public int lazyInlineBodyThreshold() {
+        if (optionSet.has(LAZY_INLINE_BODIES_OVER)) {
+            return Integer.parseInt((String) optionSet.valueOf(LAZY_INLINE_BODIES_OVER));
+        }
+
+        return JsonFileMappingsSource.LAZY_INLINE_BODIES_DISABLED;
+    }
+
+    public Optional<File> mappingsBundleToCompile() {
+        return optionSet.has(COMPILE_MAPPINGS_BUNDLE) ?
+            Optional.of(new File((String) optionSet.valueOf(COMPILE_MAPPINGS_BUNDLE))) :
+            Optional.<File>absent();
+    }
+
     @Override
     public boolean shouldPreserveHostHeader() {
         return optionSet.has(PRESERVE_HOST_HEADER);
@@ -340,6 +402,97 @@ public class CommandLineOptions implements Options {
         return new PlainTextStubNotMatchedRenderer();
     }
 
+    @Override
+    public int stubMatchCacheSize() {
+        if (optionSet.has(STUB_MATCH_CACHE_SIZE)) {
+            return Integer.parseInt((String) optionSet.valueOf(STUB_MATCH_CACHE_SIZE));
+        }
+
+        return StubMatchCache.DISABLED;
+    }
+
+    @Override
+    public int precompressedBodyMinSize() {
+        if (optionSet.has(PRECOMPRESSED_BODY_MIN_SIZE)) {
+            return Integer.parseInt((String) optionSet.valueOf(PRECOMPRESSED_BODY_MIN_SIZE));
+        }
+
+        return PrecompressedBodyCache.DEFAULT_MIN_SIZE;
+    }
+
+    @Override
+    public long precompressedBodyCacheBytes() {
+        if (optionSet.has(PRECOMPRESSED_BODY_CACHE_BYTES)) {
+            return Long.parseLong((String) optionSet.valueOf(PRECOMPRESSED_BODY_CACHE_BYTES));
+        }
+
+        return PrecompressedBodyCache.DEFAULT_MAX_BYTES;
+    }
+
+    @Override
+    public int mappingsWriteBehindQueueSize() {
+        if (optionSet.has(MAPPINGS_WRITE_BEHIND_QUEUE_SIZE)) {
+            return Integer.parseInt((String) optionSet.valueOf(MAPPINGS_WRITE_BEHIND_QUEUE_SIZE));
+        }
+
+        return WriteBehindMappingsSaver.DISABLED;
+    }
+
+    @Override
+    public boolean mappingsWatchEnabled() {
+        return optionSet.has(WATCH_MAPPINGS);
+    }
+
+    @Override
+    public boolean contentAddressedBodyFilesEnabled() {
+        return optionSet.has(CONTENT_ADDRESSED_BODY_FILES);
+    }
+
+    @Override
+    public int requestJournalMaxBodySize() {
+        if (optionSet.has(REQUEST_JOURNAL_MAX_BODY_SIZE)) {
+            return Integer.parseInt((String) optionSet.valueOf(REQUEST_JOURNAL_MAX_BODY_SIZE));
+        }
+
+        return ServeEventCompactor.UNLIMITED;
+    }
+
+    @Override
+    public boolean requestJournalDeduplicationEnabled() {
+        return optionSet.has(DEDUPLICATE_REQUEST_JOURNAL);
+    }
+
+    @Override
+    public JournalingPolicy requestJournalingPolicy() {
+        return new JournalingPolicy(
+            optionSet.has(REQUEST_JOURNAL_SAMPLE_RATE) ? Integer.parseInt((String) optionSet.valueOf(REQUEST_JOURNAL_SAMPLE_RATE)) : 1,
+            optionSet.has(REQUEST_JOURNAL_UNMATCHED_ONLY),
+            optionSet.has(REQUEST_JOURNAL_MAX_PER_SECOND) ?
+                Integer.parseInt((String) optionSet.valueOf(REQUEST_JOURNAL_MAX_PER_SECOND)) :
+                JournalingPolicy.UNLIMITED
+        );
+    }
+
+    @Override
+    public Optional<FileRequestJournalSettings> requestJournalFileSettings() {
+        if (!optionSet.has(REQUEST_JOURNAL_DIRECTORY)) {
+            return Optional.absent();
+        }
+
+        return Optional.of(new FileRequestJournalSettings(
+            new File((String) optionSet.valueOf(REQUEST_JOURNAL_DIRECTORY)),
+            optionSet.has(REQUEST_JOURNAL_SEGMENT_SIZE) ?
+                Long.parseLong((String) optionSet.valueOf(REQUEST_JOURNAL_SEGMENT_SIZE)) :
+                FileRequestJournalSettings.DEFAULT_SEGMENT_SIZE,
+            optionSet.has(REQUEST_JOURNAL_MAX_BYTES) ?
+                Long.parseLong((String) optionSet.valueOf(REQUEST_JOURNAL_MAX_BYTES)) :
+                FileRequestJournalSettings.DEFAULT_MAX_BYTES,
+            optionSet.has(REQUEST_JOURNAL_MAX_AGE) ?
+                Optional.of(SECONDS.toMillis(Long.parseLong((String) optionSet.valueOf(REQUEST_JOURNAL_MAX_AGE)))) :
+                Optional.<Long>absent()
+        ));
+    }
+
     @Override
     public boolean browserProxyingEnabled() {
 		return optionSet.has(ENABLE_BROWSER_PROXYING);
@@ -362,7 +515,7 @@ public class CommandLineOptions implements Options {
 
     @Override
     public MappingsLoader mappingsLoader() {
-        return mappingsSource;
+        return mappingsLoader;
     }
 
     @Override
@@ -449,6 +602,53 @@ public class CommandLineOptions implements Options {
             builder.put(ADMIN_API_REQUIRE_HTTPS, "true");
         }
 
+        if (stubMatchCacheSize() != StubMatchCache.DISABLED) {
+            builder.put(STUB_MATCH_CACHE_SIZE, stubMatchCacheSize());
+        }
+
+        if (precompressedBodyCacheBytes() != PrecompressedBodyCache.DEFAULT_MAX_BYTES) {
+            builder.put(PRECOMPRESSED_BODY_CACHE_BYTES, precompressedBodyCacheBytes());
+        }
+
+        if (mappingsWriteBehindQueueSize() != WriteBehindMappingsSaver.DISABLED) {
+            builder.put(MAPPINGS_WRITE_BEHIND_QUEUE_SIZE, mappingsWriteBehindQueueSize());
+        }
+
+        if (mappingsWatchEnabled()) {
+            builder.put(WATCH_MAPPINGS, "true");
+        }
+
+        if (contentAddressedBodyFilesEnabled()) {
+            builder.put(CONTENT_ADDRESSED_BODY_FILES, "true");
+        }
+
+        if (optionSet.has(MAPPINGS_BUNDLE)) {
+            builder.put(MAPPINGS_BUNDLE, optionSet.valueOf(MAPPINGS_BUNDLE));
+        }
+
+        if (lazyInlineBodyThreshold() != JsonFileMappingsSource.LAZY_INLINE_BODIES_DISABLED) {
+            builder.put(LAZY_INLINE_BODIES_OVER, lazyInlineBodyThreshold());
+        }
+
+        if (requestJournalFileSettings().isPresent()) {
+            builder.put(REQUEST_JOURNAL_DIRECTORY, requestJournalFileSettings().get().getDirectory());
+        }
+
+        if (requestJournalMaxBodySize() != ServeEventCompactor.UNLIMITED) {
+            builder.put(REQUEST_JOURNAL_MAX_BODY_SIZE, requestJournalMaxBodySize());
+        }
+
+        if (requestJournalDeduplicationEnabled()) {
+            builder.put(DEDUPLICATE_REQUEST_JOURNAL, "true");
+        }
+
+        JournalingPolicy journalingPolicy = requestJournalingPolicy();
+        if (!journalingPolicy.equals(JournalingPolicy.RECORD_ALL)) {
+            builder.put(REQUEST_JOURNAL_SAMPLE_RATE, journalingPolicy.getMatchedSampleRate());
+            builder.put(REQUEST_JOURNAL_UNMATCHED_ONLY, journalingPolicy.isUnmatchedOnly());
+            builder.put(REQUEST_JOURNAL_MAX_PER_SECOND, journalingPolicy.isRateLimited() ? journalingPolicy.getMaxPerSecond() : "unlimited");
+        }
+
         StringBuilder sb = new StringBuilder();
         for (Map.Entry<String, Object> param: builder.build().entrySet()) {
             int paddingLength = 29 - param.getKey().length();
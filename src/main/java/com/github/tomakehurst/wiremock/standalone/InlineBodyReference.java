@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.standalone;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.Strings;
+import com.github.tomakehurst.wiremock.common.TextFile;
+import com.github.tomakehurst.wiremock.http.Body;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static com.github.tomakehurst.wiremock.common.Encoding.decodeBase64;
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+
+/**
+ * The position of a stub's inline response body within its mapping file, from which the body can be read
+ * back when it is served rather than kept in memory.
+ *
+ * The body is only read while the file is unchanged since it was located. Once it has changed the stub is out of
+ * date, and reading its body fails rather than serving part of a different revision of the file.
+ */
+class InlineBodyReference implements Supplier<byte[]> {
+
+    private enum Kind { TEXT, JSON, BASE64 }
+
+    private final URI mappingFileUri;
+    private final long offset;
+    private final Kind kind;
+    private final long version;
+
+    private InlineBodyReference(URI mappingFileUri, long offset, Kind kind, long version) {
+        this.mappingFileUri = mappingFileUri;
+        this.offset = offset;
+        this.kind = kind;
+        this.version = version;
+    }
+
+    /**
+     * Finds the body, jsonBody or base64Body in the mapping file, in the order of precedence a stub gives them.
+     */
+    static Optional<InlineBodyReference> locate(TextFile mappingFile) {
+        URI uri = mappingFile.getUri();
+        long version = versionOf(uri);
+        long[] offsets = { -1, -1, -1 };
+        try (JsonParser parser = Json.getObjectMapper().getFactory().createParser(mappingFile.readContents())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.absent();
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && "response".equals(name)) {
+                    locateBodies(parser, offsets);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return Optional.absent();
+        }
+
+        for (Kind kind: Kind.values()) {
+            if (offsets[kind.ordinal()] >= 0) {
+                return Optional.of(new InlineBodyReference(uri, offsets[kind.ordinal()], kind, version));
+            }
+        }
+
+        return Optional.absent();
+    }
+
+    private static void locateBodies(JsonParser parser, long[] offsets) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            Kind kind = "body".equals(name) ? Kind.TEXT :
+                "jsonBody".equals(name) ? Kind.JSON :
+                "base64Body".equals(name) ? Kind.BASE64 :
+                null;
+            if (kind != null && value != JsonToken.VALUE_NULL) {
+                offsets[kind.ordinal()] = parser.getTokenLocation().getByteOffset();
+            }
+            parser.skipChildren();
+        }
+    }
+
+    Body toBody() {
+        return Body.loadedOnDemand(this, kind == Kind.BASE64);
+    }
+
+    @Override
+    public byte[] get() {
+        checkUnchanged();
+        try (InputStream in = openAtOffset();
+             JsonParser parser = Json.getObjectMapper().getFactory().createParser(in)) {
+            parser.nextToken();
+            byte[] body = read(parser);
+            checkUnchanged();
+            return body;
+        } catch (IOException e) {
+            return throwUnchecked(e, byte[].class);
+        }
+    }
+
+    private byte[] read(JsonParser parser) throws IOException {
+        switch (kind) {
+            case JSON:
+                return Json.toByteArray(parser.readValueAs(JsonNode.class));
+            case BASE64:
+                return decodeBase64(parser.getText());
+            default:
+                return Strings.bytesFromString(parser.getText());
+        }
+    }
+
+    private InputStream openAtOffset() throws IOException {
+        if ("file".equals(mappingFileUri.getScheme())) {
+            FileChannel channel = FileChannel.open(Paths.get(mappingFileUri), StandardOpenOption.READ);
+            return Channels.newInputStream(channel.position(offset));
+        }
+
+        InputStream in = mappingFileUri.toURL().openStream();
+        ByteStreams.skipFully(in, offset);
+        return in;
+    }
+
+    private void checkUnchanged() {
+        if (versionOf(mappingFileUri) != version) {
+            throw new IllegalStateException(
+                "The mapping file " + mappingFileUri + " has changed since its stub was loaded, so its response body can no longer be read. " +
+                "Reset the stub mappings, or watch the mappings directory, to load the current version of the stub."
+            );
+        }
+    }
+
+    private static long versionOf(URI uri) {
+        if (!"file".equals(uri.getScheme())) {
+            return 0;
+        }
+
+        File file = new File(uri);
+        return file.lastModified() * 31 + file.length();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InlineBodyReference that = (InlineBodyReference) o;
+        return offset == that.offset &&
+            version == that.version &&
+            kind == that.kind &&
+            Objects.equals(mappingFileUri, that.mappingFileUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mappingFileUri, offset, kind, version);
+    }
+}
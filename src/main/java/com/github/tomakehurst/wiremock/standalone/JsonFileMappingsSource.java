@@ -16,25 +16,74 @@
 package com.github.tomakehurst.wiremock.standalone;
 
 import com.github.tomakehurst.wiremock.common.*;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Optional;
+import com.google.common.base.Utf8;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
 import static com.github.tomakehurst.wiremock.common.Json.write;
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 public class JsonFileMappingsSource implements MappingsSource {
 
+	public static final int LAZY_INLINE_BODIES_DISABLED = -1;
+
 	private final FileSource mappingsFileSource;
 	private final Map<UUID, String> fileNameMap;
+	private final ConcurrentMap<String, UUID> idsByFileName;
+	private final int lazyInlineBodyThreshold;
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicReference<Map<URI, FileVersion>> loadedDirectories = new AtomicReference<>(Collections.<URI, FileVersion>emptyMap());
+
+	private volatile Map<URI, ParsedMappingFile> parsedMappingFiles = Collections.emptyMap();
 
 	public JsonFileMappingsSource(FileSource mappingsFileSource) {
+		this(mappingsFileSource, LAZY_INLINE_BODIES_DISABLED);
+	}
+
+	/**
+	 * Inline response bodies larger than lazyInlineBodyThreshold bytes are not kept in memory once loaded.
+	 * The stub instead refers to the body's position in its mapping file and reads it from there when served.
+	 */
+	public JsonFileMappingsSource(FileSource mappingsFileSource, int lazyInlineBodyThreshold) {
 		this.mappingsFileSource = mappingsFileSource;
-		fileNameMap = new HashMap<>();
+		this.lazyInlineBodyThreshold = lazyInlineBodyThreshold;
+		fileNameMap = new ConcurrentHashMap<>();
+		idsByFileName = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -53,40 +102,392 @@ public class JsonFileMappingsSource implements MappingsSource {
 			mappingFileName = SafeNames.makeSafeFileName(stubMapping);
 		}
 		mappingsFileSource.writeTextFile(mappingFileName, write(stubMapping));
-        fileNameMap.put(stubMapping.getId(), mappingFileName);
+		associate(stubMapping.getId(), mappingFileName);
 		stubMapping.setDirty(false);
+		version.incrementAndGet();
 	}
 
     @Override
     public void remove(StubMapping stubMapping) {
-        String mappingFileName = fileNameMap.get(stubMapping.getId());
-        mappingsFileSource.deleteFile(mappingFileName);
-        fileNameMap.remove(stubMapping.getId());
+        String mappingFileName = dissociate(stubMapping.getId());
+        if (mappingFileName != null) {
+            mappingsFileSource.deleteFile(mappingFileName);
+            version.incrementAndGet();
+        }
     }
 
 	@Override
-	public void removeAll() {
+	public synchronized void removeAll() {
 		for (String filename: fileNameMap.values()) {
 			mappingsFileSource.deleteFile(filename);
 		}
 		fileNameMap.clear();
+		idsByFileName.clear();
+		version.incrementAndGet();
 	}
 
+	/**
+	 * Changes whenever mapping files are written or deleted through this source, changes to them are applied
+	 * by loading or unloading individual files, or files have been added to or removed from the mappings directory
+	 * since it was last loaded, so stubs loaded from it can be reused until then. Only the directories'
+	 * modification times are checked, so edits made to existing files in place by other programs are not noticed.
+	 */
+	public long getVersion() {
+		Map<URI, FileVersion> directories = loadedDirectories.get();
+		for (Map.Entry<URI, FileVersion> directory: directories.entrySet()) {
+			if (!directory.getValue().matches(directory.getKey())) {
+				if (loadedDirectories.compareAndSet(directories, Collections.<URI, FileVersion>emptyMap())) {
+					version.incrementAndGet();
+				}
+				break;
+			}
+		}
+
+		return version.get();
+	}
+
+	/**
+	 * Forces the files backing the given stubs to disk, so a batch of writes can be synced together.
+	 */
+	@Override
+	public void sync(Collection<UUID> stubIds) {
+		for (UUID id: stubIds) {
+			String mappingFileName = fileNameMap.get(id);
+			if (mappingFileName != null) {
+				sync(new File(mappingsFileSource.getPath(), mappingFileName));
+			}
+		}
+	}
+
+	private static void sync(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), WRITE)) {
+			channel.force(true);
+		} catch (NoSuchFileException e) {
+			// Removed since it was written
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Mapping files are parsed once and kept as JSON trees, from which fresh stubs are built on each load
+	 * until the files change.
+	 */
 	@Override
 	public void loadMappingsInto(StubMappings stubMappings) {
+		Map<URI, FileVersion> directories = directoryVersions();
 		if (!mappingsFileSource.exists()) {
+			loadedDirectories.set(directories);
 			return;
 		}
-		Iterable<TextFile> mappingFiles = filter(mappingsFileSource.listFilesRecursively(), AbstractFileSource.byFileExtension("json"));
+
+		List<TextFile> mappingFiles = newArrayList(filter(mappingsFileSource.listFilesRecursively(), AbstractFileSource.byFileExtension("json")));
+		Map<URI, ParsedMappingFile> previouslyParsed = parsedMappingFiles;
+		Map<URI, ParsedMappingFile> parsed = new HashMap<>();
+		List<StubMapping> mappings = new ArrayList<>(mappingFiles.size());
+		List<String> fileNames = new ArrayList<>(mappingFiles.size());
 		for (TextFile mappingFile: mappingFiles) {
-            StubMapping mapping = StubMapping.buildFrom(mappingFile.readContentsAsString());
-            mapping.setDirty(false);
+			ParsedMappingFile parsedFile = previouslyParsed.get(mappingFile.getUri());
+			if (parsedFile == null || !parsedFile.isUpToDate()) {
+				parsedFile = parse(mappingFile);
+			}
+			parsed.put(mappingFile.getUri(), parsedFile);
+
+			mappings.add(parsedFile.toStubMapping());
+			fileNames.add(parsedFile.fileName);
+		}
+
+		stubMappings.addMappings(mappings);
+		for (int i = 0; i < mappings.size(); i++) {
+			associate(mappings.get(i).getId(), fileNames.get(i));
+		}
+
+		parsedMappingFiles = parsed;
+		loadedDirectories.set(directories);
+	}
+
+	private Map<URI, FileVersion> directoryVersions() {
+		URI root = mappingsFileSource.getUri();
+		if (!"file".equals(root.getScheme())) {
+			return Collections.emptyMap();
+		}
+
+		final Map<URI, FileVersion> directories = new HashMap<>();
+		directories.put(root, FileVersion.of(root));
+		if (!mappingsFileSource.exists()) {
+			return directories;
+		}
+
+		try {
+			Files.walkFileTree(Paths.get(root), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					directories.put(dir.toUri(), FileVersion.of(dir.toUri()));
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		return directories;
+	}
+
+	private ParsedMappingFile parse(TextFile mappingFile) {
+		FileVersion version = FileVersion.of(mappingFile.getUri());
+		JsonNode json = Json.node(mappingFile.readContentsAsString());
+		Optional<InlineBodyReference> bodyReference = Optional.absent();
+		if (lazyInlineBodyThreshold != LAZY_INLINE_BODIES_DISABLED && isOverThreshold(json.path("response"))) {
+			bodyReference = InlineBodyReference.locate(mappingFile);
+			if (bodyReference.isPresent()) {
+				((ObjectNode) json.get("response")).remove(asList("body", "jsonBody", "base64Body"));
+			}
+		}
+
+		return new ParsedMappingFile(mappingFile.getUri(), relativePathOf(mappingsFileSource, mappingFile), version, json, bodyReference);
+	}
+
+	private StubMapping read(TextFile mappingFile) {
+		StubMapping mapping = StubMapping.buildFrom(mappingFile.readContentsAsString());
+		if (lazyInlineBodyThreshold != LAZY_INLINE_BODIES_DISABLED && isOverThreshold(mapping.getResponse())) {
+			Optional<InlineBodyReference> bodyReference = InlineBodyReference.locate(mappingFile);
+			if (bodyReference.isPresent()) {
+				mapping.setResponse(mapping.getResponse().withResponseBody(bodyReference.get().toBody()));
+			}
+		}
+
+		mapping.setDirty(false);
+		return mapping;
+	}
+
+	private boolean isOverThreshold(ResponseDefinition response) {
+		byte[] body = response.specifiesBodyContent() ? response.getByteBody() : null;
+		return body != null && body.length > lazyInlineBodyThreshold;
+	}
+
+	/**
+	 * Estimates the inline body's size from the JSON tree, so the stub doesn't have to be bound from it just to check.
+	 */
+	private boolean isOverThreshold(JsonNode response) {
+		long length = 0;
+		if (response.hasNonNull("body")) {
+			length = Utf8.encodedLength(response.get("body").asText());
+		} else if (response.hasNonNull("base64Body")) {
+			length = response.get("base64Body").asText().length() / 4 * 3;
+		} else if (response.hasNonNull("jsonBody")) {
+			length = response.get("jsonBody").toString().length();
+		}
+
+		return length > lazyInlineBodyThreshold;
+	}
+
+	/**
+	 * Loads a single added or modified mapping file, replacing whichever stub was previously loaded from it.
+	 * Files whose content matches the stub already loaded are left alone.
+	 */
+	public void loadMappingFileInto(TextFile mappingFile, StubMappings stubMappings) {
+		String fileName = relativePathOf(mappingsFileSource, mappingFile);
+		StubMapping mapping = read(mappingFile);
+
+		UUID previousId = idsByFileName.get(fileName);
+		if (previousId != null && !previousId.equals(mapping.getId())) {
+			removeMappingFrom(previousId, stubMappings);
+		}
+
+		Optional<StubMapping> existing = stubMappings.get(mapping.getId());
+		if (!existing.isPresent()) {
 			stubMappings.addMapping(mapping);
-			fileNameMap.put(mapping.getId(), getFileName(mappingFile));
+		} else if (!write(existing.get()).equals(write(mapping))) {
+			stubMappings.editMapping(mapping);
+			mapping.setDirty(false);
+		}
+
+		associate(mapping.getId(), fileName);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * Removes the stub that was loaded from a mapping file which has since been deleted.
+	 */
+	public void unloadMappingFileFrom(TextFile mappingFile, StubMappings stubMappings) {
+		UUID id = idsByFileName.get(relativePathOf(mappingsFileSource, mappingFile));
+		if (id != null) {
+			removeMappingFrom(id, stubMappings);
 		}
 	}
 
-	private String getFileName(TextFile mappingFile) {
-		return mappingFile.getUri().toString().replaceAll("^.*/", "");
+	/**
+	 * Removes the stubs loaded from any mapping file under a directory which has since been deleted or moved away.
+	 */
+	public void unloadMappingFilesUnder(URI directory, StubMappings stubMappings) {
+		String directoryPath = relativePathOf(mappingsFileSource, directory);
+		String prefix = directoryPath.endsWith("/") ? directoryPath : directoryPath + "/";
+		for (Map.Entry<String, UUID> entry: idsByFileName.entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				removeMappingFrom(entry.getValue(), stubMappings);
+			}
+		}
+	}
+
+	/**
+	 * Removes the stubs loaded from mapping files other than those given, i.e. whose files no longer exist.
+	 */
+	public void unloadMappingFilesOtherThan(Collection<TextFile> mappingFiles, StubMappings stubMappings) {
+		Set<String> fileNames = new HashSet<>();
+		for (TextFile mappingFile: mappingFiles) {
+			fileNames.add(relativePathOf(mappingsFileSource, mappingFile));
+		}
+
+		for (Map.Entry<String, UUID> entry: idsByFileName.entrySet()) {
+			if (!fileNames.contains(entry.getKey())) {
+				removeMappingFrom(entry.getValue(), stubMappings);
+			}
+		}
+	}
+
+	/**
+	 * Associates a stub loaded by other means with the mapping file it came from, given as a path relative to
+	 * the mappings directory, so that saving or removing it updates that file.
+	 */
+	public void registerFileName(UUID id, String fileName) {
+		associate(id, fileName);
+	}
+
+	public FileSource getFileSource() {
+		return mappingsFileSource;
+	}
+
+	private void removeMappingFrom(UUID id, StubMappings stubMappings) {
+		dissociate(id);
+		version.incrementAndGet();
+		Optional<StubMapping> mapping = stubMappings.get(id);
+		if (mapping.isPresent()) {
+			stubMappings.removeMapping(mapping.get());
+		}
+	}
+
+	private synchronized void associate(UUID id, String fileName) {
+		String previousFileName = fileNameMap.put(id, fileName);
+		if (previousFileName != null && !previousFileName.equals(fileName)) {
+			idsByFileName.remove(previousFileName, id);
+		}
+		idsByFileName.put(fileName, id);
+	}
+
+	private synchronized String dissociate(UUID id) {
+		String fileName = fileNameMap.remove(id);
+		if (fileName != null) {
+			idsByFileName.remove(fileName, id);
+		}
+		return fileName;
+	}
+
+	/**
+	 * The mapping file's path relative to the mappings directory, so that files with the same name in different
+	 * subdirectories are told apart. Falls back to the bare file name where the two can't be related, e.g. in a jar.
+	 */
+	static String relativePathOf(FileSource mappingsFileSource, TextFile mappingFile) {
+		return relativePathOf(mappingsFileSource, mappingFile.getUri());
+	}
+
+	private static String relativePathOf(FileSource mappingsFileSource, URI uri) {
+		URI relative = mappingsFileSource.getUri().relativize(uri);
+		return relative.isAbsolute() ?
+			uri.toString().replaceAll("^.*/", "") :
+			relative.getPath();
+	}
+
+	/**
+	 * A mapping file as it was when last parsed. Stubs are mutable once loaded, so each load builds new ones from the JSON.
+	 */
+	private static class ParsedMappingFile {
+
+		final URI uri;
+		final String fileName;
+		final FileVersion version;
+		final JsonNode json;
+		final Optional<InlineBodyReference> bodyReference;
+
+		ParsedMappingFile(URI uri, String fileName, FileVersion version, JsonNode json, Optional<InlineBodyReference> bodyReference) {
+			this.uri = uri;
+			this.fileName = fileName;
+			this.version = version;
+			this.json = json;
+			this.bodyReference = bodyReference;
+		}
+
+		boolean isUpToDate() {
+			return version.matches(uri);
+		}
+
+		StubMapping toStubMapping() {
+			StubMapping mapping = toStubMapping(json);
+			if (bodyReference.isPresent()) {
+				mapping.setResponse(mapping.getResponse().withResponseBody(bodyReference.get().toBody()));
+			}
+
+			mapping.setDirty(false);
+			return mapping;
+		}
+
+		static StubMapping toStubMapping(JsonNode json) {
+			try {
+				return Json.getObjectMapper().treeToValue(json, StubMapping.class);
+			} catch (JsonProcessingException e) {
+				return throwUnchecked(e, StubMapping.class);
+			}
+		}
+	}
+
+	/**
+	 * A file's modification time and length, taken just before it is read.
+	 *
+	 * A file modified within the file system's timestamp granularity of being read could be changed again without
+	 * either of them changing, so such versions aren't trusted to detect changes and the file is read again.
+	 */
+	private static class FileVersion {
+
+		private static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+		final long lastModified;
+		final long length;
+		final long takenAt;
+
+		private FileVersion(long lastModified, long length, long takenAt) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.takenAt = takenAt;
+		}
+
+		static FileVersion of(URI uri) {
+			long now = System.currentTimeMillis();
+			if (!"file".equals(uri.getScheme())) {
+				return new FileVersion(0, 0, now);
+			}
+
+			File file = new File(uri);
+			return new FileVersion(file.lastModified(), file.length(), now);
+		}
+
+		boolean isTrustworthy() {
+			return takenAt - lastModified > TIMESTAMP_GRANULARITY_MILLIS;
+		}
+
+		boolean matches(URI uri) {
+			return isTrustworthy() && equals(of(uri));
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			FileVersion that = (FileVersion) o;
+			return lastModified == that.lastModified && length == that.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(lastModified, length);
+		}
 	}
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.standalone;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.tomakehurst.wiremock.common.AbstractFileSource;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.TextFile;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.google.common.collect.Iterables.filter;
+
+/**
+ * A single file holding every stub from a mappings directory, compiled ahead of time so that startup doesn't
+ * have to list, read and parse each mapping file.
+ *
+ * The file starts with an index giving, for each stub, the mapping file it was compiled from and the length of
+ * its record, followed by the records themselves encoded as Smile, Jackson's binary form of JSON. Smile records
+ * skip text tokenising and refer back to field names already seen rather than repeating them, so they are smaller
+ * and quicker to decode than the mapping files. The index lets the records be decoded in parallel straight from
+ * the file's bytes and the stubs added in one batch. Stubs are added in the same order they would have been
+ * loaded from the directory.
+ *
+ * Every load decodes new stub instances, so changes made to loaded stubs never leak into a later reset.
+ * The bundle is a snapshot, so it has to be compiled again when the mapping files change.
+ */
+public class MappingsBundle implements MappingsLoader {
+
+    private static final int MAGIC = 0x574d4232; // WMB2
+    private static final int MIN_RECORDS_PER_THREAD = 1000;
+
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory())
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final File bundleFile;
+    private final JsonFileMappingsSource mappingsSource;
+
+    public MappingsBundle(File bundleFile) {
+        this(bundleFile, null);
+    }
+
+    /**
+     * Stubs loaded from the bundle are associated with the files they were compiled from in mappingsSource,
+     * so that saving or removing them through it updates those files.
+     */
+    public MappingsBundle(File bundleFile, JsonFileMappingsSource mappingsSource) {
+        this.bundleFile = bundleFile;
+        this.mappingsSource = mappingsSource;
+    }
+
+    /**
+     * Compiles every mapping file under mappingsFileSource into a bundle, returning the number of stubs written.
+     */
+    public static int compile(FileSource mappingsFileSource, File bundleFile) {
+        List<TextFile> mappingFiles = ImmutableList.copyOf(filter(mappingsFileSource.listFilesRecursively(), AbstractFileSource.byFileExtension("json")));
+        List<byte[]> records = new ArrayList<>(mappingFiles.size());
+        try {
+            for (TextFile mappingFile: mappingFiles) {
+                records.add(SMILE.writeValueAsBytes(StubMapping.buildFrom(mappingFile.readContentsAsString())));
+            }
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+
+        File directory = bundleFile.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(bundleFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                out.writeInt(records.get(i).length);
+                out.writeUTF(JsonFileMappingsSource.relativePathOf(mappingsFileSource, mappingFiles.get(i)));
+            }
+
+            for (byte[] record: records) {
+                out.write(record);
+            }
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+
+        return records.size();
+    }
+
+    @Override
+    public void loadMappingsInto(StubMappings stubMappings) {
+        byte[] bundle = readBundle();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bundle));
+        try {
+            if (bundle.length < 8 || in.readInt() != MAGIC) {
+                throw new IllegalStateException(bundleFile + " is not a mappings bundle, or was compiled by a different version of WireMock");
+            }
+
+            int count = in.readInt();
+            int[] offsets = new int[count + 1];
+            List<String> fileNames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                offsets[i + 1] = offsets[i] + in.readInt();
+                fileNames.add(in.readUTF());
+            }
+
+            int recordsStart = bundle.length - in.available();
+            List<StubMapping> mappings = decode(bundle, recordsStart, offsets);
+
+            stubMappings.addMappings(mappings);
+            if (mappingsSource != null) {
+                for (int i = 0; i < count; i++) {
+                    mappingsSource.registerFileName(mappings.get(i).getId(), fileNames.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+    }
+
+    private byte[] readBundle() {
+        try {
+            return Files.readAllBytes(bundleFile.toPath());
+        } catch (IOException e) {
+            return throwUnchecked(e, byte[].class);
+        }
+    }
+
+    private static List<StubMapping> decode(byte[] bundle, int recordsStart, int[] offsets) {
+        int count = offsets.length - 1;
+        StubMapping[] mappings = new StubMapping[count];
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), count / MIN_RECORDS_PER_THREAD));
+        if (threads == 1) {
+            decodeRange(bundle, recordsStart, offsets, mappings, 0, count);
+            return Arrays.asList(mappings);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder().setNameFormat("wiremock-bundle-loader-%d").setDaemon(true).build()
+        );
+
+        try {
+            int partitionSize = (count + threads - 1) / threads;
+            List<Future<?>> partitions = new ArrayList<>(threads);
+            for (int from = 0; from < count; from += partitionSize) {
+                partitions.add(executor.submit(decodeRangeTask(bundle, recordsStart, offsets, mappings, from, Math.min(from + partitionSize, count))));
+            }
+
+            for (Future<?> partition: partitions) {
+                partition.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwUnchecked(e);
+        } catch (ExecutionException e) {
+            throwUnchecked(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return Arrays.asList(mappings);
+    }
+
+    private static Runnable decodeRangeTask(final byte[] bundle, final int recordsStart, final int[] offsets, final StubMapping[] mappings, final int from, final int to) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                decodeRange(bundle, recordsStart, offsets, mappings, from, to);
+            }
+        };
+    }
+
+    private static void decodeRange(byte[] bundle, int recordsStart, int[] offsets, StubMapping[] mappings, int from, int to) {
+        try {
+            for (int i = from; i < to; i++) {
+                StubMapping mapping = SMILE.readValue(bundle, recordsStart + offsets[i], offsets[i + 1] - offsets[i], StubMapping.class);
+                mapping.setDirty(false);
+                mappings[i] = mapping;
+            }
+        } catch (IOException e) {
+            throwUnchecked(e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.standalone;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.TextFile;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Watches the mappings directory and applies added, modified and deleted files to the stub mappings
+ * one at a time, rather than reloading everything.
+ *
+ * Changes are collected until no events have arrived for the debounce period (or ten times that
+ * has passed since the first pending change), so a sync that touches many files is applied as one batch.
+ *
+ * Deleting or moving away a directory unloads every stub whose file was under it. If the watch service
+ * overflows, the whole directory is rescanned and stubs whose files are no longer present are unloaded.
+ */
+public class MappingsDirectoryWatcher {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+    private static final int MAX_DEBOUNCE_PERIODS = 10;
+
+    private final JsonFileMappingsSource mappingsSource;
+    private final StubMappings stubMappings;
+    private final long debounceMillis;
+
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public MappingsDirectoryWatcher(JsonFileMappingsSource mappingsSource, StubMappings stubMappings, long debounceMillis) {
+        this.mappingsSource = mappingsSource;
+        this.stubMappings = stubMappings;
+        this.debounceMillis = debounceMillis;
+    }
+
+    public synchronized void start() {
+        if (watcherThread != null) {
+            return;
+        }
+
+        FileSource fileSource = mappingsSource.getFileSource();
+        if (!"file".equals(fileSource.getUri().getScheme()) || !fileSource.exists()) {
+            notifier().info("Not watching " + fileSource.getPath() + " for mapping changes as it is not a local directory");
+            return;
+        }
+
+        final Path root = Paths.get(fileSource.getUri());
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchedDirectories.clear();
+            registerRecursively(root, watchService, new LinkedHashSet<Path>());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        final WatchService currentWatchService = watchService;
+        watcherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch(root, currentWatchService);
+            }
+        }, "wiremock-mappings-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    public synchronized void stop() {
+        if (watcherThread == null) {
+            return;
+        }
+
+        watcherThread.interrupt();
+        watcherThread = null;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            notifier().error("Failed to close the mappings directory watcher", e);
+        }
+    }
+
+    private void watch(Path root, WatchService watchService) {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        boolean rescanned = false;
+        long firstChangeAt = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changedFiles.isEmpty()) {
+                    key = watchService.take();
+                    firstChangeAt = System.currentTimeMillis();
+                } else {
+                    long maxWait = firstChangeAt + (debounceMillis * MAX_DEBOUNCE_PERIODS) - System.currentTimeMillis();
+                    key = maxWait > 0 ? watchService.poll(Math.min(debounceMillis, maxWait), MILLISECONDS) : null;
+                }
+
+                if (key == null) {
+                    apply(changedFiles, rescanned);
+                    changedFiles.clear();
+                    rescanned = false;
+                    continue;
+                }
+
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event: key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        notifier().info("Too many changes to the mappings directory to track individually. Rescanning " + root);
+                        registerRecursively(root, watchService, changedFiles);
+                        rescanned = true;
+                        continue;
+                    }
+
+                    Path path = directory.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                        registerRecursively(path, watchService, changedFiles);
+                    } else {
+                        changedFiles.add(path);
+                    }
+                }
+
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (IOException e) {
+            notifier().error("Stopped watching the mappings directory", e);
+        }
+    }
+
+    private void apply(Set<Path> changedFiles, boolean rescanned) {
+        int applied = 0;
+        List<TextFile> presentFiles = new ArrayList<>();
+        for (Path path: changedFiles) {
+            boolean exists = Files.exists(path);
+            if (!exists && watchedDirectories.contains(path)) {
+                forgetDirectoriesUnder(path);
+                try {
+                    mappingsSource.unloadMappingFilesUnder(path.toUri(), stubMappings);
+                } catch (Exception e) {
+                    notifier().error("Failed to unload mapping files under " + path, e);
+                }
+                continue;
+            }
+
+            if (!path.getFileName().toString().endsWith(".json")) {
+                continue;
+            }
+
+            TextFile mappingFile = new TextFile(path.toUri());
+            try {
+                if (Files.isRegularFile(path)) {
+                    mappingsSource.loadMappingFileInto(mappingFile, stubMappings);
+                    presentFiles.add(mappingFile);
+                } else {
+                    mappingsSource.unloadMappingFileFrom(mappingFile, stubMappings);
+                }
+                applied++;
+            } catch (Exception e) {
+                notifier().error("Failed to apply changes to mapping file " + path, e);
+            }
+        }
+
+        if (rescanned) {
+            try {
+                mappingsSource.unloadMappingFilesOtherThan(presentFiles, stubMappings);
+            } catch (Exception e) {
+                notifier().error("Failed to unload deleted mapping files after rescanning", e);
+            }
+        }
+
+        if (applied > 0) {
+            notifier().info("Applied changes to " + applied + " mapping file(s)");
+        }
+    }
+
+    private void forgetDirectoriesUnder(Path directory) {
+        Iterator<Path> iterator = watchedDirectories.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(directory)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void registerRecursively(Path directory, final WatchService watchService, final Set<Path> existingFiles) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirectories.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                existingFiles.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
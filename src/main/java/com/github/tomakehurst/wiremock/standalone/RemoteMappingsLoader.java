@@ -15,43 +15,173 @@
  */
 package com.github.tomakehurst.wiremock.standalone;
 
+import com.github.tomakehurst.wiremock.admin.model.ImportStubMappingsResult;
+import com.github.tomakehurst.wiremock.client.HttpStatusException;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.common.BinaryFile;
 import com.github.tomakehurst.wiremock.common.ContentTypes;
+import com.github.tomakehurst.wiremock.common.Errors;
 import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.Notifier;
 import com.github.tomakehurst.wiremock.common.TextFile;
 import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
 import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static com.github.tomakehurst.wiremock.common.AbstractFileSource.byFileExtension;
 import static com.google.common.collect.Iterables.filter;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.lang3.StringUtils.substringAfterLast;
 
+/**
+ * Pushes the mappings under a local root directory to a remote WireMock instance, inlining any body files.
+ *
+ * Mapping files are split into batches that are read and converted by a pool of workers while earlier
+ * batches are uploaded. Batches are uploaded one after another in file order, so stubs of equal priority
+ * end up in the same order on every run. Each batch is sent as a single import request, falling back to
+ * registering stubs one at a time if the server doesn't have the import endpoint.
+ */
 public class RemoteMappingsLoader {
 
+    public static final int DEFAULT_CONCURRENCY = 4;
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    private static final long PROGRESS_INTERVAL_NANOS = SECONDS.toNanos(2);
+
     private final FileSource mappingsFileSource;
     private final FileSource filesFileSource;
     private final WireMock wireMock;
+    private final int concurrency;
+    private final int batchSize;
+    private final Notifier notifier;
+
+    private boolean importSupported = true;
 
     public RemoteMappingsLoader(FileSource fileSource, WireMock wireMock) {
+        this(fileSource, wireMock, DEFAULT_CONCURRENCY, DEFAULT_BATCH_SIZE, notifier());
+    }
+
+    public RemoteMappingsLoader(FileSource fileSource, WireMock wireMock, int concurrency, int batchSize, Notifier notifier) {
         this.mappingsFileSource = fileSource.child(MAPPINGS_ROOT);
         this.filesFileSource = fileSource.child(FILES_ROOT);
         this.wireMock = wireMock;
+        this.concurrency = Math.max(concurrency, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.notifier = notifier;
     }
 
     public void load() {
-        Iterable<TextFile> mappingFiles = filter(mappingsFileSource.listFilesRecursively(), byFileExtension("json"));
-        for (TextFile mappingFile : mappingFiles) {
-            StubMapping mapping = StubMapping.buildFrom(mappingFile.readContentsAsString());
-            convertBodyFromFileIfNecessary(mapping);
+        List<TextFile> mappingFiles = ImmutableList.copyOf(filter(mappingsFileSource.listFilesRecursively(), byFileExtension("json")));
+        if (mappingFiles.isEmpty()) {
+            return;
+        }
+
+        Progress progress = new Progress(mappingFiles.size());
+        ExecutorService executor = Executors.newFixedThreadPool(
+            concurrency,
+            new ThreadFactoryBuilder().setNameFormat("wiremock-remote-loader-%d").setDaemon(true).build()
+        );
+
+        try {
+            Iterator<List<TextFile>> batches = Lists.partition(mappingFiles, batchSize).iterator();
+            Deque<Future<List<StubMapping>>> converting = new ArrayDeque<>();
+            while (batches.hasNext() && converting.size() < concurrency * 2) {
+                converting.add(executor.submit(readBatch(batches.next())));
+            }
+
+            while (!converting.isEmpty()) {
+                List<StubMapping> mappings = converting.remove().get();
+                if (batches.hasNext()) {
+                    converting.add(executor.submit(readBatch(batches.next())));
+                }
+
+                upload(mappings);
+                progress.completed(mappings.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwUnchecked(e);
+        } catch (ExecutionException e) {
+            throwUnchecked(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        progress.report(true);
+    }
+
+    private Callable<List<StubMapping>> readBatch(final List<TextFile> mappingFiles) {
+        return new Callable<List<StubMapping>>() {
+            @Override
+            public List<StubMapping> call() {
+                List<StubMapping> mappings = new ArrayList<>(mappingFiles.size());
+                for (TextFile mappingFile: mappingFiles) {
+                    StubMapping mapping = StubMapping.buildFrom(mappingFile.readContentsAsString());
+                    convertBodyFromFileIfNecessary(mapping);
+                    mappings.add(mapping);
+                }
+
+                return mappings;
+            }
+        };
+    }
+
+    private void upload(List<StubMapping> mappings) {
+        if (importSupported) {
+            try {
+                ImportStubMappingsResult result = wireMock.importStubMappings(mappings);
+                for (Errors.Error error: result.getErrors()) {
+                    notifier.error("Failed to import stub mapping: " + error.getTitle());
+                }
+                return;
+            } catch (HttpStatusException | UnsupportedOperationException e) {
+                if (!isImportUnsupported(e)) {
+                    throw e;
+                }
+
+                importSupported = false;
+                notifier.info("The server can't import stub mappings in batches, registering them one at a time instead: " + e.getMessage());
+            }
+        }
+
+        for (StubMapping mapping: mappings) {
             wireMock.register(mapping);
         }
     }
 
+    private static boolean isImportUnsupported(RuntimeException e) {
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatus();
+            return status == HTTP_NOT_FOUND || status == HTTP_BAD_METHOD;
+        }
+
+        return true;
+    }
+
     private void convertBodyFromFileIfNecessary(StubMapping mapping) {
         String bodyFileName = mapping.getResponse().getBodyFileName();
         if (bodyFileName != null) {
@@ -84,4 +214,38 @@ public class RemoteMappingsLoader {
         return null;
     }
 
+    private class Progress {
+
+        private final int total;
+        private final long startedAt = System.nanoTime();
+        private final AtomicInteger loaded = new AtomicInteger();
+        private final AtomicLong lastReportedAt = new AtomicLong(startedAt);
+
+        Progress(int total) {
+            this.total = total;
+        }
+
+        void completed(int count) {
+            loaded.addAndGet(count);
+            report(false);
+        }
+
+        void report(boolean finished) {
+            long now = System.nanoTime();
+            long last = lastReportedAt.get();
+            if (!finished && (now - last < PROGRESS_INTERVAL_NANOS || !lastReportedAt.compareAndSet(last, now))) {
+                return;
+            }
+
+            double seconds = Math.max(NANOSECONDS.toMillis(now - startedAt), 1) / 1000.0;
+            notifier.info(String.format(
+                "%s %d of %d stub mappings in %.1fs (%.0f/s)",
+                finished ? "Loaded" : "Loading",
+                loaded.get(),
+                total,
+                seconds,
+                loaded.get() / seconds
+            ));
+        }
+    }
 }
@@ -23,6 +23,8 @@ import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.stubbing.StubMappings;
 
+import java.io.File;
+
 import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
@@ -62,6 +64,13 @@ public class WireMockServerRunner {
 		FileSource mappingsFileSource = fileSource.child(MAPPINGS_ROOT);
 		mappingsFileSource.createIfNecessary();
 
+        if (options.mappingsBundleToCompile().isPresent()) {
+            File bundleFile = options.mappingsBundleToCompile().get();
+            int count = MappingsBundle.compile(mappingsFileSource, bundleFile);
+            out.println("Compiled " + count + " stub mappings from " + mappingsFileSource.getPath() + " into " + bundleFile);
+            return;
+        }
+
         wireMockServer = new WireMockServer(options);
 
         if (options.recordMappingsEnabled()) {
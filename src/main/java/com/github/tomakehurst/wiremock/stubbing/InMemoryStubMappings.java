@@ -18,6 +18,7 @@ package com.github.tomakehurst.wiremock.stubbing;
 import com.github.tomakehurst.wiremock.common.FileSource;
 import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
@@ -35,21 +36,29 @@ import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.core.WireMockApp.FILES_ROOT;
 import static com.github.tomakehurst.wiremock.http.ResponseDefinition.copyOf;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.tryFind;
 
 
 public class InMemoryStubMappings implements StubMappings {
 	
 	private final SortedConcurrentMappingSet mappings = new SortedConcurrentMappingSet();
 	private final Scenarios scenarios = new Scenarios();
+	private final StubMappingSearchIndex searchIndex = new StubMappingSearchIndex();
 	private final Map<String, RequestMatcherExtension> customMatchers;
     private final Map<String, ResponseDefinitionTransformer> transformers;
     private final FileSource rootFileSource;
+    private final StubMatchCache matchCache;
+    private final PrecompressedBodyCache precompressedBodies;
 
 	public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers, Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource) {
+		this(customMatchers, transformers, rootFileSource, StubMatchCache.disabled(), PrecompressedBodyCache.disabled());
+	}
+
+	public InMemoryStubMappings(Map<String, RequestMatcherExtension> customMatchers, Map<String, ResponseDefinitionTransformer> transformers, FileSource rootFileSource, StubMatchCache matchCache, PrecompressedBodyCache precompressedBodies) {
 		this.customMatchers = customMatchers;
         this.transformers = transformers;
         this.rootFileSource = rootFileSource;
+        this.matchCache = matchCache;
+        this.precompressedBodies = precompressedBodies;
     }
 
 	public InMemoryStubMappings() {
@@ -60,11 +69,10 @@ public class InMemoryStubMappings implements StubMappings {
 
 	@Override
 	public ServeEvent serveFor(Request request) {
-		StubMapping matchingMapping = find(
-				mappings,
-				mappingMatchingAndInCorrectScenarioState(request),
-				StubMapping.NOT_CONFIGURED);
-		
+		StubMapping matchingMapping = matchCache.isEnabled() ?
+				findMatchingMappingUsingCache(request) :
+				find(mappings, mappingMatchingAndInCorrectScenarioState(request), StubMapping.NOT_CONFIGURED);
+
 		scenarios.onStubServed(matchingMapping);
 
         ResponseDefinition responseDefinition = applyTransformations(request,
@@ -78,6 +86,39 @@ public class InMemoryStubMappings implements StubMappings {
         );
 	}
 
+    private StubMapping findMatchingMappingUsingCache(Request request) {
+		if (!StubMatchCache.isCacheable(request)) {
+			matchCache.recordUncacheable();
+			return find(mappings, mappingMatchingAndInCorrectScenarioState(request), StubMapping.NOT_CONFIGURED);
+		}
+
+		StubMatchCache.Generation generation = matchCache.currentGeneration(mappings);
+		String key = generation.keyFor(request);
+		StubMapping cachedMapping = generation.get(key);
+		if (cachedMapping != null) {
+			matchCache.recordHit();
+			return cachedMapping;
+		}
+
+		matchCache.recordMiss();
+		boolean cacheable = true;
+		Predicate<StubMapping> matching = mappingMatchingAndInCorrectScenarioState(request);
+		for (StubMapping mapping: mappings) {
+			cacheable = cacheable && StubMatchCache.isCacheable(mapping);
+			if (matching.apply(mapping)) {
+				if (cacheable) {
+					generation.put(key, mapping);
+				}
+				return mapping;
+			}
+		}
+
+		if (cacheable) {
+			generation.put(key, StubMapping.NOT_CONFIGURED);
+		}
+		return StubMapping.NOT_CONFIGURED;
+	}
+
     private ResponseDefinition applyTransformations(Request request,
                                                     ResponseDefinition responseDefinition,
                                                     List<ResponseDefinitionTransformer> transformers) {
@@ -98,20 +139,30 @@ public class InMemoryStubMappings implements StubMappings {
 	public void addMapping(StubMapping mapping) {
 		mappings.add(mapping);
 		scenarios.onStubMappingAddedOrUpdated(mapping, mappings);
+		matchCache.invalidate();
+		precompressedBodies.prepare(mapping.getResponse());
+	}
+
+	@Override
+	public void addMappings(List<StubMapping> newMappings) {
+		mappings.addAll(newMappings);
+		scenarios.onStubMappingsAdded(newMappings, mappings);
+		matchCache.invalidate();
+		for (StubMapping mapping: newMappings) {
+			precompressedBodies.prepare(mapping.getResponse());
+		}
 	}
 
 	@Override
 	public void removeMapping(StubMapping mapping) {
 		mappings.remove(mapping);
 		scenarios.onStubMappingRemoved(mapping, mappings);
+		matchCache.invalidate();
 	}
 
 	@Override
 	public void editMapping(StubMapping stubMapping) {
-		final Optional<StubMapping> optionalExistingMapping = tryFind(
-				mappings,
-				mappingMatchingUuid(stubMapping.getUuid())
-		);
+		final Optional<StubMapping> optionalExistingMapping = mappings.get(stubMapping.getUuid());
 
 		if (!optionalExistingMapping.isPresent()) {
 			String msg = "StubMapping with UUID: " + stubMapping.getUuid() + " not found";
@@ -126,13 +177,48 @@ public class InMemoryStubMappings implements StubMappings {
 
 		mappings.replace(existingMapping, stubMapping);
 		scenarios.onStubMappingAddedOrUpdated(stubMapping, mappings);
+		matchCache.invalidate();
+		precompressedBodies.prepare(stubMapping.getResponse());
 	}
 
+	@Override
+	public void replaceAll(List<StubMapping> stubMappings) {
+		mappings.replaceAll(stubMappings);
+		scenarios.onStubMappingsReplaced(mappings);
+		matchCache.invalidate();
+		for (StubMapping mapping: stubMappings) {
+			precompressedBodies.prepare(mapping.getResponse());
+		}
+	}
+
+	/**
+	 * An empty set of stubs sharing this one's extensions and body cache, e.g. to load stubs into for a snapshot.
+	 */
+	public InMemoryStubMappings emptyCopy() {
+		return new InMemoryStubMappings(customMatchers, transformers, rootFileSource, StubMatchCache.disabled(), precompressedBodies);
+	}
+
+	/**
+	 * The current stubs and their scenarios, which can be restored later without rebuilding or sorting them.
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(mappings.snapshot(), scenarios.snapshot());
+	}
+
+	/**
+	 * Replaces every stub with those in the snapshot, with their scenarios in the started state.
+	 */
+	public void restore(Snapshot snapshot) {
+		mappings.restore(snapshot.mappings);
+		scenarios.restore(snapshot.scenarios);
+		matchCache.invalidate();
+	}
 
 	@Override
 	public void reset() {
 		mappings.clear();
         scenarios.clear();
+		matchCache.invalidate();
 	}
 	
 	@Override
@@ -146,13 +232,13 @@ public class InMemoryStubMappings implements StubMappings {
     }
 
 	@Override
-	public Optional<StubMapping> get(final UUID id) {
-		return tryFind(mappings, new Predicate<StubMapping>() {
-			@Override
-			public boolean apply(StubMapping input) {
-				return input.getUuid().equals(id);
-			}
-		});
+	public Optional<StubMapping> get(UUID id) {
+		return mappings.get(id);
+	}
+
+	@Override
+	public List<StubMapping> search(StubMappingQuery query) {
+		return searchIndex.find(mappings, query);
 	}
 
 	@Override
@@ -160,6 +246,11 @@ public class InMemoryStubMappings implements StubMappings {
 		return scenarios.getAll();
 	}
 
+	@Override
+	public StubMatchCacheStats getMatchCacheStats() {
+		return matchCache.getStats();
+	}
+
 	private Predicate<StubMapping> mappingMatchingAndInCorrectScenarioState(final Request request) {
 		return mappingMatchingAndInCorrectScenarioStateNew(request);
     }
@@ -173,12 +264,14 @@ public class InMemoryStubMappings implements StubMappings {
 		};
 	}
 
-	private Predicate<StubMapping> mappingMatchingUuid(final UUID uuid) {
-		return new Predicate<StubMapping>() {
-			@Override
-			public boolean apply(StubMapping input) {
-				return input.getUuid().equals(uuid);
-			}
-		};
+	public static class Snapshot {
+
+		private final SortedConcurrentMappingSet.Snapshot mappings;
+		private final Map<String, Scenario> scenarios;
+
+		private Snapshot(SortedConcurrentMappingSet.Snapshot mappings, Map<String, Scenario> scenarios) {
+			this.mappings = mappings;
+			this.scenarios = scenarios;
+		}
 	}
 }
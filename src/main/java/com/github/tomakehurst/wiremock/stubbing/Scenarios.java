@@ -5,7 +5,12 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
@@ -33,12 +38,27 @@ public class Scenarios {
         }
     }
 
+    public void onStubMappingsAdded(Iterable<StubMapping> addedStubMappings, Iterable<StubMapping> allStubMappings) {
+        for (StubMapping mapping: addedStubMappings) {
+            if (mapping.isInScenario()) {
+                String scenarioName = mapping.getScenarioName();
+                Scenario scenario = firstNonNull(scenarioMap.get(scenarioName), Scenario.inStartedState(scenarioName));
+                scenarioMap.put(scenarioName, scenario.withPossibleState(mapping.getNewScenarioState()));
+            }
+        }
+
+        cleanUnusedScenarios(allStubMappings);
+    }
+
     private void cleanUnusedScenarios(Iterable<StubMapping> remainingStubMappings) {
-        for (String scenarioName: scenarioMap.keySet()) {
-            if (countOtherStubsInScenario(remainingStubMappings, scenarioName) == 0) {
-                scenarioMap.remove(scenarioName);
+        Set<String> scenarioNamesInUse = new HashSet<>();
+        for (StubMapping mapping: remainingStubMappings) {
+            if (mapping.isInScenario()) {
+                scenarioNamesInUse.add(mapping.getScenarioName());
             }
         }
+
+        scenarioMap.keySet().retainAll(scenarioNamesInUse);
     }
 
     public void onStubMappingRemoved(StubMapping mapping, Iterable<StubMapping> remainingStubMappings) {
@@ -55,6 +75,20 @@ public class Scenarios {
         }
     }
 
+    public void onStubMappingsReplaced(Iterable<StubMapping> allStubMappings) {
+        Map<String, Scenario> newScenarios = new HashMap<>();
+        for (StubMapping mapping: allStubMappings) {
+            if (mapping.isInScenario()) {
+                String scenarioName = mapping.getScenarioName();
+                Scenario scenario = firstNonNull(newScenarios.get(scenarioName), Scenario.inStartedState(scenarioName));
+                newScenarios.put(scenarioName, scenario.withPossibleState(mapping.getNewScenarioState()));
+            }
+        }
+
+        scenarioMap.putAll(newScenarios);
+        scenarioMap.keySet().retainAll(newScenarios.keySet());
+    }
+
     public void onStubServed(StubMapping mapping) {
         if (mapping.isInScenario()) {
             final String scenarioName = mapping.getScenarioName();
@@ -76,6 +110,23 @@ public class Scenarios {
         }));
     }
 
+    /**
+     * The current scenarios, each back in its started state.
+     */
+    public Map<String, Scenario> snapshot() {
+        Map<String, Scenario> scenarios = new HashMap<>();
+        for (Scenario scenario: scenarioMap.values()) {
+            scenarios.put(scenario.getName(), scenario.reset());
+        }
+
+        return Collections.unmodifiableMap(scenarios);
+    }
+
+    public void restore(Map<String, Scenario> scenarios) {
+        scenarioMap.putAll(scenarios);
+        scenarioMap.keySet().retainAll(scenarios.keySet());
+    }
+
     public void clear() {
         scenarioMap.clear();
     }
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.http.Body;
 import com.github.tomakehurst.wiremock.http.LoggedResponse;
 import com.github.tomakehurst.wiremock.http.Response;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
@@ -69,7 +70,12 @@ public class ServeEvent {
     }
 
     public ServeEvent complete(Response response) {
-        return new ServeEvent(id, request, stubMapping, responseDefinition, LoggedResponse.from(response), false);
+        // A streamed body is rendered again each time it is read, so it isn't kept once the response has it
+        ResponseDefinition completedResponseDefinition =
+            response.hasStreamingBody() && responseDefinition.getResponseBody().isStreamable() ?
+                responseDefinition.withResponseBody(Body.streamedToClient()) :
+                responseDefinition;
+        return new ServeEvent(id, request, stubMapping, completedResponseDefinition, LoggedResponse.from(response), false);
     }
 
     @JsonIgnore
@@ -15,83 +15,307 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Iterators;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
-import static com.google.common.collect.Iterables.removeIf;
-
+/**
+ * Holds stub mappings in priority then reverse insertion order as an immutable, versioned array.
+ *
+ * Readers take the current array with a single volatile read and never see a partially applied change.
+ * Writers are serialised and publish a complete new array for every change, so a bulk replacement
+ * goes straight from the old set to the new one.
+ *
+ * Mappings are also indexed by ID, which acts as a primary key: adding a mapping with the ID of one already
+ * present replaces it. Lookup is a hash lookup and removal by ID finds the mapping's position by binary search.
+ * The index is part of the same immutable snapshot as the array, so the two always change together.
+ */
 public class SortedConcurrentMappingSet implements Iterable<StubMapping> {
 
-	private AtomicLong insertionCount;
-	private ConcurrentSkipListSet<StubMapping> mappingSet;
-	
+	private static final Comparator<StubMapping> PRIORITY_THEN_REVERSE_INSERTION_ORDER = new Comparator<StubMapping>() {
+		public int compare(StubMapping one, StubMapping two) {
+			int priorityComparison = one.comparePriorityWith(two);
+			if (priorityComparison != 0) {
+				return priorityComparison;
+			}
+
+			return Long.compare(two.getInsertionIndex(), one.getInsertionIndex());
+		}
+	};
+
+	private final AtomicLong insertionCount;
+	private volatile Snapshot snapshot;
+
 	public SortedConcurrentMappingSet() {
 		insertionCount = new AtomicLong();
-		mappingSet = new ConcurrentSkipListSet<StubMapping>(sortedByPriorityThenReverseInsertionOrder());
-	}
-	
-	private Comparator<StubMapping> sortedByPriorityThenReverseInsertionOrder() {
-		return new Comparator<StubMapping>() {
-			public int compare(StubMapping one, StubMapping two) {
-				int priorityComparison = one.comparePriorityWith(two);
-				if (priorityComparison != 0) {
-					return priorityComparison;
-				}
-
-				return Long.compare(two.getInsertionIndex(), one.getInsertionIndex());
-			}
-		};
+		snapshot = new Snapshot(new StubMapping[0], Collections.<UUID, StubMapping>emptyMap(), 0, 0);
 	}
 
 	@Override
 	public Iterator<StubMapping> iterator() {
-		return mappingSet.iterator();
+		return Iterators.forArray(snapshot.mappings);
 	}
-	
-	public void add(StubMapping mapping) {
+
+	public int size() {
+		return snapshot.mappings.length;
+	}
+
+	public long getVersion() {
+		return snapshot.version;
+	}
+
+	public Optional<StubMapping> get(UUID id) {
+		return id != null ?
+			Optional.fromNullable(snapshot.mappingsById.get(id)) :
+			Optional.<StubMapping>absent();
+	}
+
+	public synchronized void add(StubMapping mapping) {
+		StubMapping[] current = snapshot.mappings;
+		Map<UUID, StubMapping> mappingsById = new HashMap<>(snapshot.mappingsById);
+		StubMapping existing = get(mapping.getUuid()).orNull();
+		if (existing != null) {
+			current = without(current, indexedPositionOf(current, existing));
+			unindex(mappingsById, existing);
+		}
+
 		mapping.setInsertionIndex(insertionCount.getAndIncrement());
-		mappingSet.add(mapping);
+		index(mappingsById, mapping);
+		publish(insert(current, mapping), mappingsById);
 	}
 
-	public boolean remove(final StubMapping mappingToRemove) {
-		boolean removedByUuid = removeIf(mappingSet, new Predicate<StubMapping>() {
-            @Override
-            public boolean apply(StubMapping mapping) {
-                return mappingToRemove.getUuid() != null &&
-                    mapping.getUuid() != null &&
-                    mappingToRemove.getUuid().equals(mapping.getUuid());
-            }
-        });
+	public synchronized boolean remove(final StubMapping mappingToRemove) {
+		StubMapping existing = get(mappingToRemove.getUuid()).orNull();
+		if (existing != null) {
+			Map<UUID, StubMapping> mappingsById = new HashMap<>(snapshot.mappingsById);
+			unindex(mappingsById, existing);
+			publish(without(snapshot.mappings, indexedPositionOf(snapshot.mappings, existing)), mappingsById);
+			return true;
+		}
+
+		return removeIf(new Predicate<StubMapping>() {
+			@Override
+			public boolean apply(StubMapping mapping) {
+				return mappingToRemove.getRequest().equals(mapping.getRequest());
+			}
+		});
+	}
 
-        boolean removedByRequestPattern = !removedByUuid && removeIf(mappingSet, new Predicate<StubMapping>() {
-            @Override
-            public boolean apply(StubMapping mapping) {
-                return mappingToRemove.getRequest().equals(mapping.getRequest());
-            }
-        });
+	public synchronized boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping) {
+		StubMapping[] current = snapshot.mappings;
+		int index = positionOf(current, existingStubMapping);
+		if (index < 0) {
+			return false;
+		}
 
-        return removedByUuid || removedByRequestPattern;
+		StubMapping replaced = current[index];
+		Map<UUID, StubMapping> mappingsById = new HashMap<>(snapshot.mappingsById);
+		unindex(mappingsById, replaced);
+		StubMapping displaced = get(newStubMapping.getUuid()).orNull();
+		StubMapping[] withoutExisting = without(current, index);
+		if (displaced != null && displaced != replaced) {
+			withoutExisting = without(withoutExisting, indexedPositionOf(withoutExisting, displaced));
+		}
+
+		index(mappingsById, newStubMapping);
+		publish(insert(withoutExisting, newStubMapping), mappingsById);
+		return true;
 	}
 
-	public boolean replace(StubMapping existingStubMapping, StubMapping newStubMapping) {
+	/**
+	 * Adds a batch of mappings in one step, ordered as if they had been added one at a time in the order given.
+	 */
+	public synchronized void addAll(Collection<StubMapping> newMappings) {
+		Collection<StubMapping> added = uniqueById(newMappings);
+		Map<UUID, StubMapping> mappingsById = new HashMap<>(snapshot.mappingsById);
+		for (StubMapping mapping: added) {
+			index(mappingsById, mapping);
+		}
 
-		if ( mappingSet.remove(existingStubMapping) ) {
-			mappingSet.add(newStubMapping);
-			return true;
+		List<StubMapping> updated = new ArrayList<>(snapshot.mappings.length + added.size());
+		for (StubMapping existing: snapshot.mappings) {
+			if (existing.getUuid() == null || mappingsById.get(existing.getUuid()) == existing) {
+				updated.add(existing);
+			}
 		}
-		return false;
+
+		publish(sorted(updated, added), mappingsById);
+	}
+
+	/**
+	 * Replaces every mapping in one step. Mappings are ordered as if they had been added one at a time
+	 * in the order given.
+	 */
+	public synchronized void replaceAll(Collection<StubMapping> newMappings) {
+		Collection<StubMapping> added = uniqueById(newMappings);
+		Map<UUID, StubMapping> mappingsById = new HashMap<>();
+		for (StubMapping mapping: added) {
+			index(mappingsById, mapping);
+		}
+
+		publish(sorted(Collections.<StubMapping>emptyList(), added), mappingsById);
 	}
 
-	public void clear() {
-		mappingSet.clear();
+	/**
+	 * The current mappings, as an immutable snapshot that can be restored later.
+	 */
+	public Snapshot snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Puts back the mappings from a snapshot, which may have been taken from another set, in one step.
+	 * Mappings added afterwards are still ordered after those in the snapshot.
+	 */
+	public synchronized void restore(Snapshot restored) {
+		long nextInsertionIndex = Math.max(insertionCount.get(), restored.nextInsertionIndex);
+		insertionCount.set(nextInsertionIndex);
+		snapshot = new Snapshot(restored.mappings, restored.mappingsById, nextInsertionIndex, snapshot.version + 1);
+	}
+
+	public synchronized void clear() {
+		publish(new StubMapping[0], Collections.<UUID, StubMapping>emptyMap());
 	}
 	
 	@Override
 	public String toString() {
-		return mappingSet.toString();
+		return Arrays.toString(snapshot.mappings);
+	}
+
+	private boolean removeIf(Predicate<StubMapping> predicate) {
+		StubMapping[] current = snapshot.mappings;
+		Map<UUID, StubMapping> mappingsById = new HashMap<>(snapshot.mappingsById);
+		List<StubMapping> remaining = new ArrayList<>(current.length);
+		for (StubMapping mapping: current) {
+			if (predicate.apply(mapping)) {
+				unindex(mappingsById, mapping);
+			} else {
+				remaining.add(mapping);
+			}
+		}
+
+		if (remaining.size() == current.length) {
+			return false;
+		}
+
+		publish(remaining.toArray(new StubMapping[remaining.size()]), mappingsById);
+		return true;
+	}
+
+	private StubMapping[] sorted(List<StubMapping> existing, Collection<StubMapping> added) {
+		StubMapping[] updated = existing.toArray(new StubMapping[existing.size() + added.size()]);
+		int i = existing.size();
+		for (StubMapping mapping: added) {
+			mapping.setInsertionIndex(insertionCount.getAndIncrement());
+			updated[i++] = mapping;
+		}
+
+		Arrays.sort(updated, PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+		return updated;
+	}
+
+	private static Collection<StubMapping> uniqueById(Collection<StubMapping> mappings) {
+		Map<Object, StubMapping> mappingsByKey = new LinkedHashMap<>();
+		for (StubMapping mapping: mappings) {
+			Object key = mapping.getUuid() != null ? mapping.getUuid() : new Object();
+			mappingsByKey.remove(key);
+			mappingsByKey.put(key, mapping);
+		}
+
+		return mappingsByKey.values();
+	}
+
+	private static void index(Map<UUID, StubMapping> mappingsById, StubMapping mapping) {
+		if (mapping.getUuid() != null) {
+			mappingsById.put(mapping.getUuid(), mapping);
+		}
+	}
+
+	private static void unindex(Map<UUID, StubMapping> mappingsById, StubMapping mapping) {
+		if (mapping.getUuid() != null && mappingsById.get(mapping.getUuid()) == mapping) {
+			mappingsById.remove(mapping.getUuid());
+		}
+	}
+
+	private void publish(StubMapping[] mappings, Map<UUID, StubMapping> mappingsById) {
+		snapshot = new Snapshot(mappings, mappingsById, insertionCount.get(), snapshot.version + 1);
+	}
+
+	private static StubMapping[] insert(StubMapping[] current, StubMapping mapping) {
+		int index = Arrays.binarySearch(current, mapping, PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+		int insertionPoint = index >= 0 ? index : -(index + 1);
+
+		StubMapping[] updated = new StubMapping[current.length + 1];
+		System.arraycopy(current, 0, updated, 0, insertionPoint);
+		updated[insertionPoint] = mapping;
+		System.arraycopy(current, insertionPoint, updated, insertionPoint + 1, current.length - insertionPoint);
+		return updated;
+	}
+
+	private static StubMapping[] without(StubMapping[] current, int index) {
+		StubMapping[] updated = new StubMapping[current.length - 1];
+		System.arraycopy(current, 0, updated, 0, index);
+		System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+		return updated;
+	}
+
+	private static int positionOf(StubMapping[] mappings, StubMapping mapping) {
+		int index = Arrays.binarySearch(mappings, mapping, PRIORITY_THEN_REVERSE_INSERTION_ORDER);
+		if (index >= 0 && mappings[index] == mapping) {
+			return index;
+		}
+
+		int identityIndex = indexOf(mappings, mapping);
+		return identityIndex >= 0 ? identityIndex : index;
+	}
+
+	/**
+	 * The position of a mapping found through the ID index, which must also be in the array.
+	 */
+	private static int indexedPositionOf(StubMapping[] mappings, StubMapping mapping) {
+		int index = positionOf(mappings, mapping);
+		if (index < 0) {
+			throw new IllegalStateException("Stub mapping " + mapping.getUuid() + " is indexed by ID but missing from the sorted mappings");
+		}
+
+		return index;
+	}
+
+	private static int indexOf(StubMapping[] mappings, StubMapping mapping) {
+		for (int i = 0; i < mappings.length; i++) {
+			if (mappings[i] == mapping) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	public static class Snapshot {
+
+		private final StubMapping[] mappings;
+		private final Map<UUID, StubMapping> mappingsById;
+		private final long nextInsertionIndex;
+		private final long version;
+
+		private Snapshot(StubMapping[] mappings, Map<UUID, StubMapping> mappingsById, long nextInsertionIndex, long version) {
+			this.mappings = mappings;
+			this.mappingsById = mappingsById;
+			this.nextInsertionIndex = nextInsertionIndex;
+			this.version = version;
+		}
 	}
 }
@@ -37,6 +37,7 @@ public class StubMapping {
 	private String name;
 
 	private boolean persistent;
+	private boolean excludedFromJournal;
 
 	private RequestPattern request;
 	private ResponseDefinition response;
@@ -106,6 +107,18 @@ public class StubMapping {
         this.persistent = persistent != null && persistent;
     }
 
+    public boolean shouldBeJournaled() {
+        return !excludedFromJournal;
+    }
+
+    public Boolean isExcludedFromJournal() {
+        return excludedFromJournal ? true : null;
+    }
+
+    public void setExcludedFromJournal(Boolean excludedFromJournal) {
+        this.excludedFromJournal = excludedFromJournal != null && excludedFromJournal;
+    }
+
     public RequestPattern getRequest() {
 		return firstNonNull(request, RequestPattern.ANYTHING);
 	}
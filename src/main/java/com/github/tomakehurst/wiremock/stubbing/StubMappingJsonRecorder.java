@@ -22,10 +22,15 @@ import com.github.tomakehurst.wiremock.http.*;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
 import com.github.tomakehurst.wiremock.matching.StringValuePattern;
-import com.github.tomakehurst.wiremock.verification.VerificationResult;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
@@ -33,31 +38,55 @@ import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.common.Json.write;
 import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Iterables.filter;
 
+/**
+ * Writes a stub mapping and body file for each distinct request proxied while recording.
+ *
+ * Requests are told apart by a hash of their method, URL, the values of the headers to match and their body, kept
+ * by the recorder itself so that checking for a repeat doesn't depend on, or scan, the request journal.
+ */
 public class StubMappingJsonRecorder implements RequestListener {
 
+    private static final HashFunction SIGNATURE_HASH = Hashing.murmur3_128();
+
     private final FileSource mappingsFileSource;
     private final FileSource filesFileSource;
-    private final Admin admin;
     private final List<CaseInsensitiveKey> headersToMatch;
+    private final ContentAddressedBodyFiles contentAddressedFiles;
+    private final Set<HashCode> receivedRequests = Sets.newConcurrentHashSet();
     private IdGenerator idGenerator;
 
+    /**
+     * @deprecated The request journal is no longer consulted, use {@link #StubMappingJsonRecorder(FileSource, FileSource, List)}
+     */
+    @Deprecated
     public StubMappingJsonRecorder(FileSource mappingsFileSource, FileSource filesFileSource, Admin admin, List<CaseInsensitiveKey> headersToMatch) {
+        this(mappingsFileSource, filesFileSource, headersToMatch);
+    }
+
+    public StubMappingJsonRecorder(FileSource mappingsFileSource, FileSource filesFileSource, List<CaseInsensitiveKey> headersToMatch) {
+        this(mappingsFileSource, filesFileSource, headersToMatch, false);
+    }
+
+    /**
+     * When contentAddressedBodies is set, body files are named by a hash of their content, so identical
+     * response bodies are written once and shared between the recorded stubs.
+     */
+    public StubMappingJsonRecorder(FileSource mappingsFileSource, FileSource filesFileSource, List<CaseInsensitiveKey> headersToMatch, boolean contentAddressedBodies) {
         this.mappingsFileSource = mappingsFileSource;
         this.filesFileSource = filesFileSource;
-        this.admin = admin;
         this.headersToMatch = headersToMatch;
+        this.contentAddressedFiles = contentAddressedBodies ? new ContentAddressedBodyFiles(filesFileSource) : null;
         idGenerator = new VeryShortIdGenerator();
     }
 
     @Override
     public void requestReceived(Request request, Response response) {
-        RequestPattern requestPattern = buildRequestPatternFrom(request);
-
-        if (requestNotAlreadyReceived(requestPattern) && response.isFromProxy()) {
+        if (receivedRequests.add(signatureOf(request)) && response.isFromProxy()) {
             notifier().info(String.format("Recording mappings for %s", request.getUrl()));
-            writeToMappingAndBodyFile(request, response, requestPattern);
+            writeToMappingAndBodyFile(request, response, buildRequestPatternFrom(request));
         } else {
             notifier().info(String.format("Not recording mapping for %s as this has already been received", request.getUrl()));
         }
@@ -100,14 +129,13 @@ public class StubMappingJsonRecorder implements RequestListener {
         byte[] body = bodyDecompressedIfRequired(response);
 
         String mappingFileName = UniqueFilenameGenerator.generate(request.getUrl(), "mapping", fileId);
-        String bodyFileName = UniqueFilenameGenerator.generate(
+        String extension = ContentTypes.determineFileExtension(
             request.getUrl(),
-            "body",
-            fileId,
-            ContentTypes.determineFileExtension(
-                request.getUrl(),
-                response.getHeaders().getContentTypeHeader(),
-                body));
+            response.getHeaders().getContentTypeHeader(),
+            body);
+        String bodyFileName = contentAddressedFiles != null ?
+            ContentAddressedBodyFiles.fileNameFor(body, extension) :
+            UniqueFilenameGenerator.generate(request.getUrl(), "body", fileId, extension);
 
         ResponseDefinitionBuilder responseDefinitionBuilder = responseDefinition()
                 .withStatus(response.getStatus())
@@ -121,7 +149,11 @@ public class StubMappingJsonRecorder implements RequestListener {
         StubMapping mapping = new StubMapping(requestPattern, responseToWrite);
         mapping.setUuid(UUID.nameUUIDFromBytes(fileId.getBytes()));
 
-        filesFileSource.writeBinaryFile(bodyFileName, body);
+        if (contentAddressedFiles != null) {
+            contentAddressedFiles.write(body, extension);
+        } else {
+            filesFileSource.writeBinaryFile(bodyFileName, body);
+        }
         mappingsFileSource.writeTextFile(mappingFileName, write(mapping));
     }
 
@@ -141,10 +173,30 @@ public class StubMappingJsonRecorder implements RequestListener {
         return response.getBody();
     }
 
-    private boolean requestNotAlreadyReceived(RequestPattern requestPattern) {
-        VerificationResult verificationResult = admin.countRequestsMatching(requestPattern);
-        verificationResult.assertRequestJournalEnabled();
-        return (verificationResult.getCount() < 1);
+    private HashCode signatureOf(Request request) {
+        Hasher hasher = SIGNATURE_HASH.newHasher()
+            .putString(request.getMethod().getName(), UTF_8)
+            .putByte((byte) 0)
+            .putString(request.getUrl(), UTF_8)
+            .putByte((byte) 0);
+
+        HttpHeaders headers = request.getHeaders();
+        for (CaseInsensitiveKey key: headersToMatch) {
+            HttpHeader header = headers != null ? headers.getHeader(key.value()) : HttpHeader.absent(key.value());
+            if (header.isPresent()) {
+                hasher.putString(key.value().toLowerCase(), UTF_8)
+                    .putByte((byte) 0)
+                    .putString(header.firstValue(), UTF_8);
+            }
+            hasher.putByte((byte) 0);
+        }
+
+        byte[] body = request.getBody();
+        if (body != null) {
+            hasher.putBytes(body);
+        }
+
+        return hasher.hash();
     }
 
     public void setIdGenerator(IdGenerator idGenerator) {
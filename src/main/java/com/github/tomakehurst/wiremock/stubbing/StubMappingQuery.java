@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+
+/**
+ * Criteria for finding stub mappings by the URL, method, scenario and response status they were defined with.
+ * Criteria that are null are ignored, so an empty query finds every stub.
+ *
+ * The URL criteria only find stubs defined with an exact url or urlPath, not those matching a pattern.
+ * Stubs for any method are found whichever method is given.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StubMappingQuery {
+
+    private final String url;
+    private final String urlPrefix;
+    private final String method;
+    private final String scenario;
+    private final Integer status;
+    private final Integer limit;
+    private final Integer offset;
+
+    public StubMappingQuery(@JsonProperty("url") String url,
+                            @JsonProperty("urlPrefix") String urlPrefix,
+                            @JsonProperty("method") String method,
+                            @JsonProperty("scenario") String scenario,
+                            @JsonProperty("status") Integer status,
+                            @JsonProperty("limit") Integer limit,
+                            @JsonProperty("offset") Integer offset) {
+        this.url = url;
+        this.urlPrefix = urlPrefix;
+        this.method = method != null ? method.toUpperCase() : null;
+        this.scenario = scenario;
+        this.status = status;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    public static StubMappingQuery allStubs() {
+        return new StubMappingQuery(null, null, null, null, null, null, null);
+    }
+
+    public StubMappingQuery withUrl(String url) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery withUrlPrefix(String urlPrefix) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery withMethod(RequestMethod method) {
+        return new StubMappingQuery(url, urlPrefix, method.getName(), scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery inScenario(String scenario) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery withStatus(int status) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery withLimit(int limit) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public StubMappingQuery withOffset(int offset) {
+        return new StubMappingQuery(url, urlPrefix, method, scenario, status, limit, offset);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Integer getOffset() {
+        return offset;
+    }
+
+    @JsonIgnore
+    public boolean hasCriteria() {
+        return url != null || urlPrefix != null || method != null || scenario != null || status != null;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+
+/**
+ * Indexes stub mappings by URL, method, scenario and response status so that they can be searched
+ * without serialising or scanning every stub.
+ *
+ * The index is built from the whole set on the first search after the set changes, so keeping it up
+ * to date costs nothing on the write path. A search picks the smallest posting list among the criteria
+ * given and checks the remaining criteria against just those stubs.
+ *
+ * Only stubs whose URL or URL path is matched exactly (url or urlPath) are indexed by URL, since a
+ * regex or path pattern isn't a URL that could be compared against. Stubs for any method are found by
+ * a search for any particular method.
+ */
+class StubMappingSearchIndex {
+
+    private volatile Index current;
+
+    List<StubMapping> find(SortedConcurrentMappingSet mappings, StubMappingQuery query) {
+        Index index = current;
+        long version = mappings.getVersion();
+        if (index == null || index.version != version) {
+            index = new Index(version, Iterables.toArray(mappings, StubMapping.class));
+            current = index;
+        }
+
+        return index.find(query);
+    }
+
+    static String urlOf(StubMapping mapping) {
+        RequestPattern request = mapping.getRequest();
+        if (request == null) {
+            return null;
+        }
+
+        return request.getUrl() != null ? request.getUrl() : request.getUrlPath();
+    }
+
+    static String methodOf(StubMapping mapping) {
+        return mapping.getRequest() != null && mapping.getRequest().getMethod() != null ?
+            mapping.getRequest().getMethod().getName() :
+            null;
+    }
+
+    static Integer statusOf(StubMapping mapping) {
+        return mapping.getResponse() != null ? mapping.getResponse().getStatus() : null;
+    }
+
+    private static class Index {
+
+        private final long version;
+        private final StubMapping[] mappings;
+        private final NavigableMap<String, List<Integer>> byUrl = new TreeMap<>();
+        private final Map<String, List<Integer>> byMethod = new HashMap<>();
+        private final Map<String, List<Integer>> byScenario = new HashMap<>();
+        private final Map<Integer, List<Integer>> byStatus = new HashMap<>();
+
+        Index(long version, StubMapping[] mappings) {
+            this.version = version;
+            this.mappings = mappings;
+
+            for (int i = 0; i < mappings.length; i++) {
+                StubMapping mapping = mappings[i];
+                post(byUrl, urlOf(mapping), i);
+                post(byMethod, methodOf(mapping), i);
+                post(byScenario, mapping.getScenarioName(), i);
+                post(byStatus, statusOf(mapping), i);
+            }
+        }
+
+        List<StubMapping> find(StubMappingQuery query) {
+            if (!query.hasCriteria()) {
+                return ImmutableList.copyOf(mappings);
+            }
+
+            List<List<Integer>> postings = new ArrayList<>();
+            if (query.getUrl() != null) {
+                postings.add(postingsFor(byUrl, query.getUrl()));
+            }
+            if (query.getUrlPrefix() != null) {
+                postings.add(postingsWithPrefix(query.getUrlPrefix()));
+            }
+            if (query.getMethod() != null) {
+                postings.add(postingsForMethod(query.getMethod()));
+            }
+            if (query.getScenario() != null) {
+                postings.add(postingsFor(byScenario, query.getScenario()));
+            }
+            if (query.getStatus() != null) {
+                postings.add(postingsFor(byStatus, query.getStatus()));
+            }
+
+            List<Integer> smallest = postings.get(0);
+            for (List<Integer> posting: postings) {
+                if (posting.size() < smallest.size()) {
+                    smallest = posting;
+                }
+            }
+
+            ImmutableList.Builder<StubMapping> matches = ImmutableList.builder();
+            for (int position: smallest) {
+                StubMapping mapping = mappings[position];
+                if (matches(mapping, query)) {
+                    matches.add(mapping);
+                }
+            }
+
+            return matches.build();
+        }
+
+        private List<Integer> postingsWithPrefix(String prefix) {
+            Collection<List<Integer>> matchingUrls = byUrl.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            if (matchingUrls.size() == 1) {
+                return matchingUrls.iterator().next();
+            }
+
+            List<Integer> positions = new ArrayList<>();
+            for (List<Integer> posting: matchingUrls) {
+                positions.addAll(posting);
+            }
+
+            Integer[] sorted = positions.toArray(new Integer[positions.size()]);
+            Arrays.sort(sorted);
+            return Arrays.asList(sorted);
+        }
+
+        private List<Integer> postingsForMethod(String method) {
+            List<Integer> methodPositions = postingsFor(byMethod, method);
+            List<Integer> anyMethodPositions = ANY.getName().equals(method) ?
+                ImmutableList.<Integer>of() :
+                postingsFor(byMethod, ANY.getName());
+            if (anyMethodPositions.isEmpty()) {
+                return methodPositions;
+            }
+
+            List<Integer> positions = new ArrayList<>(methodPositions.size() + anyMethodPositions.size());
+            positions.addAll(methodPositions);
+            positions.addAll(anyMethodPositions);
+            Collections.sort(positions);
+            return positions;
+        }
+
+        private static boolean matches(StubMapping mapping, StubMappingQuery query) {
+            String url = urlOf(mapping);
+            return (query.getUrl() == null || query.getUrl().equals(url)) &&
+                (query.getUrlPrefix() == null || (url != null && url.startsWith(query.getUrlPrefix()))) &&
+                (query.getMethod() == null || query.getMethod().equals(methodOf(mapping)) || ANY.getName().equals(methodOf(mapping))) &&
+                (query.getScenario() == null || query.getScenario().equals(mapping.getScenarioName())) &&
+                (query.getStatus() == null || query.getStatus().equals(statusOf(mapping)));
+        }
+
+        private static <K> List<Integer> postingsFor(Map<K, List<Integer>> index, K key) {
+            List<Integer> positions = index.get(key);
+            return positions != null ? positions : ImmutableList.<Integer>of();
+        }
+
+        private static <K> void post(Map<K, List<Integer>> index, K key, int position) {
+            if (key == null) {
+                return;
+            }
+
+            List<Integer> positions = index.get(key);
+            if (positions == null) {
+                positions = new ArrayList<>();
+                index.put(key, positions);
+            }
+            positions.add(position);
+        }
+    }
+}
@@ -27,13 +27,18 @@ public interface StubMappings {
 
 	ServeEvent serveFor(Request request);
 	void addMapping(StubMapping mapping);
+	void addMappings(List<StubMapping> mappings);
 	void removeMapping(StubMapping mapping);
 	void editMapping(StubMapping stubMapping);
+	void replaceAll(List<StubMapping> stubMappings);
 	void reset();
 	void resetScenarios();
 
     List<StubMapping> getAll();
 	Optional<StubMapping> get(UUID id);
+	List<StubMapping> search(StubMappingQuery query);
 
 	List<Scenario> getAllScenarios();
+
+	StubMatchCacheStats getMatchCacheStats();
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.github.tomakehurst.wiremock.http.Cookie;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.MultiValuePattern;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+
+/**
+ * Remembers which stub won for a given request so that repeated identical requests
+ * skip the full scan of the stub mappings.
+ *
+ * Requests are keyed on method, URL and the values of any header or cookie referenced by
+ * at least one stub. Only requests without a body are cached, and only when no stub ahead of
+ * (and including) the winner depends on scenario state or a custom matcher.
+ *
+ * Each change to the stub mappings swaps in a fresh, empty generation, so lookups made against
+ * a stale mapping set are never visible after the change completes. Within a generation the least
+ * recently used keys are evicted first, so one-off URLs (e.g. with cache busting parameters) don't
+ * crowd out requests that repeat.
+ */
+public class StubMatchCache {
+
+    public static final int DISABLED = 0;
+
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+
+    private volatile Generation generation;
+
+    public StubMatchCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.generation = new Generation();
+    }
+
+    public static StubMatchCache disabled() {
+        return new StubMatchCache(DISABLED);
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > DISABLED;
+    }
+
+    public Generation currentGeneration(Iterable<StubMapping> mappings) {
+        Generation current = generation;
+        current.ensureKeysReferencedBy(mappings);
+        return current;
+    }
+
+    public void invalidate() {
+        generation = new Generation();
+    }
+
+    public static boolean isCacheable(Request request) {
+        byte[] body = request.getBody();
+        return body == null || body.length == 0;
+    }
+
+    public static boolean isCacheable(StubMapping mapping) {
+        RequestPattern requestPattern = mapping.getRequest();
+        return !mapping.isInScenario() &&
+            !requestPattern.hasCustomMatcher() &&
+            requestPattern.getCustomMatcher() == null;
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordUncacheable() {
+        uncacheable.incrementAndGet();
+    }
+
+    public StubMatchCacheStats getStats() {
+        return new StubMatchCacheStats(
+            isEnabled(),
+            maxEntries,
+            generation.size(),
+            hits.get(),
+            misses.get(),
+            uncacheable.get()
+        );
+    }
+
+    public class Generation {
+
+        private final Cache<String, StubMapping> entries = CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .build();
+        private volatile ReferencedKeys referencedKeys;
+
+        private void ensureKeysReferencedBy(Iterable<StubMapping> mappings) {
+            if (referencedKeys == null) {
+                synchronized (this) {
+                    if (referencedKeys == null) {
+                        referencedKeys = ReferencedKeys.from(mappings);
+                    }
+                }
+            }
+        }
+
+        public String keyFor(Request request) {
+            StringBuilder sb = new StringBuilder()
+                .append(request.getMethod().getName())
+                .append(' ')
+                .append(request.getUrl());
+
+            for (String headerKey: referencedKeys.headers) {
+                HttpHeader header = request.header(headerKey);
+                sb.append("\nH:").append(headerKey.toLowerCase());
+                if (header.isPresent()) {
+                    for (String value: header.values()) {
+                        sb.append('\u0000').append(value);
+                    }
+                }
+            }
+
+            Map<String, Cookie> cookies = request.getCookies();
+            for (String cookieName: referencedKeys.cookies) {
+                Cookie cookie = cookies.get(cookieName);
+                sb.append("\nC:").append(cookieName);
+                if (cookie != null) {
+                    for (String value: cookie.getValues()) {
+                        sb.append('\u0000').append(value);
+                    }
+                }
+            }
+
+            return sb.toString();
+        }
+
+        public StubMapping get(String key) {
+            return entries.getIfPresent(key);
+        }
+
+        public void put(String key, StubMapping mapping) {
+            entries.put(key, mapping);
+        }
+
+        int size() {
+            return (int) entries.size();
+        }
+    }
+
+    private static class ReferencedKeys {
+
+        final SortedSet<String> headers;
+        final SortedSet<String> cookies;
+
+        ReferencedKeys(SortedSet<String> headers, SortedSet<String> cookies) {
+            this.headers = headers;
+            this.cookies = cookies;
+        }
+
+        static ReferencedKeys from(Iterable<StubMapping> mappings) {
+            ImmutableSortedSet.Builder<String> headers = ImmutableSortedSet.orderedBy(CASE_INSENSITIVE_ORDER);
+            ImmutableSortedSet.Builder<String> cookies = ImmutableSortedSet.naturalOrder();
+            for (StubMapping mapping: mappings) {
+                Map<String, MultiValuePattern> headerPatterns = mapping.getRequest().combineBasicAuthAndOtherHeaders();
+                if (headerPatterns != null) {
+                    headers.addAll(headerPatterns.keySet());
+                }
+
+                Map<String, StringValuePattern> cookiePatterns = mapping.getRequest().getCookies();
+                if (cookiePatterns != null) {
+                    cookies.addAll(cookiePatterns.keySet());
+                }
+            }
+
+            return new ReferencedKeys(headers.build(), cookies.build());
+        }
+    }
+}
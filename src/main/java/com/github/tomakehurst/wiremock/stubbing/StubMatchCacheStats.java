@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.stubbing;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StubMatchCacheStats {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long uncacheable;
+
+    @JsonCreator
+    public StubMatchCacheStats(@JsonProperty("enabled") boolean enabled,
+                               @JsonProperty("maxEntries") int maxEntries,
+                               @JsonProperty("size") int size,
+                               @JsonProperty("hits") long hits,
+                               @JsonProperty("misses") long misses,
+                               @JsonProperty("uncacheable") long uncacheable) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.uncacheable = uncacheable;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getUncacheable() {
+        return uncacheable;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
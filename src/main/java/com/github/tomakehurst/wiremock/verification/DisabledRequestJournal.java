@@ -19,10 +19,11 @@ import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.google.common.base.Optional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
-public class DisabledRequestJournal implements RequestJournal {
+public class DisabledRequestJournal implements PagedRequestJournal {
 
     @Override
     public int countRequestsMatching(RequestPattern requestPattern) {
@@ -44,6 +45,26 @@ public class DisabledRequestJournal implements RequestJournal {
         throw new RequestJournalDisabledException();
     }
 
+    @Override
+    public List<ServeEvent> getNewestServeEvents(int limit) {
+        throw new RequestJournalDisabledException();
+    }
+
+    @Override
+    public Optional<List<ServeEvent>> getServeEventsSince(UUID id, int limit) {
+        throw new RequestJournalDisabledException();
+    }
+
+    @Override
+    public List<ServeEvent> getServeEventsBetween(Date since, Date until, int limit) {
+        throw new RequestJournalDisabledException();
+    }
+
+    @Override
+    public int getServeEventCount() {
+        throw new RequestJournalDisabledException();
+    }
+
     @Override
     public void reset() {
     }
@@ -0,0 +1,572 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.common.FatalStartupException;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.common.Exceptions.throwUnchecked;
+import static com.github.tomakehurst.wiremock.common.LocalNotifier.notifier;
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.thatMatch;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+
+/**
+ * Appends serve events as JSON to memory-mapped segment files, keeping only a small index entry (ID, time, method,
+ * URL hash and file position) per event on the heap, so that the heap stays flat however long the server runs.
+ * Events are only read back and deserialised when a query selects them. Queries for a particular method or exact URL
+ * skip events whose index entry rules them out without reading them. Index entries are kept in the order events
+ * were journaled in, for reading on from a given event, and sorted by logged date, for reading a date range.
+ *
+ * A new segment is started when the current one is full. Whole segments are deleted, oldest first, once the journal
+ * exceeds its maximum size or a segment's newest event is older than the maximum age, so age and size limits
+ * are applied a segment at a time. The age limit is also applied on reads, so old events don't linger while no
+ * requests arrive. A maximum number of entries is applied to the index, and a segment is deleted when none of its
+ * events are left in it.
+ *
+ * Deleted segments are unmapped straight away rather than when their buffers are garbage collected. Events are copied
+ * out of a segment under its lock, so an event whose segment has been deleted since it was selected is skipped.
+ *
+ * Segment files left in the directory by a previous run are deleted on startup, and closing the journal deletes
+ * the current ones.
+ */
+public class FileRequestJournal implements PagedRequestJournal, Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FileRequestJournalSettings settings;
+    private final Optional<Integer> maxEntries;
+    private final ServeEventCompactor compactor;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentNumber;
+    private long totalBytes;
+
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    private long nextSequence;
+    private final Map<UUID, Entry> entriesById = new HashMap<>();
+    private final NavigableSet<Entry> entriesByTime = new TreeSet<>(Entry.BY_TIME);
+
+    public FileRequestJournal(FileRequestJournalSettings settings, Optional<Integer> maxEntries) {
+        this(settings, maxEntries, ServeEventCompactor.NONE);
+    }
+
+    public FileRequestJournal(FileRequestJournalSettings settings, Optional<Integer> maxEntries, ServeEventCompactor compactor) {
+        if (maxEntries.isPresent() && maxEntries.get() < 0) {
+            throw new IllegalArgumentException("Maximum number of entries of journal must be greater than zero");
+        }
+        this.settings = settings;
+        this.maxEntries = maxEntries;
+        this.compactor = compactor;
+
+        File directory = settings.getDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new FatalStartupException(new IOException("Unable to create request journal directory " + directory));
+        }
+        deleteSegmentFiles();
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        return getRequestsMatching(requestPattern).size();
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        List<Entry> candidates;
+        synchronized (this) {
+            removeExpiredSegments();
+            candidates = new ArrayList<>(size);
+            for (int position = 0; position < size; position++) {
+                Entry entry = get(position);
+                if (entry.mayMatch(requestPattern)) {
+                    candidates.add(entry);
+                }
+            }
+        }
+
+        Predicate<Request> matching = thatMatch(requestPattern);
+        ImmutableList.Builder<LoggedRequest> requests = ImmutableList.builder();
+        for (ServeEvent serveEvent: read(candidates)) {
+            if (matching.apply(serveEvent.getRequest())) {
+                requests.add(serveEvent.getRequest());
+            }
+        }
+        return requests.build();
+    }
+
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        serveEvent = compactor.compact(serveEvent);
+        byte[] json = Json.toByteArray(serveEvent);
+        LoggedRequest request = serveEvent.getRequest();
+
+        synchronized (this) {
+            Segment segment = segmentWithRoomFor(json.length);
+            Entry entry = new Entry(
+                serveEvent.getId(),
+                nextSequence++,
+                timeOf(serveEvent),
+                request != null ? request.getMethod() : null,
+                request != null && request.getUrl() != null ? request.getUrl().hashCode() : 0,
+                segment,
+                segment.append(json),
+                json.length
+            );
+            insert(entry);
+
+            removeOldEntries();
+            removeExpiredSegments();
+        }
+    }
+
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        return getNewestServeEvents(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        Entry entry;
+        synchronized (this) {
+            removeExpiredSegments();
+            entry = entriesById.get(id);
+        }
+        return entry != null ? entry.read() : Optional.<ServeEvent>absent();
+    }
+
+    @Override
+    public List<ServeEvent> getNewestServeEvents(int limit) {
+        List<Entry> selection;
+        synchronized (this) {
+            removeExpiredSegments();
+            selection = newestFirst(0, size, limit);
+        }
+        return read(selection);
+    }
+
+    @Override
+    public Optional<List<ServeEvent>> getServeEventsSince(UUID id, int limit) {
+        List<Entry> selection;
+        synchronized (this) {
+            removeExpiredSegments();
+            Entry entry = entriesById.get(id);
+            if (entry == null) {
+                return Optional.absent();
+            }
+
+            int start = firstPositionAfter(entry.sequence);
+            int end = (int) Math.min(size, (long) start + Math.max(limit, 0));
+            selection = newestFirst(start, end, end - start);
+        }
+        return Optional.of(read(selection));
+    }
+
+    @Override
+    public List<ServeEvent> getServeEventsBetween(Date since, Date until, int limit) {
+        List<Entry> selection;
+        synchronized (this) {
+            removeExpiredSegments();
+            NavigableSet<Entry> between = entriesByTime;
+            if (since != null) {
+                between = between.tailSet(Entry.at(since.getTime(), Long.MAX_VALUE), false);
+            }
+            if (until != null) {
+                between = between.headSet(Entry.at(until.getTime(), Long.MIN_VALUE), false);
+            }
+            selection = ImmutableList.copyOf(Iterables.limit(between.descendingSet(), Math.max(limit, 0)));
+        }
+        return read(selection);
+    }
+
+    @Override
+    public synchronized int getServeEventCount() {
+        removeExpiredSegments();
+        return size;
+    }
+
+    @Override
+    public synchronized void reset() {
+        while (!segments.isEmpty()) {
+            segments.removeFirst().delete();
+        }
+        totalBytes = 0;
+        entries = new Entry[INITIAL_CAPACITY];
+        head = 0;
+        size = 0;
+        entriesById.clear();
+        entriesByTime.clear();
+    }
+
+    /**
+     * Unmaps and deletes every segment. The journal is left empty and can still be written to.
+     */
+    @Override
+    public void close() {
+        reset();
+    }
+
+    private List<Entry> newestFirst(int start, int end, int limit) {
+        end = Math.min(end, size);
+        int from = Math.max(start, end - Math.max(limit, 0));
+        if (from >= end) {
+            return ImmutableList.of();
+        }
+
+        List<Entry> selection = new ArrayList<>(end - from);
+        for (int position = end - 1; position >= from; position--) {
+            selection.add(get(position));
+        }
+        return selection;
+    }
+
+    private static List<ServeEvent> read(List<Entry> selection) {
+        ImmutableList.Builder<ServeEvent> serveEvents = ImmutableList.builder();
+        for (Entry entry: selection) {
+            serveEvents.addAll(entry.read().asSet());
+        }
+        return serveEvents.build();
+    }
+
+    private void insert(Entry entry) {
+        if (size == entries.length) {
+            grow();
+        }
+
+        set(size, entry);
+        size++;
+        entriesById.put(entry.id, entry);
+        entriesByTime.add(entry);
+    }
+
+    private void removeOldEntries() {
+        if (maxEntries.isPresent()) {
+            while (size > maxEntries.get()) {
+                Entry oldest = get(0);
+                set(0, null);
+                head = (head + 1) % entries.length;
+                size--;
+                unindex(oldest);
+
+                if (--oldest.segment.liveEntries == 0 && oldest.segment != segments.peekLast()) {
+                    removeSegment(oldest.segment);
+                }
+            }
+        }
+    }
+
+    private void removeExpiredSegments() {
+        while (segments.size() > 1 && totalBytes > settings.getMaxBytes()) {
+            removeSegment(segments.peekFirst());
+        }
+
+        if (settings.getMaxAgeMillis().isPresent()) {
+            long cutoff = System.currentTimeMillis() - settings.getMaxAgeMillis().get();
+            while (!segments.isEmpty() && segments.peekFirst().newestTime < cutoff) {
+                removeSegment(segments.peekFirst());
+            }
+        }
+    }
+
+    private void removeSegment(Segment segment) {
+        segments.remove(segment);
+        totalBytes -= segment.capacity;
+
+        if (segment.liveEntries > 0) {
+            int kept = 0;
+            for (int position = 0; position < size; position++) {
+                Entry entry = get(position);
+                if (entry.segment == segment) {
+                    unindex(entry);
+                } else {
+                    set(kept++, entry);
+                }
+            }
+            for (int position = kept; position < size; position++) {
+                set(position, null);
+            }
+            size = kept;
+        }
+
+        segment.delete();
+    }
+
+    private Segment segmentWithRoomFor(int length) {
+        Segment current = segments.peekLast();
+        if (current == null || !current.hasRoomFor(length)) {
+            File file = new File(settings.getDirectory(), String.format("%s%010d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX));
+            current = new Segment(file, (int) Math.max(settings.getSegmentSize(), Segment.recordLength(length)));
+            segments.addLast(current);
+            totalBytes += current.capacity;
+        }
+        return current;
+    }
+
+    private void deleteSegmentFiles() {
+        File[] files = settings.getDirectory().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+
+        if (files != null) {
+            for (File file: files) {
+                file.delete();
+            }
+        }
+    }
+
+    private int firstPositionAfter(long sequence) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle).sequence <= sequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Entry get(int position) {
+        return entries[(head + position) % entries.length];
+    }
+
+    private void set(int position, Entry entry) {
+        entries[(head + position) % entries.length] = entry;
+    }
+
+    private void grow() {
+        Entry[] grown = new Entry[entries.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        entries = grown;
+        head = 0;
+    }
+
+    private void unindex(Entry entry) {
+        if (entriesById.get(entry.id) == entry) {
+            entriesById.remove(entry.id);
+        }
+        entriesByTime.remove(entry);
+    }
+
+    private static long timeOf(ServeEvent serveEvent) {
+        Date loggedDate = serveEvent.getRequest() != null ? serveEvent.getRequest().getLoggedDate() : null;
+        return loggedDate != null ? loggedDate.getTime() : Long.MIN_VALUE;
+    }
+
+    private static class Entry {
+
+        static final Comparator<Entry> BY_TIME = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry one, Entry other) {
+                int byTime = Long.compare(one.time, other.time);
+                return byTime != 0 ? byTime : Long.compare(one.sequence, other.sequence);
+            }
+        };
+
+        final UUID id;
+        final long sequence;
+        final long time;
+        final RequestMethod method;
+        final int urlHash;
+        final Segment segment;
+        final int offset;
+        final int length;
+
+        Entry(UUID id, long sequence, long time, RequestMethod method, int urlHash, Segment segment, int offset, int length) {
+            this.id = id;
+            this.sequence = sequence;
+            this.time = time;
+            this.method = method;
+            this.urlHash = urlHash;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * A stand-in for searching the entries by time.
+         */
+        static Entry at(long time, long sequence) {
+            return new Entry(null, sequence, time, null, 0, null, 0, 0);
+        }
+
+        boolean mayMatch(RequestPattern requestPattern) {
+            if (requestPattern.hasCustomMatcher() || requestPattern.getCustomMatcher() != null) {
+                return true;
+            }
+
+            RequestMethod expectedMethod = requestPattern.getMethod();
+            if (expectedMethod != null && !expectedMethod.equals(RequestMethod.ANY) && !expectedMethod.equals(method)) {
+                return false;
+            }
+
+            String expectedUrl = requestPattern.getUrl();
+            return expectedUrl == null || expectedUrl.hashCode() == urlHash;
+        }
+
+        Optional<ServeEvent> read() {
+            byte[] json = segment.read(offset, length);
+            return json != null ?
+                Optional.of(Json.read(new ByteArrayInputStream(json), ServeEvent.class)) :
+                Optional.<ServeEvent>absent();
+        }
+    }
+
+    private static class Segment {
+
+        private static final int LENGTH_PREFIX = 4;
+
+        final File file;
+        final int capacity;
+        final MappedByteBuffer buffer;
+        final ByteBuffer writer;
+
+        int liveEntries;
+        long newestTime = Long.MIN_VALUE;
+        private boolean deleted;
+
+        Segment(File file, int capacity) {
+            this.file = file;
+            this.capacity = capacity;
+            this.buffer = map(file, capacity);
+            this.writer = buffer.duplicate();
+        }
+
+        private static MappedByteBuffer map(File file, int capacity) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                return randomAccessFile.getChannel().map(READ_WRITE, 0, capacity);
+            } catch (IOException e) {
+                return throwUnchecked(e, MappedByteBuffer.class);
+            }
+        }
+
+        static long recordLength(int length) {
+            return LENGTH_PREFIX + (long) length;
+        }
+
+        boolean hasRoomFor(int length) {
+            return writer.remaining() >= recordLength(length);
+        }
+
+        int append(byte[] json) {
+            writer.putInt(json.length);
+            int offset = writer.position();
+            writer.put(json);
+            liveEntries++;
+            newestTime = Math.max(newestTime, System.currentTimeMillis());
+            return offset;
+        }
+
+        /**
+         * Copies an event out of the segment, or returns null if the segment has been deleted.
+         */
+        synchronized byte[] read(int offset, int length) {
+            if (deleted) {
+                return null;
+            }
+
+            byte[] json = new byte[length];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(offset);
+            slice.get(json);
+            return json;
+        }
+
+        synchronized void delete() {
+            if (deleted) {
+                return;
+            }
+
+            deleted = true;
+            unmap(buffer);
+            if (!file.delete()) {
+                notifier().error("Unable to delete request journal segment " + file);
+            }
+        }
+    }
+
+    /**
+     * Releases a mapped buffer straight away. Mappings otherwise stay open, holding the file, until the buffer
+     * is garbage collected. Where neither the Java 9+ nor the Java 8 way of doing this is available, that is left
+     * to happen.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            unmapBeforeJava9(buffer);
+        } catch (Exception e) {
+            // Left to the garbage collector
+        }
+    }
+
+    private static void unmapBeforeJava9(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // Left to the garbage collector
+        }
+    }
+}
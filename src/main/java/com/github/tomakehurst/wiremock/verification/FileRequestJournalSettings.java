@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.google.common.base.Optional;
+
+import java.io.File;
+
+/**
+ * Where and how much of the request journal to keep on disk when it is journaling to files rather than the heap.
+ */
+public class FileRequestJournalSettings {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024 * 1024;
+
+    private final File directory;
+    private final long segmentSize;
+    private final long maxBytes;
+    private final Optional<Long> maxAgeMillis;
+
+    public FileRequestJournalSettings(File directory, long segmentSize, long maxBytes, Optional<Long> maxAgeMillis) {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Request journal segment size must be between 1 and " + Integer.MAX_VALUE + " bytes");
+        }
+        if (maxBytes < segmentSize) {
+            throw new IllegalArgumentException("Request journal maximum size must be at least the segment size");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static FileRequestJournalSettings inDirectory(String directory) {
+        return new FileRequestJournalSettings(new File(directory), DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_BYTES, Optional.<Long>absent());
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Optional<Long> getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "FileRequestJournalSettings{" +
+            "directory=" + directory +
+            ", segmentSize=" + segmentSize +
+            ", maxBytes=" + maxBytes +
+            ", maxAgeMillis=" + maxAgeMillis +
+            '}';
+    }
+}
@@ -15,35 +15,56 @@
  */
 package com.github.tomakehurst.wiremock.verification;
 
-import com.github.tomakehurst.wiremock.http.Request;
-import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 
-import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.github.tomakehurst.wiremock.matching.RequestPattern.thatMatch;
 import static com.google.common.collect.Iterables.*;
 
-public class InMemoryRequestJournal implements RequestJournal {
-
-	private final Queue<ServeEvent> serveEvents = new ConcurrentLinkedQueue<ServeEvent>();
+/**
+ * Holds serve events in skip lists keyed by the order they were journaled in and by the date their requests were
+ * logged, so that the newest events, those after a given event and those in a date range are found without a scan
+ * of the whole journal. Events are indexed by ID for lookups.
+ *
+ * Appending is lock-free, so requests being logged are never held up by each other or by reads.
+ * Reads see a weakly consistent view that may or may not include events journaled while they run.
+ */
+public class InMemoryRequestJournal implements PagedRequestJournal {
 
 	private final Optional<Integer> maxEntries;
+	private final ServeEventCompactor compactor;
+
+	private final AtomicLong lastPosition = new AtomicLong();
+	private final AtomicInteger size = new AtomicInteger();
+	private final ConcurrentNavigableMap<Long, ServeEvent> serveEvents = new ConcurrentSkipListMap<>();
+	private final ConcurrentNavigableMap<TimeKey, ServeEvent> serveEventsByTime = new ConcurrentSkipListMap<>();
+	private final ConcurrentMap<UUID, Long> positionsById = new ConcurrentHashMap<>();
 
 	public InMemoryRequestJournal(Optional<Integer> maxEntries) {
+		this(maxEntries, ServeEventCompactor.NONE);
+	}
+
+	public InMemoryRequestJournal(Optional<Integer> maxEntries, ServeEventCompactor compactor) {
 		if (maxEntries.isPresent() && maxEntries.get() < 0) {
 			throw new IllegalArgumentException("Maximum number of entries of journal must be greater than zero");
 		}
 		this.maxEntries = maxEntries;
+		this.compactor = compactor;
 	}
 
 	@Override
@@ -56,54 +77,123 @@ public class InMemoryRequestJournal implements RequestJournal {
 		return ImmutableList.copyOf(filter(getRequests(), thatMatch(requestPattern)));
 	}
 
-    private Predicate<Request> matchedBy(final RequestPattern requestPattern) {
-		return new Predicate<Request>() {
-			public boolean apply(Request input) {
-				return requestPattern.isMatchedBy(input, Collections.<String, RequestMatcherExtension>emptyMap());
-			}
-		};
-	}
-
 	@Override
 	public void requestReceived(ServeEvent serveEvent) {
-		serveEvents.add(serveEvent);
-        removeOldEntries();
+		append(compactor.compact(serveEvent));
 	}
 
-    @Override
-    public List<ServeEvent> getAllServeEvents() {
-        return ImmutableList.copyOf(serveEvents).reverse();
-    }
+	private void append(ServeEvent serveEvent) {
+		long position = lastPosition.incrementAndGet();
+		// Indexed before it is added, so that whichever thread removes it again finds its index entries to remove too
+		serveEventsByTime.put(new TimeKey(timeOf(serveEvent), position), serveEvent);
+		positionsById.put(serveEvent.getId(), position);
+		serveEvents.put(position, serveEvent);
+		size.incrementAndGet();
+
+		removeOldEntries();
+	}
+
+	@Override
+	public List<ServeEvent> getAllServeEvents() {
+		return ImmutableList.copyOf(serveEvents.descendingMap().values());
+	}
 
 	@Override
 	public Optional<ServeEvent> getServeEvent(final UUID id) {
-		return tryFind(serveEvents, new Predicate<ServeEvent>() {
-			@Override
-			public boolean apply(ServeEvent input) {
-				return input.getId().equals(id);
-			}
-		});
+		Long position = positionsById.get(id);
+		return position != null ? Optional.fromNullable(serveEvents.get(position)) : Optional.<ServeEvent>absent();
+	}
+
+	@Override
+	public List<ServeEvent> getNewestServeEvents(int limit) {
+		return newest(serveEvents, limit);
+	}
+
+	@Override
+	public Optional<List<ServeEvent>> getServeEventsSince(UUID id, int limit) {
+		Long position = positionsById.get(id);
+		if (position == null) {
+			return Optional.absent();
+		}
+
+		ImmutableList<ServeEvent> oldestFirst = ImmutableList.copyOf(limit(serveEvents.tailMap(position, false).values(), Math.max(limit, 0)));
+		return Optional.<List<ServeEvent>>of(oldestFirst.reverse());
+	}
+
+	@Override
+	public List<ServeEvent> getServeEventsBetween(Date since, Date until, int limit) {
+		NavigableMap<TimeKey, ServeEvent> between = serveEventsByTime;
+		if (since != null) {
+			between = between.tailMap(new TimeKey(since.getTime(), Long.MAX_VALUE), false);
+		}
+		if (until != null) {
+			between = between.headMap(new TimeKey(until.getTime(), Long.MIN_VALUE), false);
+		}
+		return newest(between, limit);
+	}
+
+	@Override
+	public int getServeEventCount() {
+		return Math.max(size.get(), 0);
 	}
 
 	@Override
 	public void reset() {
-		serveEvents.clear();
+		Map.Entry<Long, ServeEvent> oldest;
+		while ((oldest = serveEvents.pollFirstEntry()) != null) {
+			removed(oldest.getKey(), oldest.getValue());
+		}
 	}
 
 	private Iterable<LoggedRequest> getRequests() {
-		return transform(serveEvents, new Function<ServeEvent, LoggedRequest>() {
+		return transform(serveEvents.values(), new Function<ServeEvent, LoggedRequest>() {
 			public LoggedRequest apply(ServeEvent input) {
 				return input.getRequest();
 			}
 		});
 	}
 
+	private static <K> List<ServeEvent> newest(NavigableMap<K, ServeEvent> events, int limit) {
+		return ImmutableList.copyOf(limit(events.descendingMap().values(), Math.max(limit, 0)));
+	}
+
 	private void removeOldEntries() {
 		if (maxEntries.isPresent()) {
-			while (serveEvents.size() > maxEntries.get()) {
-				serveEvents.poll();
+			while (size.get() > maxEntries.get()) {
+				Map.Entry<Long, ServeEvent> oldest = serveEvents.pollFirstEntry();
+				if (oldest == null) {
+					return;
+				}
+				removed(oldest.getKey(), oldest.getValue());
 			}
 		}
 	}
 
+	private void removed(long position, ServeEvent serveEvent) {
+		serveEventsByTime.remove(new TimeKey(timeOf(serveEvent), position));
+		positionsById.remove(serveEvent.getId(), position);
+		size.decrementAndGet();
+	}
+
+	private static long timeOf(ServeEvent serveEvent) {
+		Date loggedDate = serveEvent.getRequest() != null ? serveEvent.getRequest().getLoggedDate() : null;
+		return loggedDate != null ? loggedDate.getTime() : Long.MIN_VALUE;
+	}
+
+	private static class TimeKey implements Comparable<TimeKey> {
+
+		final long time;
+		final long position;
+
+		TimeKey(long time, long position) {
+			this.time = time;
+			this.position = position;
+		}
+
+		@Override
+		public int compareTo(TimeKey other) {
+			int byTime = Long.compare(time, other.time);
+			return byTime != 0 ? byTime : Long.compare(position, other.position);
+		}
+	}
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import java.util.Objects;
+
+/**
+ * Decides how much of the traffic the request journal keeps.
+ *
+ * Unmatched requests are always kept. Matched requests are dropped entirely when unmatchedOnly is set, otherwise
+ * one in every matchedSampleRate of them is kept. On top of that, no more than maxPerSecond requests of either
+ * kind are journaled each second, allowing bursts of up to a second's worth.
+ */
+public class JournalingPolicy {
+
+    public static final int UNLIMITED = -1;
+    public static final JournalingPolicy RECORD_ALL = new JournalingPolicy(1, false, UNLIMITED);
+
+    private final int matchedSampleRate;
+    private final boolean unmatchedOnly;
+    private final int maxPerSecond;
+
+    public JournalingPolicy(int matchedSampleRate, boolean unmatchedOnly, int maxPerSecond) {
+        if (matchedSampleRate < 1) {
+            throw new IllegalArgumentException("The matched request sample rate must be at least 1");
+        }
+        if (maxPerSecond != UNLIMITED && maxPerSecond < 1) {
+            throw new IllegalArgumentException("The maximum number of requests journaled per second must be at least 1");
+        }
+
+        this.matchedSampleRate = matchedSampleRate;
+        this.unmatchedOnly = unmatchedOnly;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public int getMatchedSampleRate() {
+        return matchedSampleRate;
+    }
+
+    public boolean isUnmatchedOnly() {
+        return unmatchedOnly;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public boolean isRateLimited() {
+        return maxPerSecond != UNLIMITED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JournalingPolicy that = (JournalingPolicy) o;
+        return matchedSampleRate == that.matchedSampleRate &&
+            unmatchedOnly == that.unmatchedOnly &&
+            maxPerSecond == that.maxPerSecond;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(matchedSampleRate, unmatchedOnly, maxPerSecond);
+    }
+}
@@ -18,6 +18,7 @@ package com.github.tomakehurst.wiremock.verification;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.tomakehurst.wiremock.common.Dates;
 import com.github.tomakehurst.wiremock.common.Json;
@@ -33,6 +34,8 @@ import java.util.Set;
 import java.nio.charset.Charset;
 import static com.google.common.base.Charsets.UTF_8;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static com.github.tomakehurst.wiremock.common.Encoding.decodeBase64;
 import static com.github.tomakehurst.wiremock.common.Encoding.encodeBase64;
 import static com.github.tomakehurst.wiremock.common.Strings.stringFromBytes;
@@ -40,7 +43,7 @@ import static com.github.tomakehurst.wiremock.common.Urls.splitQuery;
 import static com.github.tomakehurst.wiremock.http.HttpHeaders.copyOf;
 import static com.google.common.base.MoreObjects.firstNonNull;
 
-@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonIgnoreProperties(value = "bodyTruncated", ignoreUnknown = true, allowGetters = true)
 public class LoggedRequest implements Request {
 
     private final String url;
@@ -49,8 +52,9 @@ public class LoggedRequest implements Request {
     private final RequestMethod method;
     private final HttpHeaders headers;
     private final Map<String, Cookie> cookies;
-    private final Map<String, QueryParameter> queryParams;
+    private volatile Map<String, QueryParameter> queryParams;
     private final byte[] body;
+    private final Integer originalBodyLength;
     private final boolean isBrowserProxyRequest;
     private final Date loggedDate;
 
@@ -63,10 +67,25 @@ public class LoggedRequest implements Request {
             ImmutableMap.copyOf(request.getCookies()),
             request.isBrowserProxyRequest(),
             new Date(),
-            request.getBodyAsBase64(),
+            request.getBody(),
+            null,
             null);
     }
 
+    public LoggedRequest(
+            String url,
+            String absoluteUrl,
+            RequestMethod method,
+            String clientIp,
+            HttpHeaders headers,
+            Map<String, Cookie> cookies,
+            boolean isBrowserProxyRequest,
+            Date loggedDate,
+            String bodyAsBase64,
+            String ignoredBodyOnlyUsedForBinding) {
+        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, bodyAsBase64, ignoredBodyOnlyUsedForBinding, null, null);
+    }
+
     @JsonCreator
     public LoggedRequest(
             @JsonProperty("url") String url,
@@ -78,19 +97,44 @@ public class LoggedRequest implements Request {
             @JsonProperty("browserProxyRequest") boolean isBrowserProxyRequest,
             @JsonProperty("loggedDate") Date loggedDate,
             @JsonProperty("bodyAsBase64") String bodyAsBase64,
-            @JsonProperty("body") String ignoredBodyOnlyUsedForBinding) {
+            @JsonProperty("body") String ignoredBodyOnlyUsedForBinding,
+            @JsonProperty("originalBodyLength") Integer originalBodyLength,
+            @JsonProperty("queryParams") Map<String, QueryParameter> queryParams) {
+        this(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, decodeBase64(bodyAsBase64), originalBodyLength, queryParams);
+    }
+
+    private LoggedRequest(
+            String url,
+            String absoluteUrl,
+            RequestMethod method,
+            String clientIp,
+            HttpHeaders headers,
+            Map<String, Cookie> cookies,
+            boolean isBrowserProxyRequest,
+            Date loggedDate,
+            byte[] body,
+            Integer originalBodyLength,
+            Map<String, QueryParameter> queryParams) {
         this.url = url;
         this.absoluteUrl = absoluteUrl;
         this.clientIp = clientIp;
         this.method = method;
-        this.body = decodeBase64(bodyAsBase64);
+        this.body = body;
+        this.originalBodyLength = originalBodyLength;
         this.headers = headers;
         this.cookies = cookies;
-        this.queryParams = splitQuery(URI.create(url));
+        this.queryParams = queryParams;
         this.isBrowserProxyRequest = isBrowserProxyRequest;
         this.loggedDate = loggedDate;
     }
 
+    /**
+     * A copy for the request journal to hold, sharing everything but the body and headers.
+     */
+    LoggedRequest withStorage(byte[] body, Integer originalBodyLength, HttpHeaders headers) {
+        return new LoggedRequest(url, absoluteUrl, method, clientIp, headers, cookies, isBrowserProxyRequest, loggedDate, body, originalBodyLength, queryParams);
+    }
+
     @Override
     public String getUrl() {
         return url;
@@ -176,14 +220,33 @@ public class LoggedRequest implements Request {
         return headers.keys();
     }
 
+    /**
+     * The length of the body as it was received when only the start of it has been kept, otherwise absent.
+     */
+    @JsonInclude(NON_NULL)
+    public Integer getOriginalBodyLength() {
+        return originalBodyLength;
+    }
+
+    @JsonInclude(NON_DEFAULT)
+    public boolean isBodyTruncated() {
+        return originalBodyLength != null;
+    }
+
     @Override
     public QueryParameter queryParameter(String key) {
-        return firstNonNull(queryParams.get(key), QueryParameter.absent(key));
+        return firstNonNull(getQueryParams().get(key), QueryParameter.absent(key));
     }
 
+    // Parsed from the URL the first time they're asked for rather than up front, as journaled requests rarely are
     @JsonProperty("queryParams")
     public Map<String, QueryParameter> getQueryParams() {
-        return queryParams;
+        Map<String, QueryParameter> params = queryParams;
+        if (params == null) {
+            params = ImmutableMap.copyOf(splitQuery(URI.create(url)));
+            queryParams = params;
+        }
+        return params;
     }
 
     public HttpHeaders getHeaders() {
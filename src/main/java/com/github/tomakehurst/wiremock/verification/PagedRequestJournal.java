@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Optional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A request journal that can read a page of its events without copying the whole journal.
+ * Each read returns at most limit events, newest first.
+ */
+public interface PagedRequestJournal extends RequestJournal {
+
+    List<ServeEvent> getNewestServeEvents(int limit);
+
+    /**
+     * The events journaled after the one with the given ID, taking the earliest first so that a reader can page
+     * forwards through the journal. This follows the order events were journaled in rather than their logged dates.
+     * Absent if that event isn't in the journal, e.g. because it has been removed to make room for newer ones.
+     */
+    Optional<List<ServeEvent>> getServeEventsSince(UUID id, int limit);
+
+    /**
+     * The newest events logged after since and before until, either of which may be null.
+     */
+    List<ServeEvent> getServeEventsBetween(Date since, Date until, int limit);
+
+    int getServeEventCount();
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Optional;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Passes serve events on to another journal only when the journaling policy allows it and the stub that
+ * served them hasn't been excluded from the journal. Events dropped by the policy and those served by excluded
+ * stubs are counted separately, since only the former make verification counts incomplete.
+ *
+ * Reads go straight to the underlying journal, so counts and searches only cover what was kept.
+ */
+public class SelectiveRequestJournal implements PagedRequestJournal, Closeable {
+
+    private final PagedRequestJournal delegate;
+    private final JournalingPolicy policy;
+
+    private final AtomicLong matchedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong excludedCount = new AtomicLong();
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public SelectiveRequestJournal(PagedRequestJournal delegate, JournalingPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.tokens = policy.getMaxPerSecond();
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public void requestReceived(ServeEvent serveEvent) {
+        if (isExcluded(serveEvent)) {
+            excludedCount.incrementAndGet();
+        } else if (policyAllows(serveEvent)) {
+            delegate.requestReceived(serveEvent);
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * The number of serve events dropped by the journaling policy since the journal was last reset.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * The number of serve events not journaled since the journal was last reset because the stubs that served
+     * them are excluded from the journal.
+     */
+    public long getExcludedCount() {
+        return excludedCount.get();
+    }
+
+    private static boolean isExcluded(ServeEvent serveEvent) {
+        StubMapping stubMapping = serveEvent.getStubMapping();
+        return serveEvent.getWasMatched() && stubMapping != null && !stubMapping.shouldBeJournaled();
+    }
+
+    private boolean policyAllows(ServeEvent serveEvent) {
+        if (serveEvent.getWasMatched()) {
+            if (policy.isUnmatchedOnly() ||
+                matchedCount.getAndIncrement() % policy.getMatchedSampleRate() != 0) {
+                return false;
+            }
+        }
+
+        return !policy.isRateLimited() || takeToken();
+    }
+
+    private synchronized boolean takeToken() {
+        long now = System.nanoTime();
+        int maxPerSecond = policy.getMaxPerSecond();
+        tokens = Math.min(maxPerSecond, tokens + ((now - lastRefillNanos) * maxPerSecond / (double) SECONDS.toNanos(1)));
+        lastRefillNanos = now;
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+        matchedCount.set(0);
+        droppedCount.set(0);
+        excludedCount.set(0);
+    }
+
+    @Override
+    public int countRequestsMatching(RequestPattern requestPattern) {
+        return delegate.countRequestsMatching(requestPattern);
+    }
+
+    @Override
+    public List<LoggedRequest> getRequestsMatching(RequestPattern requestPattern) {
+        return delegate.getRequestsMatching(requestPattern);
+    }
+
+    @Override
+    public List<ServeEvent> getAllServeEvents() {
+        return delegate.getAllServeEvents();
+    }
+
+    @Override
+    public Optional<ServeEvent> getServeEvent(UUID id) {
+        return delegate.getServeEvent(id);
+    }
+
+    @Override
+    public List<ServeEvent> getNewestServeEvents(int limit) {
+        return delegate.getNewestServeEvents(limit);
+    }
+
+    @Override
+    public Optional<List<ServeEvent>> getServeEventsSince(UUID id, int limit) {
+        return delegate.getServeEventsSince(id, limit);
+    }
+
+    @Override
+    public List<ServeEvent> getServeEventsBetween(Date since, Date until, int limit) {
+        return delegate.getServeEventsBetween(since, until, limit);
+    }
+
+    @Override
+    public int getServeEventCount() {
+        return delegate.getServeEventCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+}
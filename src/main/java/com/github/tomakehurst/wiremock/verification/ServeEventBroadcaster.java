@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Fans completed serve events out to the subscribers of the live serve event stream.
+ *
+ * Publishing happens on the request thread, so it only hands the event to each subscriber's bounded buffer and
+ * costs nothing when there are no subscribers. Subscribers apply their filters on their own threads.
+ * The number of concurrent subscribers is capped because each one holds a container thread for as long as
+ * it is connected. Once the cap is reached, subscriptions that have stopped polling are closed to make room.
+ */
+public class ServeEventBroadcaster {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+    static final long IDLE_TIMEOUT_MILLIS = 60000;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final List<ServeEventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public ServeEventBroadcaster(int bufferSize, int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public void publish(ServeEvent serveEvent) {
+        for (ServeEventSubscription subscription: subscriptions) {
+            subscription.offer(serveEvent);
+        }
+    }
+
+    public synchronized ServeEventSubscription subscribe(RequestPattern filter) {
+        if (subscriptions.size() >= maxSubscribers) {
+            closeIdleSubscriptions();
+        }
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new TooManySubscribersException(maxSubscribers);
+        }
+
+        final ServeEventSubscription[] subscription = new ServeEventSubscription[1];
+        subscription[0] = new ServeEventSubscription(bufferSize, filter, new Runnable() {
+            @Override
+            public void run() {
+                subscriptions.remove(subscription[0]);
+            }
+        });
+        subscriptions.add(subscription[0]);
+        return subscription[0];
+    }
+
+    private void closeIdleSubscriptions() {
+        for (ServeEventSubscription subscription: subscriptions) {
+            if (subscription.isIdleFor(IDLE_TIMEOUT_MILLIS, MILLISECONDS)) {
+                subscription.close();
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public void closeAll() {
+        for (ServeEventSubscription subscription: subscriptions) {
+            subscription.close();
+        }
+    }
+
+    public static class TooManySubscribersException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public TooManySubscribersException(int maxSubscribers) {
+            super("No more than " + maxSubscribers + " serve event streams can be open at once");
+        }
+    }
+}
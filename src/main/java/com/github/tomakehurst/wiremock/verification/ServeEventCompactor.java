@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.LoggedResponse;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reduces what the request journal holds for each serve event.
+ *
+ * Request bodies longer than maxBodySize are cut down to that size, with the original length recorded on the
+ * logged request. When deduplicating, request and response bodies with the same content share one array, found by
+ * a hash of their content, and identical sets of request headers share one instance, with header names and values
+ * interned. Shared bodies and strings are only weakly held by the pools, so they go once no journaled request uses them.
+ */
+public class ServeEventCompactor {
+
+    public static final int UNLIMITED = -1;
+    public static final ServeEventCompactor NONE = new ServeEventCompactor(UNLIMITED, false);
+
+    private static final int MAX_HEADER_SETS = 10000;
+    private static final HashFunction BODY_HASH = Hashing.murmur3_128();
+
+    private final int maxBodySize;
+    private final boolean deduplicate;
+
+    private final Cache<HashCode, byte[]> bodies = CacheBuilder.newBuilder().weakValues().build();
+    private final Cache<List<List<String>>, HttpHeaders> headerSets = CacheBuilder.newBuilder().maximumSize(MAX_HEADER_SETS).weakValues().build();
+    private final Interner<String> strings = Interners.newWeakInterner();
+
+    public ServeEventCompactor(int maxBodySize, boolean deduplicate) {
+        this.maxBodySize = maxBodySize;
+        this.deduplicate = deduplicate;
+    }
+
+    public ServeEvent compact(ServeEvent serveEvent) {
+        if (maxBodySize == UNLIMITED && !deduplicate) {
+            return serveEvent;
+        }
+
+        return new ServeEvent(
+            serveEvent.getId(),
+            compact(serveEvent.getRequest()),
+            serveEvent.getStubMapping(),
+            serveEvent.getResponseDefinition(),
+            compact(serveEvent.getResponse()),
+            false
+        );
+    }
+
+    private LoggedRequest compact(LoggedRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        byte[] body = request.getBody();
+        Integer originalBodyLength = request.getOriginalBodyLength();
+        if (body != null && maxBodySize != UNLIMITED && body.length > maxBodySize) {
+            originalBodyLength = body.length;
+            body = Arrays.copyOf(body, maxBodySize);
+        }
+
+        return request.withStorage(
+            deduplicate ? shared(body) : body,
+            originalBodyLength,
+            deduplicate ? shared(request.getHeaders()) : request.getHeaders()
+        );
+    }
+
+    private LoggedResponse compact(LoggedResponse response) {
+        if (response == null || !deduplicate) {
+            return response;
+        }
+
+        return response.withBody(shared(response.getBody()));
+    }
+
+    private byte[] shared(byte[] body) {
+        if (body == null || body.length == 0) {
+            return body;
+        }
+
+        HashCode hash = BODY_HASH.hashBytes(body);
+        byte[] existing = bodies.getIfPresent(hash);
+        if (existing == null) {
+            bodies.put(hash, body);
+            return body;
+        }
+
+        return Arrays.equals(existing, body) ? existing : body;
+    }
+
+    private HttpHeaders shared(HttpHeaders headers) {
+        if (headers == null) {
+            return null;
+        }
+
+        List<List<String>> key = new ArrayList<>(headers.size());
+        for (HttpHeader header: headers.all()) {
+            key.add(ImmutableList.<String>builder().add(header.key()).addAll(header.values()).build());
+        }
+
+        HttpHeaders existing = headerSets.getIfPresent(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<HttpHeader> interned = new ArrayList<>(key.size());
+        for (List<String> header: key) {
+            List<String> values = new ArrayList<>(header.size() - 1);
+            for (String value: header.subList(1, header.size())) {
+                values.add(strings.intern(value));
+            }
+            interned.add(new HttpHeader(strings.intern(header.get(0)), values));
+        }
+
+        HttpHeaders internedHeaders = new HttpHeaders(interned);
+        headerSets.put(key, internedHeaders);
+        return internedHeaders;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A range of the request journal to read: the newest events, optionally only those after the event with a given ID
+ * or logged between two dates. Results are returned newest first and limit keeps the newest.
+ */
+public class ServeEventQuery {
+
+    private final Integer limit;
+    private final UUID sinceId;
+    private final Date since;
+    private final Date until;
+
+    public ServeEventQuery(Integer limit, UUID sinceId, Date since, Date until) {
+        checkArgument(limit == null || limit >= 0, "limit must be 0 or greater");
+        if (sinceId != null && (since != null || until != null)) {
+            throw new IllegalArgumentException("A serve event ID cursor can't be combined with a date range");
+        }
+
+        this.limit = limit;
+        this.sinceId = sinceId;
+        this.since = since;
+        this.until = until;
+    }
+
+    public static ServeEventQuery allServeEvents() {
+        return new ServeEventQuery(null, null, null, null);
+    }
+
+    public ServeEventQuery withLimit(int limit) {
+        return new ServeEventQuery(limit, sinceId, since, until);
+    }
+
+    public ServeEventQuery since(UUID serveEventId) {
+        return new ServeEventQuery(limit, serveEventId, since, until);
+    }
+
+    public ServeEventQuery since(Date since) {
+        return new ServeEventQuery(limit, sinceId, since, until);
+    }
+
+    public ServeEventQuery until(Date until) {
+        return new ServeEventQuery(limit, sinceId, since, until);
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public UUID getSinceId() {
+        return sinceId;
+    }
+
+    public Date getSince() {
+        return since;
+    }
+
+    public Date getUntil() {
+        return until;
+    }
+}
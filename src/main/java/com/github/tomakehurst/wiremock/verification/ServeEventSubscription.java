@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Predicate;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.thatMatch;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A bounded buffer of serve events for one consumer of the live serve event stream.
+ *
+ * Offering never blocks: when the consumer has fallen behind and the buffer is full the event is dropped and counted,
+ * so a slow consumer only ever sees a sample of the traffic and never slows down the requests being served.
+ * Events are matched against the filter as the consumer takes them, so matching costs the request threads nothing.
+ * Events that don't match still take up space in the buffer until then, so they count towards the dropped events
+ * when the consumer falls behind.
+ */
+public class ServeEventSubscription implements Closeable {
+
+    private final BlockingQueue<ServeEvent> buffer;
+    private final Predicate<Request> filter;
+    private final Runnable onClose;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile long lastPolledNanos = System.nanoTime();
+
+    public ServeEventSubscription(int bufferSize, RequestPattern filter, Runnable onClose) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.filter = filter != null ? thatMatch(filter) : null;
+        this.onClose = onClose;
+    }
+
+    public boolean offer(ServeEvent serveEvent) {
+        if (closed) {
+            return false;
+        }
+
+        if (!buffer.offer(serveEvent)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        return true;
+    }
+
+    public void dropped(long count) {
+        dropped.addAndGet(count);
+    }
+
+    /**
+     * Waits up to the timeout for the next event matching the filter, returning null if none arrives or the
+     * subscription is closed.
+     */
+    public ServeEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        lastPolledNanos = System.nanoTime();
+        long deadline = lastPolledNanos + unit.toNanos(timeout);
+        long remaining = unit.toNanos(timeout);
+        while (!closed && remaining > 0) {
+            ServeEvent serveEvent = buffer.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)), NANOSECONDS);
+            if (serveEvent != null && (filter == null || filter.apply(serveEvent.getRequest()))) {
+                return serveEvent;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+
+        return null;
+    }
+
+    /**
+     * Whether the consumer has gone longer than the timeout without polling, e.g. because its stream was never started.
+     */
+    public boolean isIdleFor(long timeout, TimeUnit unit) {
+        return System.nanoTime() - lastPolledNanos > unit.toNanos(timeout);
+    }
+
+    /**
+     * Returns the number of events dropped since this was last called.
+     */
+    public long takeDroppedCount() {
+        return dropped.getAndSet(0);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+    }
+}
@@ -16,18 +16,26 @@
 package com.github.tomakehurst.wiremock.verification;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.tomakehurst.wiremock.common.Json;
 
 public class VerificationResult extends JournalBasedResult {
 
 	private final Integer count;
+    private final Long droppedCount;
 
     @JsonCreator
     public VerificationResult(@JsonProperty("count") Integer count,
-                              @JsonProperty("requestJournalDisabled") boolean requestJournalDisabled) {
+                              @JsonProperty("requestJournalDisabled") boolean requestJournalDisabled,
+                              @JsonProperty("droppedCount") Long droppedCount) {
         super(requestJournalDisabled);
         this.count = count;
+        this.droppedCount = droppedCount;
+    }
+
+    public VerificationResult(Integer count, boolean requestJournalDisabled) {
+        this(count, requestJournalDisabled, null);
     }
 
     public static VerificationResult from(String json) {
@@ -38,6 +46,10 @@ public class VerificationResult extends JournalBasedResult {
         return new VerificationResult(count, false);
     }
 
+    public static VerificationResult withSampledCount(int count, long droppedCount) {
+        return new VerificationResult(count, false, droppedCount);
+    }
+
     public static VerificationResult withRequestJournalDisabled() {
         return new VerificationResult(-1, true);
     }
@@ -46,4 +58,16 @@ public class VerificationResult extends JournalBasedResult {
 		return count;
 	}
 
+    /**
+     * The number of requests left out of the journal by its journaling policy, when there were any.
+     */
+    public Long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @JsonIgnore
+    public boolean isSampled() {
+        return droppedCount != null && droppedCount > 0;
+    }
+
 }
@@ -16,6 +16,7 @@
 package com.github.tomakehurst.wiremock;
 
 import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import com.github.tomakehurst.wiremock.common.Json;
 import com.github.tomakehurst.wiremock.junit.Stubbing;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
@@ -31,10 +32,13 @@ import java.util.List;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.common.Gzip.unGzipToString;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static com.github.tomakehurst.wiremock.testsupport.TestHttpHeader.withHeader;
 import static org.apache.http.entity.ContentType.TEXT_PLAIN;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 public class AdminApiTest extends AcceptanceTestBase {
@@ -411,4 +415,26 @@ public class AdminApiTest extends AcceptanceTestBase {
         assertThat(response.content(), containsString("<html"));
     }
 
+    @Test
+    public void servesCompactJsonByDefaultAndPrettyPrintedJsonOnRequest() {
+        wireMockServer.stubFor(get(urlEqualTo("/compact")).willReturn(aResponse()));
+
+        String compact = testClient.get("/__admin/mappings").content();
+        String pretty = testClient.get("/__admin/mappings?pretty=true").content();
+
+        assertThat(compact, not(containsString("\n")));
+        assertThat(pretty, containsString("\n  \"mappings\" : ["));
+        assertThat(Json.node(compact), is(Json.node(pretty)));
+    }
+
+    @Test
+    public void servesGzippedJsonWhenAccepted() {
+        wireMockServer.stubFor(get(urlEqualTo("/gzipped-admin")).willReturn(aResponse()));
+
+        WireMockResponse response = testClient.get("/__admin/mappings", withHeader("Accept-Encoding", "gzip"));
+
+        assertThat(response.firstHeader("Content-Encoding"), is("gzip"));
+        assertThat(unGzipToString(response.binaryContent()), containsString("/gzipped-admin"));
+    }
+
 }
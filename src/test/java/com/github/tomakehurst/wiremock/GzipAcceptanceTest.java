@@ -16,6 +16,7 @@
 package com.github.tomakehurst.wiremock;
 
 import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
+import com.google.common.base.Strings;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.entity.ContentType;
@@ -25,6 +26,7 @@ import org.junit.Test;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.common.Gzip.unGzipToString;
 import static com.github.tomakehurst.wiremock.testsupport.TestHttpHeader.withHeader;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -43,6 +45,28 @@ public class GzipAcceptanceTest extends AcceptanceTestBase {
         assertThat(plainText, is("body text"));
     }
 
+    @Test
+    public void servesPrecompressedStaticBodyWhenRequested() throws Exception {
+        String body = Strings.repeat("large body text ", 100);
+        wireMockServer.stubFor(get(urlEqualTo("/precompressed-response")).willReturn(aResponse().withBody(body)));
+
+        WireMockResponse response = testClient.get("/precompressed-response", withHeader("Accept-Encoding", "gzip,deflate"));
+        assertThat(response.firstHeader("Content-Encoding"), is("gzip"));
+        assertThat(response.firstHeader("Vary"), containsString("Accept-Encoding"));
+        assertThat(unGzipToString(response.binaryContent()), is(body));
+    }
+
+    @Test
+    public void servesPlainStaticBodyWhenGzipNotAccepted() {
+        String body = Strings.repeat("large body text ", 100);
+        wireMockServer.stubFor(get(urlEqualTo("/not-precompressed-response")).willReturn(aResponse().withBody(body)));
+
+        WireMockResponse response = testClient.get("/not-precompressed-response", withHeader("Accept-Encoding", "gzip;q=0"));
+        assertThat(response.headers().containsKey("Content-Encoding"), is(false));
+        assertThat(response.firstHeader("Vary"), containsString("Accept-Encoding"));
+        assertThat(response.content(), is(body));
+    }
+
     @Test
     public void acceptsGzippedRequest() {
         wireMockServer.stubFor(any(urlEqualTo("/gzip-request")).withRequestBody(equalTo("request body")).willReturn(aResponse().withBody("response body")));
@@ -15,15 +15,29 @@
  */
 package com.github.tomakehurst.wiremock;
 
+import com.github.tomakehurst.wiremock.admin.model.ImportStubMappingsResult;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappingQuery;
 import com.github.tomakehurst.wiremock.testsupport.MappingJsonSamples;
 import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.stubbing.StubMappingQuery.allStubs;
 import static com.github.tomakehurst.wiremock.testsupport.MappingJsonSamples.BINARY_COMPRESSED_CONTENT;
 import static com.github.tomakehurst.wiremock.testsupport.MappingJsonSamples.MAPPING_REQUEST_FOR_BINARY_BYTE_BODY;
 import static com.github.tomakehurst.wiremock.testsupport.MappingJsonSamples.MAPPING_REQUEST_FOR_BYTE_BODY;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -129,6 +143,67 @@ public class MappingsAcceptanceTest extends AcceptanceTestBase {
         assertThat(response2.content(), is("default test mapping"));
     }
 
+    @Test
+    public void replacingAllMappingsRemovesThoseNotInTheNewSet() {
+        add200ResponseFor("/resource/21");
+
+        try {
+            WireMock.replaceAllStubs(asList(
+                get(urlEqualTo("/replaced/1")).willReturn(aResponse().withStatus(200)).build(),
+                get(urlEqualTo("/replaced/2")).willReturn(aResponse().withStatus(200)).build()
+            ));
+
+            getResponseAndAssert200Status("/replaced/1");
+            getResponseAndAssert200Status("/replaced/2");
+            getResponseAndAssert404Status("/resource/21");
+            getResponseAndAssert404Status("/testmapping");
+        } finally {
+            testClient.resetDefaultMappings();
+        }
+    }
+
+    @Test
+    public void importsABatchOfMappings() {
+        ImportStubMappingsResult result = WireMock.importStubs(asList(
+            get(urlEqualTo("/imported/1")).willReturn(aResponse().withStatus(200)).build(),
+            get(urlEqualTo("/imported/2")).willReturn(aResponse().withStatus(200)).build()
+        ));
+
+        assertThat(result.getImported(), is(2));
+        assertThat(result.getErrors().isEmpty(), is(true));
+        getResponseAndAssert200Status("/imported/1");
+        getResponseAndAssert200Status("/imported/2");
+        getResponseAndAssert200Status("/testmapping");
+    }
+
+    @Test
+    public void findsStubsByUrlPrefixAndStatusAPageAtATime() {
+        for (int i = 1; i <= 5; i++) {
+            stubFor(get(urlEqualTo("/search/" + i)).willReturn(aResponse().withStatus(i == 3 ? 500 : 200)));
+        }
+
+        StubMappingQuery okSearchStubs = allStubs().withUrlPrefix("/search/").withStatus(200);
+        List<StubMapping> firstPage = WireMock.findStubs(okSearchStubs.withLimit(2));
+        List<StubMapping> secondPage = WireMock.findStubs(okSearchStubs.withLimit(2).withOffset(2));
+        List<StubMapping> pastTheEnd = WireMock.findStubs(okSearchStubs.withOffset(10));
+
+        assertThat(firstPage.size(), is(2));
+        assertThat(firstPage.get(0).getRequest().getUrl(), is("/search/5"));
+        assertThat(firstPage.get(1).getRequest().getUrl(), is("/search/4"));
+        assertThat(secondPage.size(), is(2));
+        assertThat(secondPage.get(0).getRequest().getUrl(), is("/search/2"));
+        assertThat(secondPage.get(1).getRequest().getUrl(), is("/search/1"));
+        assertThat(pastTheEnd.isEmpty(), is(true));
+    }
+
+    @Test
+    public void rejectsAStubSearchWithANonNumericStatus() {
+        WireMockResponse response = testClient.get("/__admin/mappings?status=abc");
+
+        assertThat(response.statusCode(), is(HTTP_BAD_REQUEST));
+        assertThat(response.content(), containsString("abc is not a valid number for status"));
+    }
+
     @Test
     public void readsMapppingForByteBody() {
         testClient.addResponse(MAPPING_REQUEST_FOR_BYTE_BODY);
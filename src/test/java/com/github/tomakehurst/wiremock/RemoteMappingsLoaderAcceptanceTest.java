@@ -16,18 +16,36 @@
 package com.github.tomakehurst.wiremock;
 
 import com.github.tomakehurst.wiremock.admin.model.SingleStubMappingResult;
+import com.github.tomakehurst.wiremock.client.HttpStatusException;
+import com.github.tomakehurst.wiremock.client.VerificationException;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.client.WireMockBuilder;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.common.TextFile;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.google.common.io.Resources;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static com.github.tomakehurst.wiremock.common.AbstractFileSource.byFileExtension;
 import static com.github.tomakehurst.wiremock.testsupport.TestHttpHeader.withHeader;
+import static com.google.common.collect.Iterables.filter;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class RemoteMappingsLoaderAcceptanceTest extends AcceptanceTestBase {
 
@@ -55,6 +73,74 @@ public class RemoteMappingsLoaderAcceptanceTest extends AcceptanceTestBase {
         );
     }
 
+    @Test
+    public void loadsMappingsInParallelBatches() {
+        wireMockServer.resetMappings();
+
+        wmClient.loadMappingsFrom(rootDir, 3, 2);
+
+        assertThat(wireMockServer.listAllStubMappings().getMappings(), hasSize(6));
+        assertThat(testClient.get("/remote-load/1").content(), is("Remote load 1"));
+        assertThat(testClient.get("/text-file").content(), is("Some text"));
+    }
+
+    @Test
+    public void uploadsBatchesInFileOrder() {
+        wireMockServer.resetMappings();
+        final List<RequestPattern> uploaded = Collections.synchronizedList(new ArrayList<RequestPattern>());
+        WireMock recordingClient = new WireMock(adminThatImports(new ImportBehaviour() {
+            @Override
+            public void importing(List<StubMapping> stubMappings) throws InterruptedException {
+                for (StubMapping stubMapping: stubMappings) {
+                    uploaded.add(stubMapping.getRequest());
+                }
+                Thread.sleep(20);
+            }
+        }));
+
+        recordingClient.loadMappingsFrom(rootDir, 3, 1);
+
+        List<RequestPattern> inFileOrder = new ArrayList<>();
+        for (TextFile file: filter(new SingleRootFileSource(rootDir).child("mappings").listFilesRecursively(), byFileExtension("json"))) {
+            inFileOrder.add(StubMapping.buildFrom(file.readContentsAsString()).getRequest());
+        }
+        assertThat(uploaded, is(inFileOrder));
+    }
+
+    @Test
+    public void registersStubsOneAtATimeWhenTheServerCannotImportThem() {
+        wireMockServer.resetMappings();
+        WireMock clientWithoutImport = new WireMock(adminThatImports(failingWith(new UnsupportedOperationException("Not supported by this server"))));
+
+        clientWithoutImport.loadMappingsFrom(rootDir, 2, 4);
+
+        assertThat(wireMockServer.listAllStubMappings().getMappings(), hasSize(6));
+        assertThat(testClient.get("/remote-load/1").content(), is("Remote load 1"));
+    }
+
+    @Test
+    public void registersStubsOneAtATimeWhenTheServerHasNoImportEndpoint() {
+        wireMockServer.resetMappings();
+        WireMock clientWithoutImport = new WireMock(adminThatImports(failingWith(new HttpStatusException(404, "Not found"))));
+
+        clientWithoutImport.loadMappingsFrom(rootDir, 2, 4);
+
+        assertThat(wireMockServer.listAllStubMappings().getMappings(), hasSize(6));
+    }
+
+    @Test
+    public void failsRatherThanRegisteringStubsOneAtATimeWhenAnImportFails() {
+        wireMockServer.resetMappings();
+        WireMock failingClient = new WireMock(adminThatImports(failingWith(new VerificationException("Expected status 2xx but was 500"))));
+
+        try {
+            failingClient.loadMappingsFrom(rootDir, 2, 4);
+            fail("Expected the load to fail");
+        } catch (VerificationException e) {
+            assertThat(wireMockServer.listAllStubMappings().getMappings(), hasSize(0));
+        }
+    }
+
     @Test
     public void convertsBodyFileToStringBodyWhenAKnownTextTypeFromFileExtension() {
         wmClient.loadMappingsFrom(rootDir);
@@ -94,6 +180,38 @@ public class RemoteMappingsLoaderAcceptanceTest extends AcceptanceTestBase {
         assertThat(stubMapping.getItem().getResponse().specifiesBinaryBodyContent(), is(true));
     }
 
+    private interface ImportBehaviour {
+        void importing(List<StubMapping> stubMappings) throws Throwable;
+    }
 
+    private static ImportBehaviour failingWith(final Throwable failure) {
+        return new ImportBehaviour() {
+            @Override
+            public void importing(List<StubMapping> stubMappings) throws Throwable {
+                throw failure;
+            }
+        };
+    }
 
+    private static Admin adminThatImports(final ImportBehaviour importBehaviour) {
+        return (Admin) Proxy.newProxyInstance(
+            Admin.class.getClassLoader(),
+            new Class<?>[] { Admin.class },
+            new InvocationHandler() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("importStubMappings")) {
+                        importBehaviour.importing((List<StubMapping>) args[0]);
+                    }
+
+                    try {
+                        return method.invoke(wireMockServer, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        );
+    }
 }
@@ -18,11 +18,13 @@ package com.github.tomakehurst.wiremock;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.common.Dates;
 import com.github.tomakehurst.wiremock.common.Encoding;
+import com.github.tomakehurst.wiremock.common.InvalidRequestException;
 import com.github.tomakehurst.wiremock.http.RequestMethod;
 import com.github.tomakehurst.wiremock.junit.Stubbing;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.github.tomakehurst.wiremock.testsupport.MappingJsonSamples;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.github.tomakehurst.wiremock.verification.ServeEventSubscription;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import static com.google.common.base.Charsets.UTF_8;
@@ -34,12 +36,17 @@ import org.junit.Test;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasExactly;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.isToday;
+import static com.github.tomakehurst.wiremock.verification.ServeEventQuery.allServeEvents;
 import static org.hamcrest.Matchers.hasItems;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class RequestQueryAcceptanceTest extends AcceptanceTestBase {
@@ -184,4 +191,47 @@ public class RequestQueryAcceptanceTest extends AcceptanceTestBase {
     private static Date parse(String dateString) throws ParseException {
         return Dates.parse(dateString);
     }
+
+    @Test
+    public void getsAPageOfServeEventsSinceAGivenEvent() {
+        testClient.get("/journal/1");
+        testClient.get("/journal/2");
+        testClient.get("/journal/3");
+        testClient.get("/journal/4");
+
+        List<ServeEvent> newest = WireMock.getAllServeEvents(allServeEvents().withLimit(2));
+        assertThat(newest.size(), is(2));
+        assertThat(newest.get(0).getRequest().getUrl(), is("/journal/4"));
+        assertThat(newest.get(1).getRequest().getUrl(), is("/journal/3"));
+
+        List<ServeEvent> sinceThird = WireMock.getAllServeEvents(allServeEvents().since(newest.get(1).getId()));
+        assertThat(sinceThird.size(), is(1));
+        assertThat(sinceThird.get(0).getRequest().getUrl(), is("/journal/4"));
+
+        Date thirdLoggedDate = newest.get(1).getRequest().getLoggedDate();
+        List<ServeEvent> untilThird = WireMock.getAllServeEvents(allServeEvents().until(thirdLoggedDate));
+        for (ServeEvent serveEvent: untilThird) {
+            assertThat(serveEvent.getRequest().getLoggedDate().before(thirdLoggedDate), is(true));
+        }
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void rejectsAPageSinceAnEventThatIsNotInTheJournal() {
+        testClient.get("/journal/1");
+
+        WireMock.getAllServeEvents(allServeEvents().since(UUID.randomUUID()));
+    }
+
+    @Test
+    public void streamsServeEventsMatchingAFilterAsTheyAreServed() throws Exception {
+        try (ServeEventSubscription subscription = WireMock.subscribeToAllServeEvents(postRequestedFor(urlEqualTo("/streamed")))) {
+            testClient.get("/streamed");
+            testClient.postWithBody("/streamed", "body", "text/plain", "UTF-8");
+
+            ServeEvent serveEvent = subscription.poll(5, SECONDS);
+            assertThat(serveEvent.getRequest().getMethod(), is(RequestMethod.POST));
+            assertThat(serveEvent.getRequest().getBodyAsString(), is("body"));
+            assertThat(subscription.poll(200, MILLISECONDS), nullValue());
+        }
+    }
 }
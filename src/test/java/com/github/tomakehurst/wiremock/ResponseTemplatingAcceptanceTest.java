@@ -15,19 +15,38 @@
  */
 package com.github.tomakehurst.wiremock;
 
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.github.tomakehurst.wiremock.http.Body;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.testsupport.WireMockResponse;
 import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(Enclosed.class)
 public class ResponseTemplatingAcceptanceTest {
@@ -100,4 +119,103 @@ public class ResponseTemplatingAcceptanceTest {
             assertThat(client.get("/templated").content(), is("templated"));
         }
     }
+
+    public static class RequestJournalDisabled {
+
+        WireMockTestClient client;
+
+        final AtomicInteger renders = new AtomicInteger();
+        final AtomicReference<ServeEvent> servedEvent = new AtomicReference<>();
+        final CountDownLatch served = new CountDownLatch(1);
+
+        @Rule
+        public WireMockRule wm = new WireMockRule(options()
+            .dynamicPort()
+            .disableRequestJournal()
+            .extensions(
+                new ResponseTemplateTransformer(true, ImmutableMap.<String, Helper>of(
+                    "fail", new Helper<Object>() {
+                        @Override
+                        public Object apply(Object context, Options options) throws IOException {
+                            throw new IllegalStateException("Helper failed");
+                        }
+                    },
+                    "countRender", new Helper<Object>() {
+                        @Override
+                        public Object apply(Object context, Options options) throws IOException {
+                            return renders.incrementAndGet();
+                        }
+                    })),
+                new PostServeAction() {
+                    @Override
+                    public String getName() {
+                        return "capture-serve-event";
+                    }
+
+                    @Override
+                    public void doGlobalAction(ServeEvent serveEvent, Admin admin) {
+                        servedEvent.set(serveEvent);
+                        served.countDown();
+                    }
+                })
+        );
+
+        @Before
+        public void init() {
+            client = new WireMockTestClient(wm.port());
+        }
+
+        @Test
+        public void streamsTemplatedBodiesLargerThanTheResponseBuffer() {
+            String filler = Strings.repeat("0123456789", 100 * 1024);
+            wm.stubFor(get(urlPathEqualTo("/templated"))
+                .willReturn(aResponse()
+                    .withBody(filler + "{{request.path.[0]}}" + filler)));
+
+            assertThat(client.get("/templated").content(), is(filler + "templated" + filler));
+        }
+
+        @Test
+        public void respondsWithAServerErrorWhenATemplateFailsBeforeTheFirstChunkIsWritten() {
+            wm.stubFor(get(urlPathEqualTo("/failing"))
+                .willReturn(aResponse()
+                    .withHeader("X-Stub", "failing")
+                    .withBody("Some text before {{fail}}")));
+
+            WireMockResponse response = client.get("/failing");
+
+            assertThat(response.statusCode(), is(500));
+            assertThat(response.firstHeader("X-Stub"), is(nullValue()));
+            assertThat(response.content(), not(containsString("Some text before")));
+        }
+
+        @Test
+        public void abortsTheResponseWhenATemplateFailsAfterPartOfItHasBeenSent() {
+            wm.stubFor(get(urlPathEqualTo("/failing-late"))
+                .willReturn(aResponse()
+                    .withBody(Strings.repeat("0123456789", 100 * 1024) + "{{fail}}")));
+
+            try {
+                client.get("/failing-late");
+                fail("Expected the response to be cut short");
+            } catch (RuntimeException e) {
+                // The client sees an incomplete response rather than a complete one with a truncated body
+            }
+        }
+
+        @Test
+        public void doesNotKeepTheStreamedBodyOnTheServeEvent() throws Exception {
+            wm.stubFor(get(urlPathEqualTo("/counted"))
+                .willReturn(aResponse()
+                    .withBody("Render {{countRender}}")));
+
+            assertThat(client.get("/counted").content(), is("Render 1"));
+            assertThat(served.await(5, SECONDS), is(true));
+
+            Body body = servedEvent.get().getResponseDefinition().getResponseBody();
+            assertThat(body.wasStreamedToClient(), is(true));
+            assertThat(servedEvent.get().getResponseDefinition().getBody(), is(nullValue()));
+            assertThat(renders.get(), is(1));
+        }
+    }
 }
@@ -37,13 +37,18 @@ import static com.github.tomakehurst.wiremock.core.WireMockApp.MAPPINGS_ROOT;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasFileContaining;
 import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class StubMappingPersistenceAcceptanceTest {
 
     Path rootDir;
     Path mappingsDir;
+    FileSource fileSource;
     WireMockServer wireMockServer;
     WireMockTestClient testClient;
     Stubbing wm;
@@ -52,7 +57,7 @@ public class StubMappingPersistenceAcceptanceTest {
     public void init() throws Exception {
         rootDir = Files.createTempDirectory("temp-filesource");
         mappingsDir = rootDir.resolve("mappings");
-        FileSource fileSource = new SingleRootFileSource(rootDir.toAbsolutePath().toString());
+        fileSource = new SingleRootFileSource(rootDir.toAbsolutePath().toString());
         fileSource.createIfNecessary();
         FileSource filesFileSource = fileSource.child(FILES_ROOT);
         filesFileSource.createIfNecessary();
@@ -103,6 +108,25 @@ public class StubMappingPersistenceAcceptanceTest {
         assertThat(mappingsDir, hasFileContaining("modified"));
     }
 
+    @Test
+    public void resetRestoresTheSameDefaultStubsUntilTheMappingFilesChange() throws Exception {
+        writeMappingFile("default.json", get(urlEqualTo("/default")).willReturn(aResponse()));
+        mappingsDir.toFile().setLastModified(System.currentTimeMillis() - 10000);
+
+        wireMockServer.resetToDefaultMappings();
+        StubMapping defaultStub = wm.getStubMappings().get(0);
+        wm.stubFor(get(urlEqualTo("/not-default")));
+        wireMockServer.resetToDefaultMappings();
+
+        assertThat(wm.getStubMappings(), contains(sameInstance(defaultStub)));
+
+        wm.stubFor(get(urlEqualTo("/persistent")).persistent());
+        wireMockServer.resetToDefaultMappings();
+
+        assertThat(wm.getStubMappings().size(), is(2));
+        assertThat(wm.getStubMappings(), not(hasItem(sameInstance(defaultStub))));
+    }
+
     @Test
     public void savesSingleStubOnCreationIfFlaggedPersistent() {
         stubFor(get(urlEqualTo("/save-immediately")).persistent());
@@ -184,6 +208,28 @@ public class StubMappingPersistenceAcceptanceTest {
         assertMappingsDirIsEmpty();
     }
 
+    @Test
+    public void writesPersistentStubsInTheBackgroundWhenWriteBehindEnabled() {
+        WireMockServer writeBehindServer = new WireMockServer(wireMockConfig()
+            .fileSource(fileSource)
+            .dynamicPort()
+            .mappingsWriteBehindQueueSize(100));
+        writeBehindServer.start();
+
+        try {
+            WireMock writeBehindClient = new WireMock(writeBehindServer.port());
+            writeBehindClient.register(get(urlEqualTo("/write-behind/1")).persistent());
+            writeBehindClient.register(get(urlEqualTo("/write-behind/2")).persistent());
+            writeBehindClient.register(get(urlEqualTo("/write-behind/3")).persistent());
+
+            writeBehindClient.flushMappings();
+
+            assertMappingsDirSize(3);
+        } finally {
+            writeBehindServer.stop();
+        }
+    }
+
     private void writeMappingFile(String name, MappingBuilder stubBuilder) throws IOException {
         byte[] json = Json.write(stubBuilder.build()).getBytes(UTF_8);
         Files.write(mappingsDir.resolve(name), json);
@@ -23,6 +23,7 @@ import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.matching.*;
 import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.github.tomakehurst.wiremock.verification.RequestJournalDisabledException;
 import com.google.common.base.Optional;
@@ -34,6 +35,7 @@ import org.junit.runner.RunWith;
 
 import java.util.List;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
@@ -41,6 +43,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.equalToXml;
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.lessThan;
 import static com.github.tomakehurst.wiremock.client.WireMock.lessThanOrExactly;
@@ -69,6 +72,7 @@ import static org.apache.http.entity.ContentType.TEXT_PLAIN;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -691,4 +695,77 @@ public class VerificationAcceptanceTest {
             verify(1, getRequestedFor(urlEqualTo("/request3")));
         }
     }
+
+    public static class JournalSampled {
+        @Rule
+        public WireMockRule wireMockRule = new WireMockRule(options()
+            .dynamicPort()
+            .requestJournalingPolicy(new JournalingPolicy(1, true, JournalingPolicy.UNLIMITED)),
+            false);
+
+        @Test
+        public void verificationFailuresReportThatTheJournalIsSampled() {
+            wireMockRule.stubFor(get(urlEqualTo("/matched")).willReturn(aResponse()));
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.get("/matched");
+            testClient.get("/unmatched");
+
+            wireMockRule.verify(1, getRequestedFor(urlEqualTo("/unmatched")));
+            try {
+                wireMockRule.verify(1, getRequestedFor(urlEqualTo("/matched")));
+                fail();
+            } catch (VerificationException e) {
+                assertThat(e.getMessage(), containsString("1 requests were not journaled"));
+            }
+        }
+
+        @Test
+        public void sampledVerificationFailuresStillShowTheMostSimilarRequest() {
+            wireMockRule.stubFor(get(urlEqualTo("/matched")).willReturn(aResponse()));
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.get("/matched");
+            testClient.get("/unmatched");
+
+            try {
+                wireMockRule.verify(getRequestedFor(urlEqualTo("/unmatched-too")));
+                fail();
+            } catch (VerificationException e) {
+                assertThat(e.getMessage(), containsString("Most similar request was"));
+                assertThat(e.getMessage(), containsString("1 requests were not journaled"));
+            }
+        }
+    }
+
+    public static class JournalExcludingStubs {
+        @Rule
+        public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort(), false);
+
+        @Test
+        public void doesNotJournalRequestsServedByExcludedStubs() {
+            wireMockRule.stubFor(get(urlEqualTo("/excluded")).excludedFromJournal().willReturn(aResponse()));
+            wireMockRule.stubFor(get(urlEqualTo("/included")).willReturn(aResponse()));
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.get("/excluded");
+            testClient.get("/included");
+
+            assertThat(wireMockRule.countRequestsMatching(getRequestedFor(urlEqualTo("/excluded")).build()).getCount(), is(0));
+            assertThat(wireMockRule.countRequestsMatching(getRequestedFor(urlEqualTo("/included")).build()).isSampled(), is(false));
+        }
+
+        @Test
+        public void verificationFailuresStillShowTheMostSimilarRequest() {
+            wireMockRule.stubFor(get(urlEqualTo("/excluded")).excludedFromJournal().willReturn(aResponse()));
+            WireMockTestClient testClient = new WireMockTestClient(wireMockRule.port());
+            testClient.get("/excluded");
+            testClient.get("/almost");
+
+            try {
+                wireMockRule.verify(getRequestedFor(urlEqualTo("/almost-the-same")));
+                fail();
+            } catch (VerificationException e) {
+                assertThat(e.getMessage(), containsString("Most similar request was"));
+                assertThat(e.getMessage(), not(containsString("not journaled")));
+            }
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.admin;
+
+import com.github.tomakehurst.wiremock.admin.model.ImportStubMappingsResult;
+import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.admin.tasks.ImportStubMappingsTask;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.common.Strings.bytesFromString;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ImportStubMappingsTaskTest {
+
+    private Mockery context;
+    private Admin mockAdmin;
+    private Request mockRequest;
+    private ImportStubMappingsTask importStubMappingsTask;
+
+    @Before
+    public void setUp() {
+        context = new Mockery();
+        mockAdmin = context.mock(Admin.class);
+        mockRequest = context.mock(Request.class);
+        importStubMappingsTask = new ImportStubMappingsTask();
+    }
+
+    @Test
+    public void importsValidItemsAndReportsInvalidOnesByPosition() {
+        givenBody(
+            "[                                                                   \n" +
+            "  { \"request\": { \"url\": \"/one\" }, \"response\": { \"status\": 200 } }, \n" +
+            "  { \"request\": { \"url\": \"/two\", \"headers\": { \"A\": { \"nonsense\": 1 } } } }, \n" +
+            "  \"not a stub\",                                                     \n" +
+            "  { \"request\": { \"url\": \"/four\" }, \"response\": { \"status\": 200 } } \n" +
+            "]"
+        );
+        context.checking(new Expectations() {{
+            oneOf(mockAdmin).importStubMappings(with(stubsForUrls("/one", "/four")));
+            will(returnValue(ImportStubMappingsResult.imported(2)));
+        }});
+
+        ResponseDefinition response = importStubMappingsTask.execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(HTTP_OK));
+        ImportStubMappingsResult result = Json.read(response.getBody(), ImportStubMappingsResult.class);
+        assertThat(result.getImported(), is(2));
+        assertThat(result.getErrors(), hasSize(2));
+        assertThat(result.getErrors().get(0).getSource().getPointer(), is("/1"));
+        assertThat(result.getErrors().get(1).getSource().getPointer(), is("/2"));
+    }
+
+    @Test
+    public void acceptsTheSameFormatReturnedWhenListingMappings() {
+        givenBody(
+            "{                                                                       \n" +
+            "  \"meta\": { \"total\": 1 },                                             \n" +
+            "  \"mappings\": [                                                       \n" +
+            "    { \"request\": { \"url\": \"/one\" }, \"response\": { \"status\": 200 } } \n" +
+            "  ]                                                                     \n" +
+            "}"
+        );
+        context.checking(new Expectations() {{
+            oneOf(mockAdmin).importStubMappings(with(stubsForUrls("/one")));
+            will(returnValue(ImportStubMappingsResult.imported(1)));
+        }});
+
+        ResponseDefinition response = importStubMappingsTask.execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(HTTP_OK));
+    }
+
+    @Test
+    public void rejectsABodyThatIsNotAnArrayOfMappings() {
+        givenBody("\"mappings\"");
+
+        ResponseDefinition response = importStubMappingsTask.execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(HTTP_BAD_REQUEST));
+    }
+
+    @Test
+    public void importsNothingWhenTheBodyIsNotWellFormedJson() {
+        givenBody(
+            "[                                                                   \n" +
+            "  { \"request\": { \"url\": \"/one\" }, \"response\": { \"status\": 200 } }, \n" +
+            "  { \"request\": { \"url\": \"/two\" }, \"response\": { \"status\": 2"
+        );
+        context.checking(new Expectations() {{
+            never(mockAdmin).importStubMappings(with(any(List.class)));
+        }});
+
+        ResponseDefinition response = importStubMappingsTask.execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(HTTP_BAD_REQUEST));
+        context.assertIsSatisfied();
+    }
+
+    @Test
+    public void importsNothingWhenAnInvalidItemIsNotWellFormedJson() {
+        givenBody(
+            "[                                                                   \n" +
+            "  { \"request\": { \"url\": \"/one\" }, \"response\": { \"status\": 200 } }, \n" +
+            "  { \"request\": { \"url\": \"/two\", \"headers\": { \"A\": { \"nonsense\": 1 } } }, \n" +
+            "]"
+        );
+        context.checking(new Expectations() {{
+            never(mockAdmin).importStubMappings(with(any(List.class)));
+        }});
+
+        ResponseDefinition response = importStubMappingsTask.execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(HTTP_BAD_REQUEST));
+        context.assertIsSatisfied();
+    }
+
+    private void givenBody(final String body) {
+        context.checking(new Expectations() {{
+            allowing(mockRequest).getBody();
+            will(returnValue(bytesFromString(body)));
+        }});
+    }
+
+    private static Matcher<List<StubMapping>> stubsForUrls(final String... urls) {
+        return new TypeSafeMatcher<List<StubMapping>>() {
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("stubs for URLs ").appendValue(urls);
+            }
+
+            @Override
+            protected boolean matchesSafely(List<StubMapping> stubMappings) {
+                if (stubMappings.size() != urls.length) {
+                    return false;
+                }
+
+                for (int i = 0; i < urls.length; i++) {
+                    if (!urls[i].equals(stubMappings.get(i).getRequest().getUrl())) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.admin;
+
+import com.github.tomakehurst.wiremock.admin.model.PathParams;
+import com.github.tomakehurst.wiremock.admin.tasks.StreamServeEventsTask;
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.verification.ServeEventBroadcaster;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.http.QueryParameter.absent;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StreamServeEventsTaskTest {
+
+    private Mockery context;
+    private Admin mockAdmin;
+    private Request mockRequest;
+
+    @Before
+    public void setUp() {
+        context = new Mockery();
+        mockAdmin = context.mock(Admin.class);
+        mockRequest = context.mock(Request.class);
+        context.checking(new Expectations() {{
+            allowing(mockRequest).getBody(); will(returnValue(null));
+            allowing(mockRequest).getHeader("Accept"); will(returnValue(null));
+            allowing(mockRequest).queryParameter("format"); will(returnValue(absent("format")));
+        }});
+    }
+
+    @Test
+    public void subscribesBeforeTheResponseIsCommitted() {
+        context.checking(new Expectations() {{
+            oneOf(mockAdmin).subscribeToServeEvents(null);
+        }});
+
+        new StreamServeEventsTask().execute(mockAdmin, mockRequest, PathParams.empty());
+
+        context.assertIsSatisfied();
+    }
+
+    @Test
+    public void refusesTheStreamWithServiceUnavailableWhenThereAreTooManySubscribers() {
+        context.checking(new Expectations() {{
+            oneOf(mockAdmin).subscribeToServeEvents(null);
+            will(throwException(new ServeEventBroadcaster.TooManySubscribersException(1)));
+        }});
+
+        ResponseDefinition response = new StreamServeEventsTask().execute(mockAdmin, mockRequest, PathParams.empty());
+
+        assertThat(response.getStatus(), is(503));
+        assertThat(response.getBody(), containsString("No more than 1 serve event streams can be open at once"));
+    }
+}
@@ -22,9 +22,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 
 public class WireMockClientAcceptanceTest {
@@ -78,4 +81,16 @@ public class WireMockClientAcceptanceTest {
 
 		assertThat(testClient.get("/my/new/resource").content(), is("{\"address\":\"Puerto Banús, Málaga\"}"));
 	}
+
+	@Test
+	public void reportsTheStatusWhenAnAdminEndpointIsNotFound() {
+		HttpAdminClient client = new HttpAdminClient("localhost", wireMockServer.port(), "/not-wiremock");
+
+		try {
+			client.importStubMappings(Collections.singletonList(get(urlEqualTo("/one")).build()));
+			fail("Expected the import to fail");
+		} catch (HttpStatusException e) {
+			assertThat(e.getStatus(), is(404));
+		}
+	}
 }
@@ -15,11 +15,20 @@
  */
 package com.github.tomakehurst.wiremock.common;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.fileNamed;
+import static com.google.common.base.Charsets.UTF_8;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -27,6 +36,9 @@ import static org.junit.Assert.assertTrue;
 
 public class ClasspathFileSourceTest {
 
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
     ClasspathFileSource classpathFileSource;
 
     @SuppressWarnings("unchecked")
@@ -65,6 +77,33 @@ public class ClasspathFileSourceTest {
                 binaryFile.readContents().length, greaterThan(0));
     }
 
+    @Test
+    public void readsTextFileFromJarThroughAChildSource() {
+        initForJar();
+
+        TextFile textFile = classpathFileSource.child("guava").getTextFileNamed("pom.properties");
+
+        assertThat(textFile.readContentsAsString(), containsString("artifactId=guava"));
+        assertThat(textFile.getUri().toString(), endsWith("!/META-INF/maven/com.google.guava/guava/pom.properties"));
+    }
+
+    @Test
+    public void keepsSmallFilesFromJarInMemoryWhenCachingIsEnabled() {
+        ClasspathFileSource cachingSource = new ClasspathFileSource("META-INF/maven/com.google.guava", 1024 * 1024);
+
+        byte[] first = cachingSource.getBinaryFileNamed("guava/pom.xml").readContents();
+        byte[] second = cachingSource.getBinaryFileNamed("guava/pom.xml").readContents();
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void failsToReadAFileMissingFromJar() {
+        initForJar();
+
+        classpathFileSource.getBinaryFileNamed("guava/not-there.xml").readContents();
+    }
+
     @Test
     public void readsBinaryFileFromZip() {
         classpathFileSource = new ClasspathFileSource("zippeddir");
@@ -75,6 +114,38 @@ public class ClasspathFileSourceTest {
         assertThat(contents, containsString("zip"));
     }
 
+    @Test
+    public void readsTheNewContentsOfAJarThatHasBeenRebuilt() throws Exception {
+        File jar = tempDir.newFile("rebuilt.jar");
+        writeJar(jar, "rebuilt/", "", "rebuilt/one.txt", "Original");
+        jar.setLastModified(jar.lastModified() - 60000);
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { jar.toURI().toURL() }, null));
+        try {
+            ClasspathFileSource source = new ClasspathFileSource("rebuilt", 1024);
+            TextFile file = source.getTextFileNamed("one.txt");
+            assertThat(file.readContentsAsString(), is("Original"));
+
+            writeJar(jar, "rebuilt/", "", "rebuilt/one.txt", "Rebuilt with different contents", "rebuilt/two.txt", "Added");
+
+            assertThat(file.readContentsAsString(), is("Rebuilt with different contents"));
+            assertThat(source.listFilesRecursively(), hasItems(fileNamed("two.txt")));
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private static void writeJar(File jar, String... namesAndContents) throws Exception {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                out.putNextEntry(new ZipEntry(namesAndContents[i]));
+                out.write(namesAndContents[i + 1].getBytes(UTF_8));
+                out.closeEntry();
+            }
+        }
+    }
+
     @Test
     public void readsBinaryFileFromFileSystem() {
         initForFileSystem();
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.common;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class ContentAddressedBodyFilesTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private ContentAddressedBodyFiles bodyFiles;
+
+    @Before
+    public void init() {
+        bodyFiles = new ContentAddressedBodyFiles(new SingleRootFileSource(tempDir.getRoot()));
+    }
+
+    @Test
+    public void namesFilesByTheHashOfTheirContent() {
+        String fileName = ContentAddressedBodyFiles.fileNameFor("{}".getBytes(UTF_8), "json");
+
+        assertThat(fileName, is("sha256/44/136fa355b3678a1146ad16f7e8649e94fb4fc21fe77e8310c060f61caaff8a.json"));
+    }
+
+    @Test
+    public void writesIdenticalBodiesToOneSharedFile() {
+        String first = bodyFiles.write("{\"shared\":true}".getBytes(UTF_8), "json");
+        String second = bodyFiles.write("{\"shared\":true}".getBytes(UTF_8), "json");
+        String different = bodyFiles.write("{\"shared\":false}".getBytes(UTF_8), "json");
+
+        assertThat(second, is(first));
+        assertThat(different, not(first));
+        assertThat(first, startsWith("sha256/"));
+        assertThat(new SingleRootFileSource(tempDir.getRoot()).getTextFileNamed(first).readContentsAsString(), is("{\"shared\":true}"));
+    }
+
+    @Test
+    public void doesNotRewriteABodyAlreadyOnDisk() throws Exception {
+        String fileName = bodyFiles.write("stored".getBytes(UTF_8), "txt");
+        File file = new File(tempDir.getRoot(), fileName);
+        file.setLastModified(1000);
+
+        new ContentAddressedBodyFiles(new SingleRootFileSource(tempDir.getRoot())).write("stored".getBytes(UTF_8), "txt");
+
+        assertThat(file.lastModified(), is(1000L));
+        assertThat(file.getParentFile().list(), arrayContaining(file.getName()));
+    }
+
+    @Test
+    public void replacesAPartiallyWrittenFileForTheSameBody() throws Exception {
+        String fileName = ContentAddressedBodyFiles.fileNameFor("complete body".getBytes(UTF_8), "txt");
+        File file = new File(tempDir.getRoot(), fileName);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "compl".getBytes(UTF_8));
+
+        bodyFiles.write("complete body".getBytes(UTF_8), "txt");
+
+        assertThat(new String(Files.readAllBytes(file.toPath()), UTF_8), is("complete body"));
+        assertThat(file.getParentFile().list(), arrayContaining(file.getName()));
+    }
+
+    @Test
+    public void concurrentWritersOfTheSameBodyOnlyReturnOnceTheFileIsComplete() throws Exception {
+        final byte[] body = new byte[4 * 1024 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> lengthsSeen = newArrayList();
+            for (int i = 0; i < 8; i++) {
+                lengthsSeen.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        String fileName = bodyFiles.write(body, "bin");
+                        return new File(tempDir.getRoot(), fileName).length();
+                    }
+                }));
+            }
+
+            for (Future<Long> length: lengthsSeen) {
+                assertThat(length.get(), is((long) body.length));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        File directory = new File(tempDir.getRoot(), ContentAddressedBodyFiles.fileNameFor(body, "bin")).getParentFile();
+        assertThat(directory.list().length, is(1));
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.core;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.everything;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class WriteBehindMappingsSaverTest {
+
+    private RecordingMappingsSaver delegate;
+    private WriteBehindMappingsSaver saver;
+
+    @Before
+    public void init() {
+        delegate = new RecordingMappingsSaver();
+        saver = new WriteBehindMappingsSaver(delegate, 100);
+    }
+
+    @After
+    public void cleanup() {
+        saver.close();
+    }
+
+    @Test
+    public void writesSavesAndRemovesInTheBackground() {
+        StubMapping one = aMapping("one");
+        StubMapping two = aMapping("two");
+
+        saver.save(one);
+        saver.save(two);
+        saver.flush();
+        saver.remove(one);
+        saver.flush();
+
+        assertThat(delegate.operations, contains(
+            "save " + one.getId() + " one",
+            "save " + two.getId() + " two",
+            "remove " + one.getId()
+        ));
+    }
+
+    @Test
+    public void coalescesRepeatedChangesToTheSameStub() throws Exception {
+        StubMapping blocker = aMapping("blocker");
+        UUID id = UUID.randomUUID();
+        StubMapping first = aMapping(id, "first");
+        StubMapping second = aMapping(id, "second");
+        StubMapping third = aMapping(id, "third");
+
+        delegate.blockNextWrite();
+        saver.save(blocker);
+        delegate.awaitBlocked();
+
+        saver.save(first);
+        saver.save(second);
+        saver.remove(first);
+        saver.save(third);
+
+        delegate.unblock();
+        saver.flush();
+
+        assertThat(delegate.operations, contains(
+            "save " + blocker.getId() + " blocker",
+            "save " + id + " third"
+        ));
+    }
+
+    @Test
+    public void removeAllDiscardsChangesStillPending() throws Exception {
+        StubMapping blocker = aMapping("blocker");
+        StubMapping discarded = aMapping("discarded");
+        StubMapping kept = aMapping("kept");
+
+        delegate.blockNextWrite();
+        saver.save(blocker);
+        delegate.awaitBlocked();
+
+        saver.save(discarded);
+        saver.removeAll();
+        saver.save(kept);
+
+        delegate.unblock();
+        saver.flush();
+
+        assertThat(delegate.operations, contains(
+            "save " + blocker.getId() + " blocker",
+            "removeAll",
+            "save " + kept.getId() + " kept"
+        ));
+    }
+
+    @Test
+    public void savesOnlyDirtyMappingsWhenSavingAList() {
+        StubMapping dirty = aMapping("dirty");
+        StubMapping clean = aMapping("clean");
+        clean.setDirty(false);
+
+        saver.save(asList(dirty, clean));
+        saver.flush();
+
+        assertThat(delegate.operations, contains("save " + dirty.getId() + " dirty"));
+    }
+
+    @Test
+    public void flushReturnsImmediatelyWhenNothingIsPending() {
+        saver.flush();
+        assertThat(delegate.operations.isEmpty(), is(true));
+    }
+
+    @Test
+    public void flushThrowsWhenAnEarlierWriteFailed() {
+        delegate.failNextWrite();
+        saver.save(aMapping("lost"));
+
+        try {
+            saver.flush();
+            fail("Expected the failed write to be reported");
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("Disk full"));
+        }
+
+        saver.save(aMapping("kept"));
+        saver.flush();
+    }
+
+    @Test
+    public void closeWritesEverythingPendingAndStopsTheWriter() throws Exception {
+        StubMapping mapping = aMapping("one");
+        saver.save(mapping);
+        saver.close();
+
+        assertThat(delegate.operations, contains("save " + mapping.getId() + " one"));
+        delegate.writerThread.join(5000);
+        assertThat(delegate.writerThread.isAlive(), is(false));
+
+        StubMapping afterClose = aMapping("two");
+        saver.save(afterClose);
+        saver.flush();
+        assertThat(delegate.operations, hasItem("save " + afterClose.getId() + " two"));
+    }
+
+    private static StubMapping aMapping(String body) {
+        return aMapping(UUID.randomUUID(), body);
+    }
+
+    private static StubMapping aMapping(UUID id, String body) {
+        StubMapping mapping = new StubMapping(everything(), new ResponseDefinition(200, body));
+        mapping.setId(id);
+        return mapping;
+    }
+
+    private static class RecordingMappingsSaver implements MappingsSaver {
+
+        final List<String> operations = new CopyOnWriteArrayList<>();
+
+        private volatile boolean blockNextWrite;
+        private volatile boolean failNextWrite;
+        private volatile Thread writerThread;
+        private volatile CountDownLatch blocked;
+        private volatile CountDownLatch release;
+
+        void blockNextWrite() {
+            blocked = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            blockNextWrite = true;
+        }
+
+        void failNextWrite() {
+            failNextWrite = true;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertThat(blocked.await(5, SECONDS), is(true));
+        }
+
+        void unblock() {
+            release.countDown();
+        }
+
+        @Override
+        public void save(List<StubMapping> stubMappings) {
+            for (StubMapping mapping: stubMappings) {
+                if (mapping.isDirty()) {
+                    save(mapping);
+                }
+            }
+        }
+
+        @Override
+        public void save(StubMapping stubMapping) {
+            writerThread = Thread.currentThread();
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new RuntimeException("Disk full");
+            }
+
+            operations.add("save " + stubMapping.getId() + " " + stubMapping.getResponse().getBody());
+            waitIfBlocked();
+        }
+
+        @Override
+        public void remove(StubMapping stubMapping) {
+            operations.add("remove " + stubMapping.getId());
+        }
+
+        @Override
+        public void removeAll() {
+            operations.add("removeAll");
+        }
+
+        @Override
+        public void sync(Collection<UUID> stubIds) {
+        }
+
+        private void waitIfBlocked() {
+            if (!blockNextWrite) {
+                return;
+            }
+
+            blockNextWrite = false;
+            blocked.countDown();
+            try {
+                release.await(5, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
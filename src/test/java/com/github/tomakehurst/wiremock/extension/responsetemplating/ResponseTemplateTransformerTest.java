@@ -19,11 +19,15 @@ import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.http.Body;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 
@@ -270,6 +274,80 @@ public class ResponseTemplateTransformerTest {
         ));
     }
 
+    @Test
+    public void doesNotReadTheRequestForTemplatesThatDontReferToIt() {
+        Mockery context = new Mockery();
+        Request request = context.mock(Request.class);
+
+        ResponseDefinition transformedResponseDef = transform(request,
+            aResponse()
+                .withBody("Static {{capitalize 'text'}}{{missing}}")
+                .withHeader("X-Static", "{{upper 'header'}}")
+        );
+
+        assertThat(transformedResponseDef.getBody(), is("Static Text"));
+        assertThat(transformedResponseDef.getHeaders().getHeader("X-Static").firstValue(), is("HEADER"));
+    }
+
+    @Test
+    public void onlyReadsThePartsOfTheRequestATemplateRefersTo() {
+        Mockery context = new Mockery();
+        final Request request = context.mock(Request.class);
+        context.checking(new Expectations() {{
+            allowing(request).getUrl(); will(returnValue("/one/two?ignored=true"));
+        }});
+
+        ResponseDefinition transformedResponseDef = transform(request,
+            aResponse().withBody("{{request.path.[1]}}")
+        );
+
+        assertThat(transformedResponseDef.getBody(), is("two"));
+    }
+
+    @Test
+    public void providesTheRequestToTemplatesReachingItIndirectly() {
+        ResponseDefinition transformedResponseDef = transform(mockRequest()
+                .url("/indirect"),
+            aResponse().withBody(
+                "{{lookup (lookup this 'request') 'url'}}"
+            )
+        );
+
+        assertThat(transformedResponseDef.getBody(), is("/indirect"));
+    }
+
+    @Test
+    public void rendersTheBodyAsItIsWritten() throws IOException {
+        ResponseDefinition transformedResponseDef = transform(mockRequest()
+                .url("/things/\u00e9t\u00e9"),
+            aResponse().withBody(
+                "Path: {{request.path.[1]}}"
+            )
+        );
+
+        Body body = transformedResponseDef.getResponseBody();
+        assertThat(body.isStreamable(), is(true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        assertThat(out.toString("UTF-8"), is("Path: \u00e9t\u00e9"));
+    }
+
+    @Test
+    public void encodesTheRenderedBodyInTheCharsetOfTheContentType() throws IOException {
+        ResponseDefinition transformedResponseDef = transform(mockRequest()
+                .url("/things/été"),
+            aResponse()
+                .withHeader("Content-Type", "text/plain; charset=ISO-8859-1")
+                .withBody("Path: {{request.path.[1]}}")
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transformedResponseDef.getResponseBody().writeTo(out);
+        assertThat(out.toString("ISO-8859-1"), is("Path: été"));
+        assertThat(out.size(), is(9));
+    }
+
     private ResponseDefinition transform(Request request, ResponseDefinitionBuilder responseDefinitionBuilder) {
         return transformer.transform(
             request,
@@ -15,21 +15,27 @@
  */
 package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
 
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
 import com.github.tomakehurst.wiremock.common.LocalNotifier;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.jayway.jsonpath.DocumentContext;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
 import static com.github.tomakehurst.wiremock.testsupport.NoFileSource.noFileSource;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.equalToJson;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
@@ -122,4 +128,33 @@ public class HandlebarsJsonPathHelperTest extends HandlebarsHelperTestBase {
     public void rendersAMeaningfulErrorWhenJsonPathIsNull() {
         testHelperError(helper, "{\"test\":\"success}", null, is("[ERROR: The JSONPath cannot be empty]"));
     }
+
+    @Test
+    public void parsesTheBodyOnceForAllHelperCallsInARender() {
+        final List<DocumentContext> parsedDocuments = new ArrayList<>();
+        Helper<String> recordParsedDocument = new Helper<String>() {
+            @Override
+            public Object apply(String context, Options options) throws IOException {
+                parsedDocuments.add(ParsedDocuments.from(options).json(context));
+                return "";
+            }
+        };
+        transformer = new ResponseTemplateTransformer(true, "recordParsedDocument", recordParsedDocument);
+
+        final ResponseDefinition responseDefinition = transformer.transform(
+                mockRequest()
+                    .url("/json")
+                    .body("{\"one\": 1, \"two\": 2}"),
+                aResponse()
+                    .withBody(
+                        "{{jsonPath request.body '$.one'}}{{recordParsedDocument request.body}}" +
+                        "{{#with request}}{{jsonPath body '$.two'}}{{recordParsedDocument body}}{{/with}}"
+                    ).build(),
+                noFileSource(),
+                Parameters.empty());
+
+        assertThat(responseDefinition.getBody(), is("12"));
+        assertThat(parsedDocuments.size(), is(2));
+        assertThat(parsedDocuments.get(1), sameInstance(parsedDocuments.get(0)));
+    }
 }
@@ -15,20 +15,28 @@
  */
 package com.github.tomakehurst.wiremock.extension.responsetemplating.helpers;
 
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
 import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.testsupport.WireMatchers;
 import org.junit.Before;
 import org.junit.Test;
+import org.w3c.dom.Document;
 
+import javax.xml.xpath.XPathExpression;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
 import static com.github.tomakehurst.wiremock.testsupport.NoFileSource.noFileSource;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.equalToXml;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
@@ -108,6 +116,61 @@ public class HandlebarsXPathHelperTest extends HandlebarsHelperTestBase {
         testHelperError(helper, null, "/test", is(""));
     }
 
+    @Test
+    public void parsesTheBodyOnceForAllHelperCallsInARender() {
+        final List<Document> parsedDocuments = new ArrayList<>();
+        Helper<String> recordParsedDocument = new Helper<String>() {
+            @Override
+            public Object apply(String context, Options options) throws IOException {
+                try {
+                    parsedDocuments.add(ParsedDocuments.from(options).xml(context));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+                return "";
+            }
+        };
+        transformer = new ResponseTemplateTransformer(true, "recordParsedDocument", recordParsedDocument);
+
+        final ResponseDefinition responseDefinition = transformer.transform(
+                mockRequest().url("/xml")
+                    .body("<a><one>1</one><two>2</two></a>"),
+                aResponse()
+                    .withBody(
+                        "{{xPath request.body '/a/one/text()'}}{{recordParsedDocument request.body}}" +
+                        "{{#with request}}{{xPath body '/a/two/text()'}}{{recordParsedDocument body}}{{/with}}"
+                    ).build(),
+                noFileSource(),
+                Parameters.empty());
+
+        assertThat(responseDefinition.getBody(), is("12"));
+        assertThat(parsedDocuments.size(), is(2));
+        assertThat(parsedDocuments.get(1), sameInstance(parsedDocuments.get(0)));
+    }
 
+    @Test
+    public void reusesACompiledXPathExpressionOnceItHasBeenGivenBack() throws Exception {
+        XPathExpressionPool pool = new XPathExpressionPool();
 
+        XPathExpression first = pool.borrow("/a/text()");
+        pool.giveBack("/a/text()", first);
+        XPathExpression second = pool.borrow("/a/text()");
+
+        assertThat(second, sameInstance(first));
+        assertThat(pool.borrow("/b/text()"), not(sameInstance(first)));
+    }
+
+    @Test
+    public void compilesAnotherCopyOfAnXPathExpressionWhileOneIsInUse() throws Exception {
+        XPathExpressionPool pool = new XPathExpressionPool();
+
+        XPathExpression first = pool.borrow("/a/text()");
+        XPathExpression second = pool.borrow("/a/text()");
+        pool.giveBack("/a/text()", first);
+        pool.giveBack("/a/text()", second);
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(pool.borrow("/a/text()"), sameInstance(first));
+        assertThat(pool.borrow("/a/text()"), sameInstance(second));
+    }
 }
@@ -17,11 +17,13 @@ package com.github.tomakehurst.wiremock.http;
 
 import com.fasterxml.jackson.databind.node.IntNode;
 import org.apache.commons.codec.binary.Base64;
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 
-
 import static com.github.tomakehurst.wiremock.common.Strings.stringFromBytes;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 public class BodyTest {
@@ -60,4 +62,33 @@ public class BodyTest {
         assertThat(body.isBinary(), is(true));
     }
 
+    @Test
+    public void equalBodiesHaveEqualHashCodes() {
+        Body one = new Body("same content".getBytes());
+        Body two = new Body("same content".getBytes());
+
+        assertThat(one.equals(two), is(true));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one.equals(new Body("other content".getBytes())), is(false));
+    }
+
+    @Test
+    public void jsonValueBodiesAreComparedByValueWithoutBeingSerialised() {
+        Body one = Body.ofJsonValue(ImmutableMap.of("key", "value"));
+        Body two = Body.ofJsonValue(ImmutableMap.of("key", "value"));
+
+        assertThat(one.equals(two), is(true));
+        assertThat(one.hashCode(), is(two.hashCode()));
+        assertThat(one.isStreamable(), is(true));
+    }
+
+    @Test
+    public void jsonValueBodyIsCompactUnlessPrettyPrinted() {
+        Body body = Body.ofJsonValue(ImmutableMap.of("key", "value"));
+
+        assertThat(body.asString(), not(containsString("\n")));
+        assertThat(body.prettyPrinted().asString(), containsString("\n"));
+        assertThat(body.prettyPrinted().equals(body), is(false));
+    }
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.Gzip;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.responseDefinition;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PrecompressedBodyCacheTest {
+
+    private static final String LARGE_BODY = Strings.repeat("compressible body text ", 100);
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private PrecompressedBodyCache cache;
+
+    @Before
+    public void init() {
+        cache = new PrecompressedBodyCache(PrecompressedBodyCache.DEFAULT_MIN_SIZE, PrecompressedBodyCache.DEFAULT_MAX_BYTES);
+    }
+
+    @Test
+    public void compressesStaticInlineBodyWhenPrepared() {
+        ResponseDefinition responseDefinition = responseDefinition().withBody(LARGE_BODY).build();
+        cache.prepare(responseDefinition);
+
+        byte[] gzipped = cache.gzippedBodyFor(responseDefinition.getByteBody());
+
+        assertThat(gzipped, notNullValue());
+        assertThat(Gzip.unGzipToString(gzipped), is(LARGE_BODY));
+    }
+
+    @Test
+    public void doesNotMatchEqualBodyWithDifferentIdentity() {
+        ResponseDefinition responseDefinition = responseDefinition().withBody(LARGE_BODY).build();
+        cache.prepare(responseDefinition);
+
+        assertThat(cache.gzippedBodyFor(LARGE_BODY.getBytes(UTF_8)), nullValue());
+    }
+
+    @Test
+    public void doesNotCompressBodiesBelowTheMinimumSize() {
+        ResponseDefinition responseDefinition = responseDefinition().withBody("small").build();
+        cache.prepare(responseDefinition);
+
+        assertThat(cache.gzippedBodyFor(responseDefinition.getByteBody()), nullValue());
+    }
+
+    @Test
+    public void doesNotCompressBodiesThatWillBeTransformed() {
+        ResponseDefinition responseDefinition = responseDefinition()
+            .withBody(LARGE_BODY)
+            .withTransformers("some-transformer")
+            .build();
+        cache.prepare(responseDefinition);
+
+        assertThat(cache.gzippedBodyFor(responseDefinition.getByteBody()), nullValue());
+    }
+
+    @Test
+    public void doesNothingWhenDisabled() {
+        cache = PrecompressedBodyCache.disabled();
+        ResponseDefinition responseDefinition = responseDefinition().withBody(LARGE_BODY).build();
+        cache.prepare(responseDefinition);
+
+        assertThat(cache.gzippedBodyFor(responseDefinition.getByteBody()), nullValue());
+    }
+
+    @Test
+    public void clearsAllEntries() {
+        ResponseDefinition responseDefinition = responseDefinition().withBody(LARGE_BODY).build();
+        cache.prepare(responseDefinition);
+        cache.clear();
+
+        assertThat(cache.gzippedBodyFor(responseDefinition.getByteBody()), nullValue());
+    }
+
+    @Test
+    public void compressesBodyFileOnFirstUseAndRereadsWhenChanged() throws Exception {
+        File file = tempDir.newFile("body.txt");
+        Files.write(LARGE_BODY, file, UTF_8);
+        BinaryFile bodyFile = new BinaryFile(file.toURI());
+
+        PrecompressedBodyCache.CachedBody first = cache.bodyFileFor(bodyFile);
+        assertThat(new String(first.getContent(), UTF_8), is(LARGE_BODY));
+        assertThat(Gzip.unGzipToString(first.getGzippedContent()), is(LARGE_BODY));
+        assertThat(cache.bodyFileFor(bodyFile) == first, is(true));
+
+        String changedBody = LARGE_BODY + "changed";
+        Files.write(changedBody, file, UTF_8);
+        file.setLastModified(file.lastModified() + 2000);
+
+        PrecompressedBodyCache.CachedBody second = cache.bodyFileFor(bodyFile);
+        assertThat(new String(second.getContent(), UTF_8), is(changedBody));
+        assertThat(Gzip.unGzipToString(second.getGzippedContent()), is(changedBody));
+    }
+
+    @Test
+    public void doesNotCacheBodyFilesWithoutAModificationTime() throws Exception {
+        File jar = tempDir.newFile("bodies.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("body.txt"));
+            out.write(LARGE_BODY.getBytes(UTF_8));
+            out.closeEntry();
+        }
+        BinaryFile bodyFile = new BinaryFile(URI.create("jar:" + jar.toURI() + "!/body.txt"));
+
+        PrecompressedBodyCache.CachedBody first = cache.bodyFileFor(bodyFile);
+
+        assertThat(new String(first.getContent(), UTF_8), is(LARGE_BODY));
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.bodyFileFor(bodyFile) == first, is(false));
+    }
+}
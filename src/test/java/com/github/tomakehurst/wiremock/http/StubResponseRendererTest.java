@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.http;
+
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.global.GlobalSettingsHolder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.testsupport.NoFileSource.noFileSource;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StubResponseRendererTest {
+
+    @Test
+    public void streamsRenderedBodiesWhenEnabled() throws IOException {
+        CountingBodyWriter bodyWriter = new CountingBodyWriter();
+        Response response = renderer(true).render(ResponseDefinition.ok().withResponseBody(Body.streamed(bodyWriter)));
+
+        assertThat(response.hasStreamingBody(), is(true));
+        assertThat(bodyWriter.writes.get(), is(0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getStreamingBody().writeTo(out);
+        assertThat(out.toString("UTF-8"), is("rendered"));
+        assertThat(bodyWriter.writes.get(), is(1));
+    }
+
+    @Test
+    public void rendersBodiesInFullWhenStreamingIsDisabled() {
+        CountingBodyWriter bodyWriter = new CountingBodyWriter();
+        Response response = renderer(false).render(ResponseDefinition.ok().withResponseBody(Body.streamed(bodyWriter)));
+
+        assertThat(response.hasStreamingBody(), is(false));
+        assertThat(response.getBodyAsString(), is("rendered"));
+        assertThat(bodyWriter.writes.get(), is(1));
+    }
+
+    private static StubResponseRenderer renderer(boolean streamRenderedBodies) {
+        return new StubResponseRenderer(
+            noFileSource(),
+            new GlobalSettingsHolder(),
+            null,
+            Collections.<ResponseTransformer>emptyList(),
+            PrecompressedBodyCache.disabled(),
+            streamRenderedBodies
+        );
+    }
+
+    private static class CountingBodyWriter implements BodyWriter {
+
+        final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            writes.incrementAndGet();
+            out.write("rendered".getBytes("UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.recording;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.InvalidRequestException;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.LoggedResponse;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.testsupport.WireMockTestClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.http.HttpHeader.httpHeader;
+import static com.github.tomakehurst.wiremock.http.Response.response;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RecorderTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private WireMockServer wireMockServer;
+    private Recorder recorder;
+
+    @Before
+    public void init() throws Exception {
+        tempDir.newFolder("mappings");
+        tempDir.newFolder("__files");
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort().withRootDirectory(tempDir.getRoot().getAbsolutePath()));
+        recorder = new Recorder(wireMockServer);
+    }
+
+    @Test
+    public void generatesStubsForLargeSnapshotsInTheOrderTheRequestsWereServed() {
+        List<ServeEvent> newestFirst = new ArrayList<>();
+        for (int i = 2999; i >= 0; i--) {
+            newestFirst.add(proxiedServeEvent("/things/" + i));
+        }
+
+        SnapshotRecordResult result = recorder.takeSnapshot(newestFirst, RecordSpec.DEFAULTS);
+
+        List<StubMapping> stubMappings = result.getStubMappings();
+        assertThat(stubMappings.size(), is(3000));
+        for (int i = 0; i < 3000; i++) {
+            assertThat(stubMappings.get(i).getRequest().getUrl(), is("/things/" + i));
+        }
+        assertThat(wireMockServer.listAllStubMappings().getMappings().size(), is(3000));
+    }
+
+    @Test
+    public void stopsRecordingAndFailsWhenTheJournalHasDroppedTheRequestRecordingStartedFrom() {
+        WireMockServer target = new WireMockServer(wireMockConfig().dynamicPort().withRootDirectory(tempDir.getRoot().getAbsolutePath()));
+        WireMockServer server = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .withRootDirectory(tempDir.getRoot().getAbsolutePath())
+            .maxRequestJournalEntries(2));
+        target.start();
+        server.start();
+        try {
+            WireMockTestClient testClient = new WireMockTestClient(server.port());
+            Recorder recorder = new Recorder(server);
+            testClient.get("/before");
+            recorder.startRecording(RecordSpec.forBaseUrl("http://localhost:" + target.port()));
+            testClient.get("/during/1");
+            testClient.get("/during/2");
+
+            try {
+                recorder.stopRecording();
+                fail("Expected recording to fail");
+            } catch (InvalidRequestException e) {
+                assertThat(e.getErrors().first().getTitle(), containsString("no stubs could be captured"));
+            }
+
+            assertThat(recorder.getStatus(), is(RecordingStatus.Stopped));
+            assertThat(server.listAllStubMappings().getMappings().size(), is(0));
+        } finally {
+            server.stop();
+            target.stop();
+        }
+    }
+
+    private static ServeEvent proxiedServeEvent(String url) {
+        return new ServeEvent(
+            UUID.randomUUID(),
+            mockRequest().url(url).asLoggedRequest(),
+            null,
+            new ResponseDefinitionBuilder().proxiedFrom("http://localhost").build(),
+            LoggedResponse.from(response().status(200).headers(new HttpHeaders(httpHeader("Content-Type", "text/plain"))).body("thing").build()),
+            true
+        );
+    }
+}
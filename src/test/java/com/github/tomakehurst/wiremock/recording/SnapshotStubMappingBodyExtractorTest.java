@@ -17,7 +17,10 @@ package com.github.tomakehurst.wiremock.recording;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JMock;
@@ -25,9 +28,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
 @RunWith(JMock.class)
@@ -95,6 +102,41 @@ public class SnapshotStubMappingBodyExtractorTest {
         bodyExtractor.extractInPlace(stubMapping);
     }
 
+    @Test
+    public void writesBodyFilesWithTheGivenExecutor() {
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        FileSource files = new SingleRootFileSource(Files.createTempDir());
+        SnapshotStubMappingBodyExtractor backgroundExtractor = new SnapshotStubMappingBodyExtractor(files, writer);
+        StubMapping stubMapping = WireMock.get("/background")
+            .willReturn(ok("written later"))
+            .build();
+
+        backgroundExtractor.extractInPlace(stubMapping);
+        backgroundExtractor.awaitWrites();
+        writer.shutdown();
+
+        String bodyFileName = stubMapping.getResponse().getBodyFileName();
+        assertThat(files.getTextFileNamed(bodyFileName).readContentsAsString(), is("written later"));
+    }
+
+    @Test
+    public void sharesOneContentAddressedFileBetweenIdenticalBodies() {
+        ExecutorService writer = MoreExecutors.newDirectExecutorService();
+        FileSource files = new SingleRootFileSource(Files.createTempDir());
+        SnapshotStubMappingBodyExtractor contentAddressedExtractor = new SnapshotStubMappingBodyExtractor(files, writer, true);
+        StubMapping first = WireMock.get("/first").willReturn(okJson("{\"same\":1}")).build();
+        StubMapping second = WireMock.get("/second").willReturn(okJson("{\"same\":1}")).build();
+
+        contentAddressedExtractor.extractInPlace(first);
+        contentAddressedExtractor.extractInPlace(second);
+        contentAddressedExtractor.awaitWrites();
+
+        String bodyFileName = first.getResponse().getBodyFileName();
+        assertThat(bodyFileName, startsWith("sha256/"));
+        assertThat(second.getResponse().getBodyFileName(), is(bodyFileName));
+        assertThat(files.getTextFileNamed(bodyFileName).readContentsAsString(), is("{\"same\":1}"));
+    }
+
     private void setFileExpectations(final String filename, final String body) {
         context.checking(new Expectations() {{
             one(filesSource).writeBinaryFile(
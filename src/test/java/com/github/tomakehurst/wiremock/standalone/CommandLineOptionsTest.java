@@ -22,15 +22,19 @@ import com.github.tomakehurst.wiremock.extension.Parameters;
 import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
 import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
 import com.github.tomakehurst.wiremock.http.CaseInsensitiveKey;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.http.trafficlistener.ConsoleNotifyingWiremockNetworkTrafficListener;
 import com.github.tomakehurst.wiremock.matching.MatchResult;
 import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.security.Authenticator;
+import com.github.tomakehurst.wiremock.verification.FileRequestJournalSettings;
+import com.github.tomakehurst.wiremock.verification.JournalingPolicy;
 import com.google.common.base.Optional;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Map;
 
 import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
@@ -126,6 +130,11 @@ public class CommandLineOptionsTest {
         new CommandLineOptions("--https-keystore", "/my/keystore");
     }
 
+    @Test(expected=IllegalArgumentException.class)
+    public void throwsExceptionIfMappingsAreWatchedWhileLoadingAMappingsBundle() {
+        new CommandLineOptions("--watch-mappings", "--mappings-bundle", "/my/mappings.bundle");
+    }
+
 	@Test(expected=Exception.class)
 	public void throwsExceptionWhenPortNumberSpecifiedWithoutNumber() {
 		new CommandLineOptions("--port");
@@ -205,6 +214,34 @@ public class CommandLineOptionsTest {
         assertThat(optionsNoMax.maxRequestJournalEntries().isPresent(), is(false));
     }
 
+    @Test
+    public void returnsTheRequestJournalingPolicy() {
+        CommandLineOptions options = new CommandLineOptions(
+            "--request-journal-sample-rate", "100",
+            "--request-journal-max-per-second", "500"
+        );
+        assertThat(options.requestJournalingPolicy(), is(new JournalingPolicy(100, false, 500)));
+        assertThat(new CommandLineOptions("--request-journal-unmatched-only").requestJournalingPolicy().isUnmatchedOnly(), is(true));
+        assertThat(new CommandLineOptions().requestJournalingPolicy(), is(JournalingPolicy.RECORD_ALL));
+    }
+
+    @Test
+    public void returnsRequestJournalFileSettingsWhenADirectoryIsSpecified() {
+        CommandLineOptions options = new CommandLineOptions(
+            "--request-journal-directory", "/tmp/journal",
+            "--request-journal-segment-size", "1024",
+            "--request-journal-max-bytes", "4096",
+            "--request-journal-max-age", "60"
+        );
+        FileRequestJournalSettings settings = options.requestJournalFileSettings().get();
+        assertThat(settings.getDirectory().getPath(), is("/tmp/journal"));
+        assertThat(settings.getSegmentSize(), is(1024L));
+        assertThat(settings.getMaxBytes(), is(4096L));
+        assertThat(settings.getMaxAgeMillis(), is(Optional.of(60000L)));
+
+        assertThat(new CommandLineOptions().requestJournalFileSettings().isPresent(), is(false));
+    }
+
     @Test
     public void returnPreserveHostHeaderTrueWhenPresent() {
         CommandLineOptions options = new CommandLineOptions("--preserve-host-header");
@@ -277,9 +314,26 @@ public class CommandLineOptionsTest {
         assertThat(options.jettySettings().getStopTimeout().isPresent(), is(false));
     }
 
-    @Test(expected=IllegalArgumentException.class)
-    public void preventsRecordingWhenRequestJournalDisabled() {
-        new CommandLineOptions("--no-request-journal", "--record-mappings");
+    @Test
+    public void loadsStubsFromAMappingsBundleWhenSpecified() {
+        CommandLineOptions options = new CommandLineOptions("--mappings-bundle", "stubs.bundle");
+        assertThat(options.mappingsLoader(), instanceOf(MappingsBundle.class));
+        assertThat(options.mappingsSaver(), instanceOf(JsonFileMappingsSource.class));
+        assertThat(options.mappingsBundleToCompile().isPresent(), is(false));
+    }
+
+    @Test
+    public void returnsTheMappingsBundleToCompile() {
+        CommandLineOptions options = new CommandLineOptions("--compile-mappings-bundle", "out/stubs.bundle");
+        assertThat(options.mappingsBundleToCompile().get(), is(new File("out/stubs.bundle")));
+        assertThat(options.mappingsLoader(), instanceOf(JsonFileMappingsSource.class));
+    }
+
+    @Test
+    public void allowsRecordingWhenRequestJournalDisabled() {
+        CommandLineOptions options = new CommandLineOptions("--no-request-journal", "--record-mappings");
+        assertThat(options.recordMappingsEnabled(), is(true));
+        assertThat(options.requestJournalDisabled(), is(true));
     }
 
     @Test
@@ -355,6 +409,50 @@ public class CommandLineOptionsTest {
         assertThat(options.getHttpsRequiredForAdminApi(), is(false));
     }
 
+    @Test
+    public void setsTheStubMatchCacheSize() {
+        CommandLineOptions options = new CommandLineOptions("--stub-match-cache-size", "500");
+        assertThat(options.stubMatchCacheSize(), is(500));
+    }
+
+    @Test
+    public void defaultsToNoStubMatchCache() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.stubMatchCacheSize(), is(0));
+    }
+
+    @Test
+    public void setsThePrecompressedBodyOptions() {
+        CommandLineOptions options = new CommandLineOptions("--precompressed-body-min-size", "1024", "--precompressed-body-cache-bytes", "0");
+        assertThat(options.precompressedBodyMinSize(), is(1024));
+        assertThat(options.precompressedBodyCacheBytes(), is(0L));
+    }
+
+    @Test
+    public void setsTheMappingsWriteBehindQueueSize() {
+        CommandLineOptions options = new CommandLineOptions("--mappings-write-behind-queue-size", "1000");
+        assertThat(options.mappingsWriteBehindQueueSize(), is(1000));
+    }
+
+    @Test
+    public void defaultsToWritingMappingsSynchronously() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.mappingsWriteBehindQueueSize(), is(0));
+    }
+
+    @Test
+    public void enablesMappingsWatching() {
+        assertThat(new CommandLineOptions("--watch-mappings").mappingsWatchEnabled(), is(true));
+        assertThat(new CommandLineOptions().mappingsWatchEnabled(), is(false));
+    }
+
+    @Test
+    public void defaultsToPrecompressingBodies() {
+        CommandLineOptions options = new CommandLineOptions();
+        assertThat(options.precompressedBodyMinSize(), is(PrecompressedBodyCache.DEFAULT_MIN_SIZE));
+        assertThat(options.precompressedBodyCacheBytes(), is(PrecompressedBodyCache.DEFAULT_MAX_BYTES));
+    }
+
     public static class ResponseDefinitionTransformerExt1 extends ResponseDefinitionTransformer {
         @Override
         public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) { return null; }
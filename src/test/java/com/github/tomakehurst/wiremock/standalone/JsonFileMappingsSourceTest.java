@@ -15,16 +15,46 @@
  */
 package com.github.tomakehurst.wiremock.standalone;
 
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.common.ClasspathFileSource;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.common.TextFile;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static java.util.Collections.singletonList;
 
 public class JsonFileMappingsSourceTest {
 
+	@Rule
+	public TemporaryFolder tempDir = new TemporaryFolder();
+
 	@Test
 	public void loadsMappingsViaClasspathFileSource() {
 		ClasspathFileSource fileSource = new ClasspathFileSource("jar-filesource");
@@ -35,4 +65,299 @@ public class JsonFileMappingsSourceTest {
 
 		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/test"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void loadsAddedAndModifiedMappingFilesIndividually() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+		UUID id = UUID.randomUUID();
+
+		TextFile mappingFile = writeMappingFile("mapping.json", get(urlEqualTo("/original")).withId(id).willReturn(aResponse()));
+		source.loadMappingFileInto(mappingFile, stubMappings);
+
+		assertThat(stubMappings.get(id).get().getRequest().getUrl(), is("/original"));
+
+		writeMappingFile("mapping.json", get(urlEqualTo("/modified")).withId(id).willReturn(aResponse()));
+		source.loadMappingFileInto(mappingFile, stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.get(id).get().getRequest().getUrl(), is("/modified"));
+		assertThat(stubMappings.get(id).get().isDirty(), is(false));
+	}
+
+	@Test
+	public void replacesStubWhenIdInMappingFileChanges() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		TextFile mappingFile = writeMappingFile("mapping.json", get(urlEqualTo("/first")).willReturn(aResponse()));
+		source.loadMappingFileInto(mappingFile, stubMappings);
+		writeMappingFile("mapping.json", get(urlEqualTo("/second")).willReturn(aResponse()));
+		source.loadMappingFileInto(mappingFile, stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/second"));
+	}
+
+	@Test
+	public void unloadsStubForDeletedMappingFile() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		writeMappingFile("one.json", get(urlEqualTo("/one")).willReturn(aResponse()));
+		TextFile two = writeMappingFile("two.json", get(urlEqualTo("/two")).willReturn(aResponse()));
+		source.loadMappingsInto(stubMappings);
+
+		new File(two.getUri()).delete();
+		source.unloadMappingFileFrom(two, stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/one"));
+	}
+
+	@Test
+	public void unloadsStubsForEveryMappingFileUnderADeletedDirectory() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		writeMappingFile("gone/one.json", get(urlEqualTo("/gone/one")).willReturn(aResponse()));
+		writeMappingFile("gone/nested/two.json", get(urlEqualTo("/gone/two")).willReturn(aResponse()));
+		writeMappingFile("gone-not/three.json", get(urlEqualTo("/three")).willReturn(aResponse()));
+		source.loadMappingsInto(stubMappings);
+
+		source.unloadMappingFilesUnder(new File(tempDir.getRoot(), "gone").toURI(), stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/three"));
+	}
+
+	@Test
+	public void unloadsStubsWhoseFilesAreMissingFromARescan() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		TextFile one = writeMappingFile("one.json", get(urlEqualTo("/one")).willReturn(aResponse()));
+		writeMappingFile("sub/two.json", get(urlEqualTo("/two")).willReturn(aResponse()));
+		source.loadMappingsInto(stubMappings);
+
+		source.unloadMappingFilesOtherThan(singletonList(one), stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/one"));
+	}
+
+	@Test
+	public void changesVersionWhenMappingFilesAreAddedOrWrittenThroughIt() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		writeMappingFile("one.json", get(urlEqualTo("/one")).willReturn(aResponse()));
+		tempDir.getRoot().setLastModified(System.currentTimeMillis() - 10000);
+		source.loadMappingsInto(new InMemoryStubMappings());
+
+		long loadedVersion = source.getVersion();
+		assertThat(source.getVersion(), is(loadedVersion));
+
+		writeMappingFile("two.json", get(urlEqualTo("/two")).willReturn(aResponse()));
+		long addedVersion = source.getVersion();
+		assertThat(addedVersion, not(loadedVersion));
+		assertThat(source.getVersion(), is(addedVersion));
+
+		source.save(get(urlEqualTo("/three")).willReturn(aResponse()).build());
+		assertThat(source.getVersion(), not(addedVersion));
+	}
+
+	@Test
+	public void tellsApartMappingFilesWithTheSameNameInDifferentDirectories() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		TextFile a = writeMappingFile("a/stub.json", get(urlEqualTo("/a")).willReturn(aResponse()));
+		writeMappingFile("b/stub.json", get(urlEqualTo("/b")).willReturn(aResponse()));
+		source.loadMappingsInto(stubMappings);
+
+		writeMappingFile("a/stub.json", get(urlEqualTo("/a-modified")).willReturn(aResponse()));
+		source.loadMappingFileInto(a, stubMappings);
+		assertThat(stubMappings.getAll(), hasSize(2));
+		responseFor(stubMappings, "/a-modified");
+		responseFor(stubMappings, "/b");
+
+		File aFile = new File(a.getUri());
+		aFile.delete();
+		source.unloadMappingFileFrom(new TextFile(aFile.toPath().toUri()), stubMappings);
+		assertThat(stubMappings.getAll(), hasSize(1));
+		responseFor(stubMappings, "/b");
+	}
+
+	@Test
+	public void reusesParsedMappingFilesThatAreUnchangedOnDisk() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		File file = new File(writeMappingFile("mapping.json", get(urlEqualTo("/aaaa")).willReturn(aResponse())).getUri());
+		long lastModified = System.currentTimeMillis() - 60000;
+		file.setLastModified(lastModified);
+		source.loadMappingsInto(new InMemoryStubMappings());
+
+		writeMappingFile("mapping.json", get(urlEqualTo("/bbbb")).willReturn(aResponse()));
+		file.setLastModified(lastModified);
+		StubMappings stubMappings = new InMemoryStubMappings();
+		source.loadMappingsInto(stubMappings);
+
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/aaaa"));
+	}
+
+	@Test
+	public void rereadsRecentlyModifiedFilesEvenWhenTheirTimestampAndLengthAreUnchanged() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		File file = new File(writeMappingFile("mapping.json", get(urlEqualTo("/aaaa")).willReturn(aResponse())).getUri());
+		long lastModified = file.lastModified();
+		source.loadMappingsInto(new InMemoryStubMappings());
+
+		writeMappingFile("mapping.json", get(urlEqualTo("/bbbb")).willReturn(aResponse()));
+		file.setLastModified(lastModified);
+		StubMappings stubMappings = new InMemoryStubMappings();
+		source.loadMappingsInto(stubMappings);
+
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/bbbb"));
+	}
+
+	@Test
+	public void buildsNewStubsOnEachLoad() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		File file = new File(writeMappingFile("mapping.json", get(urlEqualTo("/unchanged")).willReturn(aResponse())).getUri());
+		file.setLastModified(System.currentTimeMillis() - 60000);
+
+		StubMappings first = new InMemoryStubMappings();
+		source.loadMappingsInto(first);
+		first.getAll().get(0).setPriority(1);
+		StubMappings second = new InMemoryStubMappings();
+		source.loadMappingsInto(second);
+
+		assertThat(second.getAll().get(0), not(sameInstance(first.getAll().get(0))));
+		assertThat(second.getAll().get(0).getPriority(), nullValue());
+	}
+
+	@Test
+	public void reparsesMappingsWhenAFileChanges() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		writeMappingFile("mapping.json", get(urlEqualTo("/original")).willReturn(aResponse()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+		source.loadMappingsInto(stubMappings);
+
+		TextFile changed = writeMappingFile("mapping.json", get(urlEqualTo("/changed-url")).willReturn(aResponse()));
+		File changedFile = new File(changed.getUri());
+		changedFile.setLastModified(changedFile.lastModified() + 2000);
+
+		stubMappings.reset();
+		source.loadMappingsInto(stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(1));
+		assertThat(stubMappings.getAll().get(0).getRequest().getUrl(), is("/changed-url"));
+	}
+
+	@Test
+	public void reparsesMappingsWhenAFileIsAdded() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		writeMappingFile("one.json", get(urlEqualTo("/one")).willReturn(aResponse()));
+		StubMappings stubMappings = new InMemoryStubMappings();
+		source.loadMappingsInto(stubMappings);
+
+		writeMappingFile("two.json", get(urlEqualTo("/two")).willReturn(aResponse()));
+		stubMappings.reset();
+		source.loadMappingsInto(stubMappings);
+
+		assertThat(stubMappings.getAll(), hasSize(2));
+	}
+
+	@Test
+	public void readsLargeInlineBodiesFromTheMappingFileWhenServed() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()), 100);
+		String largeText = Strings.repeat("Large \"quoted\" text \u00e9\n", 20);
+		byte[] largeBinary = new byte[500];
+		largeBinary[499] = 7;
+		writeMappingFile("text.json", get(urlEqualTo("/text")).willReturn(aResponse().withBody(largeText)));
+		writeMappingFile("binary.json", get(urlEqualTo("/binary")).willReturn(aResponse().withBody(largeBinary)));
+		writeMappingFile("small.json", get(urlEqualTo("/small")).willReturn(aResponse().withBody("Small")));
+		Files.write(
+			"{ \"request\": { \"url\": \"/json\" }, \"response\": { \"jsonBody\": { \"items\": [" + Strings.repeat("\"item\", ", 30) + "\"last\"] } } }",
+			new File(tempDir.getRoot(), "json.json"),
+			UTF_8
+		);
+		StubMappings stubMappings = new InMemoryStubMappings();
+
+		source.loadMappingsInto(stubMappings);
+
+		ResponseDefinition text = responseFor(stubMappings, "/text");
+		assertThat(text.getResponseBody().isLoadedOnDemand(), is(true));
+		assertThat(text.getBody(), is(largeText));
+		ResponseDefinition binary = responseFor(stubMappings, "/binary");
+		assertThat(binary.getResponseBody().isLoadedOnDemand(), is(true));
+		assertThat(binary.getByteBody(), is(largeBinary));
+		ResponseDefinition json = responseFor(stubMappings, "/json");
+		assertThat(json.getResponseBody().isLoadedOnDemand(), is(true));
+		assertThat(json.getBody(), is("{\"items\":[" + Strings.repeat("\"item\",", 30) + "\"last\"]}"));
+		ResponseDefinition small = responseFor(stubMappings, "/small");
+		assertThat(small.getResponseBody().isLoadedOnDemand(), is(false));
+	}
+
+	@Test
+	public void refusesToReadBodiesLoadedOnDemandOnceTheirFileHasChanged() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()), 10);
+		writeMappingFile("mapping.json", get(urlEqualTo("/changing")).willReturn(aResponse().withBody("The original body")));
+		StubMappings stubMappings = new InMemoryStubMappings();
+		source.loadMappingsInto(stubMappings);
+
+		TextFile changed = writeMappingFile("mapping.json", get(urlEqualTo("/changing")).willReturn(aResponse().withBody("A different, longer body")));
+		File changedFile = new File(changed.getUri());
+		changedFile.setLastModified(changedFile.lastModified() + 2000);
+
+		try {
+			responseFor(stubMappings, "/changing").getBody();
+			fail("Expected the changed mapping file to be reported");
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("has changed since its stub was loaded"));
+		}
+	}
+
+	private static ResponseDefinition responseFor(StubMappings stubMappings, String url) {
+		for (StubMapping mapping: stubMappings.getAll()) {
+			if (url.equals(mapping.getRequest().getUrl())) {
+				return mapping.getResponse();
+			}
+		}
+
+		throw new AssertionError("No stub for " + url);
+	}
+
+	@Test
+	public void loadsALargeDirectoryOfMappingsInOneBatch() throws Exception {
+		JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+		for (int i = 0; i < 2000; i++) {
+			writeMappingFile("dir-" + (i % 10) + "/mapping-" + i + ".json", get(urlEqualTo("/things/" + i)).willReturn(aResponse().withBody("thing " + i)));
+		}
+
+		final List<Integer> batchSizes = new ArrayList<>();
+		StubMappings stubMappings = new InMemoryStubMappings() {
+			@Override
+			public void addMapping(StubMapping mapping) {
+				batchSizes.add(1);
+				super.addMapping(mapping);
+			}
+
+			@Override
+			public void addMappings(List<StubMapping> mappings) {
+				batchSizes.add(mappings.size());
+				super.addMappings(mappings);
+			}
+		};
+		source.loadMappingsInto(stubMappings);
+
+		assertThat(batchSizes, contains(2000));
+		assertThat(stubMappings.getAll(), hasSize(2000));
+		assertThat(responseFor(stubMappings, "/things/1234").getBody(), is("thing 1234"));
+	}
+
+	private TextFile writeMappingFile(String name, MappingBuilder mappingBuilder) throws Exception {
+		File file = new File(tempDir.getRoot(), name);
+		file.getParentFile().mkdirs();
+		Files.write(Json.write(mappingBuilder.build()), file, UTF_8);
+		return new TextFile(file.toURI());
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.standalone;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.io.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MappingsBundleTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File mappingsDir;
+    private File bundleFile;
+
+    @Before
+    public void init() throws Exception {
+        mappingsDir = tempDir.newFolder("mappings");
+        bundleFile = new File(tempDir.getRoot(), "mappings.bundle");
+    }
+
+    @Test
+    public void loadsTheSameStubsAsTheMappingsDirectory() throws Exception {
+        UUID id = UUID.randomUUID();
+        writeMappingFile("one.json", get(urlEqualTo("/one")).withId(id).atPriority(3).willReturn(aResponse().withStatus(201).withBody("One")));
+        writeMappingFile("two.json", get(urlEqualTo("/two")).willReturn(aResponse().withHeader("X-Two", "2")));
+
+        int count = MappingsBundle.compile(new SingleRootFileSource(mappingsDir), bundleFile);
+
+        InMemoryStubMappings fromDirectory = new InMemoryStubMappings();
+        new JsonFileMappingsSource(new SingleRootFileSource(mappingsDir)).loadMappingsInto(fromDirectory);
+        InMemoryStubMappings fromBundle = new InMemoryStubMappings();
+        new MappingsBundle(bundleFile).loadMappingsInto(fromBundle);
+
+        assertThat(count, is(2));
+        assertThat(urlsOf(fromBundle.getAll()), is(urlsOf(fromDirectory.getAll())));
+        StubMapping one = fromBundle.get(id).get();
+        assertThat(one.getPriority(), is(3));
+        assertThat(one.getResponse().getBody(), is("One"));
+        assertThat(one.isDirty(), is(false));
+    }
+
+    @Test
+    public void preservesEveryPartOfEachStub() throws Exception {
+        writeMappingFile("json.json", post(urlPathEqualTo("/json"))
+            .withHeader("Content-Type", containing("json"))
+            .withQueryParam("version", matching("v[0-9]+"))
+            .withRequestBody(equalToJson("{\"id\": 1}", true, false))
+            .inScenario("Things").whenScenarioStateIs("Started").willSetStateTo("Created")
+            .willReturn(aResponse().withStatus(201).withBody("{\"created\": true}").withFixedDelay(10)));
+        writeMappingFile("binary.json", get(urlEqualTo("/binary"))
+            .willReturn(aResponse().withBody(new byte[] { 1, 2, 3, (byte) 0xff }).withTransformers("one", "two")));
+
+        MappingsBundle.compile(new SingleRootFileSource(mappingsDir), bundleFile);
+        InMemoryStubMappings fromDirectory = new InMemoryStubMappings();
+        new JsonFileMappingsSource(new SingleRootFileSource(mappingsDir)).loadMappingsInto(fromDirectory);
+        InMemoryStubMappings fromBundle = new InMemoryStubMappings();
+        new MappingsBundle(bundleFile).loadMappingsInto(fromBundle);
+
+        assertThat(Json.write(fromBundle.getAll()), is(Json.write(fromDirectory.getAll())));
+    }
+
+    @Test
+    public void decodesLargeBundlesInTheOriginalOrder() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            writeMappingFile(String.format("stub-%05d.json", i), get(urlEqualTo("/" + i)).willReturn(aResponse()));
+        }
+
+        MappingsBundle.compile(new SingleRootFileSource(mappingsDir), bundleFile);
+        InMemoryStubMappings fromDirectory = new InMemoryStubMappings();
+        new JsonFileMappingsSource(new SingleRootFileSource(mappingsDir)).loadMappingsInto(fromDirectory);
+        InMemoryStubMappings fromBundle = new InMemoryStubMappings();
+        new MappingsBundle(bundleFile).loadMappingsInto(fromBundle);
+
+        assertThat(fromBundle.getAll().size(), is(5000));
+        assertThat(urlsOf(fromBundle.getAll()), is(urlsOf(fromDirectory.getAll())));
+    }
+
+    @Test
+    public void associatesLoadedStubsWithTheFilesTheyWereCompiledFrom() throws Exception {
+        UUID id = UUID.randomUUID();
+        writeMappingFile("removable.json", get(urlEqualTo("/removable")).withId(id).willReturn(aResponse()));
+        MappingsBundle.compile(new SingleRootFileSource(mappingsDir), bundleFile);
+
+        JsonFileMappingsSource mappingsSource = new JsonFileMappingsSource(new SingleRootFileSource(mappingsDir));
+        InMemoryStubMappings stubMappings = new InMemoryStubMappings();
+        new MappingsBundle(bundleFile, mappingsSource).loadMappingsInto(stubMappings);
+        mappingsSource.remove(stubMappings.get(id).get());
+
+        assertThat(new File(mappingsDir, "removable.json").exists(), is(false));
+    }
+
+    @Test
+    public void decodesNewStubsOnEachLoad() throws Exception {
+        UUID id = UUID.randomUUID();
+        writeMappingFile("one.json", get(urlEqualTo("/one")).withId(id).willReturn(aResponse()));
+        MappingsBundle.compile(new SingleRootFileSource(mappingsDir), bundleFile);
+        MappingsBundle mappingsBundle = new MappingsBundle(bundleFile);
+
+        InMemoryStubMappings first = new InMemoryStubMappings();
+        mappingsBundle.loadMappingsInto(first);
+        first.get(id).get().setPriority(9);
+        InMemoryStubMappings second = new InMemoryStubMappings();
+        mappingsBundle.loadMappingsInto(second);
+
+        assertThat(second.get(id).get(), not(sameInstance(first.get(id).get())));
+        assertThat(second.get(id).get().getPriority(), is(nullValue()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsFilesThatAreNotBundles() throws Exception {
+        Files.write("{}", bundleFile, UTF_8);
+        new MappingsBundle(bundleFile).loadMappingsInto(new InMemoryStubMappings());
+    }
+
+    private void writeMappingFile(String name, MappingBuilder mappingBuilder) throws Exception {
+        Files.write(Json.write(mappingBuilder.build()), new File(mappingsDir, name), UTF_8);
+    }
+
+    private static String urlsOf(List<StubMapping> mappings) {
+        StringBuilder urls = new StringBuilder();
+        for (StubMapping mapping: mappings) {
+            urls.append(mapping.getRequest().getUrl()).append(' ');
+        }
+        return urls.toString();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.standalone;
+
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.stubbing.InMemoryStubMappings;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.github.tomakehurst.wiremock.stubbing.StubMappings;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class MappingsDirectoryWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 15000;
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private StubMappings stubMappings;
+    private MappingsDirectoryWatcher watcher;
+
+    @Before
+    public void init() {
+        JsonFileMappingsSource source = new JsonFileMappingsSource(new SingleRootFileSource(tempDir.getRoot()));
+        stubMappings = new InMemoryStubMappings();
+        source.loadMappingsInto(stubMappings);
+        watcher = new MappingsDirectoryWatcher(source, stubMappings, 50);
+        watcher.start();
+    }
+
+    @After
+    public void cleanup() {
+        watcher.stop();
+    }
+
+    @Test
+    public void appliesAddedModifiedAndDeletedMappingFiles() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        writeMappingFile("watched.json", get(urlEqualTo("/added")).withId(id).willReturn(aResponse()));
+        waitForUrl(id, "/added");
+
+        writeMappingFile("watched.json", get(urlEqualTo("/modified")).withId(id).willReturn(aResponse()));
+        waitForUrl(id, "/modified");
+
+        new File(tempDir.getRoot(), "watched.json").delete();
+        waitForStubCount(0);
+    }
+
+    @Test
+    public void appliesMappingFilesInNewSubdirectories() throws Exception {
+        UUID id = UUID.randomUUID();
+        File subdirectory = tempDir.newFolder("subdirectory");
+        Thread.sleep(200);
+
+        writeMappingFile("subdirectory/nested.json", get(urlEqualTo("/nested")).withId(id).willReturn(aResponse()));
+        waitForUrl(id, "/nested");
+
+        assertThat(subdirectory.isDirectory(), is(true));
+    }
+
+    @Test
+    public void unloadsMappingFilesUnderADeletedDirectory() throws Exception {
+        UUID id = UUID.randomUUID();
+        tempDir.newFolder("doomed", "nested");
+        Thread.sleep(200);
+
+        writeMappingFile("doomed/nested/stub.json", get(urlEqualTo("/doomed")).withId(id).willReturn(aResponse()));
+        waitForUrl(id, "/doomed");
+
+        FileUtils.deleteDirectory(new File(tempDir.getRoot(), "doomed"));
+        waitForStubCount(0);
+    }
+
+    private void writeMappingFile(String name, MappingBuilder mappingBuilder) throws Exception {
+        Files.write(Json.write(mappingBuilder.build()), new File(tempDir.getRoot(), name), UTF_8);
+    }
+
+    private void waitForUrl(UUID id, String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            StubMapping mapping = stubMappings.get(id).orNull();
+            if (mapping != null && url.equals(mapping.getRequest().getUrl())) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+
+        throw new AssertionError("Timed out waiting for stub " + id + " to match " + url);
+    }
+
+    private void waitForStubCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (stubMappings.getAll().size() == count) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+
+        assertThat(stubMappings.getAll().size(), is(count));
+    }
+}
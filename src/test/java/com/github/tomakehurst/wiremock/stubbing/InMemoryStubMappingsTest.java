@@ -15,17 +15,34 @@
  */
 package com.github.tomakehurst.wiremock.stubbing;
 
+import com.github.tomakehurst.wiremock.common.SingleRootFileSource;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.PrecompressedBodyCache;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.RequestMatcherExtension;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.github.tomakehurst.wiremock.matching.MockRequest.mockRequest;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
+import static com.github.tomakehurst.wiremock.stubbing.StubMappingQuery.allStubs;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
@@ -57,6 +74,22 @@ public class InMemoryStubMappingsTest {
 		assertThat(allMappings.get(0), is(newMapping));
 		assertThat(newMapping.getInsertionIndex(), is(existingMapping.getInsertionIndex()));
 	}
+
+	@Test
+	public void addingAMappingWithTheIdOfAnExistingOneReplacesIt() {
+		StubMapping existingMapping = aMapping(1, "/existing");
+		inMemoryStubMappings.addMapping(existingMapping);
+
+		StubMapping newMapping = aMapping(1, "/new");
+		newMapping.setUuid(existingMapping.getUuid());
+		inMemoryStubMappings.addMapping(newMapping);
+
+		assertThat(inMemoryStubMappings.getAll(), contains(newMapping));
+		assertThat(inMemoryStubMappings.get(existingMapping.getUuid()).get(), is(newMapping));
+		assertThat(inMemoryStubMappings.serveFor(mockRequest().url("/existing")).isNoExactMatch(), is(true));
+		assertThat(inMemoryStubMappings.serveFor(mockRequest().url("/new")).getStubMapping(), is(newMapping));
+	}
+
 	@Test
 	public void testRemoveMapping() throws Exception{
 
@@ -94,6 +127,200 @@ public class InMemoryStubMappingsTest {
 		}
 	}
 
+	@Test
+	public void servesRepeatedIdenticalRequestsFromTheMatchCache() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		cachingStubMappings.addMapping(aMapping(1, "/cached", 201));
+
+		cachingStubMappings.serveFor(mockRequest().method(GET).url("/cached"));
+		ServeEvent serveEvent = cachingStubMappings.serveFor(mockRequest().method(GET).url("/cached"));
+
+		assertThat(serveEvent.getResponseDefinition().getStatus(), is(201));
+		StubMatchCacheStats stats = cachingStubMappings.getMatchCacheStats();
+		assertThat(stats.getHits(), is(1L));
+		assertThat(stats.getMisses(), is(1L));
+		assertThat(stats.getSize(), is(1));
+	}
+
+	@Test
+	public void invalidatesTheMatchCacheWhenMappingsChange() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		cachingStubMappings.addMapping(aMapping(1, "/changing", 201));
+		cachingStubMappings.serveFor(mockRequest().method(GET).url("/changing"));
+
+		cachingStubMappings.addMapping(aMapping(1, "/changing", 202));
+		ServeEvent serveEvent = cachingStubMappings.serveFor(mockRequest().method(GET).url("/changing"));
+
+		assertThat(serveEvent.getResponseDefinition().getStatus(), is(202));
+		assertThat(cachingStubMappings.getMatchCacheStats().getHits(), is(0L));
+	}
+
+	@Test
+	public void includesHeadersReferencedByStubsInTheMatchCacheKey() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		StubMapping mapping = new StubMapping(
+			newRequestPattern(GET, urlEqualTo("/header")).withHeader("X-Version", equalTo("1")).build(),
+			ResponseDefinition.ok()
+		);
+		cachingStubMappings.addMapping(mapping);
+
+		ServeEvent first = cachingStubMappings.serveFor(mockRequest().method(GET).url("/header").header("X-Version", "1"));
+		ServeEvent second = cachingStubMappings.serveFor(mockRequest().method(GET).url("/header").header("X-Version", "2"));
+
+		assertThat(first.getResponseDefinition().getStatus(), is(200));
+		assertThat(second.getResponseDefinition().wasConfigured(), is(false));
+	}
+
+	@Test
+	public void keepsCachingRepeatedRequestsWhenOneOffRequestsFillTheMatchCache() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		cachingStubMappings.addMapping(aMapping(1, "/hot", 200));
+		cachingStubMappings.addMapping(new StubMapping(
+			newRequestPattern(GET, urlPathEqualTo("/busted")).build(),
+			ResponseDefinition.ok()
+		));
+
+		for (int i = 0; i < 500; i++) {
+			cachingStubMappings.serveFor(mockRequest().method(GET).url("/busted?cb=" + i));
+		}
+		for (int i = 0; i < 10; i++) {
+			cachingStubMappings.serveFor(mockRequest().method(GET).url("/hot"));
+		}
+
+		StubMatchCacheStats stats = cachingStubMappings.getMatchCacheStats();
+		assertThat(stats.getHits(), is(9L));
+		assertThat(stats.getSize() <= 100, is(true));
+	}
+
+	@Test
+	public void doesNotCacheRequestsWithABody() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		cachingStubMappings.addMapping(aMapping(1, "/body", 200));
+
+		cachingStubMappings.serveFor(mockRequest().url("/body").body("content"));
+		cachingStubMappings.serveFor(mockRequest().url("/body").body("content"));
+
+		StubMatchCacheStats stats = cachingStubMappings.getMatchCacheStats();
+		assertThat(stats.getUncacheable(), is(2L));
+		assertThat(stats.getSize(), is(0));
+	}
+
+	@Test
+	public void doesNotCacheMatchesDecidedByScenarioState() {
+		InMemoryStubMappings cachingStubMappings = cachingStubMappings();
+		StubMapping mapping = aMapping(1, "/scenario", 200);
+		mapping.setScenarioName("CacheScenario");
+		mapping.setRequiredScenarioState(Scenario.STARTED);
+		cachingStubMappings.addMapping(mapping);
+
+		cachingStubMappings.serveFor(mockRequest().method(GET).url("/scenario"));
+
+		assertThat(cachingStubMappings.getMatchCacheStats().getSize(), is(0));
+	}
+
+	@Test
+	public void replacesAllMappingsAndRebuildsScenarios() {
+		inMemoryStubMappings.addMapping(aMapping(1, "/old"));
+		StubMapping oldScenarioMapping = aMapping(1, "/old-scenario");
+		oldScenarioMapping.setScenarioName("OldScenario");
+		inMemoryStubMappings.addMapping(oldScenarioMapping);
+
+		StubMapping newScenarioMapping = aMapping(1, "/new-scenario");
+		newScenarioMapping.setScenarioName("NewScenario");
+		newScenarioMapping.setNewScenarioState("Next");
+		inMemoryStubMappings.replaceAll(asList(aMapping(1, "/new"), newScenarioMapping));
+
+		List<StubMapping> allMappings = inMemoryStubMappings.getAll();
+		assertThat(allMappings, hasSize(2));
+		assertThat(allMappings.get(0).getRequest().getUrl(), is("/new-scenario"));
+		assertThat(allMappings.get(1).getRequest().getUrl(), is("/new"));
+
+		List<Scenario> scenarios = inMemoryStubMappings.getAllScenarios();
+		assertThat(scenarios, hasSize(1));
+		assertThat(scenarios.get(0).getName(), is("NewScenario"));
+		assertThat(scenarios.get(0).getState(), is(Scenario.STARTED));
+		assertThat(scenarios.get(0).getPossibleStates(), hasItem("Next"));
+	}
+
+	@Test
+	public void searchesByUrlMethodScenarioAndStatus() {
+		StubMapping ordersGet = aMapping(1, "/orders/1", 200);
+		inMemoryStubMappings.addMapping(ordersGet);
+		StubMapping ordersMissing = aMapping(1, "/orders/2", 404);
+		inMemoryStubMappings.addMapping(ordersMissing);
+		StubMapping ordersInScenario = aMapping(1, "/orders/3", 200);
+		ordersInScenario.setScenarioName("Orders");
+		inMemoryStubMappings.addMapping(ordersInScenario);
+		inMemoryStubMappings.addMapping(aMapping(1, "/customers/1", 200));
+
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withUrlPrefix("/orders/"))), contains("/orders/3", "/orders/2", "/orders/1"));
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withUrl("/orders/2"))), contains("/orders/2"));
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withUrlPrefix("/orders/").withStatus(200))), contains("/orders/3", "/orders/1"));
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().inScenario("Orders"))), contains("/orders/3"));
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withMethod(ANY).withStatus(404))), contains("/orders/2"));
+		assertThat(inMemoryStubMappings.search(allStubs().withMethod(GET)), hasSize(4));
+		assertThat(inMemoryStubMappings.search(allStubs()), hasSize(4));
+	}
+
+	@Test
+	public void searchFindsStubsForAnyMethodAlongsideThoseForTheGivenMethod() {
+		inMemoryStubMappings.addMapping(new StubMapping(newRequestPattern(GET, urlEqualTo("/get")).build(), new ResponseDefinition()));
+		inMemoryStubMappings.addMapping(new StubMapping(newRequestPattern(POST, urlEqualTo("/post")).build(), new ResponseDefinition()));
+		inMemoryStubMappings.addMapping(aMapping(1, "/any"));
+
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withMethod(GET))), contains("/any", "/get"));
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withMethod(ANY))), contains("/any"));
+	}
+
+	@Test
+	public void searchByUrlOnlyFindsStubsMatchingAUrlOrUrlPathExactly() {
+		inMemoryStubMappings.addMapping(new StubMapping(newRequestPattern(ANY, urlPathEqualTo("/orders/path")).build(), new ResponseDefinition()));
+		inMemoryStubMappings.addMapping(new StubMapping(newRequestPattern(ANY, urlMatching("/orders/.*")).build(), new ResponseDefinition()));
+		inMemoryStubMappings.addMapping(new StubMapping(newRequestPattern(ANY, urlPathMatching("/orders/.*")).build(), new ResponseDefinition()));
+
+		List<StubMapping> found = inMemoryStubMappings.search(allStubs().withUrlPrefix("/orders/"));
+
+		assertThat(found, hasSize(1));
+		assertThat(found.get(0).getRequest().getUrlPath(), is("/orders/path"));
+		assertThat(inMemoryStubMappings.search(allStubs().withUrl("/orders/.*")), hasSize(0));
+	}
+
+	@Test
+	public void searchReflectsChangesToTheMappings() {
+		StubMapping mapping = aMapping(1, "/orders/1", 200);
+		inMemoryStubMappings.addMapping(mapping);
+		assertThat(inMemoryStubMappings.search(allStubs().withUrlPrefix("/orders")), hasSize(1));
+
+		inMemoryStubMappings.addMapping(aMapping(1, "/orders/2", 200));
+		inMemoryStubMappings.removeMapping(mapping);
+
+		assertThat(urlsOf(inMemoryStubMappings.search(allStubs().withUrlPrefix("/orders"))), contains("/orders/2"));
+	}
+
+	private static List<String> urlsOf(List<StubMapping> mappings) {
+		List<String> urls = new ArrayList<>();
+		for (StubMapping mapping: mappings) {
+			urls.add(mapping.getRequest().getUrl());
+		}
+		return urls;
+	}
+
+	private InMemoryStubMappings cachingStubMappings() {
+		return new InMemoryStubMappings(
+			Collections.<String, RequestMatcherExtension>emptyMap(),
+			Collections.<String, ResponseDefinitionTransformer>emptyMap(),
+			new SingleRootFileSource("."),
+			new StubMatchCache(100),
+			PrecompressedBodyCache.disabled()
+		);
+	}
+
+	private StubMapping aMapping(Integer priority, String url, int status) {
+		StubMapping mapping = aMapping(priority, url);
+		mapping.setResponse(new ResponseDefinition(status, ""));
+		return mapping;
+	}
+
 	private StubMapping aMapping(Integer priority, String url) {
 		RequestPattern requestPattern = newRequestPattern(ANY, urlEqualTo(url)).build();
 		StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
@@ -24,11 +24,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Iterator;
+import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.http.RequestMethod.ANY;
 import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.newRequestPattern;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.hasExactly;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -135,6 +137,148 @@ public class SortedConcurrentMappingSetTest {
 		assertThat(it.hasNext(), is(false));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void replacesAllMappingsAtOnceInPriorityThenInsertionOrder() {
+		mappingSet.add(aMapping(1, "/old"));
+
+		mappingSet.replaceAll(asList(
+				aMapping(3, "/priority3/1"),
+				aMapping(1, "/priority1/1"),
+				aMapping(3, "/priority3/2"),
+				aMapping(1, "/priority1/2")));
+
+		assertThat(mappingSet, hasExactly(
+				requestUrlIs("/priority1/2"),
+				requestUrlIs("/priority1/1"),
+				requestUrlIs("/priority3/2"),
+				requestUrlIs("/priority3/1")));
+	}
+
+	@Test
+	public void incrementsTheVersionOnEveryChange() {
+		long initialVersion = mappingSet.getVersion();
+
+		StubMapping mapping = aMapping(1, "/one");
+		mappingSet.add(mapping);
+		mappingSet.replace(mapping, aMapping(1, "/two"));
+		mappingSet.replaceAll(asList(aMapping(1, "/three")));
+		mappingSet.clear();
+
+		assertThat(mappingSet.getVersion(), is(initialVersion + 4));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void restoresASnapshotTakenFromAnotherSet() {
+		SortedConcurrentMappingSet defaults = new SortedConcurrentMappingSet();
+		StubMapping defaultMapping = aMapping(1, "/default");
+		defaults.add(aMapping(1, "/other-default"));
+		defaults.add(defaultMapping);
+		SortedConcurrentMappingSet.Snapshot snapshot = defaults.snapshot();
+
+		mappingSet.add(aMapping(1, "/replaced"));
+		long version = mappingSet.getVersion();
+		mappingSet.restore(snapshot);
+		mappingSet.add(aMapping(1, "/added"));
+
+		assertThat(mappingSet, hasExactly(
+				requestUrlIs("/added"),
+				requestUrlIs("/default"),
+				requestUrlIs("/other-default")));
+		assertThat(mappingSet.get(defaultMapping.getId()).get(), is(defaultMapping));
+		assertThat(mappingSet.getVersion(), is(version + 2));
+		assertThat(defaults.size(), is(2));
+	}
+
+	@Test
+	public void iteratorIsUnaffectedByLaterChanges() {
+		mappingSet.add(aMapping(1, "/one"));
+
+		Iterator<StubMapping> it = mappingSet.iterator();
+		mappingSet.add(aMapping(1, "/two"));
+		mappingSet.clear();
+
+		assertThat(it.next().getRequest().getUrl(), is("/one"));
+		assertThat(it.hasNext(), is(false));
+	}
+
+	@Test
+	public void findsMappingsById() {
+		StubMapping one = aMapping(1, "/one");
+		StubMapping two = aMapping(1, "/two");
+		mappingSet.add(one);
+		mappingSet.add(two);
+
+		assertThat(mappingSet.get(two.getId()).get(), is(two));
+		assertThat(mappingSet.get(UUID.randomUUID()).isPresent(), is(false));
+
+		mappingSet.remove(two);
+		assertThat(mappingSet.get(two.getId()).isPresent(), is(false));
+		assertThat(mappingSet.get(one.getId()).get(), is(one));
+	}
+
+	@Test
+	public void removesOnlyTheMappingWithTheGivenIdWhenRequestPatternsAreTheSame() {
+		StubMapping one = aMapping(1, "/same");
+		StubMapping two = aMapping(1, "/same");
+		mappingSet.add(one);
+		mappingSet.add(two);
+
+		assertThat(mappingSet.remove(one), is(true));
+
+		Iterator<StubMapping> it = mappingSet.iterator();
+		assertThat(it.next(), is(two));
+		assertThat(it.hasNext(), is(false));
+	}
+
+	@Test
+	public void addingAMappingWithAnExistingIdReplacesIt() {
+		StubMapping original = aMapping(1, "/original");
+		mappingSet.add(original);
+
+		StubMapping replacement = aMapping(1, "/replacement");
+		replacement.setId(original.getId());
+		mappingSet.add(replacement);
+
+		assertThat(mappingSet.size(), is(1));
+		assertThat(mappingSet.get(original.getId()).get(), is(replacement));
+	}
+
+	@Test
+	public void replaceUpdatesTheIdIndex() {
+		StubMapping existingMapping = aMapping(1, "/existing");
+		mappingSet.add(existingMapping);
+
+		StubMapping newMapping = aMapping(1, "/new");
+		mappingSet.replace(existingMapping, newMapping);
+
+		assertThat(mappingSet.get(existingMapping.getId()).isPresent(), is(false));
+		assertThat(mappingSet.get(newMapping.getId()).get(), is(newMapping));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void addsABatchOfMappingsAsIfAddedOneAtATime() {
+		StubMapping replaced = aMapping(1, "/replaced");
+		mappingSet.add(aMapping(2, "/existing"));
+		mappingSet.add(replaced);
+
+		StubMapping replacement = aMapping(1, "/replacement");
+		replacement.setId(replaced.getId());
+		mappingSet.addAll(asList(
+				aMapping(2, "/batch/1"),
+				replacement,
+				aMapping(1, "/batch/2")));
+
+		assertThat(mappingSet, hasExactly(
+				requestUrlIs("/batch/2"),
+				requestUrlIs("/replacement"),
+				requestUrlIs("/batch/1"),
+				requestUrlIs("/existing")));
+		assertThat(mappingSet.get(replaced.getId()).get(), is(replacement));
+	}
+
 	private StubMapping aMapping(Integer priority, String url) {
 		RequestPattern requestPattern = newRequestPattern(ANY, urlEqualTo(url)).build();
 		StubMapping mapping = new StubMapping(requestPattern, new ResponseDefinition());
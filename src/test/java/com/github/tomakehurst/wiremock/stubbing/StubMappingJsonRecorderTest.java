@@ -43,6 +43,7 @@ import static com.github.tomakehurst.wiremock.http.Response.response;
 import static com.github.tomakehurst.wiremock.testsupport.WireMatchers.equalToJson;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Lists.transform;
+import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.skyscreamer.jsonassert.JSONCompareMode.STRICT_ORDER;
@@ -68,7 +69,7 @@ public class StubMappingJsonRecorderTest {
 	}
 
     private void constructRecordingListener(List<String> headersToRecord) {
-        listener = new StubMappingJsonRecorder(mappingsFileSource, filesFileSource, admin, transform(headersToRecord, TO_CASE_INSENSITIVE_KEYS));
+        listener = new StubMappingJsonRecorder(mappingsFileSource, filesFileSource, transform(headersToRecord, TO_CASE_INSENSITIVE_KEYS));
         listener.setIdGenerator(fixedIdGenerator("1$2!3"));
     }
 
@@ -153,16 +154,18 @@ public class StubMappingJsonRecorderTest {
 	@Test
 	public void doesNotWriteFileIfRequestAlreadyReceived() {
 	    context.checking(new Expectations() {{
-            atLeast(1).of(admin).countRequestsMatching(with(any(RequestPattern.class))); will(returnValue(VerificationResult.withCount(1)));
-            never(mappingsFileSource).writeTextFile(with(any(String.class)), with(any(String.class)));
-            never(filesFileSource).writeTextFile(with(any(String.class)), with(any(String.class)));
+            never(admin).countRequestsMatching(with(any(RequestPattern.class)));
+            one(mappingsFileSource).writeTextFile(with(any(String.class)), with(any(String.class)));
+            one(filesFileSource).writeBinaryFile(with(any(String.class)), with(any(byte[].class)));
         }});
-	    
-	    listener.requestReceived(new MockRequestBuilder(context)
-                .withMethod(RequestMethod.GET)
-                .withUrl("/headered/content")
-                .build(),
-            response().fromProxy(true).status(200).build());
+
+	    for (String name: asList("first", "repeat")) {
+	        listener.requestReceived(new MockRequestBuilder(context, name)
+                    .withMethod(RequestMethod.GET)
+                    .withUrl("/headered/content")
+                    .build(),
+                response().fromProxy(true).status(200).body("anything").build());
+        }
 	}
 	
 	@Test
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static com.google.common.collect.Lists.transform;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class FileRequestJournalTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void readsBackJournaledServeEventsInJournalOrderAndDateRangesInLoggedDateOrder() {
+        PagedRequestJournal journal = journal(4096, 4096, Optional.<Integer>absent());
+        ServeEvent first = loggedAt(GET, "/first", 1000);
+        ServeEvent second = loggedAt(POST, "/second", 2000);
+        ServeEvent third = loggedAt(GET, "/third", 3000);
+
+        journal.requestReceived(first);
+        journal.requestReceived(third);
+        journal.requestReceived(second);
+
+        assertThat(journal.getServeEventCount(), is(3));
+        assertThat(urlsOf(journal.getAllServeEvents()), contains("/second", "/third", "/first"));
+        assertThat(urlsOf(journal.getNewestServeEvents(1)), contains("/second"));
+        assertThat(urlsOf(journal.getServeEventsSince(first.getId(), 10).get()), contains("/second", "/third"));
+        assertThat(urlsOf(journal.getServeEventsSince(first.getId(), 1).get()), contains("/third"));
+        assertThat(journal.getServeEventsSince(UUID.randomUUID(), 10).isPresent(), is(false));
+        assertThat(urlsOf(journal.getServeEventsBetween(new Date(1000), new Date(3000), 10)), contains("/second"));
+        assertThat(urlsOf(journal.getServeEventsBetween(null, null, 10)), contains("/third", "/second", "/first"));
+        assertThat(journal.getServeEvent(second.getId()).get().getRequest().getMethod(), is(POST));
+    }
+
+    @Test
+    public void findsRequestsMatchingPatterns() {
+        PagedRequestJournal journal = journal(4096, 4096, Optional.<Integer>absent());
+        journal.requestReceived(loggedAt(GET, "/one", 1000));
+        journal.requestReceived(loggedAt(POST, "/one", 2000));
+        journal.requestReceived(loggedAt(GET, "/two", 3000));
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/one")).build()), is(1));
+        assertThat(journal.countRequestsMatching(postRequestedFor(urlEqualTo("/two")).build()), is(0));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlMatching("/.*")).build()), is(2));
+        assertThat(journal.getRequestsMatching(postRequestedFor(urlEqualTo("/one")).build()).get(0).getLoggedDate(), is(new Date(2000)));
+    }
+
+    @Test
+    public void deletesTheOldestSegmentsWhenTheJournalGrowsTooLarge() {
+        PagedRequestJournal journal = journal(1024, 2048, Optional.<Integer>absent());
+        ServeEvent first = loggedAt(GET, "/0", 0);
+        journal.requestReceived(first);
+        for (int i = 1; i < 50; i++) {
+            journal.requestReceived(loggedAt(GET, "/" + i, i));
+        }
+
+        assertThat(segmentFiles().length, is(2));
+        List<ServeEvent> remaining = journal.getAllServeEvents();
+        assertThat(remaining.size(), lessThan(50));
+        assertThat(remaining.get(0).getRequest().getUrl(), is("/49"));
+        assertThat(journal.getServeEvent(first.getId()).isPresent(), is(false));
+        assertThat(journal.getServeEventCount(), is(remaining.size()));
+    }
+
+    @Test
+    public void discardsEntriesBeyondTheMaximumAndDeletesSegmentsLeftEmpty() {
+        PagedRequestJournal journal = journal(1024, 1024 * 1024, Optional.of(3));
+        for (int i = 0; i < 50; i++) {
+            journal.requestReceived(loggedAt(GET, "/" + i, i));
+        }
+
+        assertThat(urlsOf(journal.getAllServeEvents()), contains("/49", "/48", "/47"));
+        assertThat(segmentFiles().length, lessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void deletesSegmentFilesOnReset() {
+        PagedRequestJournal journal = journal(1024, 4096, Optional.<Integer>absent());
+        journal.requestReceived(loggedAt(GET, "/thing", 1000));
+
+        journal.reset();
+
+        assertThat(segmentFiles().length, is(0));
+        assertThat(journal.getAllServeEvents(), is(empty()));
+    }
+
+    @Test
+    public void startsWithAnEmptyJournalWhenFilesAreLeftFromAPreviousRun() {
+        RequestJournal previous = journal(1024, 4096, Optional.<Integer>absent());
+        previous.requestReceived(loggedAt(GET, "/thing", 1000));
+
+        PagedRequestJournal journal = journal(1024, 4096, Optional.<Integer>absent());
+
+        assertThat(segmentFiles().length, is(0));
+        assertThat(journal.getServeEventCount(), is(0));
+    }
+
+    @Test
+    public void appliesTheMaximumAgeOnReadsWhenNothingIsBeingWritten() throws Exception {
+        PagedRequestJournal journal = new FileRequestJournal(
+            new FileRequestJournalSettings(tempDir.getRoot(), 1024, 4096, Optional.of(50L)),
+            Optional.<Integer>absent()
+        );
+        journal.requestReceived(loggedAt(GET, "/thing", 1000));
+
+        Thread.sleep(100);
+
+        assertThat(journal.getAllServeEvents(), is(empty()));
+        assertThat(journal.getServeEventCount(), is(0));
+        assertThat(segmentFiles().length, is(0));
+    }
+
+    @Test
+    public void deletesSegmentFilesOnCloseAndCanStillBeWrittenTo() {
+        FileRequestJournal journal = (FileRequestJournal) journal(1024, 4096, Optional.<Integer>absent());
+        journal.requestReceived(loggedAt(GET, "/before", 1000));
+
+        journal.close();
+
+        assertThat(segmentFiles().length, is(0));
+        journal.requestReceived(loggedAt(GET, "/after", 2000));
+        assertThat(urlsOf(journal.getAllServeEvents()), contains("/after"));
+    }
+
+    private PagedRequestJournal journal(long segmentSize, long maxBytes, Optional<Integer> maxEntries) {
+        return new FileRequestJournal(
+            new FileRequestJournalSettings(tempDir.getRoot(), segmentSize, maxBytes, Optional.<Long>absent()),
+            maxEntries
+        );
+    }
+
+    private File[] segmentFiles() {
+        return tempDir.getRoot().listFiles();
+    }
+
+    private static List<String> urlsOf(List<ServeEvent> serveEvents) {
+        return transform(serveEvents, new Function<ServeEvent, String>() {
+            @Override
+            public String apply(ServeEvent serveEvent) {
+                return serveEvent.getRequest().getUrl();
+            }
+        });
+    }
+
+    private static ServeEvent loggedAt(RequestMethod method, String url, long time) {
+        return ServeEvent.forUnmatchedRequest(new LoggedRequest(url, "http://localhost" + url, method, "127.0.0.1", null, null, false, new Date(time), null, null));
+    }
+}
@@ -17,15 +17,24 @@ package com.github.tomakehurst.wiremock.verification;
 
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
 import org.jmock.Mockery;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
 import static com.github.tomakehurst.wiremock.matching.RequestPattern.everything;
 import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
 import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -87,4 +96,111 @@ public class InMemoryRequestJournalTest {
         assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging2")).build()), is(1));
         assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/logging3")).build()), is(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readsTheNewestEventsFirst() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.<Integer>absent());
+        ServeEvent first = loggedAt("/first", 1000);
+        ServeEvent second = loggedAt("/second", 2000);
+        ServeEvent third = loggedAt("/third", 3000);
+
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+        journal.requestReceived(third);
+
+        assertThat(journal.getNewestServeEvents(2), contains(third, second));
+        assertThat(journal.getNewestServeEvents(10), contains(third, second, first));
+        assertThat(journal.getAllServeEvents(), contains(third, second, first));
+        assertThat(journal.getServeEventCount(), is(3));
+    }
+
+    @Test
+    public void readsTheEarliestEventsSinceAGivenEvent() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.of(3));
+        ServeEvent first = loggedAt("/first", 1000);
+        ServeEvent second = loggedAt("/second", 2000);
+        ServeEvent third = loggedAt("/third", 3000);
+        ServeEvent fourth = loggedAt("/fourth", 4000);
+
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+        journal.requestReceived(third);
+
+        assertThat(journal.getServeEventsSince(first.getId(), 10).get(), contains(third, second));
+        assertThat(journal.getServeEventsSince(first.getId(), 1).get(), contains(second));
+        assertThat(journal.getServeEventsSince(third.getId(), 10).get(), is(empty()));
+
+        journal.requestReceived(fourth);
+        assertThat(journal.getServeEventsSince(second.getId(), 10).get(), contains(fourth, third));
+        assertThat(journal.getServeEventsSince(second.getId(), 1).get(), contains(third));
+        assertThat(journal.getServeEvent(first.getId()).isPresent(), is(false));
+        assertThat(journal.getServeEvent(second.getId()).get(), is(second));
+    }
+
+    @Test
+    public void readsNothingSinceAnEventThatIsNoLongerInTheJournal() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.of(1));
+        ServeEvent first = loggedAt("/first", 1000);
+        journal.requestReceived(first);
+        journal.requestReceived(loggedAt("/second", 2000));
+
+        assertThat(journal.getServeEventsSince(first.getId(), 10).isPresent(), is(false));
+        assertThat(journal.getServeEventsSince(UUID.randomUUID(), 10).isPresent(), is(false));
+    }
+
+    @Test
+    public void readsEventsLoggedBetweenTwoDates() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.<Integer>absent());
+        ServeEvent first = loggedAt("/first", 1000);
+        ServeEvent second = loggedAt("/second", 2000);
+        ServeEvent third = loggedAt("/third", 3000);
+        ServeEvent fourth = loggedAt("/fourth", 4000);
+
+        journal.requestReceived(first);
+        journal.requestReceived(second);
+        journal.requestReceived(third);
+        journal.requestReceived(fourth);
+
+        assertThat(journal.getServeEventsBetween(new Date(1000), new Date(4000), 10), contains(third, second));
+        assertThat(journal.getServeEventsBetween(new Date(1500), null, 2), contains(fourth, third));
+        assertThat(journal.getServeEventsBetween(null, new Date(2500), 10), contains(second, first));
+    }
+
+    @Test
+    public void pagesInJournalOrderButReadsDateRangesInLoggedDateOrderWhenEventsAreJournaledOutOfOrder() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.<Integer>absent());
+        ServeEvent first = loggedAt("/first", 1000);
+        ServeEvent second = loggedAt("/second", 2000);
+        ServeEvent third = loggedAt("/third", 3000);
+
+        journal.requestReceived(first);
+        journal.requestReceived(third);
+        journal.requestReceived(second);
+
+        assertThat(journal.getAllServeEvents(), contains(second, third, first));
+        assertThat(journal.getServeEventsSince(third.getId(), 10).get(), contains(second));
+        assertThat(journal.getServeEventsBetween(new Date(1500), new Date(2500), 10), contains(second));
+        assertThat(journal.getServeEventsBetween(new Date(500), null, 10), contains(third, second, first));
+    }
+
+    @Test
+    public void evictsTheOldestEventsOnceFull() {
+        PagedRequestJournal journal = new InMemoryRequestJournal(Optional.of(20));
+        List<ServeEvent> logged = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ServeEvent serveEvent = loggedAt("/" + i, i * 1000);
+            logged.add(serveEvent);
+            journal.requestReceived(serveEvent);
+        }
+
+        List<ServeEvent> newestFirst = Lists.reverse(logged.subList(30, 50));
+        assertThat(journal.getAllServeEvents(), is(newestFirst));
+        assertThat(journal.getNewestServeEvents(5), is(newestFirst.subList(0, 5)));
+        assertThat(journal.getServeEventsBetween(new Date(34500), new Date(40000), 10), is(newestFirst.subList(10, 15)));
+        assertThat(journal.countRequestsMatching(everything()), is(20));
+    }
+
+    private static ServeEvent loggedAt(String url, long time) {
+        return ServeEvent.of(new LoggedRequest(url, "http://localhost" + url, GET, "127.0.0.1", null, null, false, new Date(time), null, null), null);
+    }
+}
@@ -195,4 +195,23 @@ public class LoggedRequestTest {
         assertEquals("test-param-2", req.queryParameter("test-param-2").key());
         assertEquals("value-2" , req.queryParameter("test-param-2").firstValue());
     }
+
+    @Test
+    public void parsesQueryParametersFromTheUrlOnlyOnce() {
+        LoggedRequest req = new LoggedRequest(
+                "/sample/path?test-param-1=value-1",
+                "http://ex.ample/sample/path?test-param-1=value-1",
+                RequestMethod.GET,
+                "0.0.0.0",
+                null,
+                null,
+                true,
+                new Date(0),
+                null,
+                null);
+
+        assertEquals("value-1", req.queryParameter("test-param-1").firstValue());
+        assertSame(req.queryParameter("test-param-1"), req.queryParameter("test-param-1"));
+        assertSame(req.getQueryParams(), req.getQueryParams());
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.matching.RequestPattern.everything;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SelectiveRequestJournalTest {
+
+    private final InMemoryRequestJournal delegate = new InMemoryRequestJournal(Optional.<Integer>absent());
+
+    @Test
+    public void journalsOneInEveryNMatchedRequestsAndAllUnmatchedOnes() {
+        SelectiveRequestJournal journal = new SelectiveRequestJournal(delegate, new JournalingPolicy(3, false, JournalingPolicy.UNLIMITED));
+
+        for (int i = 0; i < 9; i++) {
+            journal.requestReceived(matched("/matched", new StubMapping()));
+            journal.requestReceived(unmatched("/unmatched"));
+        }
+
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/matched")).build()), is(3));
+        assertThat(journal.countRequestsMatching(getRequestedFor(urlEqualTo("/unmatched")).build()), is(9));
+        assertThat(journal.getDroppedCount(), is(6L));
+    }
+
+    @Test
+    public void journalsOnlyUnmatchedRequestsWhenConfiguredTo() {
+        SelectiveRequestJournal journal = new SelectiveRequestJournal(delegate, new JournalingPolicy(1, true, JournalingPolicy.UNLIMITED));
+
+        journal.requestReceived(matched("/matched", new StubMapping()));
+        journal.requestReceived(unmatched("/unmatched"));
+
+        assertThat(journal.getServeEventCount(), is(1));
+        assertThat(journal.getAllServeEvents().get(0).getRequest().getUrl(), is("/unmatched"));
+        assertThat(journal.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void doesNotJournalRequestsServedByStubsExcludedFromTheJournal() {
+        SelectiveRequestJournal journal = new SelectiveRequestJournal(delegate, JournalingPolicy.RECORD_ALL);
+        StubMapping excluded = new StubMapping();
+        excluded.setExcludedFromJournal(true);
+
+        journal.requestReceived(matched("/excluded", excluded));
+        journal.requestReceived(matched("/included", new StubMapping()));
+
+        assertThat(journal.countRequestsMatching(everything()), is(1));
+        assertThat(journal.getExcludedCount(), is(1L));
+        assertThat(journal.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void journalsNoMoreThanTheMaximumPerSecond() {
+        SelectiveRequestJournal journal = new SelectiveRequestJournal(delegate, new JournalingPolicy(1, false, 5));
+
+        for (int i = 0; i < 50; i++) {
+            journal.requestReceived(unmatched("/unmatched"));
+        }
+
+        assertThat(journal.getServeEventCount() < 10, is(true));
+        assertThat(journal.getDroppedCount(), is(50L - journal.getServeEventCount()));
+    }
+
+    @Test
+    public void resetClearsTheDroppedCount() {
+        SelectiveRequestJournal journal = new SelectiveRequestJournal(delegate, new JournalingPolicy(1, true, JournalingPolicy.UNLIMITED));
+        journal.requestReceived(matched("/matched", new StubMapping()));
+
+        journal.reset();
+
+        assertThat(journal.getDroppedCount(), is(0L));
+    }
+
+    private static ServeEvent matched(String url, StubMapping stubMapping) {
+        return ServeEvent.of(loggedRequest(url), ResponseDefinition.ok(), stubMapping);
+    }
+
+    private static ServeEvent unmatched(String url) {
+        return ServeEvent.forUnmatchedRequest(loggedRequest(url));
+    }
+
+    private static LoggedRequest loggedRequest(String url) {
+        return new LoggedRequest(url, "http://localhost" + url, GET, "127.0.0.1", null, null, false, new Date(), null, null);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.ValueMatcher;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.GET;
+import static com.github.tomakehurst.wiremock.matching.RequestPatternBuilder.forCustomMatcher;
+import static com.github.tomakehurst.wiremock.http.RequestMethod.POST;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ServeEventBroadcasterTest {
+
+    private ServeEventBroadcaster broadcaster;
+
+    @Before
+    public void init() {
+        broadcaster = new ServeEventBroadcaster(2, 2);
+    }
+
+    @Test
+    public void publishesEventsToEverySubscriber() throws Exception {
+        ServeEventSubscription first = broadcaster.subscribe(null);
+        ServeEventSubscription second = broadcaster.subscribe(null);
+        ServeEvent serveEvent = served(GET, "/thing");
+
+        broadcaster.publish(serveEvent);
+
+        assertThat(first.poll(100, MILLISECONDS), sameInstance(serveEvent));
+        assertThat(second.poll(100, MILLISECONDS), sameInstance(serveEvent));
+    }
+
+    @Test
+    public void dropsAndCountsEventsWhenTheSubscriberFallsBehind() throws Exception {
+        ServeEventSubscription subscription = broadcaster.subscribe(null);
+        ServeEvent one = served(GET, "/1");
+        ServeEvent two = served(GET, "/2");
+
+        broadcaster.publish(one);
+        broadcaster.publish(two);
+        broadcaster.publish(served(GET, "/3"));
+        broadcaster.publish(served(GET, "/4"));
+
+        assertThat(subscription.takeDroppedCount(), is(2L));
+        assertThat(subscription.takeDroppedCount(), is(0L));
+        assertThat(subscription.poll(100, MILLISECONDS), sameInstance(one));
+        assertThat(subscription.poll(100, MILLISECONDS), sameInstance(two));
+        assertThat(subscription.poll(10, MILLISECONDS), nullValue());
+    }
+
+    @Test
+    public void onlyReturnsEventsMatchingTheFilter() throws Exception {
+        ServeEventSubscription subscription = broadcaster.subscribe(postRequestedFor(urlEqualTo("/match")).build());
+        ServeEvent matching = served(POST, "/match");
+
+        broadcaster.publish(served(GET, "/match"));
+        broadcaster.publish(matching);
+
+        assertThat(subscription.poll(100, MILLISECONDS), sameInstance(matching));
+    }
+
+    @Test
+    public void matchesTheFilterOnTheSubscribersThreadRatherThanThePublishers() throws Exception {
+        final List<Thread> matchingThreads = new CopyOnWriteArrayList<>();
+        ServeEventSubscription subscription = broadcaster.subscribe(forCustomMatcher(new ValueMatcher<Request>() {
+            @Override
+            public MatchResult match(Request request) {
+                matchingThreads.add(Thread.currentThread());
+                return MatchResult.exactMatch();
+            }
+        }).build());
+        final ServeEvent serveEvent = served(GET, "/thing");
+
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                broadcaster.publish(serveEvent);
+            }
+        });
+        publisher.start();
+        publisher.join();
+
+        assertThat(matchingThreads.isEmpty(), is(true));
+        assertThat(subscription.poll(100, MILLISECONDS), sameInstance(serveEvent));
+        assertThat(matchingThreads, everyItem(sameInstance(Thread.currentThread())));
+    }
+
+    @Test(expected = ServeEventBroadcaster.TooManySubscribersException.class)
+    public void refusesSubscribersBeyondTheLimit() {
+        broadcaster.subscribe(null);
+        broadcaster.subscribe(null);
+        broadcaster.subscribe(null);
+    }
+
+    @Test
+    public void closingASubscriptionStopsDeliveryAndFreesItsPlace() throws Exception {
+        ServeEventSubscription subscription = broadcaster.subscribe(null);
+        broadcaster.subscribe(null);
+
+        subscription.close();
+        broadcaster.publish(served(GET, "/thing"));
+
+        assertThat(subscription.poll(10, MILLISECONDS), nullValue());
+        assertThat(broadcaster.getSubscriberCount(), is(1));
+        broadcaster.subscribe(null);
+    }
+
+    private static ServeEvent served(RequestMethod method, String url) {
+        return ServeEvent.of(new LoggedRequest(url, "http://localhost" + url, method, "127.0.0.1", null, null, false, new Date(), null, null), null);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2011 Thomas Akehurst
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.tomakehurst.wiremock.verification;
+
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.testsupport.MockRequestBuilder.aRequest;
+import static com.github.tomakehurst.wiremock.verification.LoggedRequest.createFrom;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ServeEventCompactorTest {
+
+    private Mockery context;
+    private int requestCount;
+
+    @Before
+    public void init() {
+        context = new Mockery();
+    }
+
+    @Test
+    public void truncatesRequestBodiesBeyondTheMaximumSize() {
+        ServeEventCompactor compactor = new ServeEventCompactor(5, false);
+
+        LoggedRequest request = compactor.compact(serveEventWithBody("0123456789")).getRequest();
+
+        assertThat(request.getBodyAsString(), is("01234"));
+        assertThat(request.getOriginalBodyLength(), is(10));
+        assertThat(request.isBodyTruncated(), is(true));
+    }
+
+    @Test
+    public void leavesRequestBodiesWithinTheMaximumSizeAlone() {
+        ServeEventCompactor compactor = new ServeEventCompactor(10, false);
+
+        LoggedRequest request = compactor.compact(serveEventWithBody("0123456789")).getRequest();
+
+        assertThat(request.getBodyAsString(), is("0123456789"));
+        assertThat(request.getOriginalBodyLength(), nullValue());
+        assertThat(request.isBodyTruncated(), is(false));
+    }
+
+    @Test
+    public void sharesIdenticalBodiesAndHeadersWhenDeduplicating() {
+        ServeEventCompactor compactor = new ServeEventCompactor(ServeEventCompactor.UNLIMITED, true);
+
+        LoggedRequest first = compactor.compact(serveEventWithBody("{\"same\": true}")).getRequest();
+        LoggedRequest second = compactor.compact(serveEventWithBody("{\"same\": true}")).getRequest();
+
+        assertThat(second.getBody(), sameInstance(first.getBody()));
+        assertThat(second.getHeaders(), sameInstance(first.getHeaders()));
+        assertThat(second.getHeader("X-Trace"), is("abc"));
+    }
+
+    @Test
+    public void keepsTheOriginalBodyLengthThroughJsonSerialisation() {
+        ServeEventCompactor compactor = new ServeEventCompactor(3, false);
+        LoggedRequest request = compactor.compact(serveEventWithBody("0123456789")).getRequest();
+
+        LoggedRequest read = Json.read(Json.write(request), LoggedRequest.class);
+
+        assertThat(read.getBodyAsString(), is("012"));
+        assertThat(read.getOriginalBodyLength(), is(10));
+    }
+
+    @Test
+    public void returnsTheSameServeEventWhenThereIsNothingToCompact() {
+        ServeEvent serveEvent = serveEventWithBody("body");
+        assertThat(ServeEventCompactor.NONE.compact(serveEvent), sameInstance(serveEvent));
+    }
+
+    private ServeEvent serveEventWithBody(String body) {
+        return ServeEvent.forUnmatchedRequest(createFrom(aRequest(context, "request" + requestCount++)
+            .withUrl("/things")
+            .withHeader("X-Trace", "abc")
+            .withBody(body)
+            .build()));
+    }
+}